@@ -66,10 +66,12 @@ import org.tugraz.sysds.runtime.controlprogram.parfor.util.IDHandler;
 import org.tugraz.sysds.runtime.instructions.gpu.context.GPUContextPool;
 import org.tugraz.sysds.runtime.io.IOUtilFunctions;
 import org.tugraz.sysds.runtime.lineage.LineageCacheConfig;
+import org.tugraz.sysds.runtime.lineage.LineageCacheConfig.LineageCachePolicy;
 import org.tugraz.sysds.runtime.lineage.LineageCacheConfig.ReuseCacheType;
 import org.tugraz.sysds.runtime.util.LocalFileUtils;
 import org.tugraz.sysds.runtime.util.HDFSTool;
 import org.tugraz.sysds.utils.Explain;
+import org.tugraz.sysds.utils.InstructionProfiler;
 import org.tugraz.sysds.utils.NativeHelper;
 import org.tugraz.sysds.utils.Statistics;
 import org.tugraz.sysds.utils.Explain.ExplainCounts;
@@ -81,6 +83,7 @@ public class DMLScript
 	private static ExecMode   EXEC_MODE          = DMLOptions.defaultOptions.execMode;     // the execution mode
 	public static boolean     STATISTICS          = DMLOptions.defaultOptions.stats;       // whether to print statistics
 	public static boolean     JMLC_MEM_STATISTICS = false;                                 // whether to gather memory use stats in JMLC
+	public static boolean     PROFILER            = false;                                 // whether to profile instruction latencies (independent of stats)
 	public static int         STATISTICS_COUNT    = DMLOptions.defaultOptions.statsCount;  // statistics maximum heavy hitter count
 	public static int         STATISTICS_MAX_WRAP_LEN = 30;                                // statistics maximum wrap length
 	public static ExplainType EXPLAIN             = DMLOptions.defaultOptions.explainType; // explain type
@@ -420,6 +423,13 @@ public class DMLScript
 		GPUContextPool.AVAILABLE_GPUS = dmlconf.getTextValue(DMLConfig.AVAILABLE_GPUS);
 		
 		DMLScript.STATISTICS_MAX_WRAP_LEN = dmlconf.getIntValue(DMLConfig.STATS_MAX_WRAP_LEN);
+		DMLScript.PROFILER = dmlconf.getBooleanValue(DMLConfig.STATS_PROFILER);
+		LineageCacheConfig.setCachePolicy(LineageCachePolicy.parse(dmlconf.getTextValue(DMLConfig.LINEAGECACHE_POLICY)));
+		LineageCacheConfig.setCacheBudget(dmlconf.getDoubleValue(DMLConfig.LINEAGECACHE_BUDGET));
+		LineageCacheConfig.setStore(dmlconf.getTextValue(DMLConfig.LINEAGECACHE_STORE));
+		LineageCacheConfig.setStoreSize(dmlconf.getIntValue(DMLConfig.LINEAGECACHE_STORE_SIZE));
+		CacheableData.CACHING_BUFFER_ARENA = dmlconf.getBooleanValue(DMLConfig.CACHING_ARENA);
+		CacheableData.CACHING_BUFFER_PAGECACHE = dmlconf.getBooleanValue(DMLConfig.CACHING_PAGECACHE);
 		NativeHelper.initialize(dmlconf.getTextValue(DMLConfig.NATIVE_BLAS_DIR), dmlconf.getTextValue(DMLConfig.NATIVE_BLAS).trim());
 		
 		DMLScript.SYNCHRONIZE_GPU = dmlconf.getBooleanValue(DMLConfig.SYNCHRONIZE_GPU);
@@ -470,6 +480,8 @@ public class DMLScript
 		Statistics.resetNoOfExecutedJobs();
 		if( STATISTICS )
 			Statistics.reset();
+		if( PROFILER )
+			InstructionProfiler.reset();
 	}
 	
 	public static void cleanupHadoopExecution( DMLConfig config ) 
@@ -34,6 +34,8 @@ import org.tugraz.sysds.runtime.instructions.cp.Data;
 import org.tugraz.sysds.runtime.instructions.gpu.context.GPUContext;
 import org.tugraz.sysds.runtime.instructions.gpu.context.GPUContextPool;
 import org.tugraz.sysds.runtime.instructions.gpu.context.GPUObject;
+import org.tugraz.sysds.runtime.lineage.LineageCache;
+import org.tugraz.sysds.utils.InstructionProfiler;
 import org.tugraz.sysds.utils.Statistics;
 
 public class ScriptExecutorUtils {
@@ -119,6 +121,14 @@ public class ScriptExecutorUtils {
 			if( ConfigurationManager.isCodegenEnabled() )
 				SpoofCompiler.cleanupCodeGenerator();
 			
+			// populate the persistent lineage cache store (if configured)
+			if( !exceptionThrown )
+				LineageCache.persistToStore();
+			
+			// export the instruction profile (if configured)
+			if( DMLScript.PROFILER && !exceptionThrown && dmlconf != null )
+				InstructionProfiler.export(dmlconf.getTextValue(DMLConfig.STATS_PROFILER_EXPORT));
+			
 			// display statistics (incl caching stats if enabled)
 			Statistics.stopRunTimer();
 			(exceptionThrown ? System.err : System.out)
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.api.jmlc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.tugraz.sysds.api.DMLException;
+import org.tugraz.sysds.runtime.controlprogram.caching.FrameObject;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.instructions.cp.Data;
+import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+
+/**
+ * Micro-batching front-end of a {@link PreparedScript} for scoring of
+ * many concurrent small (e.g., single-row) requests. Concurrent requests are
+ * collected over a short time window (or until the maximum batch size is
+ * reached), their inputs are row-appended into a single matrix or frame per
+ * batched input variable, the script is executed once via the reentrant
+ * {@link PreparedScript#executeScript(Map)}, and the results are split back
+ * per request. This amortizes the instruction interpretation overhead over
+ * the entire batch.
+ *
+ * <p>
+ * The script must be row-wise independent with regard to the batched
+ * inputs (e.g., transformapply and prediction of a model, which is bound via
+ * the setters of the prepared script with reuse=true). The caller declares the
+ * row-aligned matrix or frame outputs, which are split per request, while all
+ * other outputs (e.g., scalars or aggregates) are shared by all requests of a batch.
+ * Only requests with equal numbers of columns and frame schemas of their batched
+ * inputs are batched together, while a request with different inputs opens a new batch.
+ *
+ * <p>
+ * The first request of a batch acts as leader, which waits for further
+ * requests and executes the batch, while all other requests of the batch wait
+ * for its results. Hence, no additional threads are required, and multiple
+ * batches might execute concurrently.
+ */
+public class BatchedPreparedScript
+{
+	private final PreparedScript _pscript;
+	private final String[] _batchVars;
+	private final HashSet<String> _rowVars;
+	private final int _maxBatchSize;
+	private final long _maxWaitNanos;
+
+	//currently open batch, guarded by _lock
+	private final Object _lock = new Object();
+	private Batch _current = null;
+
+	/**
+	 * Creates a batching front-end of the given prepared script.
+	 *
+	 * @param pscript prepared script, shared by all batches
+	 * @param batchVars names of the input variables that are row-appended
+	 * @param rowVars names of the row-aligned output variables that are split per request
+	 * @param maxBatchSize maximum number of requests per batch
+	 * @param maxWait maximum time the first request of a batch waits for further requests
+	 * @param unit time unit of maxWait
+	 */
+	public BatchedPreparedScript(PreparedScript pscript, String[] batchVars, String[] rowVars, int maxBatchSize, long maxWait, TimeUnit unit) {
+		if( batchVars == null || batchVars.length == 0 )
+			throw new DMLException("Batched prepared script requires at least one batched input variable.");
+		if( maxBatchSize < 1 )
+			throw new DMLException("Invalid maximum batch size: "+maxBatchSize);
+		_pscript = pscript;
+		_batchVars = batchVars;
+		_rowVars = (rowVars != null) ? new HashSet<>(Arrays.asList(rowVars)) : new HashSet<>();
+		_maxBatchSize = maxBatchSize;
+		_maxWaitNanos = unit.toNanos(maxWait);
+	}
+
+	public PreparedScript getPreparedScript() {
+		return _pscript;
+	}
+
+	public int getMaxBatchSize() {
+		return _maxBatchSize;
+	}
+
+	/**
+	 * Scores a single request as part of a batch of concurrent requests. This
+	 * method is thread-safe, and blocks until the results of the batch are available.
+	 *
+	 * @param inputs map of batched input variable names and values, where supported
+	 *   values are MatrixBlock, FrameBlock, double[][], double[] (single row), and String[][]
+	 * @return output variables of this request
+	 */
+	public ResultVariables executeScript(Map<String, ?> inputs) {
+		Request req = new Request(inputs);
+		Batch batch = null;
+		boolean leader = false;
+
+		synchronized( _lock ) {
+			//append to open batch, or open a new batch as leader (if full,
+			//or the inputs are not appendable to the inputs of the batch)
+			if( _current == null || _current.size() >= _maxBatchSize || !_current.isAppendable(req) ) {
+				if( _current != null )
+					_lock.notifyAll(); //wake leader of the closed batch
+				_current = new Batch();
+				leader = true;
+			}
+			batch = _current;
+			batch.add(req);
+			if( batch.size() >= _maxBatchSize )
+				_lock.notifyAll();
+
+			//leader waits until batch is full or closed, or the time window elapsed
+			if( leader ) {
+				long deadline = System.nanoTime() + _maxWaitNanos;
+				long remaining = _maxWaitNanos;
+				try {
+					while( _current == batch && batch.size() < _maxBatchSize && remaining > 0 ) {
+						TimeUnit.NANOSECONDS.timedWait(_lock, remaining);
+						remaining = deadline - System.nanoTime();
+					}
+				}
+				catch(InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				if( _current == batch )
+					_current = null; //close batch
+			}
+		}
+
+		if( leader )
+			executeBatch(batch);
+		return req.getResults();
+	}
+
+	private void executeBatch(Batch batch) {
+		try {
+			//row-append the inputs of all requests
+			Map<String, Object> inputs = new HashMap<>();
+			for( String var : _batchVars )
+				inputs.put(var, rbind(batch, var));
+
+			//execute script once for the entire batch
+			ResultVariables rvars = _pscript.executeScript(inputs);
+
+			//split results per request
+			int nrow = batch.getNumRows();
+			int rl = 0;
+			for( Request req : batch.requests ) {
+				int ru = rl + req.nrow - 1;
+				ResultVariables ret = new ResultVariables();
+				for( String var : rvars.getVariableNames() )
+					ret.addResult(var, _rowVars.contains(var) ?
+						slice(rvars, var, nrow, rl, ru) : rvars.getData(var));
+				req.results.complete(ret);
+				rl = ru + 1;
+			}
+		}
+		catch(Throwable ex) {
+			for( Request req : batch.requests )
+				req.results.completeExceptionally(ex);
+		}
+	}
+
+	private static Object rbind(Batch batch, String var) {
+		Object first = batch.requests.get(0).inputs.get(var);
+		if( batch.size() == 1 )
+			return first;
+		if( first instanceof MatrixBlock ) {
+			MatrixBlock[] that = new MatrixBlock[batch.size()-1];
+			for( int i=1; i<batch.size(); i++ )
+				that[i-1] = (MatrixBlock) batch.requests.get(i).inputs.get(var);
+			return ((MatrixBlock) first).append(that, null, false);
+		}
+		else {
+			//deep copy once, and append remaining rows in place
+			FrameBlock ret = ((FrameBlock) first).append(
+				(FrameBlock) batch.requests.get(1).inputs.get(var), null, false);
+			for( int i=2; i<batch.size(); i++ ) {
+				FrameBlock fb = (FrameBlock) batch.requests.get(i).inputs.get(var);
+				Iterator<Object[]> iter = fb.getObjectRowIterator(ret.getSchema());
+				while( iter.hasNext() )
+					ret.appendRow(iter.next());
+			}
+			return ret;
+		}
+	}
+
+	private static Data slice(ResultVariables rvars, String var, int nrow, int rl, int ru) {
+		Data dat = rvars.getData(var);
+		if( dat instanceof MatrixObject ) {
+			MatrixBlock mb = rvars.getMatrixBlock(var);
+			checkNumRows(var, mb.getNumRows(), nrow);
+			return PreparedScript.createMatrixObject(mb.slice(rl, ru));
+		}
+		else if( dat instanceof FrameObject ) {
+			FrameBlock fb = rvars.getFrameBlock(var);
+			checkNumRows(var, fb.getNumRows(), nrow);
+			return PreparedScript.createFrameObject(
+				fb.slice(rl, ru, 0, fb.getNumColumns()-1, new FrameBlock()));
+		}
+		throw new DMLException("Invalid row-aligned output "+var+": "
+			+ (dat != null ? dat.getDataType().name() : "null"));
+	}
+
+	private static void checkNumRows(String var, int rows, int nrow) {
+		if( rows != nrow )
+			throw new DMLException("Invalid number of rows of row-aligned output "
+				+var+": "+rows+" (expected: "+nrow+")");
+	}
+
+	private class Request
+	{
+		private final Map<String, Object> inputs = new HashMap<>();
+		private final CompletableFuture<ResultVariables> results = new CompletableFuture<>();
+		private final int nrow;
+
+		private Request(Map<String, ?> in) {
+			if( !in.keySet().equals(new HashSet<>(Arrays.asList(_batchVars))) )
+				throw new DMLException("Invalid batched input variables: "+in.keySet()
+					+" (expected: "+Arrays.toString(_batchVars)+")");
+			int rows = -1;
+			for( String var : _batchVars ) {
+				Object block = toBlock(var, in.get(var));
+				int n = (block instanceof MatrixBlock) ?
+					((MatrixBlock) block).getNumRows() : ((FrameBlock) block).getNumRows();
+				if( n == 0 )
+					throw new DMLException("Invalid batched input "+var+" with zero rows.");
+				if( rows >= 0 && n != rows )
+					throw new DMLException("Inconsistent number of rows of batched input "+var+": "+n+" (expected: "+rows+")");
+				rows = n;
+				inputs.put(var, block);
+			}
+			nrow = rows;
+		}
+
+		private boolean isAppendable(Request that) {
+			//equal types, number of columns, and frame schemas of all batched inputs
+			for( String var : _batchVars ) {
+				Object in1 = inputs.get(var);
+				Object in2 = that.inputs.get(var);
+				if( in1 instanceof MatrixBlock ) {
+					if( !(in2 instanceof MatrixBlock) || ((MatrixBlock) in1).getNumColumns()
+						!= ((MatrixBlock) in2).getNumColumns() )
+						return false;
+				}
+				else if( !(in2 instanceof FrameBlock) || !Arrays.equals(
+					((FrameBlock) in1).getSchema(), ((FrameBlock) in2).getSchema()) )
+					return false;
+			}
+			return true;
+		}
+
+		private ResultVariables getResults() {
+			try {
+				return results.get();
+			}
+			catch(InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new DMLException(ex);
+			}
+			catch(ExecutionException ex) {
+				if( ex.getCause() instanceof RuntimeException )
+					throw (RuntimeException) ex.getCause();
+				throw new DMLException(ex.getCause());
+			}
+		}
+	}
+
+	private static Object toBlock(String var, Object value) {
+		if( value instanceof MatrixBlock || value instanceof FrameBlock )
+			return value;
+		else if( value instanceof double[][] )
+			return DataConverter.convertToMatrixBlock((double[][]) value);
+		else if( value instanceof double[] )
+			return DataConverter.convertToMatrixBlock((double[]) value, false);
+		else if( value instanceof String[][] )
+			return DataConverter.convertToFrameBlock((String[][]) value);
+		throw new DMLException("Unsupported type of batched input variable "+var+": "
+			+ (value != null ? value.getClass().getSimpleName() : "null"));
+	}
+
+	private static class Batch
+	{
+		private final List<Request> requests = new ArrayList<>();
+
+		private boolean isAppendable(Request req) {
+			return requests.get(0).isAppendable(req);
+		}
+
+		private void add(Request req) {
+			requests.add(req);
+		}
+
+		private int size() {
+			return requests.size();
+		}
+
+		private int getNumRows() {
+			return requests.stream().mapToInt(r -> r.nrow).sum();
+		}
+	}
+}
@@ -60,6 +60,8 @@ import org.tugraz.sysds.runtime.io.IOUtilFunctions;
 import org.tugraz.sysds.runtime.io.MatrixReader;
 import org.tugraz.sysds.runtime.io.MatrixReaderFactory;
 import org.tugraz.sysds.runtime.lineage.Lineage;
+import org.tugraz.sysds.runtime.lineage.LineageCache;
+import org.tugraz.sysds.runtime.lineage.LineageCacheConfig;
 import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
 import org.tugraz.sysds.runtime.matrix.data.InputInfo;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
@@ -67,6 +69,7 @@ import org.tugraz.sysds.runtime.transform.TfUtils;
 import org.tugraz.sysds.runtime.transform.meta.TfMetaUtils;
 import org.tugraz.sysds.runtime.util.DataConverter;
 import org.tugraz.sysds.runtime.util.UtilFunctions;
+import org.tugraz.sysds.utils.InstructionProfiler;
 
 /**
  * Interaction with SystemDS using the JMLC (Java Machine Learning Connector) API is initiated with
@@ -169,6 +172,8 @@ public class Connection implements Closeable
 		
 		//assign the given configuration
 		_dmlconf = dmlconfig;
+		LineageCacheConfig.setStore(dmlconfig.getTextValue(DMLConfig.LINEAGECACHE_STORE));
+		LineageCacheConfig.setStoreSize(dmlconfig.getIntValue(DMLConfig.LINEAGECACHE_STORE_SIZE));
 		
 		setLocalConfigs();
 	}
@@ -200,6 +205,33 @@ public class Connection implements Closeable
 		DMLScript.JMLC_MEM_STATISTICS = stats;
 	}
 	
+	/**
+	 * Sets a boolean flag indicating if the instruction profiler (latency
+	 * histograms, sizes and formats per opcode) should be enabled, independent
+	 * of runtime statistics. The option is false by default.
+	 * 
+	 * @param profile boolean value with true indicating instructions should be profiled
+	 */
+	public void setProfiler(boolean profile) { DMLScript.PROFILER = profile; }
+	
+	/**
+	 * Obtains a snapshot of the instruction profile, which can be sampled
+	 * concurrently to the execution of prepared scripts. Note: the profile
+	 * is not thread local and reflects execution in all threads.
+	 * 
+	 * @param prometheus true for Prometheus text format, false for JSON
+	 * @return string representation of the instruction profile
+	 */
+	public String getProfile(boolean prometheus) {
+		return prometheus ? InstructionProfiler.displayPrometheus() :
+			InstructionProfiler.displayJSON();
+	}
+	
+	/**
+	 * Resets the instruction profile of all threads.
+	 */
+	public void resetProfile() { InstructionProfiler.reset(); }
+	
 	/**
 	 * Prepares (precompiles) a script and registers input and output variables.
 	 * 
@@ -296,6 +328,8 @@ public class Connection implements Closeable
 	 */
 	@Override
 	public void close() {
+		//populate the persistent lineage cache store (if configured)
+		LineageCache.persistToStore();
 		//clear thread-local configurations
 		ConfigurationManager.clearLocalConfigs();
 		if( ConfigurationManager.isCodegenEnabled() )
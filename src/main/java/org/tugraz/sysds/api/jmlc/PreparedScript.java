@@ -62,6 +62,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
 /**
@@ -295,14 +296,8 @@ public class PreparedScript implements ConfigurableAPI
 		if( !_inVarnames.contains(varname) )
 			throw new DMLException("Unspecified input variable: "+varname);
 				
-		int blocksize = ConfigurationManager.getBlocksize();
-		
 		//create new matrix object
-		MatrixCharacteristics mc = new MatrixCharacteristics(matrix.getNumRows(), matrix.getNumColumns(), blocksize, blocksize);
-		MetaDataFormat meta = new MetaDataFormat(mc, OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo);
-		MatrixObject mo = new MatrixObject(ValueType.FP64, OptimizerUtils.getUniqueTempFileName(), meta);
-		mo.acquireModify(matrix); 
-		mo.release();
+		MatrixObject mo = createMatrixObject(matrix);
 		
 		//put create matrix wrapper into symbol table
 		_vars.put(varname, mo);
@@ -396,11 +391,7 @@ public class PreparedScript implements ConfigurableAPI
 			throw new DMLException("Unspecified input variable: "+varname);
 		
 		//create new frame object
-		MatrixCharacteristics mc = new MatrixCharacteristics(frame.getNumRows(), frame.getNumColumns(), -1, -1);
-		MetaDataFormat meta = new MetaDataFormat(mc, OutputInfo.BinaryCellOutputInfo, InputInfo.BinaryCellInputInfo);
-		FrameObject fo = new FrameObject(OptimizerUtils.getUniqueTempFileName(), meta);
-		fo.acquireModify(frame);
-		fo.release();
+		FrameObject fo = createFrameObject(frame);
 		
 		//put create matrix wrapper into symbol table
 		_vars.put(varname, fo);
@@ -428,26 +419,57 @@ public class PreparedScript implements ConfigurableAPI
 		//add reused variables
 		_vars.putAll(_inVarReuse);
 		
+		return execute(_vars, true);
+	}
+	
+	/**
+	 * Executes the prepared script in a reentrant manner with the given inputs
+	 * of this invocation. In contrast to {@link #executeScript()}, this method does
+	 * not modify the prepared script, which allows concurrent invocations of a single
+	 * prepared script by many threads without clone. Each invocation uses its own
+	 * symbol table of the given inputs and the inputs bound with reuse=true
+	 * (e.g., model weights), which are shared read-only across invocations.
+	 * Lineage traces of outputs are not maintained for reentrant invocations.
+	 * 
+	 * @param inputs map of input variable names and values, where supported values are
+	 *   MatrixBlock, FrameBlock, double[][], String[][], Boolean, Integer, Long, Double, and String
+	 * @return output variables of this invocation
+	 */
+	public ResultVariables executeScript(Map<String, ?> inputs) {
+		//create invocation-local symbol table
+		LocalVariableMap vars = new LocalVariableMap();
+		vars.setRegisteredOutputs(_outVarnames);
+		vars.putAll(_inVarReuse);
+		for( Entry<String, ?> e : inputs.entrySet() ) {
+			if( !_inVarnames.contains(e.getKey()) )
+				throw new DMLException("Unspecified input variable: "+e.getKey());
+			vars.put(e.getKey(), createInputData(e.getKey(), e.getValue()));
+		}
+		
+		return execute(vars, false);
+	}
+	
+	private ResultVariables execute(LocalVariableMap vars, boolean lineage) {
 		//set thread-local configurations
 		ConfigurationManager.setLocalConfig(_dmlconf);
 		ConfigurationManager.setLocalConfig(_cconf);
 		
 		//create and populate execution context
-		ExecutionContext ec = ExecutionContextFactory.createContext(_vars, _prog);
+		ExecutionContext ec = ExecutionContextFactory.createContext(vars, _prog);
 		
 		//core execute runtime program
 		_prog.execute(ec);
 		
 		//cleanup unnecessary outputs
-		_vars.removeAllNotIn(_outVarnames);
+		vars.removeAllNotIn(_outVarnames);
 		
 		//construct results
 		ResultVariables rvars = new ResultVariables();
 		for( String ovar : _outVarnames ) {
-			Data tmpVar = _vars.get(ovar);
+			Data tmpVar = vars.get(ovar);
 			if( tmpVar != null ) {
 				rvars.addResult(ovar, tmpVar);
-				if (ec.getLineage() != null)
+				if (lineage && ec.getLineage() != null)
 					_outVarLineage.put(ovar, Explain.explain(ec.getLineage().get(ovar)));
 			}
 		}
@@ -458,6 +480,48 @@ public class PreparedScript implements ConfigurableAPI
 		return rvars;
 	}
 	
+	private static Data createInputData(String varname, Object value) {
+		if( value instanceof Data )
+			return (Data) value;
+		else if( value instanceof MatrixBlock )
+			return createMatrixObject((MatrixBlock) value);
+		else if( value instanceof double[][] )
+			return createMatrixObject(DataConverter.convertToMatrixBlock((double[][]) value));
+		else if( value instanceof FrameBlock )
+			return createFrameObject((FrameBlock) value);
+		else if( value instanceof String[][] )
+			return createFrameObject(DataConverter.convertToFrameBlock((String[][]) value));
+		else if( value instanceof Boolean )
+			return new BooleanObject((Boolean) value);
+		else if( value instanceof Integer || value instanceof Long )
+			return new IntObject(((Number) value).longValue());
+		else if( value instanceof Double )
+			return new DoubleObject((Double) value);
+		else if( value instanceof String )
+			return new StringObject((String) value);
+		throw new DMLException("Unsupported type of input variable "+varname+": "
+			+ (value != null ? value.getClass().getSimpleName() : "null"));
+	}
+	
+	static MatrixObject createMatrixObject(MatrixBlock matrix) {
+		int blocksize = ConfigurationManager.getBlocksize();
+		MatrixCharacteristics mc = new MatrixCharacteristics(matrix.getNumRows(), matrix.getNumColumns(), blocksize, blocksize);
+		MetaDataFormat meta = new MetaDataFormat(mc, OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo);
+		MatrixObject mo = new MatrixObject(ValueType.FP64, OptimizerUtils.getUniqueTempFileName(), meta);
+		mo.acquireModify(matrix); 
+		mo.release();
+		return mo;
+	}
+	
+	static FrameObject createFrameObject(FrameBlock frame) {
+		MatrixCharacteristics mc = new MatrixCharacteristics(frame.getNumRows(), frame.getNumColumns(), -1, -1);
+		MetaDataFormat meta = new MetaDataFormat(mc, OutputInfo.BinaryCellOutputInfo, InputInfo.BinaryCellInputInfo);
+		FrameObject fo = new FrameObject(OptimizerUtils.getUniqueTempFileName(), meta);
+		fo.acquireModify(frame);
+		fo.release();
+		return fo;
+	}
+	
 	/**
 	 * Explain the DML/PyDML program and view result as a string.
 	 * 
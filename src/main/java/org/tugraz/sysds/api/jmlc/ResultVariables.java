@@ -189,6 +189,16 @@ public class ResultVariables
 		return (ScalarObject) dat;
 	}
 	
+	/**
+	 * Obtain the data of the given output variable, independent of its data type.
+	 * 
+	 * @param varname output variable name
+	 * @return data object, or null if not existing
+	 */
+	protected Data getData(String varname) {
+		return _out.get(varname);
+	}
+	
 	/**
 	 * Add the output variable name and generated output data to the ResultVariable
 	 * object. Called during the execution of {@link PreparedScript}'s
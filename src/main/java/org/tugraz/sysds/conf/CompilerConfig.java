@@ -45,6 +45,9 @@ public class CompilerConfig
 		//Enables multi-threaded operations for mm, mmchain, and tsmm, rand, wdivmm, 
 		//wsloss, wumm, wcemm, uagg, tak, and groupedaggregate.
 		PARALLEL_CP_MATRIX_OPERATIONS,
+		//Enables the concurrent execution of independent CP instructions
+		//within basic program blocks (inter-operator parallelism).
+		PARALLEL_CP_INSTRUCTIONS,
 		//Enables multi-threaded local or distributed remote parfor operators. Otherwise 
 		//parfor is restricted to parfor local with par=1.
 		PARALLEL_LOCAL_OR_REMOTE_PARFOR,
@@ -53,6 +56,9 @@ public class CompilerConfig
 		//(e.g., unknown statistics during compilation, or program blocks in functions).  
 		ALLOW_DYN_RECOMPILATION,
 		ALLOW_PARALLEL_DYN_RECOMPILATION,
+		//Max number of cached instruction plans per statement block, which are reused
+		//on dynamic recompilation with unchanged input sizes (0 disables the cache).
+		RECOMPILE_CACHE_SIZE,
 		//Enables to put operations with data-dependent output size into individual 
 		//statement blocks / program blocks. Since recompilation is done on the granularity 
 		//of program blocks this enables recompilation of subsequent operations according
@@ -93,6 +99,7 @@ public class CompilerConfig
 		_bmap.put(ConfigType.PARALLEL_CP_READ_BINARYFORMATS, FLAG_PARREADWRITE_BINARY);
 		_bmap.put(ConfigType.PARALLEL_CP_WRITE_BINARYFORMATS, FLAG_PARREADWRITE_BINARY);
 		_bmap.put(ConfigType.PARALLEL_CP_MATRIX_OPERATIONS, true);
+		_bmap.put(ConfigType.PARALLEL_CP_INSTRUCTIONS, false);
 		_bmap.put(ConfigType.PARALLEL_LOCAL_OR_REMOTE_PARFOR, true);
 		_bmap.put(ConfigType.ALLOW_DYN_RECOMPILATION,          FLAG_DYN_RECOMPILE);
 		_bmap.put(ConfigType.ALLOW_PARALLEL_DYN_RECOMPILATION, FLAG_DYN_RECOMPILE);
@@ -108,6 +115,7 @@ public class CompilerConfig
 		_imap = new HashMap<>();
 		_imap.put(ConfigType.BLOCK_SIZE, OptimizerUtils.DEFAULT_BLOCKSIZE);
 		_imap.put(ConfigType.OPT_LEVEL, OptimizerUtils.DEFAULT_OPTLEVEL.ordinal());
+		_imap.put(ConfigType.RECOMPILE_CACHE_SIZE, 8);
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -171,6 +171,14 @@ public class ConfigurationManager
 		return getCompilerConfigFlag(ConfigType.PARALLEL_CP_MATRIX_OPERATIONS);
 	}
 	
+	public static boolean isParallelInstructions() {
+		return getCompilerConfigFlag(ConfigType.PARALLEL_CP_INSTRUCTIONS);
+	}
+	
+	public static int getRecompileCacheSize() {
+		return getCompilerConfig().getInt(ConfigType.RECOMPILE_CACHE_SIZE);
+	}
+	
 	public static boolean isParallelParFor() {
 		return getCompilerConfigFlag(ConfigType.PARALLEL_LOCAL_OR_REMOTE_PARFOR);
 	}
@@ -47,6 +47,7 @@ import org.tugraz.sysds.lops.Compression;
 import org.tugraz.sysds.parser.ParseException;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.io.IOUtilFunctions;
+import org.tugraz.sysds.runtime.lineage.LineageCacheConfig.LineageCachePolicy;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -68,6 +69,8 @@ public class DMLConfig
 	public static final String DEFAULT_BLOCK_SIZE   = "sysds.defaultblocksize";
 	public static final String CP_PARALLEL_OPS      = "sysds.cp.parallel.ops";
 	public static final String CP_PARALLEL_IO       = "sysds.cp.parallel.io";
+	public static final String CP_PARALLEL_INST     = "sysds.cp.parallel.inst"; //boolean, inter-operator parallelism
+	public static final String RECOMPILE_CACHE      = "sysds.recompile.cache"; //int, max cached plans per statement block
 	public static final String COMPRESSED_LINALG    = "sysds.compressed.linalg"; //auto, true, false
 	public static final String NATIVE_BLAS          = "sysds.native.blas";
 	public static final String NATIVE_BLAS_DIR      = "sysds.native.blas.directory";
@@ -76,7 +79,18 @@ public class DMLConfig
 	public static final String CODEGEN_OPTIMIZER    = "sysds.codegen.optimizer"; //see SpoofCompiler.PlanSelector
 	public static final String CODEGEN_PLANCACHE    = "sysds.codegen.plancache"; //boolean
 	public static final String CODEGEN_LITERALS     = "sysds.codegen.literals"; //1..heuristic, 2..always
+	public static final String CODEGEN_CLASSCACHE   = "sysds.codegen.classcache"; //directory of persistent class cache, or none
+	public static final String CODEGEN_CLASSCACHE_SIZE = "sysds.codegen.classcache.size"; //max size of persistent class cache in MB
+	public static final String CODEGEN_ASYNC        = "sysds.codegen.async"; //boolean, background class compilation
 	public static final String STATS_MAX_WRAP_LEN   = "sysds.stats.maxWrapLength"; //int
+	public static final String STATS_PROFILER       = "sysds.stats.profiler"; //boolean, always-on instruction profiler
+	public static final String STATS_PROFILER_EXPORT = "sysds.stats.profiler.export"; //file (.prom or json), or none
+	public static final String LINEAGECACHE_POLICY  = "sysds.lineage.cachepolicy"; //see LineageCacheConfig.LineageCachePolicy
+	public static final String LINEAGECACHE_BUDGET  = "sysds.lineage.cachebudget"; //fraction of max heap
+	public static final String LINEAGECACHE_STORE   = "sysds.lineage.store"; //directory of persistent store, or none
+	public static final String LINEAGECACHE_STORE_SIZE = "sysds.lineage.store.size"; //max size of persistent store in MB
+	public static final String CACHING_ARENA        = "sysds.caching.arena"; //boolean, memory-mapped eviction arena
+	public static final String CACHING_PAGECACHE    = "sysds.caching.pagecache"; //boolean, page cache of serialized blocks
 	public static final String AVAILABLE_GPUS       = "sysds.gpu.availableGPUs"; // String to specify which GPUs to use (a range, all GPUs, comma separated list or a specific GPU)
 	public static final String SYNCHRONIZE_GPU      = "sysds.gpu.sync.postProcess"; // boolean: whether to synchronize GPUs after every instruction
 	public static final String EAGER_CUDA_FREE      = "sysds.gpu.eager.cudaFree"; // boolean: whether to perform eager CUDA free on rmvar
@@ -113,6 +127,8 @@ public class DMLConfig
 		_defaultVals.put(OPTIMIZATION_LEVEL,     String.valueOf(OptimizerUtils.DEFAULT_OPTLEVEL.ordinal()) );
 		_defaultVals.put(DEFAULT_BLOCK_SIZE,     String.valueOf(OptimizerUtils.DEFAULT_BLOCKSIZE) );
 		_defaultVals.put(CP_PARALLEL_OPS,        "true" );
+		_defaultVals.put(CP_PARALLEL_INST,       "false" );
+		_defaultVals.put(RECOMPILE_CACHE,        "8" );
 		_defaultVals.put(CP_PARALLEL_IO,         "true" );
 		_defaultVals.put(COMPRESSED_LINALG,      Compression.CompressConfig.AUTO.name() );
 		_defaultVals.put(CODEGEN,                "false" );
@@ -120,11 +136,22 @@ public class DMLConfig
 		_defaultVals.put(CODEGEN_OPTIMIZER,      PlanSelector.FUSE_COST_BASED_V2.name() );
 		_defaultVals.put(CODEGEN_PLANCACHE,      "true" );
 		_defaultVals.put(CODEGEN_LITERALS,       "1" );
+		_defaultVals.put(CODEGEN_CLASSCACHE,     "none" );
+		_defaultVals.put(CODEGEN_CLASSCACHE_SIZE, "256" );
+		_defaultVals.put(CODEGEN_ASYNC,          "false" );
 		_defaultVals.put(NATIVE_BLAS,            "none" );
 		_defaultVals.put(NATIVE_BLAS_DIR,        "none" );
 		_defaultVals.put(PRINT_GPU_MEMORY_INFO,  "false" );
 		_defaultVals.put(EVICTION_SHADOW_BUFFERSIZE,  "0.0" );
 		_defaultVals.put(STATS_MAX_WRAP_LEN,     "30" );
+		_defaultVals.put(STATS_PROFILER,         "false" );
+		_defaultVals.put(STATS_PROFILER_EXPORT,  "none" );
+		_defaultVals.put(LINEAGECACHE_POLICY,    LineageCachePolicy.LRU.name() );
+		_defaultVals.put(LINEAGECACHE_BUDGET,    "0.05" );
+		_defaultVals.put(LINEAGECACHE_STORE,     "none" );
+		_defaultVals.put(LINEAGECACHE_STORE_SIZE, "4096" );
+		_defaultVals.put(CACHING_ARENA,          "false" );
+		_defaultVals.put(CACHING_PAGECACHE,      "false" );
 		_defaultVals.put(GPU_MEMORY_UTILIZATION_FACTOR,      "0.9" );
 		_defaultVals.put(GPU_MEMORY_ALLOCATOR,   "cuda");
 		_defaultVals.put(AVAILABLE_GPUS,         "-1");
@@ -375,10 +402,11 @@ public class DMLConfig
 	public String getConfigInfo()  {
 		String[] tmpConfig = new String[] { 
 			LOCAL_TMP_DIR,SCRATCH_SPACE,OPTIMIZATION_LEVEL, DEFAULT_BLOCK_SIZE,
-			CP_PARALLEL_OPS, CP_PARALLEL_IO, NATIVE_BLAS, NATIVE_BLAS_DIR,
+			CP_PARALLEL_OPS, CP_PARALLEL_IO, CP_PARALLEL_INST, RECOMPILE_CACHE, NATIVE_BLAS, NATIVE_BLAS_DIR,
 			COMPRESSED_LINALG,
-			CODEGEN, CODEGEN_COMPILER, CODEGEN_OPTIMIZER, CODEGEN_PLANCACHE, CODEGEN_LITERALS,
-			STATS_MAX_WRAP_LEN, PRINT_GPU_MEMORY_INFO,
+			CODEGEN, CODEGEN_COMPILER, CODEGEN_OPTIMIZER, CODEGEN_PLANCACHE, CODEGEN_LITERALS, CODEGEN_CLASSCACHE, CODEGEN_CLASSCACHE_SIZE, CODEGEN_ASYNC,
+			STATS_MAX_WRAP_LEN, STATS_PROFILER, STATS_PROFILER_EXPORT, LINEAGECACHE_POLICY, LINEAGECACHE_BUDGET, LINEAGECACHE_STORE, LINEAGECACHE_STORE_SIZE, CACHING_ARENA, CACHING_PAGECACHE,
+			PRINT_GPU_MEMORY_INFO,
 			AVAILABLE_GPUS, SYNCHRONIZE_GPU, EAGER_CUDA_FREE, FLOATING_POINT_PRECISION, GPU_EVICTION_POLICY, 
 			LOCAL_SPARK_NUM_THREADS, EVICTION_SHADOW_BUFFERSIZE, GPU_MEMORY_ALLOCATOR, GPU_MEMORY_UTILIZATION_FACTOR
 		}; 
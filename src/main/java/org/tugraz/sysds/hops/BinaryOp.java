@@ -421,8 +421,9 @@ public class BinaryOp extends MultiThreadedHop
 			else //general case
 				ot = HopsOpOp2LopsU.get(op);
 
+			int k = (et == ExecType.CP) ? OptimizerUtils.getConstrainedNumThreads(_maxNumThreads) : 1;
 			Unary unary1 = new Unary(getInput().get(0).constructLops(),
-				getInput().get(1).constructLops(), ot, getDataType(), getValueType(), et);
+				getInput().get(1).constructLops(), ot, getDataType(), getValueType(), et, k);
 		
 			setOutputDimensions(unary1);
 			setLineNumbers(unary1);
@@ -462,7 +463,7 @@ public class BinaryOp extends MultiThreadedHop
 				}
 				else
 					binary = new Binary(getInput().get(0).constructLops(), getInput().get(1).constructLops(), HopsOpOp2LopsB.get(op),
-						getDataType(), getValueType(), et);
+						getDataType(), getValueType(), et, OptimizerUtils.getConstrainedNumThreads(_maxNumThreads));
 				
 				setOutputDimensions(binary);
 				setLineNumbers(binary);
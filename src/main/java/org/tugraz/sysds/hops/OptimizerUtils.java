@@ -353,6 +353,14 @@ public class OptimizerUtils
 			cconf.set(ConfigType.PARALLEL_CP_MATRIX_OPERATIONS, false);
 		}
 		
+		//handle inter-operator parallelism of independent instructions
+		if (dmlconf.getBooleanValue(DMLConfig.CP_PARALLEL_INST)) {
+			cconf.set(ConfigType.PARALLEL_CP_INSTRUCTIONS, true);
+		}
+		
+		//handle reuse of recompiled plans for unchanged input sizes
+		cconf.set(ConfigType.RECOMPILE_CACHE_SIZE, dmlconf.getIntValue(DMLConfig.RECOMPILE_CACHE));
+		
 		return cconf;
 	}
 	
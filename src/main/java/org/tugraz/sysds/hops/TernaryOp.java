@@ -58,7 +58,7 @@ import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
  *
  * CTABLE op takes 2 extra inputs with target dimensions for padding and pruning.
  */
-public class TernaryOp extends Hop 
+public class TernaryOp extends MultiThreadedHop 
 {
 	
 	public static boolean ALLOW_CTABLE_SEQUENCE_REWRITES = true;
@@ -125,6 +125,11 @@ public class TernaryOp extends Hop
 		_disjointInputs = flag;
 	}
 	
+	@Override
+	public boolean isMultiThreadedOpType() {
+		return _op == OpOp3.CTABLE;
+	}
+	
 	@Override
 	public boolean isGPUEnabled() {
 		if(!DMLScript.USE_ACCELERATOR)
@@ -301,7 +306,8 @@ public class TernaryOp extends Hop
 			inputLops[1] = ((ParameterizedBuiltinOp)getInput().get(1)).getTargetHop().getInput().get(0).constructLops();
 		}
 		
-		Ctable ternary = new Ctable(inputLops, ternaryOp, getDataType(), getValueType(), ignoreZeros, et);
+		int k = (et == ExecType.CP) ? OptimizerUtils.getConstrainedNumThreads(_maxNumThreads) : 1;
+		Ctable ternary = new Ctable(inputLops, ternaryOp, getDataType(), getValueType(), ignoreZeros, et, k);
 		
 		ternary.getOutputParameters().setDimensions(getDim1(), getDim2(), getBlocksize(), -1);
 		setLineNumbers(ternary);
@@ -570,6 +576,7 @@ public class TernaryOp extends Hop
 		ret._op = _op;
 		ret._dimInputsPresent  = _dimInputsPresent;
 		ret._disjointInputs    = _disjointInputs;
+		ret._maxNumThreads     = _maxNumThreads;
 		
 		return ret;
 	}
@@ -597,7 +604,8 @@ public class TernaryOp extends Hop
 		
 		//compare optimizer hints and parameters
 		ret &= _disjointInputs == that2._disjointInputs
-			&& _outputEmptyBlocks == that2._outputEmptyBlocks;
+			&& _outputEmptyBlocks == that2._outputEmptyBlocks
+			&& _maxNumThreads == that2._maxNumThreads;
 		
 		return ret;
 	}
@@ -29,6 +29,9 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -116,6 +119,7 @@ public class SpoofCompiler
 	public static PlanCachePolicy PLAN_CACHE_POLICY    = PlanCachePolicy.CSLH;
 	public static final int PLAN_CACHE_SIZE            = 1024; //max 1K classes
 	public static final RegisterAlloc REG_ALLOC_POLICY = RegisterAlloc.EXACT_STATIC_BUFF;
+	public static boolean ASYNC_COMPILE                = false; //background class compilation
 	
 	public enum CompilerType {
 		AUTO,
@@ -173,6 +177,12 @@ public class SpoofCompiler
 	//note: if PLAN_CACHE_SIZE is exceeded, we evict the least-recently-used plan (LRU policy)
 	private static final PlanCache planCache = new PlanCache(PLAN_CACHE_SIZE);
 	
+	//pending background compilations of generated operators, where the plans are
+	//executed unfused until a subsequent recompilation finds the compiled class
+	private static final HashMap<CNode, Future<Class<?>>> asyncCompile = new HashMap<>();
+	private static final ThreadLocal<Boolean> asyncPending = ThreadLocal.withInitial(() -> false);
+	private static ExecutorService asyncPool = null;
+	
 	private static ProgramRewriter rewriteCSE = new ProgramRewriter(
 			new RewriteCommonSubexpressionElimination(true),
 			new RewriteRemoveUnnecessaryCasts());
@@ -343,6 +353,7 @@ public class SpoofCompiler
 	
 		long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
 		ArrayList<Hop> ret = roots;
+		asyncPending.set(false);
 		
 		try
 		{
@@ -383,28 +394,18 @@ public class SpoofCompiler
 				Class<?> cla = planCache.getPlan(tmp.getValue());
 				
 				if( cla == null ) {
-					//generate java source code
-					String src = tmp.getValue().codegen(false);
-					
-					//explain debug output cplans or generated source code
-					if( LOG.isTraceEnabled() || DMLScript.EXPLAIN.isHopsType(recompile) ) {
-						LOG.info("Codegen EXPLAIN (generated cplan for HopID: " + cplan.getKey() + 
-							", line "+tmp.getValue().getBeginLine() + ", hash="+tmp.getValue().hashCode()+"):");
-						LOG.info(tmp.getValue().getClassname()
-							+ Explain.explainCPlan(cplan.getValue().getValue()));
-					}
-					if( LOG.isTraceEnabled() || DMLScript.EXPLAIN.isRuntimeType(recompile) ) {
-						LOG.info("Codegen EXPLAIN (generated code for HopID: " + cplan.getKey() + 
-							", line "+tmp.getValue().getBeginLine() + ", hash="+tmp.getValue().hashCode()+"):");
-						LOG.info(src);
+					//compile generated java source code, either synchronously or
+					//in the background (w/o fused operator until compiled)
+					//note: class names are assigned during source code generation
+					if( ASYNC_COMPILE )
+						cla = compileClassAsync(cplan.getKey(), tmp.getValue(), recompile);
+					else {
+						String src = generateSource(cplan.getKey(), tmp.getValue(), recompile);
+						cla = CodegenUtils.compileClass("codegen."+tmp.getValue().getClassname(), src);
 					}
 					
-					//compile generated java source code
-					cla = CodegenUtils.compileClass("codegen."+
-						tmp.getValue().getClassname(), src);
-					
 					//maintain plan cache
-					if( PLAN_CACHE_POLICY!=PlanCachePolicy.NONE )
+					if( cla != null && PLAN_CACHE_POLICY!=PlanCachePolicy.NONE )
 						planCache.putPlan(tmp.getValue(), cla);
 				}
 				else if( DMLScript.STATISTICS ) {
@@ -450,11 +451,78 @@ public class SpoofCompiler
 		return ret;
 	}
 
+	private static String generateSource(long hopID, CNodeTpl tpl, boolean recompile) {
+		//generate java source code
+		String src = tpl.codegen(false);
+		
+		//explain debug output cplans or generated source code
+		if( LOG.isTraceEnabled() || DMLScript.EXPLAIN.isHopsType(recompile) ) {
+			LOG.info("Codegen EXPLAIN (generated cplan for HopID: " + hopID + 
+				", line "+tpl.getBeginLine() + ", hash="+tpl.hashCode()+"):");
+			LOG.info(tpl.getClassname() + Explain.explainCPlan(tpl));
+		}
+		if( LOG.isTraceEnabled() || DMLScript.EXPLAIN.isRuntimeType(recompile) ) {
+			LOG.info("Codegen EXPLAIN (generated code for HopID: " + hopID + 
+				", line "+tpl.getBeginLine() + ", hash="+tpl.hashCode()+"):");
+			LOG.info(src);
+		}
+		return src;
+	}
+	
+	private static Class<?> compileClassAsync(long hopID, CNodeTpl tpl, boolean recompile) {
+		//submit background compilation on first request
+		Future<Class<?>> future = null;
+		synchronized( asyncCompile ) {
+			future = asyncCompile.get(tpl);
+			if( future == null ) {
+				String src = generateSource(hopID, tpl, recompile);
+				String name = "codegen." + tpl.getClassname();
+				if( asyncPool == null )
+					asyncPool = Executors.newSingleThreadExecutor(r -> {
+						Thread t = new Thread(r, "codegen-async");
+						t.setDaemon(true);
+						return t;
+					});
+				asyncCompile.put(tpl, future = asyncPool.submit(() -> CodegenUtils.compileClass(name, src)));
+			}
+		}
+		
+		//use compiled class if available, otherwise keep unfused
+		if( !future.isDone() ) {
+			asyncPending.set(true);
+			return null;
+		}
+		synchronized( asyncCompile ) {
+			asyncCompile.remove(tpl);
+		}
+		try {
+			return future.get();
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException("Asynchronous codegen compilation failed.", ex);
+		}
+	}
+	
+	/**
+	 * Indicates if the last call of optimize by the current thread left
+	 * operators unfused because their compilation is still in progress.
+	 * 
+	 * @return true if asynchronous compilations are pending
+	 */
+	public static boolean isAsyncCompilePending() {
+		return asyncPending.get();
+	}
+	
 	public static void cleanupCodeGenerator() {
 		if( PLAN_CACHE_POLICY != PlanCachePolicy.NONE ) {
 			CodegenUtils.clearClassCache(); //class cache
 			planCache.clear(); //plan cache
 		}
+		synchronized( asyncCompile ) {
+			for( Future<Class<?>> future : asyncCompile.values() )
+				future.cancel(true);
+			asyncCompile.clear();
+		}
 	}
 	
 	/**
@@ -52,7 +52,7 @@ import org.tugraz.sysds.utils.Statistics;
 public class LiteralReplacement 
 {
 	//internal configuration parameters
-	private static final long REPLACE_LITERALS_MAX_MATRIX_SIZE = 1000000; //10^6 cells (8MB)
+	protected static final long REPLACE_LITERALS_MAX_MATRIX_SIZE = 1000000; //10^6 cells (8MB)
 	private static final boolean REPORT_LITERAL_REPLACE_OPS_STATS = true;
 	
 	protected static void rReplaceLiterals( Hop hop, ExecutionContext ec, boolean scalarsOnly )
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.hops.recompile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.tugraz.sysds.common.Types.DataType;
+import org.tugraz.sysds.common.Types.Direction;
+import org.tugraz.sysds.common.Types.OpOpData;
+import org.tugraz.sysds.conf.ConfigurationManager;
+import org.tugraz.sysds.hops.AggUnaryOp;
+import org.tugraz.sysds.hops.DataOp;
+import org.tugraz.sysds.hops.Hop;
+import org.tugraz.sysds.hops.Hop.OpOp1;
+import org.tugraz.sysds.hops.IndexingOp;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.hops.rewrite.HopRewriteUtils;
+import org.tugraz.sysds.runtime.controlprogram.LocalVariableMap;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.controlprogram.caching.TensorObject;
+import org.tugraz.sysds.runtime.instructions.Instruction;
+import org.tugraz.sysds.runtime.instructions.cp.Data;
+import org.tugraz.sysds.runtime.instructions.cp.ScalarObject;
+import org.tugraz.sysds.runtime.meta.DataCharacteristics;
+
+/**
+ * Per-statement-block cache of recompiled instructions, which maps the
+ * signature of all DAG inputs to the instructions generated by dynamic
+ * recompilation. Since recompilation (with literal replacement) only depends
+ * on the sizes of input matrices/frames and the values of input scalars,
+ * repeated recompilation with identical inputs (e.g., in loops) can reuse
+ * the previously generated plan instead of re-running rewrites, memory
+ * estimates, and lop generation.
+ *
+ * The signature includes the exact number of non-zeros, as dynamic rewrites
+ * check for empty inputs or even replace nnz(X) by its value. DAGs whose
+ * literal replacement depends on the data itself (e.g., as.scalar, small full
+ * aggregates, or lists) or on read meta data files are not cached. Cached
+ * plans are invalidated on in-place recompilation or replaced hops of the
+ * statement block, and globally via {@link #invalidateAll()} whenever hops
+ * might be modified externally (e.g., by the parfor optimizer).
+ */
+public class RecompileCache
+{
+	//global epoch of valid cache entries
+	private static final AtomicLong _epoch = new AtomicLong(0);
+
+	//cached plans in LRU order
+	private final LinkedHashMap<String, ArrayList<Instruction>> _plans;
+	private long _planEpoch;
+
+	public RecompileCache() {
+		_plans = new LinkedHashMap<>(16, 0.75f, true);
+		_planEpoch = _epoch.get();
+	}
+
+	/**
+	 * Obtains the cached instructions for the given signature.
+	 *
+	 * @param key input signature
+	 * @return copy of the cached instructions, or null if not existing
+	 */
+	public synchronized ArrayList<Instruction> get(String key) {
+		checkEpoch();
+		ArrayList<Instruction> inst = _plans.get(key);
+		return (inst != null) ? new ArrayList<>(inst) : null;
+	}
+
+	/**
+	 * Adds the given instructions for the given signature, unless the
+	 * cache was invalidated during recompilation, and evicts the least
+	 * recently used plans if the cache exceeds its maximum size.
+	 *
+	 * @param key input signature
+	 * @param inst recompiled instructions
+	 * @param epoch global epoch before recompilation
+	 * @param maxSize maximum number of cached plans
+	 */
+	public synchronized void put(String key, ArrayList<Instruction> inst, long epoch, int maxSize) {
+		checkEpoch();
+		if( epoch != _planEpoch )
+			return;
+		_plans.put(key, new ArrayList<>(inst));
+		Iterator<String> iter = _plans.keySet().iterator();
+		while( _plans.size() > maxSize ) {
+			iter.next();
+			iter.remove();
+		}
+	}
+
+	public synchronized int size() {
+		checkEpoch();
+		return _plans.size();
+	}
+
+	public synchronized void clear() {
+		_plans.clear();
+	}
+
+	private void checkEpoch() {
+		long epoch = _epoch.get();
+		if( epoch != _planEpoch ) {
+			_plans.clear();
+			_planEpoch = epoch;
+		}
+	}
+
+	public static long getEpoch() {
+		return _epoch.get();
+	}
+
+	/**
+	 * Invalidates all cached plans of all statement blocks.
+	 */
+	public static void invalidateAll() {
+		_epoch.incrementAndGet();
+	}
+
+	/**
+	 * Creates the signature of the given DAG inputs, which comprises
+	 * the characteristics of all transiently read matrices, frames and tensors,
+	 * the values of all transiently read scalars, and the memory budget and
+	 * degree of parallelism used for operator selection.
+	 *
+	 * @param hops list of DAG root nodes
+	 * @param vars symbol table
+	 * @return signature, or null if the DAG is not cacheable
+	 */
+	public static String createSignature(ArrayList<Hop> hops, LocalVariableMap vars) {
+		StringBuilder sb = new StringBuilder();
+		sb.append((long)OptimizerUtils.getLocalMemBudget());
+		sb.append(',');
+		sb.append(OptimizerUtils.getConstrainedNumThreads(-1));
+		sb.append(',');
+		sb.append(ConfigurationManager.isCodegenEnabled());
+
+		//note: own memo table to keep the visit status of shared hops
+		HashSet<Long> memo = new HashSet<>();
+		for( Hop hopRoot : hops )
+			if( !rAppendSignature(hopRoot, vars, memo, sb) )
+				return null;
+		return sb.toString();
+	}
+
+	private static boolean rAppendSignature(Hop hop, LocalVariableMap vars, HashSet<Long> memo, StringBuilder sb) {
+		if( !memo.add(hop.getHopID()) )
+			return true;
+
+		//check for data-dependent literal replacement and meta data reads
+		if( hop.getDataType() == DataType.LIST || isDataDependentLiteral(hop, vars)
+			|| (HopRewriteUtils.isData(hop, OpOpData.PERSISTENTREAD) && !hop.dimsKnown()) )
+			return false;
+
+		for( Hop c : hop.getInput() )
+			if( !rAppendSignature(c, vars, memo, sb) )
+				return false;
+
+		if( HopRewriteUtils.isData(hop, OpOpData.TRANSIENTREAD) )
+			return appendDataSignature(hop.getName(), vars.get(hop.getName()), sb);
+		return true;
+	}
+
+	private static boolean appendDataSignature(String name, Data dat, StringBuilder sb) {
+		sb.append('|');
+		sb.append(name);
+		sb.append('=');
+		if( dat == null ) {
+			sb.append('-');
+		}
+		else if( dat instanceof ScalarObject ) {
+			String val = ((ScalarObject)dat).getStringValue();
+			sb.append(dat.getValueType());
+			sb.append(':');
+			sb.append(val.length()); //unambiguous string values
+			sb.append(':');
+			sb.append(val);
+		}
+		else if( dat instanceof CacheableData ) {
+			DataCharacteristics dc = ((CacheableData<?>)dat).getDataCharacteristics();
+			sb.append(dat.getDataType());
+			sb.append(':');
+			if( dat instanceof TensorObject )
+				sb.append(Arrays.toString(dc.getDims()));
+			else {
+				sb.append(dc.getRows());
+				sb.append('x');
+				sb.append(dc.getCols());
+			}
+			sb.append(':');
+			sb.append(dc.getBlocksize());
+			sb.append(':');
+			sb.append(dc.getNonZeros());
+		}
+		else {
+			return false;
+		}
+		return true;
+	}
+
+	private static boolean isDataDependentLiteral(Hop hop, LocalVariableMap vars) {
+		//literal replacement of as.scalar(X), as.scalar(X[i,j]), and full unary
+		//aggregates over small matrices or their indexed ranges (see LiteralReplacement)
+		if( !(HopRewriteUtils.isUnary(hop, OpOp1.CAST_AS_SCALAR)
+			|| (hop instanceof AggUnaryOp && ((AggUnaryOp)hop).getDirection() == Direction.RowCol)) )
+			return false;
+		Hop in = hop.getInput().get(0);
+		if( in instanceof IndexingOp )
+			in = in.getInput().get(0);
+		if( !(in instanceof DataOp) || in.getDataType() != DataType.MATRIX )
+			return false;
+		Data dat = vars.get(in.getName());
+		return dat instanceof MatrixObject
+			&& ((MatrixObject)dat).getNumRows() * ((MatrixObject)dat).getNumColumns()
+				< LiteralReplacement.REPLACE_LITERALS_MAX_MATRIX_SIZE;
+	}
+}
@@ -94,6 +94,7 @@ import org.tugraz.sysds.runtime.util.UtilFunctions;
 import org.tugraz.sysds.utils.Explain;
 import org.tugraz.sysds.utils.Explain.ExplainType;
 import org.tugraz.sysds.utils.JSONHelper;
+import org.tugraz.sysds.utils.Statistics;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -143,6 +144,7 @@ public class Recompiler
 	 */
 	public static void reinitRecompiler() {
 		_rewriter.set(new ProgramRewriter(false, true));
+		RecompileCache.invalidateAll();
 	}
 	
 	public static ArrayList<Instruction> recompileHopsDag( StatementBlock sb, ArrayList<Hop> hops, 
@@ -153,7 +155,26 @@ public class Recompiler
 		//need for synchronization as we do temp changes in shared hops/lops
 		//however, we create deep copies for most dags to allow for concurrent recompile
 		synchronized( hops ) {
-			newInst = recompile(sb, hops, ec, status, inplace, replaceLit, true, false, false, null, tid);
+			//probe cached plans of the statement block for unchanged inputs
+			RecompileCache cache = isRecompileCacheApplicable(sb, hops, status, inplace, replaceLit) ?
+				sb.getRecompileCache() : null;
+			String key = (cache != null) ?
+				RecompileCache.createSignature(hops, ec.getVariables()) : null;
+			newInst = (key != null) ? cache.get(key) : null;
+			if( key != null && DMLScript.STATISTICS ) {
+				if( newInst != null )
+					Statistics.incrementHOPRecompileCacheHits();
+				else
+					Statistics.incrementHOPRecompileCacheMisses();
+			}
+			
+			//actual recompilation and caching of the new plan
+			if( newInst == null ) {
+				long epoch = RecompileCache.getEpoch();
+				newInst = recompile(sb, hops, ec, status, inplace, replaceLit, true, false, false, null, tid);
+				if( key != null && !sb.isAsyncCodegenPending() )
+					cache.put(key, newInst, epoch, ConfigurationManager.getRecompileCacheSize());
+			}
 		}
 		
 		// replace thread ids in new instructions
@@ -177,6 +198,17 @@ public class Recompiler
 		return recompileHopsDag(sb, hops, new ExecutionContext(vars), status, inplace, replaceLit, tid);
 	}
 	
+	private static boolean isRecompileCacheApplicable(StatementBlock sb, ArrayList<Hop> hops,
+		RecompileStatus status, boolean inplace, boolean replaceLit)
+	{
+		//cache only runtime recompilation of statement block dags (deep copy
+		//w/ literal replacement), where the status is not consumed by the caller
+		return sb != null && sb.getHops() == hops
+			&& status == null && !inplace && replaceLit
+			&& ConfigurationManager.getRecompileCacheSize() > 0
+			&& DMLScript.EXPLAIN != ExplainType.RECOMPILE_HOPS;
+	}
+	
 	public static ArrayList<Instruction> recompileHopsDag( Hop hop, ExecutionContext ec, 
 			RecompileStatus status, boolean inplace, boolean replaceLit, long tid ) 
 	{
@@ -326,6 +358,10 @@ public class Recompiler
 			&& !(forceEt && et == null ) //not on reset
 			&& SpoofCompiler.RECOMPILE_CODEGEN;
 		
+		// invalidate cached plans of in-place modified dags
+		if( inplace && sb != null )
+			sb.clearRecompileCache();
+		
 		// prepare hops dag for recompile
 		if( !inplace ){ 
 			// deep copy hop dag (for non-reversable rewrites)
@@ -394,6 +430,9 @@ public class Recompiler
 			Hop.resetVisitStatus(hops);
 			hops = SpoofCompiler.optimize(hops,
 				(status==null || !status.isInitialCodegen()));
+			//mark blocks w/ unfused operators for later swap-in
+			if( sb != null && SpoofCompiler.ASYNC_COMPILE )
+				sb.setAsyncCodegenPending(SpoofCompiler.isAsyncCompilePending());
 		}
 		
 		// set max parallelism constraint to ensure compilation 
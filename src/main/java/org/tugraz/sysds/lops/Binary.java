@@ -189,8 +189,8 @@ public class Binary extends Lop
 		
 		sb.append( this.prepOutputOperand(output));
 		
-		//append degree of parallelism for matrix multiplications
-		if( operation == OperationTypes.MATMULT && getExecType()==ExecType.CP ) {
+		//append degree of parallelism for matrix multiplications and cellwise operations
+		if( getExecType()==ExecType.CP ) {
 			sb.append( OPERAND_DELIMITOR );
 			sb.append( numThreads );
 		}
@@ -34,6 +34,7 @@ import org.tugraz.sysds.common.Types.ValueType;
 public class Ctable extends Lop 
 {
 	private boolean _ignoreZeros = false;
+	private int _numThreads = 1;
 	
 	public enum OperationTypes { 
 		CTABLE_TRANSFORM, 
@@ -61,9 +62,14 @@ public class Ctable extends Lop
 	}
 	
 	public Ctable(Lop[] inputLops, OperationTypes op, DataType dt, ValueType vt, boolean ignoreZeros, ExecType et) {
+		this(inputLops, op, dt, vt, ignoreZeros, et, 1);
+	}
+	
+	public Ctable(Lop[] inputLops, OperationTypes op, DataType dt, ValueType vt, boolean ignoreZeros, ExecType et, int numThreads) {
 		super(Lop.Type.Ctable, dt, vt);
 		init(inputLops, op, et);
 		_ignoreZeros = ignoreZeros;
+		_numThreads = numThreads;
 	}
 	
 	private void init(Lop[] inputLops, OperationTypes op, ExecType et) {
@@ -179,6 +185,11 @@ public class Ctable extends Lop
 		sb.append( OPERAND_DELIMITOR );
 		sb.append( _ignoreZeros );
 		
+		if( getExecType() == ExecType.CP ) {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append( _numThreads );
+		}
+		
 		return sb.toString();
 	}
 
@@ -70,8 +70,24 @@ public class Unary extends Lop
 	 * @param et execution type
 	 */
 	public Unary(Lop input1, Lop input2, OperationTypes op, DataType dt, ValueType vt, ExecType et) {
+		this(input1, input2, op, dt, vt, et, 1);
+	}
+	
+	/**
+	 * Constructor to perform a unary operation with 2 inputs
+	 * 
+	 * @param input1 low-level operator 1
+	 * @param input2 low-level operator 2
+	 * @param op operation type
+	 * @param dt data type
+	 * @param vt value type
+	 * @param et execution type
+	 * @param numThreads number of threads
+	 */
+	public Unary(Lop input1, Lop input2, OperationTypes op, DataType dt, ValueType vt, ExecType et, int numThreads) {
 		super(Lop.Type.UNARY, dt, vt);
 		init(input1, input2, op, dt, vt, et);
+		_numThreads = numThreads;
 	}
 
 	private void init(Lop input1, Lop input2, OperationTypes op, DataType dt, ValueType vt, ExecType et) {
@@ -369,6 +385,12 @@ public class Unary extends Lop
 		sb.append( OPERAND_DELIMITOR );
 		sb.append( this.prepOutputOperand(output));
 		
+		//num threads for matrix-scalar cp ops
+		if( getExecType() == ExecType.CP ) {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append( _numThreads );
+		}
+		
 		return sb.toString();
 	}
 }
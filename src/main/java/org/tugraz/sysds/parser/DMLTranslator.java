@@ -81,6 +81,7 @@ import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.parser.Expression.FormatType;
 import org.tugraz.sysds.parser.PrintStatement.PRINTTYPE;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.codegen.CodegenUtils;
 import org.tugraz.sysds.runtime.controlprogram.BasicProgramBlock;
 import org.tugraz.sysds.runtime.controlprogram.ForProgramBlock;
 import org.tugraz.sysds.runtime.controlprogram.FunctionProgramBlock;
@@ -289,6 +290,9 @@ public class DMLTranslator
 				dmlconf.getIntValue(DMLConfig.CODEGEN_LITERALS)==2);
 			SpoofCompiler.setConfiguredPlanSelector();
 			SpoofCompiler.setExecTypeSpecificJavaCompiler();
+			CodegenUtils.setPersistentClassCache(dmlconf.getTextValue(DMLConfig.CODEGEN_CLASSCACHE),
+				dmlconf.getIntValue(DMLConfig.CODEGEN_CLASSCACHE_SIZE));
+			SpoofCompiler.ASYNC_COMPILE = dmlconf.getBooleanValue(DMLConfig.CODEGEN_ASYNC);
 			if( SpoofCompiler.INTEGRATION==IntegrationType.HOPS )
 				codgenHopsDAG(dmlp);
 		}
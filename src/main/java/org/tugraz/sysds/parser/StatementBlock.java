@@ -30,6 +30,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.tugraz.sysds.conf.ConfigurationManager;
 import org.tugraz.sysds.hops.Hop;
+import org.tugraz.sysds.hops.recompile.RecompileCache;
 import org.tugraz.sysds.hops.recompile.Recompiler;
 import org.tugraz.sysds.hops.rewrite.StatementBlockRewriteRule;
 import org.tugraz.sysds.lops.Lop;
@@ -60,7 +61,9 @@ public class StatementBlock extends LiveVariableAnalysis implements ParseInfo
 
 	private ArrayList<String> _updateInPlaceVars = null;
 	private boolean _requiresRecompile = false;
+	private boolean _asyncCodegenPending = false;
 	private boolean _splitDag = false;
+	private RecompileCache _recompileCache = null;
 
 	public StatementBlock() {
 		_ID = getNextSBID();
@@ -145,6 +148,7 @@ public class StatementBlock extends LiveVariableAnalysis implements ParseInfo
 
 	public void setHops(ArrayList<Hop> hops) {
 		_hops = hops;
+		clearRecompileCache();
 	}
 
 	public void setLops(ArrayList<Lop> lops) {
@@ -1316,6 +1320,25 @@ public class StatementBlock extends LiveVariableAnalysis implements ParseInfo
 	public boolean requiresRecompilation() {
 		return _requiresRecompile;
 	}
+	
+	public boolean isAsyncCodegenPending() {
+		return _asyncCodegenPending;
+	}
+	
+	public void setAsyncCodegenPending(boolean flag) {
+		_asyncCodegenPending = flag;
+	}
+	
+	public synchronized RecompileCache getRecompileCache() {
+		if( _recompileCache == null )
+			_recompileCache = new RecompileCache();
+		return _recompileCache;
+	}
+	
+	public synchronized void clearRecompileCache() {
+		if( _recompileCache != null )
+			_recompileCache.clear();
+	}
 
 	public ArrayList<String> getUpdateInPlaceVars() {
 		return _updateInPlaceVars;
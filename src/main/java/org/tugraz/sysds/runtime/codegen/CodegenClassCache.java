@@ -0,0 +1,287 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.codegen;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.util.LocalFileUtils;
+
+/**
+ * Persistent, on-disk cache of compiled classes of generated operators across
+ * JVM runs, which avoids the repeated (janino or javac) compilation of the same
+ * fused operators on job startup and recompilation.
+ *
+ * Entries are keyed by a digest of the generated source code (which includes
+ * the class name) and a digest of the runtime (the runtime jar, or the bytecode
+ * of the codegen base classes if not running from a jar), and store the bytecode
+ * of the compiled class. Corrupted or incompatible entries are treated as misses.
+ * The size of the cache is bounded, and the least recently used entries are
+ * evicted on overflow.
+ */
+public class CodegenClassCache
+{
+	private static final Log LOG = LogFactory.getLog(CodegenClassCache.class.getName());
+	private static final String SUFFIX = ".class";
+
+	//codegen base classes extended or called by generated operators
+	private static final Class<?>[] BASE_CLASSES = new Class<?>[] {SpoofOperator.class,
+		SpoofCellwise.class, SpoofMultiAggregate.class, SpoofOuterProduct.class,
+		SpoofRowwise.class, LibSpoofPrimitives.class};
+
+	private static String _runtimeDigest = null;
+
+	private final String _dir;
+	private final long _limit;
+	//in-memory index of cached entries (file name -> size in bytes)
+	private final Map<String, Long> _index = new ConcurrentHashMap<>();
+	private final AtomicLong _size = new AtomicLong(0);
+
+	public CodegenClassCache(String dir, long limit) {
+		_dir = dir;
+		_limit = limit;
+		LocalFileUtils.createLocalFileIfNotExist(dir);
+
+		//load the keys of all existing entries
+		File[] files = new File(dir).listFiles();
+		if( files != null )
+			for( File f : files )
+				if( f.getName().endsWith(SUFFIX) ) {
+					_index.put(f.getName(), f.length());
+					_size.addAndGet(f.length());
+				}
+		//shrink caches of previous runs with larger limits
+		synchronized( this ) {
+			makeSpace(0);
+		}
+	}
+
+	public String getDirectory() {
+		return _dir;
+	}
+
+	public long getLimit() {
+		return _limit;
+	}
+
+	public int getNumEntries() {
+		return _index.size();
+	}
+
+	public long getSize() {
+		return _size.get();
+	}
+
+	/**
+	 * Reads the bytecode of the class compiled from the given source if available.
+	 *
+	 * @param src generated source code
+	 * @return bytecode, or null if not contained in the cache
+	 */
+	public byte[] read(String src) {
+		String fname = getDigest(src) + SUFFIX;
+		if( !_index.containsKey(fname) )
+			return null;
+		File f = new File(_dir, fname);
+		try {
+			byte[] ret = Files.readAllBytes(f.toPath());
+			//touch the entry for lru eviction
+			f.setLastModified(System.currentTimeMillis());
+			return ret;
+		}
+		catch(IOException ex) {
+			//corrupted or concurrently deleted entry, treat as miss
+			LOG.warn("Failed to read codegen class cache entry "+f.getPath()+".", ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the bytecode of the class compiled from the given source, if not
+	 * yet contained and it fits into the cache. Least recently used entries
+	 * are evicted as needed.
+	 *
+	 * @param src generated source code
+	 * @param classBytes bytecode of the compiled class
+	 */
+	public void write(String src, byte[] classBytes) {
+		String fname = getDigest(src) + SUFFIX;
+		if( _index.containsKey(fname) || classBytes.length > _limit )
+			return;
+		
+		//write to temporary file and rename, to avoid partially
+		//written entries in case of failures or concurrent jobs
+		File tmp = new File(_dir, fname + "." + Thread.currentThread().getId() + ".tmp");
+		try {
+			Files.write(tmp.toPath(), classBytes);
+			synchronized( this ) {
+				makeSpace(classBytes.length);
+				if( !tmp.renameTo(new File(_dir, fname)) )
+					throw new IOException("Failed to rename "+tmp.getPath()+".");
+				if( _index.put(fname, (long)classBytes.length) == null )
+					_size.addAndGet(classBytes.length);
+			}
+		}
+		catch(IOException ex) {
+			//best effort, the class is already compiled
+			LocalFileUtils.deleteFileIfExists(tmp.getPath(), true);
+			LOG.warn("Failed to write codegen class cache entry "+fname+".", ex);
+		}
+	}
+
+	/**
+	 * Removes the entry of the given source, e.g., if its bytecode failed to load.
+	 *
+	 * @param src generated source code
+	 */
+	public synchronized void remove(String src) {
+		String fname = getDigest(src) + SUFFIX;
+		Long flen = _index.remove(fname);
+		if( flen != null )
+			_size.addAndGet(-flen);
+		LocalFileUtils.deleteFileIfExists(_dir + "/" + fname, true);
+	}
+
+	private void makeSpace(long len) {
+		if( _size.get() + len <= _limit )
+			return;
+		//evict least recently used (i.e., written or read) entries
+		List<File> files = new ArrayList<>();
+		for( String fname : _index.keySet() )
+			files.add(new File(_dir, fname));
+		files.sort(Comparator.comparingLong(File::lastModified));
+		for( File f : files ) {
+			if( _size.get() + len <= _limit )
+				break;
+			Long flen = _index.remove(f.getName());
+			if( flen != null ) {
+				_size.addAndGet(-flen);
+				LocalFileUtils.deleteFileIfExists(f.getPath(), true);
+			}
+		}
+		if( LOG.isDebugEnabled() )
+			LOG.debug("Evicted codegen class cache entries, remaining "+_index.size()+" entries.");
+	}
+
+	/**
+	 * Computes the digest of the given source code and runtime.
+	 *
+	 * @param src generated source code
+	 * @return hex string of the digest
+	 */
+	public static String getDigest(String src) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			//runtime digest, since generated operators extend runtime classes
+			md.update(getRuntimeDigest().getBytes(StandardCharsets.UTF_8));
+			md.update((byte)0);
+			md.update(System.getProperty("java.specification.version").getBytes(StandardCharsets.UTF_8));
+			md.update((byte)0);
+			md.update(src.getBytes(StandardCharsets.UTF_8));
+			return toHexString(md.digest());
+		}
+		catch(NoSuchAlgorithmException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+
+	/**
+	 * Obtains the digest of the runtime jar, or of the bytecode of the codegen
+	 * base classes if not running from a jar. The digest is computed once per JVM.
+	 *
+	 * @return hex string of the runtime digest
+	 */
+	public static synchronized String getRuntimeDigest() {
+		if( _runtimeDigest == null )
+			_runtimeDigest = computeRuntimeDigest();
+		return _runtimeDigest;
+	}
+
+	private static String computeRuntimeDigest() {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			File jar = getRuntimeJar();
+			if( jar != null ) {
+				try( InputStream in = new FileInputStream(jar) ) {
+					update(md, in);
+				}
+			}
+			else {
+				for( Class<?> cla : BASE_CLASSES )
+					updateClass(md, cla);
+			}
+			return toHexString(md.digest());
+		}
+		catch(IOException | NoSuchAlgorithmException | URISyntaxException | SecurityException ex) {
+			//unique digest, i.e., no reuse of entries from unknown runtimes
+			LOG.warn("Failed to compute runtime digest for codegen class cache.", ex);
+			return UUID.randomUUID().toString();
+		}
+	}
+
+	private static File getRuntimeJar() throws URISyntaxException {
+		CodeSource cs = CodegenClassCache.class.getProtectionDomain().getCodeSource();
+		if( cs == null || cs.getLocation() == null )
+			return null;
+		File f = new File(cs.getLocation().toURI());
+		return f.isFile() ? f : null;
+	}
+
+	private static void updateClass(MessageDigest md, Class<?> cla) throws IOException {
+		String name = "/" + cla.getName().replace('.', '/') + SUFFIX;
+		try( InputStream in = cla.getResourceAsStream(name) ) {
+			if( in == null )
+				throw new IOException("Failed to read bytecode of "+cla.getName()+".");
+			update(md, in);
+		}
+		//nested classes such as enums of cell and row types
+		for( Class<?> inner : cla.getDeclaredClasses() )
+			updateClass(md, inner);
+	}
+
+	private static void update(MessageDigest md, InputStream in) throws IOException {
+		byte[] buff = new byte[64 * 1024];
+		int len = -1;
+		while( (len = in.read(buff)) > 0 )
+			md.update(buff, 0, len);
+	}
+
+	private static String toHexString(byte[] digest) {
+		StringBuilder sb = new StringBuilder(2*digest.length);
+		for( byte b : digest )
+			sb.append(String.format("%02x", b));
+		return sb.toString();
+	}
+}
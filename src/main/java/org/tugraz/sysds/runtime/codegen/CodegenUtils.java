@@ -22,6 +22,7 @@ package org.tugraz.sysds.runtime.codegen;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.Arrays;
@@ -42,7 +43,13 @@ import javax.tools.ToolProvider;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.codehaus.janino.ClassLoaderIClassLoader;
+import org.codehaus.janino.Java;
+import org.codehaus.janino.Parser;
+import org.codehaus.janino.Scanner;
 import org.codehaus.janino.SimpleCompiler;
+import org.codehaus.janino.UnitCompiler;
+import org.codehaus.janino.util.ClassFile;
 import org.tugraz.sysds.api.DMLScript;
 import org.tugraz.sysds.hops.codegen.SpoofCompiler;
 import org.tugraz.sysds.hops.codegen.SpoofCompiler.CompilerType;
@@ -67,20 +74,43 @@ public class CodegenUtils
 	//javac-specific working directory for src/class files
 	private static String _workingDir = null;
 	
+	//persistent cache of class files across JVMs (read by concurrent compile
+	//threads), and map of class files of classes loaded from this cache
+	private static volatile CodegenClassCache _classCache = null;
+	private static ConcurrentHashMap<String, byte[]> _classBytes = new ConcurrentHashMap<>();
+	
 	public static Class<?> compileClass(String name, String src) {
 		//reuse existing compiled class
 		Class<?> ret = _cache.get(name);
 		if( ret != null ) 
 			return ret;
 		
+		//reuse class compiled by a previous JVM
+		CodegenClassCache classCache = _classCache;
+		if( classCache != null ) {
+			ret = loadFromClassCache(classCache, name, src);
+			if( ret != null ) {
+				_cache.put(name, ret);
+				return ret;
+			}
+		}
+		
 		long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
 		
 		//compile java source w/ specific compiler
 		if( SpoofCompiler.JAVA_COMPILER == CompilerType.JANINO )
-			ret = compileClassJanino(name, src);
+			ret = (classCache != null) ? compileClassJaninoBytes(name, src) : compileClassJanino(name, src);
 		else
 			ret = compileClassJavac(name, src);
 		
+		//keep compiled class for reuse by subsequent JVMs
+		if( classCache != null ) {
+			byte[] classBytes = (SpoofCompiler.JAVA_COMPILER == CompilerType.JANINO) ?
+				_classBytes.get(name) : getClassAsByteArray(name);
+			if( classBytes != null )
+				classCache.write(src, classBytes);
+		}
+		
 		//keep compiled class for reuse
 		_cache.put(name, ret);
 		
@@ -127,6 +157,8 @@ public class CodegenUtils
 		//get class in a compiler-specific manner
 		if( SpoofCompiler.JAVA_COMPILER == CompilerType.JANINO )
 			return _src.get(name).getBytes();
+		else if( _classBytes.containsKey(name) )
+			return _classBytes.get(name);
 		else
 			return getClassAsByteArray(name);
 	}
@@ -134,14 +166,62 @@ public class CodegenUtils
 	public static void clearClassCache() {
 		_cache.clear();
 		_src.clear();
+		_classBytes.clear();
+	}
+	
+	/**
+	 * Sets the directory and maximum size of the persistent class cache,
+	 * which is reused if both are unchanged.
+	 * 
+	 * @param dir local directory, or null/none to disable the cache
+	 * @param mb maximum size in MB (lru eviction)
+	 */
+	public static synchronized void setPersistentClassCache(String dir, long mb) {
+		if( dir == null || dir.trim().isEmpty() || dir.trim().equalsIgnoreCase("none") ) {
+			_classCache = null;
+			return;
+		}
+		if( mb <= 0 )
+			throw new DMLRuntimeException("Codegen class cache size must be positive: "+mb+" MB.");
+		long limit = mb * 1024 * 1024;
+		CodegenClassCache classCache = _classCache;
+		if( classCache == null || !classCache.getDirectory().equals(dir.trim()) || classCache.getLimit() != limit )
+			_classCache = new CodegenClassCache(dir.trim(), limit);
+	}
+	
+	private static Class<?> loadFromClassCache(CodegenClassCache classCache, String name, String src) {
+		byte[] classBytes = classCache.read(src);
+		if( classBytes != null ) {
+			try {
+				Class<?> ret = loadFromClassFile(name, classBytes);
+				_classBytes.put(name, classBytes);
+				if( SpoofCompiler.JAVA_COMPILER == CompilerType.JANINO )
+					_src.put(name, src); //source code transfer
+				if( DMLScript.STATISTICS )
+					Statistics.incrementCodegenClassCacheHits();
+				return ret;
+			}
+			catch(DMLRuntimeException | LinkageError ex) {
+				//corrupted or incompatible entry, recompile
+				LOG.warn("Failed to load class "+name+" from codegen class cache.", ex);
+				classCache.remove(src);
+			}
+		}
+		if( DMLScript.STATISTICS )
+			Statistics.incrementCodegenClassCacheMisses();
+		return null;
 	}
 	
 	public static void clearClassCache(Class<?> cla) {
-		//one-pass, in-place filtering of class cache
+		//one-pass, in-place filtering of class cache (incl class bytes)
 		Iterator<Entry<String,Class<?>>> iter = _cache.entrySet().iterator();
-		while( iter.hasNext() )
-			if( iter.next().getValue()==cla )
+		while( iter.hasNext() ) {
+			Entry<String,Class<?>> e = iter.next();
+			if( e.getValue()==cla ) {
 				iter.remove();
+				_classBytes.remove(e.getKey());
+			}
+		}
 	}
 	
 	public static SpoofOperator createInstance(Class<?> cla) {
@@ -186,6 +266,32 @@ public class CodegenUtils
 		}
 	}	
 	
+	private static Class<?> compileClassJaninoBytes(String name, String src) {
+		try {
+			//compile source code into class files (instead of a class loader),
+			//in order to obtain the bytecode for the persistent class cache
+			Java.CompilationUnit cu = new Parser(new Scanner(null, new StringReader(src)))
+				.parseCompilationUnit();
+			ClassFile[] cfs = new UnitCompiler(cu, new ClassLoaderIClassLoader(
+				CodegenUtils.class.getClassLoader())).compileUnit(false, false, false);
+			if( cfs.length != 1 || !cfs[0].getThisClassName().replace('/', '.').equals(name) )
+				return compileClassJanino(name, src); //e.g., nested classes
+			
+			//keep source code for later re-construction
+			_src.put(name, src);
+			
+			//load compiled class from its bytecode
+			byte[] classBytes = cfs[0].toByteArray();
+			Class<?> ret = loadFromClassFile(name, classBytes);
+			_classBytes.put(name, classBytes);
+			return ret;
+		}
+		catch(Exception ex) {
+			LOG.error("Failed to compile class "+name+": \n"+src);
+			throw new DMLRuntimeException("Failed to compile class "+name+".", ex);
+		}
+	}
+	
 	////////////////////////////
 	//JAVAC-specific methods (used for hadoop environments)
 
@@ -160,8 +160,9 @@ public class LibSpoofPrimitives
 	
 	public static void vectMultAdd(double[] a, double[] b, double[] c, int bi, int ci, int len) {
 		if( a == null || b == null ) return;
-		double[] tmp = vectMultWrite(a, b, 0, bi, len);
-		LibMatrixMult.vectAdd(tmp, c, 0, ci, len);
+		//single pass w/o temporary vector
+		for( int j = 0; j < len; j++ )
+			c[ci+j] += a[j] * b[bi+j];
 	}
 	
 	public static double[] vectMultWrite(double[] a, double bval, int bi, int len) {
@@ -26,6 +26,7 @@ import java.util.List;
 import org.tugraz.sysds.runtime.matrix.data.IJV;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.operators.AggregateUnaryOperator;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
 
 /**
@@ -242,6 +243,16 @@ public abstract class ColGroup implements Serializable {
 	 */
 	public abstract ColGroup scalarOperation(ScalarOperator op);
 
+	/**
+	 * Perform the specified binary operation with a row vector directly on the compressed column group, where the
+	 * vector values of the columns of this group act as per-column scalars.
+	 * 
+	 * @param op binary operation to perform
+	 * @param v  dense row vector over all columns of the block
+	 * @return version of this column group with the operation applied
+	 */
+	public abstract ColGroup binaryRowOperation(BinaryOperator op, double[] v);
+
 	public abstract void unaryAggregateOperations(AggregateUnaryOperator op, MatrixBlock result);
 
 	/**
@@ -28,6 +28,7 @@ import org.tugraz.sysds.runtime.functionobjects.KahanFunction;
 import org.tugraz.sysds.runtime.functionobjects.KahanPlus;
 import org.tugraz.sysds.runtime.instructions.cp.KahanObject;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
 
 /**
@@ -419,4 +420,10 @@ public class ColGroupDDC1 extends ColGroupDDC {
 		// as zero are represented, it is sufficient to simply apply the scalar op
 		return new ColGroupDDC1(_colIndexes, _numRows, applyScalarOp(op), _data);
 	}
+
+	@Override
+	public ColGroup binaryRowOperation(BinaryOperator op, double[] v) {
+		// as zero are represented, it is sufficient to transform the dictionary
+		return new ColGroupDDC1(_colIndexes, _numRows, applyBinaryRowOp(op.fn, v, null), _data);
+	}
 }
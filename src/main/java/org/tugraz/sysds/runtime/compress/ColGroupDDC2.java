@@ -27,6 +27,7 @@ import org.tugraz.sysds.runtime.functionobjects.KahanFunction;
 import org.tugraz.sysds.runtime.functionobjects.KahanPlus;
 import org.tugraz.sysds.runtime.instructions.cp.KahanObject;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
 
 /**
@@ -80,6 +81,15 @@ public class ColGroupDDC2 extends ColGroupDDC {
 		return CompressionType.DDC2;
 	}
 
+	/**
+	 * Getter method to get the data, contained in The DDC ColGroup.
+	 * Not safe if modifications is made to the char list.
+	 * @return The contained data 
+	 */
+	public char[] getData() {
+		return _data;
+	}
+
 	@Override
 	protected double getData(int r) {
 		return _values[_data[r]];
@@ -353,4 +363,10 @@ public class ColGroupDDC2 extends ColGroupDDC {
 		// as zero are represented, it is sufficient to simply apply the scalar op
 		return new ColGroupDDC2(_colIndexes, _numRows, applyScalarOp(op), _data);
 	}
+
+	@Override
+	public ColGroup binaryRowOperation(BinaryOperator op, double[] v) {
+		// as zero are represented, it is sufficient to transform the dictionary
+		return new ColGroupDDC2(_colIndexes, _numRows, applyBinaryRowOp(op.fn, v, null), _data);
+	}
 }
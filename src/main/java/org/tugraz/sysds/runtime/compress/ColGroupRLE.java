@@ -30,6 +30,7 @@ import org.tugraz.sysds.runtime.functionobjects.KahanPlus;
 import org.tugraz.sysds.runtime.instructions.cp.KahanObject;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.data.Pair;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
 
 /** A group of columns compressed with a single run-length encoded bitmap. */
@@ -468,6 +469,33 @@ public class ColGroupRLE extends ColGroupOffset {
 		return new ColGroupRLE(_colIndexes, _numRows, loff.length < _numRows, rvalues, rbitmaps, rbitmapOffs);
 	}
 
+	@Override
+	public ColGroup binaryRowOperation(BinaryOperator op, double[] v) {
+		double[] val0 = getBinaryRowOpZeroTuple(op.fn, v);
+
+		// fast path: sparse-safe operations
+		// Note that bitmaps don't change and are shallow-copied
+		if(val0 == null) {
+			return new ColGroupRLE(_colIndexes, _numRows, _zeros, applyBinaryRowOp(op.fn, v, null), _data, _ptr);
+		}
+
+		// slow path: sparse-unsafe operations (potentially create new bitmap)
+		boolean[] lind = computeZeroIndicatorVector();
+		int[] loff = computeOffsets(lind);
+		if(loff.length == 0) { // empty offset list: go back to fast path
+			return new ColGroupRLE(_colIndexes, _numRows, true, applyBinaryRowOp(op.fn, v, null), _data, _ptr);
+		}
+
+		double[] rvalues = applyBinaryRowOp(op.fn, v, val0);
+		char[] lbitmap = BitmapEncoder.genRLEBitmap(loff, loff.length);
+		char[] rbitmaps = Arrays.copyOf(_data, _data.length + lbitmap.length);
+		System.arraycopy(lbitmap, 0, rbitmaps, _data.length, lbitmap.length);
+		int[] rbitmapOffs = Arrays.copyOf(_ptr, _ptr.length + 1);
+		rbitmapOffs[rbitmapOffs.length - 1] = rbitmaps.length;
+
+		return new ColGroupRLE(_colIndexes, _numRows, loff.length < _numRows, rvalues, rbitmaps, rbitmapOffs);
+	}
+
 	@Override
 	protected final void computeSum(MatrixBlock result, KahanFunction kplus) {
 		KahanObject kbuff = new KahanObject(result.quickGetValue(0, 0), result.quickGetValue(0, 1));
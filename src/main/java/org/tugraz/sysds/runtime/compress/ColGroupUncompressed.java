@@ -31,6 +31,7 @@ import org.tugraz.sysds.runtime.matrix.data.LibMatrixAgg;
 import org.tugraz.sysds.runtime.matrix.data.LibMatrixMult;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.operators.AggregateUnaryOperator;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
 import org.tugraz.sysds.runtime.util.SortUtils;
 
@@ -305,6 +306,18 @@ public class ColGroupUncompressed extends ColGroup {
 		return new ColGroupUncompressed(getColIndices(), _data.getNumRows(), retContent);
 	}
 
+	@Override
+	public ColGroup binaryRowOperation(BinaryOperator op, double[] v) {
+		// extract row vector values of the columns of this group
+		MatrixBlock vslice = new MatrixBlock(1, _colIndexes.length, false);
+		for(int j = 0; j < _colIndexes.length; j++)
+			vslice.quickSetValue(0, j, v[_colIndexes[j]]);
+		// execute binary row vector operation
+		MatrixBlock retContent = _data.binaryOperations(op, vslice, new MatrixBlock());
+		// construct new uncompressed column group
+		return new ColGroupUncompressed(getColIndices(), _data.getNumRows(), retContent);
+	}
+
 	@Override
 	public void unaryAggregateOperations(AggregateUnaryOperator op, MatrixBlock ret) {
 		// execute unary aggregate operations
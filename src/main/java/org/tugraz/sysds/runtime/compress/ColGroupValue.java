@@ -22,6 +22,7 @@ import org.tugraz.sysds.runtime.functionobjects.Builtin;
 import org.tugraz.sysds.runtime.functionobjects.Builtin.BuiltinCode;
 import org.tugraz.sysds.runtime.functionobjects.KahanFunction;
 import org.tugraz.sysds.runtime.functionobjects.KahanPlus;
+import org.tugraz.sysds.runtime.functionobjects.ValueFunction;
 import org.tugraz.sysds.runtime.instructions.cp.KahanObject;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.data.Pair;
@@ -335,6 +336,48 @@ public abstract class ColGroupValue extends ColGroup {
 		return ret;
 	}
 
+	/**
+	 * Method for use by subclasses. Applies a binary row vector operation to the value metadata stored in the
+	 * superclass, i.e., the vector value of each column is used as scalar operand for all values of this column.
+	 * 
+	 * @param fn       binary function
+	 * @param v        dense row vector over all columns of the block
+	 * @param newTuple optional value tuple to append, or null
+	 * @return transformed copy of value metadata for this column group
+	 */
+	protected double[] applyBinaryRowOp(ValueFunction fn, double[] v, double[] newTuple) {
+		final int numCols = getNumCols();
+		final int len = _values.length;
+		double[] ret = new double[(newTuple != null) ? len + numCols : len];
+		for(int i = 0; i < len; i += numCols)
+			for(int j = 0; j < numCols; j++)
+				ret[i + j] = fn.execute(_values[i + j], v[_colIndexes[j]]);
+
+		// add new value tuple to the end
+		if(newTuple != null)
+			System.arraycopy(newTuple, 0, ret, len, numCols);
+
+		return ret;
+	}
+
+	/**
+	 * Computes the results of a binary row vector operation for zero inputs.
+	 * 
+	 * @param fn binary function
+	 * @param v  dense row vector over all columns of the block
+	 * @return value tuple of results for zero inputs, or null if all results are zero
+	 */
+	protected double[] getBinaryRowOpZeroTuple(ValueFunction fn, double[] v) {
+		final int numCols = getNumCols();
+		double[] ret = new double[numCols];
+		boolean allZeros = true;
+		for(int j = 0; j < numCols; j++) {
+			ret[j] = fn.execute(0, v[_colIndexes[j]]);
+			allZeros &= (ret[j] == 0);
+		}
+		return allZeros ? null : ret;
+	}
+
 	@Override
 	public void unaryAggregateOperations(AggregateUnaryOperator op, MatrixBlock result) {
 		unaryAggregateOperations(op, result, 0, getNumRows());
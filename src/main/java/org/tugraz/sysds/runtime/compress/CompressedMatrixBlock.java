@@ -69,6 +69,7 @@ import org.tugraz.sysds.runtime.instructions.spark.data.IndexedMatrixValue;
 import org.tugraz.sysds.runtime.matrix.data.CTableMap;
 import org.tugraz.sysds.runtime.matrix.data.IJV;
 import org.tugraz.sysds.runtime.matrix.data.LibMatrixBincell;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixBincell.BinaryAccessType;
 import org.tugraz.sysds.runtime.matrix.data.LibMatrixReorg;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.data.MatrixIndexes;
@@ -92,8 +93,10 @@ import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
 import org.tugraz.sysds.runtime.matrix.operators.TernaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.UnaryOperator;
 import org.tugraz.sysds.runtime.util.CommonThreadPool;
+import org.tugraz.sysds.runtime.util.DataConverter;
 import org.tugraz.sysds.runtime.util.IndexRange;
 import org.tugraz.sysds.runtime.util.SortUtils;
+import org.tugraz.sysds.utils.Statistics;
 
 public class CompressedMatrixBlock extends MatrixBlock {
 
@@ -934,11 +937,143 @@ public class CompressedMatrixBlock extends MatrixBlock {
 			newColGroups.add(grp.scalarOperation(sop));
 		}
 		ret._colGroups = newColGroups;
-		ret.setNonZeros(rlen * clen);
+		ret.setNonZeros((long) rlen * clen);
 
+		Statistics.incrementCLACompressedOps();
 		return ret;
 	}
 
+	/**
+	 * Binary operation with a row vector directly on the compressed column groups, where the dictionaries of
+	 * value-based column groups are transformed with the vector values of their columns as per-column scalars.
+	 * 
+	 * @param op   binary operator
+	 * @param that row vector of dimensions 1 x clen
+	 * @param result optional output matrix block
+	 * @return compressed output matrix block
+	 */
+	private MatrixBlock binaryRowOperations(BinaryOperator op, MatrixBlock that, MatrixValue result) {
+		// dense row vector over all columns
+		double[] v = DataConverter.convertToDoubleVector(getUncompressed(that), false);
+
+		// allocate the output matrix block
+		CompressedMatrixBlock ret = null;
+		if(result == null || !(result instanceof CompressedMatrixBlock))
+			ret = new CompressedMatrixBlock(getNumRows(), getNumColumns(), sparse);
+		else {
+			ret = (CompressedMatrixBlock) result;
+			ret.reset(rlen, clen);
+		}
+
+		// apply the operation to each of the column groups
+		ArrayList<ColGroup> newColGroups = new ArrayList<>();
+		for(ColGroup grp : _colGroups)
+			newColGroups.add(grp.binaryRowOperation(op, v));
+		ret._colGroups = newColGroups;
+		ret.setNonZeros((long) rlen * clen);
+
+		Statistics.incrementCLACompressedOps();
+		return ret;
+	}
+
+	/**
+	 * Column slicing of entire column groups, where the output shares the (immutable) bitmaps and dictionaries of
+	 * the selected column groups.
+	 * 
+	 * @param groups column groups that are entirely within [cl, cu]
+	 * @param cl     column lower index, inclusive
+	 * @param cu     column upper index, inclusive
+	 * @param ret    optional output matrix block
+	 * @return compressed output matrix block
+	 */
+	private MatrixBlock sliceColGroups(List<ColGroup> groups, int cl, int cu, CacheBlock ret) {
+		CompressedMatrixBlock ret2 = null;
+		if(ret == null || !(ret instanceof CompressedMatrixBlock))
+			ret2 = new CompressedMatrixBlock(rlen, cu - cl + 1, sparse);
+		else {
+			ret2 = (CompressedMatrixBlock) ret;
+			ret2.reset(rlen, cu - cl + 1);
+		}
+
+		// copy of column groups w/ col index shifting
+		ret2.allocateColGroupList();
+		long nnz = 0;
+		for(ColGroup grp : groups) {
+			ColGroup tmp = ConverterUtils.copyColGroup(grp);
+			tmp.shiftColIndices(-cl);
+			ret2._colGroups.add(tmp);
+			nnz += getNumberNonZeros(grp);
+		}
+		ret2.setNonZeros(nnz);
+
+		Statistics.incrementCLACompressedOps();
+		return ret2;
+	}
+
+	/**
+	 * Slicing of arbitrary row and column ranges via decompression of the requested range only, where we iterate
+	 * over the values of the column groups within this range.
+	 * 
+	 * @param groups column groups that overlap with [cl, cu]
+	 * @param rl     row lower index, inclusive
+	 * @param ru     row upper index, inclusive
+	 * @param cl     column lower index, inclusive
+	 * @param cu     column upper index, inclusive
+	 * @param ret    optional output matrix block
+	 * @return uncompressed output matrix block
+	 */
+	private MatrixBlock sliceDecompress(List<ColGroup> groups, int rl, int ru, int cl, int cu, CacheBlock ret) {
+		// output with the sparsity of the input (assuming uniform distribution of non-zeros)
+		MatrixBlock result = (ret instanceof MatrixBlock && !(ret instanceof CompressedMatrixBlock)) ?
+			(MatrixBlock) ret : new MatrixBlock();
+		long estnnz = (long) ((double) nonZeros / rlen / clen * (ru - rl + 1) * (cu - cl + 1));
+		boolean rsparse = MatrixBlock.evalSparseFormatInMemory(ru - rl + 1, cu - cl + 1, estnnz);
+		result.reset(ru - rl + 1, cu - cl + 1, rsparse, estnnz);
+
+		// decompress the overlapping column groups for the given row range
+		// (append w/ a single sort of sparse rows instead of sorted inserts)
+		for(ColGroup grp : groups) {
+			Iterator<IJV> iter = grp.getIterator(rl, ru + 1, false, false);
+			while(iter.hasNext()) {
+				IJV cell = iter.next();
+				if(cell.getJ() >= cl && cell.getJ() <= cu)
+					result.appendValue(cell.getI() - rl, cell.getJ() - cl, cell.getV());
+			}
+		}
+		if(result.isInSparseFormat())
+			result.sortSparseRows();
+		result.examSparsity();
+
+		Statistics.incrementCLACompressedOps();
+		return result;
+	}
+
+	/**
+	 * Exact number of non-zeros of a column group, computed from the value counts and dictionary of value-based
+	 * column groups without decompression.
+	 * 
+	 * @param grp column group
+	 * @return number of non-zeros
+	 */
+	private static long getNumberNonZeros(ColGroup grp) {
+		if(grp instanceof ColGroupUncompressed) {
+			MatrixBlock data = ((ColGroupUncompressed) grp).getData();
+			return data.recomputeNonZeros(0, data.getNumRows() - 1, 0, data.getNumColumns() - 1);
+		}
+		ColGroupValue vgrp = (ColGroupValue) grp;
+		int[] counts = vgrp.getCounts();
+		double[] values = vgrp.getValues();
+		int ncol = grp.getNumCols();
+		long nnz = 0;
+		for(int k = 0; k < counts.length; k++) {
+			int lnnz = 0;
+			for(int j = 0; j < ncol; j++)
+				lnnz += (values[k * ncol + j] != 0) ? 1 : 0;
+			nnz += (long) counts[k] * lnnz;
+		}
+		return nnz;
+	}
+
 	@Override
 	public MatrixBlock append(MatrixBlock that, MatrixBlock ret) {
 		// call uncompressed matrix append if necessary
@@ -980,6 +1115,7 @@ public class CompressedMatrixBlock extends MatrixBlock {
 
 		// meta data maintenance
 		ret2.setNonZeros(nnz);
+		Statistics.incrementCLACompressedOps();
 		return ret2;
 	}
 
@@ -1914,6 +2050,12 @@ public class CompressedMatrixBlock extends MatrixBlock {
 
 	@Override
 	public MatrixBlock binaryOperations(BinaryOperator op, MatrixValue thatValue, MatrixValue result) {
+		// compressed matrix-row vector operations (via transformed dictionaries)
+		MatrixBlock that = (MatrixBlock) thatValue;
+		if(isCompressed() && LibMatrixBincell.isValidDimensionsBinary(this, that)
+			&& LibMatrixBincell.getBinaryAccessType(this, that) == BinaryAccessType.MATRIX_ROW_VECTOR)
+			return binaryRowOperations(op, that, result);
+
 		printDecompressWarning("binaryOperations", (MatrixBlock) thatValue);
 		MatrixBlock left = isCompressed() ? decompress() : this;
 		MatrixBlock right = getUncompressed(thatValue);
@@ -1996,9 +2138,40 @@ public class CompressedMatrixBlock extends MatrixBlock {
 
 	@Override
 	public MatrixBlock slice(int rl, int ru, int cl, int cu, CacheBlock ret) {
-		printDecompressWarning("slice");
-		MatrixBlock tmp = isCompressed() ? decompress() : this;
-		return tmp.slice(rl, ru, cl, cu, ret);
+		return slice(rl, ru, cl, cu, true, ret);
+	}
+
+	@Override
+	public MatrixBlock slice(int rl, int ru, int cl, int cu, boolean deep, CacheBlock ret) {
+		// call uncompressed slice if necessary
+		if(!isCompressed())
+			return super.slice(rl, ru, cl, cu, deep, ret);
+
+		// check the validity of bounds
+		if(rl < 0 || rl >= rlen || ru < rl || ru >= rlen || cl < 0 || cl >= clen || cu < cl || cu >= clen) {
+			throw new DMLRuntimeException("Invalid values for matrix indexing: [" + (rl + 1) + ":" + (ru + 1) + ","
+				+ (cl + 1) + ":" + (cu + 1) + "] " + "must be within matrix dimensions [" + rlen + "," + clen + "]");
+		}
+
+		// determine column groups overlapping with the column range
+		ArrayList<ColGroup> groups = new ArrayList<>();
+		boolean aligned = true;
+		for(ColGroup grp : _colGroups) {
+			int[] cols = grp.getColIndices();
+			int inRange = 0;
+			for(int j = 0; j < cols.length; j++)
+				inRange += (cols[j] >= cl && cols[j] <= cu) ? 1 : 0;
+			if(inRange > 0)
+				groups.add(grp);
+			aligned &= (inRange == 0 || inRange == cols.length);
+		}
+
+		// a) column slicing of entire column groups (compressed output)
+		if(rl == 0 && ru == rlen - 1 && aligned)
+			return sliceColGroups(groups, cl, cu, ret);
+
+		// b) row (and column) slicing via decompression of the slice only
+		return sliceDecompress(groups, rl, ru, cl, cu, ret);
 	}
 
 	@Override
@@ -2272,12 +2445,14 @@ public class CompressedMatrixBlock extends MatrixBlock {
 
 	private void printDecompressWarning(String operation) {
 		if(isCompressed()) {
+			Statistics.incrementCLADecompressOps();
 			LOG.warn("Operation '" + operation + "' not supported yet - decompressing for ULA operations.");
 		}
 	}
 
 	private void printDecompressWarning(String operation, MatrixBlock m2) {
 		if(isCompressed() || isCompressed(m2)) {
+			Statistics.incrementCLADecompressOps();
 			LOG.warn("Operation '" + operation + "' not supported yet - decompressing for ULA operations.");
 		}
 	}
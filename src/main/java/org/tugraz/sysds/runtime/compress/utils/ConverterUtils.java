@@ -20,6 +20,7 @@ import java.util.Arrays;
 
 import org.tugraz.sysds.runtime.compress.ColGroup;
 import org.tugraz.sysds.runtime.compress.ColGroupDDC1;
+import org.tugraz.sysds.runtime.compress.ColGroupDDC2;
 import org.tugraz.sysds.runtime.compress.ColGroupOLE;
 import org.tugraz.sysds.runtime.compress.ColGroupRLE;
 import org.tugraz.sysds.runtime.compress.ColGroupUncompressed;
@@ -58,6 +59,10 @@ public class ConverterUtils {
 			ColGroupDDC1 in = (ColGroupDDC1) group;
 			ret = new ColGroupDDC1(colIndices, in.getNumRows(), in.getValues(), in.getData());
 		}
+		else if(group instanceof ColGroupDDC2) {
+			ColGroupDDC2 in = (ColGroupDDC2) group;
+			ret = new ColGroupDDC2(colIndices, in.getNumRows(), in.getValues(), in.getData());
+		}
 		else {
 			throw new RuntimeException("Using '" + group.getClass() + "' instance of ColGroup not fully supported");
 		}
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 
 import org.tugraz.sysds.api.DMLScript;
 import org.tugraz.sysds.conf.ConfigurationManager;
+import org.tugraz.sysds.hops.codegen.SpoofCompiler;
 import org.tugraz.sysds.hops.recompile.Recompiler;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
@@ -34,6 +35,7 @@ import org.tugraz.sysds.utils.Statistics;
 public class BasicProgramBlock extends ProgramBlock 
 {
 	protected ArrayList<Instruction> _inst;
+	private InstructionScheduler _sched = null;
 
 	public BasicProgramBlock(Program prog) {
 		super(prog);
@@ -50,14 +52,17 @@ public class BasicProgramBlock extends ProgramBlock
 
 	public  void setInstructions( ArrayList<Instruction> inst ) {
 		_inst = inst;
+		_sched = null;
 	}
 
 	public void addInstruction(Instruction inst) {
 		_inst.add(inst);
+		_sched = null;
 	}
 
 	public void addInstructions(ArrayList<Instruction> inst) {
 		_inst.addAll(inst);
+		_sched = null;
 	}
 
 	public int getNumInstructions() {
@@ -90,6 +95,13 @@ public class BasicProgramBlock extends ProgramBlock
 				tmp = Recompiler.recompileHopsDag(
 					_sb, _sb.getHops(), ec, null, false, true, _tid);
 			}
+			else if( _sb != null && _sb.isAsyncCodegenPending() ) {
+				//regenerate instructions until the asynchronously compiled
+				//fused operators are available, and keep them afterwards
+				tmp = SpoofCompiler.generateCodeFromHopDAGsToInst(_sb, _sb.getHops());
+				if( !_sb.isAsyncCodegenPending() )
+					_inst = tmp;
+			}
 			if( DMLScript.STATISTICS ){
 				long t1 = System.nanoTime();
 				Statistics.incrementHOPRecompileTime(t1-t0);
@@ -114,8 +126,11 @@ public class BasicProgramBlock extends ProgramBlock
 			}
 		}
 
-		//actual instruction execution
-		executeInstructions(tmp, ec);
+		//actual instruction execution (w/ optional inter-operator parallelism)
+		if( InstructionScheduler.isEnabled() )
+			getInstructionScheduler(tmp).execute(this, ec);
+		else
+			executeInstructions(tmp, ec);
 		
 		//statement-block-level, lineage-based caching
 		if (_sb != null && liInputs != null) {
@@ -123,4 +138,14 @@ public class BasicProgramBlock extends ProgramBlock
 			LineageCache.putValue(_sb.getOutputsofSB(), _sb.getOutputsofSB().size(), liInputs, name, ec);
 		}
 	}
+	
+	private InstructionScheduler getInstructionScheduler(ArrayList<Instruction> inst) {
+		//reuse schedule of unchanged instructions (w/o recompilation)
+		if( _sched != null && _sched.isValid(inst) )
+			return _sched;
+		InstructionScheduler sched = new InstructionScheduler(inst);
+		if( inst == _inst )
+			_sched = sched;
+		return sched;
+	}
 }
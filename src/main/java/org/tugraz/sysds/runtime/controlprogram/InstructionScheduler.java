@@ -0,0 +1,450 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.controlprogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.tugraz.sysds.api.DMLScript;
+import org.tugraz.sysds.conf.CompilerConfig;
+import org.tugraz.sysds.conf.ConfigurationManager;
+import org.tugraz.sysds.conf.DMLConfig;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.lops.LeftIndex;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
+import org.tugraz.sysds.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+import org.tugraz.sysds.runtime.instructions.Instruction;
+import org.tugraz.sysds.runtime.instructions.cp.CPInstruction;
+import org.tugraz.sysds.runtime.instructions.cp.CPInstruction.CPType;
+import org.tugraz.sysds.runtime.instructions.cp.CPOperand;
+import org.tugraz.sysds.runtime.instructions.cp.ComputationCPInstruction;
+import org.tugraz.sysds.runtime.instructions.cp.Data;
+import org.tugraz.sysds.runtime.instructions.cp.VariableCPInstruction;
+import org.tugraz.sysds.runtime.lineage.LineageCacheConfig.ReuseCacheType;
+import org.tugraz.sysds.runtime.meta.DataCharacteristics;
+import org.tugraz.sysds.utils.Statistics;
+
+/**
+ * DAG-aware scheduler for inter-operator parallelism within basic program
+ * blocks. The instruction dependency graph is built from the operand names
+ * of the instructions (read-after-write, write-after-read, and write-after-write
+ * dependencies), and independent CP instructions on matrices or frames are
+ * executed concurrently on a bounded thread pool.
+ *
+ * Concurrent instructions are executed against private symbol tables of
+ * their operands, and their outputs are written back by the scheduler, which
+ * is the only thread accessing the symbol table of the program block. Cheap
+ * scalar and variable instructions are executed by the scheduler itself,
+ * while instructions with unknown operands or side effects (e.g., function
+ * calls, print, write, and all non-CP instructions) act as barriers.
+ * Instructions are only started concurrently if the estimated size of their
+ * inputs and outputs fits, together with all running instructions, into
+ * the local memory budget also used by the recompiler.
+ */
+public class InstructionScheduler
+{
+	//types of CP instructions that are executed concurrently if independent
+	private static final EnumSet<CPType> PARALLEL_TYPES = EnumSet.of(
+		CPType.AggregateUnary, CPType.AggregateBinary, CPType.AggregateTernary,
+		CPType.Unary, CPType.Binary, CPType.Ternary, CPType.Quaternary, CPType.Ctable,
+		CPType.Reorg, CPType.Append, CPType.Rand, CPType.QSort, CPType.QPick,
+		CPType.MatrixIndexing, CPType.MMTSJ, CPType.PMMJ, CPType.MMChain, CPType.Reshape,
+		CPType.SpoofFused, CPType.CentralMoment, CPType.Covariance, CPType.UaggOuterChain);
+
+	//opcodes of the above types with side effects or order-dependent semantics
+	private static final HashSet<String> SERIAL_OPCODES = new HashSet<>(
+		Arrays.asList("print", "stop", "assert", "time"));
+
+	//shared pool of daemon threads for all concurrent instructions
+	private static ExecutorService _pool = null;
+
+	private enum NodeType {
+		PARALLEL, //concurrent execution
+		INLINE,   //execution by the scheduler
+		BARRIER,  //execution by the scheduler, after and before all other instructions
+	}
+
+	private final ArrayList<Instruction> _inst;
+	private final int _numInst;
+	private final Node[] _nodes;
+	private final int _numParallel;
+	private final boolean _parallel;
+
+	public InstructionScheduler(ArrayList<Instruction> inst) {
+		_inst = inst;
+		_numInst = inst.size();
+		_nodes = new Node[_numInst];
+
+		//construct dependency graph from operand names
+		HashMap<String, Node> writers = new HashMap<>();
+		HashMap<String, ArrayList<Node>> readers = new HashMap<>();
+		ArrayList<Node> lastNodes = new ArrayList<>();
+		Node barrier = null;
+		for( int i=0; i<_numInst; i++ ) {
+			Node node = _nodes[i] = createNode(i, inst.get(i));
+			if( node.type == NodeType.BARRIER ) {
+				//depend on all previous instructions (transitively)
+				for( Node pred : lastNodes )
+					addEdge(pred, node);
+				addEdge(barrier, node);
+				lastNodes.clear();
+				writers.clear();
+				readers.clear();
+				barrier = node;
+				continue;
+			}
+			addEdge(barrier, node);
+			for( String name : node.reads )
+				addEdge(writers.get(name), node);
+			for( String name : node.writes ) {
+				addEdge(writers.get(name), node);
+				for( Node pred : readers.getOrDefault(name, new ArrayList<>()) )
+					addEdge(pred, node);
+				writers.put(name, node);
+				readers.remove(name);
+			}
+			for( String name : node.reads )
+				readers.computeIfAbsent(name, k -> new ArrayList<>()).add(node);
+			lastNodes.add(node);
+		}
+
+		//concurrent execution only if at least two parallel
+		//instructions are on the same level of the graph
+		HashMap<Integer, Integer> levels = new HashMap<>();
+		int numParallel = 0;
+		boolean parallel = false;
+		for( Node node : _nodes ) {
+			if( node.type != NodeType.PARALLEL )
+				continue;
+			numParallel++;
+			parallel |= levels.merge(node.level, 1, Integer::sum) >= 2;
+		}
+		_numParallel = numParallel;
+		_parallel = parallel;
+	}
+
+	/**
+	 * Indicates if inter-operator parallelism is enabled, which requires
+	 * the configuration sysds.cp.parallel.inst, and is not supported with
+	 * lineage tracing and GPU instructions.
+	 *
+	 * @return true if enabled
+	 */
+	public static boolean isEnabled() {
+		return ConfigurationManager.isParallelInstructions()
+			&& !DMLScript.LINEAGE && ReuseCacheType.isNone()
+			&& !DMLScript.USE_ACCELERATOR
+			&& InfrastructureAnalyzer.getLocalParallelism() > 1;
+	}
+
+	/**
+	 * Indicates if this schedule is valid for the given instructions,
+	 * which allows reusing the schedule of program blocks without
+	 * recompilation. Besides the list, this also compares the individual
+	 * instructions because some rewrites replace instructions in place.
+	 *
+	 * @param inst list of instructions
+	 * @return true if the schedule was created for the given instructions
+	 */
+	public boolean isValid(ArrayList<Instruction> inst) {
+		if( _inst != inst || _numInst != inst.size() )
+			return false;
+		for( int i=0; i<_numInst; i++ )
+			if( _nodes[i].inst != inst.get(i) )
+				return false;
+		return true;
+	}
+
+	public boolean isParallel() {
+		return _parallel;
+	}
+
+	public void execute(ProgramBlock pb, ExecutionContext ec) {
+		//sequential execution if no independent instructions
+		if( !_parallel ) {
+			pb.executeInstructions(_inst, ec);
+			return;
+		}
+
+		int[] numPreds = new int[_numInst];
+		double[] mem = new double[_numInst];
+		LocalVariableMap[] vars = new LocalVariableMap[_numInst];
+		PriorityQueue<Node> ready = new PriorityQueue<>(Comparator.comparingInt(n -> n.id));
+		for( Node node : _nodes ) {
+			numPreds[node.id] = node.numPreds;
+			if( node.numPreds == 0 )
+				ready.add(node);
+		}
+
+		ExecutorCompletionService<Node> cs = new ExecutorCompletionService<>(getPool());
+		DMLConfig dconf = ConfigurationManager.getDMLConfig();
+		CompilerConfig cconf = ConfigurationManager.getCompilerConfig();
+		double budget = OptimizerUtils.getLocalMemBudget();
+		double memRunning = 0;
+		int running = 0;
+		int done = 0;
+		Throwable error = null;
+
+		try {
+			while( done < _numInst ) {
+				//dispatch ready instructions in program order
+				ArrayList<Node> blocked = new ArrayList<>();
+				while( !ready.isEmpty() ) {
+					Node node = ready.poll();
+					if( node.type != NodeType.PARALLEL ) {
+						pb.executeSingleInstruction(node.inst, ec);
+						done++;
+						releaseSuccessors(node, numPreds, ready);
+						continue;
+					}
+					mem[node.id] = estimateMemory(node, ec, budget);
+					if( running > 0 && memRunning + mem[node.id] > budget ) {
+						blocked.add(node); //wait for running instructions
+						continue;
+					}
+					LocalVariableMap lvars = vars[node.id] = new LocalVariableMap();
+					for( String name : node.operands ) {
+						Data dat = ec.getVariable(name);
+						if( dat != null )
+							lvars.put(name, dat);
+					}
+					cs.submit(() -> {
+						ConfigurationManager.setLocalConfig(dconf);
+						ConfigurationManager.setLocalConfig(cconf);
+						try {
+							pb.executeSingleInstruction(node.inst, new ExecutionContext(lvars));
+						}
+						finally {
+							ConfigurationManager.clearLocalConfigs();
+						}
+						return node;
+					});
+					memRunning += mem[node.id];
+					running++;
+				}
+				ready.addAll(blocked);
+				if( done == _numInst )
+					break;
+				if( running == 0 )
+					throw new DMLRuntimeException("Invalid instruction schedule: no ready instructions.");
+
+				//wait for the next completed instruction, and write back its outputs
+				Future<Node> future = cs.take();
+				running--;
+				Node node = future.get();
+				for( String name : node.writes ) {
+					Data dat = vars[node.id].get(name);
+					if( dat != null )
+						ec.setVariable(name, dat);
+				}
+				vars[node.id] = null;
+				memRunning -= mem[node.id];
+				done++;
+				releaseSuccessors(node, numPreds, ready);
+			}
+		}
+		catch(ExecutionException ex) {
+			error = ex.getCause();
+		}
+		catch(Throwable ex) {
+			error = ex;
+		}
+
+		//wait for running instructions (on errors)
+		for( ; running > 0; running-- ) {
+			try {
+				cs.take();
+			}
+			catch(InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+
+		if( error instanceof RuntimeException )
+			throw (RuntimeException) error;
+		else if( error instanceof Error )
+			throw (Error) error;
+		else if( error != null )
+			throw new DMLRuntimeException((Exception) error);
+
+		if( DMLScript.STATISTICS ) {
+			Statistics.incrementParallelInstSB();
+			Statistics.incrementParallelInst(_numParallel);
+		}
+	}
+
+	private static void releaseSuccessors(Node node, int[] numPreds, PriorityQueue<Node> ready) {
+		for( Node succ : node.succ )
+			if( --numPreds[succ.id] == 0 )
+				ready.add(succ);
+	}
+
+	private static double estimateMemory(Node node, ExecutionContext ec, double budget) {
+		double mem = 0;
+		for( String name : node.operands ) {
+			Data dat = ec.getVariable(name);
+			if( !(dat instanceof CacheableData) )
+				continue;
+			DataCharacteristics dc = ((CacheableData<?>) dat).getDataCharacteristics();
+			if( !dc.dimsKnown() )
+				return budget; //exclusive execution
+			mem += (dat instanceof MatrixObject) ?
+				OptimizerUtils.estimateSizeExactSparsity(dc) :
+				OptimizerUtils.estimateSize(dc.getRows(), dc.getCols());
+		}
+		return Math.min(mem, budget);
+	}
+
+	private static Node createNode(int id, Instruction inst) {
+		if( !(inst instanceof CPInstruction) || inst.requiresLabelUpdate() )
+			return new Node(id, inst, NodeType.BARRIER);
+
+		if( inst instanceof VariableCPInstruction ) {
+			VariableCPInstruction vinst = (VariableCPInstruction) inst;
+			Node node = new Node(id, inst, NodeType.INLINE);
+			switch( vinst.getVariableOpcode() ) {
+				case Write:
+				case Read:
+				case SetFileName:
+					return new Node(id, inst, NodeType.BARRIER);
+				case CreateVariable:
+					//write variable name (not file name and flags)
+					addOperand(vinst.getInput1(), node.writes);
+					node.operands.addAll(node.writes);
+					return node;
+				case AssignVariable:
+				case CopyVariable:
+				case CastAsScalarVariable:
+				case CastAsMatrixVariable:
+				case CastAsFrameVariable:
+				case CastAsDoubleVariable:
+				case CastAsIntegerVariable:
+				case CastAsBooleanVariable:
+					//read first input, write all other operands
+					addOperand(vinst.getInput1(), node.reads);
+					for( int i=1; i<vinst.getInputs().size(); i++ )
+						addOperand(vinst.getInput(i), node.writes);
+					addOperand(vinst.getOutput(), node.writes);
+					node.reads.removeAll(node.writes);
+					node.operands.addAll(node.reads);
+					node.operands.addAll(node.writes);
+					return node;
+				default:
+					//write all operands (e.g., rmvar, mvvar, rmfilevar)
+					for( CPOperand in : vinst.getInputs() )
+						addOperand(in, node.writes);
+					addOperand(vinst.getOutput(), node.writes);
+					node.operands.addAll(node.writes);
+					return node;
+			}
+		}
+
+		CPInstruction cpinst = (CPInstruction) inst;
+		if( !(inst instanceof ComputationCPInstruction)
+			|| !PARALLEL_TYPES.contains(cpinst.getCPInstructionType())
+			|| SERIAL_OPCODES.contains(cpinst.getOpcode()) )
+			return new Node(id, inst, NodeType.BARRIER);
+
+		//concurrent execution of instructions on matrices or frames
+		ComputationCPInstruction cinst = (ComputationCPInstruction) inst;
+		Set<String> reads = new LinkedHashSet<>();
+		boolean nonScalar = !cinst.output.isScalar();
+		for( CPOperand in : cinst.getInputs() )
+			nonScalar |= addOperand(in, reads) && !in.isScalar();
+		Node node = new Node(id, inst, nonScalar ?
+			NodeType.PARALLEL : NodeType.INLINE);
+		node.reads.addAll(reads);
+		node.writes.add(cinst.getOutputVariableName());
+		if( LeftIndex.OPCODE.equals(cinst.getOpcode()) )
+			node.writes.add(cinst.input1.getName()); //potential update in-place
+		node.reads.removeAll(node.writes);
+		node.operands.addAll(node.reads);
+		node.operands.addAll(node.writes);
+		return node;
+	}
+
+	/**
+	 * Adds the name of the given operand, if it is a variable.
+	 *
+	 * @param in operand, or null for unused operands
+	 * @param names set of operand names
+	 * @return true if the operand is a variable
+	 */
+	private static boolean addOperand(CPOperand in, Set<String> names) {
+		if( in == null || in.isLiteral() || in.getName() == null || in.getName().isEmpty() )
+			return false;
+		names.add(in.getName());
+		return true;
+	}
+
+	private static void addEdge(Node from, Node to) {
+		//note: duplicate edges of the same instructions are consecutive
+		if( from == null || from == to || (!from.succ.isEmpty()
+			&& from.succ.get(from.succ.size()-1) == to) )
+			return;
+		from.succ.add(to);
+		to.numPreds++;
+		to.level = Math.max(to.level, from.level + 1);
+	}
+
+	private static synchronized ExecutorService getPool() {
+		if( _pool == null ) {
+			_pool = Executors.newFixedThreadPool(
+				InfrastructureAnalyzer.getLocalParallelism(), r -> {
+					Thread t = new Thread(r, "sysds-inst-worker");
+					t.setDaemon(true);
+					return t;
+				});
+		}
+		return _pool;
+	}
+
+	private static class Node
+	{
+		private final int id;
+		private final Instruction inst;
+		private final NodeType type;
+		private final Set<String> operands = new LinkedHashSet<>();
+		private final Set<String> reads = new LinkedHashSet<>();
+		private final Set<String> writes = new LinkedHashSet<>();
+		private final ArrayList<Node> succ = new ArrayList<>();
+		private int numPreds = 0;
+		private int level = 0;
+
+		private Node(int id, Instruction inst, NodeType type) {
+			this.id = id;
+			this.inst = inst;
+			this.type = type;
+		}
+	}
+}
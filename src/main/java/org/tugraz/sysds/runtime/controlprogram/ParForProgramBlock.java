@@ -26,6 +26,7 @@ import org.tugraz.sysds.api.DMLScript;
 import org.tugraz.sysds.common.Types.DataType;
 import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.conf.CompilerConfig;
+import org.tugraz.sysds.conf.CompilerConfig.ConfigType;
 import org.tugraz.sysds.conf.ConfigurationManager;
 import org.tugraz.sysds.hops.OptimizerUtils;
 import org.tugraz.sysds.hops.recompile.Recompiler;
@@ -46,6 +47,7 @@ import org.tugraz.sysds.runtime.controlprogram.parfor.DataPartitionerLocal;
 import org.tugraz.sysds.runtime.controlprogram.parfor.DataPartitionerRemoteSpark;
 import org.tugraz.sysds.runtime.controlprogram.parfor.LocalParWorker;
 import org.tugraz.sysds.runtime.controlprogram.parfor.LocalTaskQueue;
+import org.tugraz.sysds.runtime.controlprogram.parfor.LocalTaskQueueWorkStealing;
 import org.tugraz.sysds.runtime.controlprogram.parfor.ParForBody;
 import org.tugraz.sysds.runtime.controlprogram.parfor.RemoteDPParForSpark;
 import org.tugraz.sysds.runtime.controlprogram.parfor.RemoteParForJobReturn;
@@ -54,6 +56,7 @@ import org.tugraz.sysds.runtime.controlprogram.parfor.ResultMerge;
 import org.tugraz.sysds.runtime.controlprogram.parfor.ResultMergeLocalAutomatic;
 import org.tugraz.sysds.runtime.controlprogram.parfor.ResultMergeLocalFile;
 import org.tugraz.sysds.runtime.controlprogram.parfor.ResultMergeLocalMemory;
+import org.tugraz.sysds.runtime.controlprogram.parfor.ResultMergeLocalStreaming;
 import org.tugraz.sysds.runtime.controlprogram.parfor.ResultMergeRemoteSpark;
 import org.tugraz.sysds.runtime.controlprogram.parfor.Task;
 import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitioner;
@@ -63,6 +66,7 @@ import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerFactoringCm
 import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerFixedsize;
 import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerNaive;
 import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerStatic;
+import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerWorkStealing;
 import org.tugraz.sysds.runtime.controlprogram.parfor.opt.OptTreeConverter;
 import org.tugraz.sysds.runtime.controlprogram.parfor.opt.OptimizationWrapper;
 import org.tugraz.sysds.runtime.controlprogram.parfor.opt.OptimizerRuleBased;
@@ -97,6 +101,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -131,6 +136,7 @@ public class ParForProgramBlock extends ForProgramBlock
 		FACTORING,      //factoring task partitioner  
 		FACTORING_CMIN, //constrained factoring task partitioner, uses tasksize as min constraint
 		FACTORING_CMAX, //constrained factoring task partitioner, uses tasksize as max constraint
+		WORK_STEALING,  //work stealing of ranges on demand (local only), uses tasksize as min constraint
 		UNSPECIFIED
 	}
 	
@@ -288,6 +294,7 @@ public class ParForProgramBlock extends ForProgramBlock
 	public static final boolean ALLOW_NESTED_PARALLELISM    = true; // if not, transparently change parfor to for on program conversions (local,remote)
 	public static final boolean USE_PARALLEL_RESULT_MERGE   = false; // if result merge is run in parallel or serial 
 	public static final boolean USE_PARALLEL_RESULT_MERGE_REMOTE = true; // if remote result merge should be run in parallel for multiple result vars
+	public static       boolean USE_STREAMING_RESULT_MERGE  = true; // if local in-memory result merge is done by workers once they finish
 	public static final boolean ALLOW_DATA_COLOCATION       = true;
 	public static final boolean CREATE_UNSCOPED_RESULTVARS  = true;
 	public static       boolean ALLOW_REUSE_PARTITION_VARS  = true; //reuse partition input matrices, applied only if read-only in surrounding loops
@@ -709,6 +716,10 @@ public class ParForProgramBlock extends ForProgramBlock
 		int numExecutedTasks = 0;
 		int numExecutedIterations = 0;
 		
+		//create streaming result merges (before thread-local memory budget
+		//because all workers merge into a single shared output per result)
+		HashMap<String, ResultMergeLocalStreaming> merges = createStreamingResultMerges(ec);
+		
 		//restrict recompilation to thread local memory
 		setMemoryBudget();
 		
@@ -716,11 +727,13 @@ public class ParForProgramBlock extends ForProgramBlock
 		{
 			// Step 1) create task queue and init workers in parallel
 			// (including preparation of update-in-place variables)
-			LocalTaskQueue<Task> queue = new LocalTaskQueue<>();
+			LocalTaskQueue<Task> queue = (_taskPartitioner == PTaskPartitioner.WORK_STEALING) ?
+				new LocalTaskQueueWorkStealing(_numThreads) : new LocalTaskQueue<>();
 			Thread[] threads         = new Thread[_numThreads];
 			LocalParWorker[] workers = new LocalParWorker[_numThreads];
 			IntStream.range(0, _numThreads).parallel().forEach(i -> {
 				workers[i] = createParallelWorker( _pwIDs[i], queue, ec, i);
+				workers[i].setResultMerges(merges);
 				threads[i] = new Thread( workers[i] );
 				threads[i].setPriority(Thread.MAX_PRIORITY);
 			});
@@ -740,7 +753,7 @@ public class ParForProgramBlock extends ForProgramBlock
 			TaskPartitioner partitioner = createTaskPartitioner(from, to, incr);
 			long numIterations = partitioner.getNumIterations();
 			long numCreatedTasks = -1;
-			if( USE_STREAMING_TASK_CREATION )
+			if( USE_STREAMING_TASK_CREATION || queue instanceof LocalTaskQueueWorkStealing )
 			{
 				//put tasks into queue (parworker start work on first tasks while creating tasks) 
 				numCreatedTasks = partitioner.createTasks(queue);
@@ -767,6 +780,14 @@ public class ParForProgramBlock extends ForProgramBlock
 			if( _monitor ) 
 				StatisticMonitor.putPFStat(_ID, Stat.PARFOR_WAIT_EXEC_T, time.stop());
 			
+			//tasks of work stealing are created on demand
+			if( queue instanceof LocalTaskQueueWorkStealing ) {
+				numCreatedTasks = ((LocalTaskQueueWorkStealing) queue).getNumTasks();
+				if( DMLScript.STATISTICS )
+					Statistics.incrementParForSteals(((LocalTaskQueueWorkStealing) queue).getNumSteals());
+			}
+			maintainWorkerIdleTimes(workers);
+			
 			// Step 4) collecting results from each parallel worker
 			//obtain results and cleanup other intermediates before result merge
 			LocalVariableMap [] localVariables = new LocalVariableMap [_numThreads]; 
@@ -787,7 +808,7 @@ public class ParForProgramBlock extends ForProgramBlock
 
 			//consolidate results into global symbol table
 			consolidateAndCheckResults( ec, numIterations, numCreatedTasks,
-				numExecutedIterations, numExecutedTasks, localVariables );
+				numExecutedIterations, numExecutedTasks, localVariables, merges );
 			
 			// Step 5) cleanup local parworkers (e.g., remove created functions)
 			for( int i=0; i<_numThreads; i++ )
@@ -1188,6 +1209,11 @@ public class ParForProgramBlock extends ForProgramBlock
 			
 			//copy compiler configuration (for jmlc w/o global config)
 			CompilerConfig cconf = ConfigurationManager.getCompilerConfig();
+			if( cconf.getBool(ConfigType.PARALLEL_CP_INSTRUCTIONS) ) {
+				//no inter-operator parallelism within parfor workers
+				cconf = new CompilerConfig(cconf);
+				cconf.set(ConfigType.PARALLEL_CP_INSTRUCTIONS, false);
+			}
 			
 			//create the actual parallel worker
 			ParForBody body = new ParForBody( cpChildBlocks, _resultVars, cpEc );
@@ -1240,7 +1266,12 @@ public class ParForProgramBlock extends ForProgramBlock
 				//for constrained factoring the tasksize is used as the minimum constraint
 				tp = new TaskPartitionerFactoringCmax(_taskSize,_numThreads, 
 					_taskSize, _iterPredVar, from, to, incr);
-				break;	
+				break;
+			case WORK_STEALING:
+				//for work stealing the tasksize is used as the minimum constraint
+				tp = new TaskPartitionerWorkStealing(
+					_taskSize, _numThreads, _iterPredVar, from, to, incr);
+				break;
 			default:
 				throw new DMLRuntimeException("Undefined task partitioner: '"+_taskPartitioner+"'.");
 		}
@@ -1279,6 +1310,41 @@ public class ParForProgramBlock extends ForProgramBlock
 		return dp;
 	}
 
+	private void maintainWorkerIdleTimes( LocalParWorker[] workers ) {
+		if( !DMLScript.STATISTICS && !_monitor )
+			return;
+		//idle time of workers: waiting for tasks and for other workers
+		long tend = System.nanoTime();
+		for( int i=0; i<workers.length; i++ ) {
+			long idle = workers[i].getIdleTime() + Math.max(tend - workers[i].getEndTime(), 0);
+			if( DMLScript.STATISTICS )
+				Statistics.incrementParForIdleTime(idle);
+			if( _monitor )
+				StatisticMonitor.putPWStat(_pwIDs[i], Stat.PARWRK_IDLE_T, idle / 1e6);
+		}
+	}
+	
+	private HashMap<String, ResultMergeLocalStreaming> createStreamingResultMerges( ExecutionContext ec ) {
+		if( !USE_STREAMING_RESULT_MERGE || _resultMerge == null
+			|| !_resultMerge.isLocal() || _resultMerge == PResultMerge.LOCAL_FILE )
+			return null;
+		
+		//streaming merge for all matrix results that fit in memory
+		HashMap<String, ResultMergeLocalStreaming> ret = new HashMap<>();
+		for( ResultVar var : _resultVars ) {
+			Data dat = ec.getVariable(var._name);
+			if( !(dat instanceof MatrixObject) )
+				continue;
+			DataCharacteristics dc = ((MatrixObject) dat).getDataCharacteristics();
+			if( dc.getRows() > 0 && dc.getCols() > 0 && OptimizerRuleBased
+				.isInMemoryResultMerge(dc.getRows(), dc.getCols(), OptimizerUtils.getLocalMemBudget()) ) {
+				ret.put(var._name, new ResultMergeLocalStreaming((MatrixObject) dat,
+					constructResultMergeFileName(), var._isAccum));
+			}
+		}
+		return ret.isEmpty() ? null : ret;
+	}
+	
 	private ResultMerge createResultMerge( PResultMerge prm, MatrixObject out, MatrixObject[] in, String fname, boolean accum, ExecutionContext ec ) 
 	{
 		ResultMerge rm = null;
@@ -1357,7 +1423,11 @@ public class ParForProgramBlock extends ForProgramBlock
 		}
 	}
 
-	private void consolidateAndCheckResults(ExecutionContext ec, long expIters, long expTasks, long numIters, long numTasks, LocalVariableMap [] results) 
+	private void consolidateAndCheckResults(ExecutionContext ec, long expIters, long expTasks, long numIters, long numTasks, LocalVariableMap [] results) {
+		consolidateAndCheckResults(ec, expIters, expTasks, numIters, numTasks, results, null);
+	}
+	
+	private void consolidateAndCheckResults(ExecutionContext ec, long expIters, long expTasks, long numIters, long numTasks, LocalVariableMap [] results, Map<String, ResultMergeLocalStreaming> merges) 
 	{
 		Timing time = new Timing(true);
 		
@@ -1411,8 +1481,10 @@ public class ParForProgramBlock extends ForProgramBlock
 					MatrixObject out = (MatrixObject) dat;
 					MatrixObject[] in = Arrays.stream(results).map(vars -> 
 						vars.get(var._name)).toArray(MatrixObject[]::new);
-					String fname = constructResultMergeFileName();
-					ResultMerge rm = createResultMerge(_resultMerge, out, in, fname, var._isAccum, ec);
+					//use streaming merge (already merged by workers) if available
+					ResultMerge rm = (merges != null && merges.containsKey(var._name)) ?
+						merges.get(var._name) : createResultMerge(_resultMerge, out, in,
+						constructResultMergeFileName(), var._isAccum, ec);
 					MatrixObject outNew = USE_PARALLEL_RESULT_MERGE ?
 						rm.executeParallelMerge(_numThreads) :
 						rm.executeSerialMerge();
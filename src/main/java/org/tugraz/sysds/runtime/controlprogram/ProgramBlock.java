@@ -47,6 +47,7 @@ import org.tugraz.sysds.runtime.instructions.cp.ScalarObject;
 import org.tugraz.sysds.runtime.instructions.cp.StringObject;
 import org.tugraz.sysds.runtime.lineage.LineageCache;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.utils.InstructionProfiler;
 import org.tugraz.sysds.utils.Statistics;
 
 import java.util.ArrayList;
@@ -194,12 +195,12 @@ public abstract class ProgramBlock implements ParseInfo
 		return ret;
 	}
 
-	private void executeSingleInstruction( Instruction currInst, ExecutionContext ec ) {
+	protected void executeSingleInstruction( Instruction currInst, ExecutionContext ec ) {
 		try
 		{
 			// start time measurement for statistics
-			long t0 = (DMLScript.STATISTICS || LOG.isTraceEnabled()) ?
-				System.nanoTime() : 0;
+			long t0 = (DMLScript.STATISTICS || DMLScript.PROFILER
+				|| LOG.isTraceEnabled()) ? System.nanoTime() : 0;
 
 			// pre-process instruction (inst patching, listeners, lineage)
 			Instruction tmp = currInst.preprocessInstruction( ec );
@@ -215,11 +216,13 @@ public abstract class ProgramBlock implements ParseInfo
 				// post-process instruction (debug)
 				tmp.postprocessInstruction( ec );
 
-				// maintain aggregate statistics
+				// maintain aggregate statistics and profile
 				if( DMLScript.STATISTICS) {
 					Statistics.maintainCPHeavyHitters(
 						tmp.getExtendedOpcode(), System.nanoTime()-t0);
 				}
+				if( DMLScript.PROFILER )
+					InstructionProfiler.maintain(tmp, ec, System.nanoTime()-t0);
 			}
 
 			// optional trace information (instruction and runtime)
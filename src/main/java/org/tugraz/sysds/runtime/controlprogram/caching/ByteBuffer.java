@@ -24,6 +24,7 @@ import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
 
 import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
@@ -36,7 +37,8 @@ import org.tugraz.sysds.runtime.util.LocalFileUtils;
  */
 public class ByteBuffer
 {
-	private volatile boolean _serialized;	
+	private final CountDownLatch _serialized;
+	private volatile IOException _error;
 	private volatile boolean _shallow;
 	private volatile boolean _matrix;
 	private final long _size;
@@ -46,7 +48,7 @@ public class ByteBuffer
 	
 	public ByteBuffer( long size ) {
 		_size = size;
-		_serialized = false;
+		_serialized = new CountDownLatch(1);
 	}
 
 	public void serializeBlock( CacheBlock cb ) 
@@ -59,11 +61,10 @@ public class ByteBuffer
 		{
 			if( !_shallow ) //SPARSE/DENSE -> SPARSE
 			{
-				//deep serialize (for compression)
-				if( CacheableData.CACHING_BUFFER_PAGECACHE )
-					_bdata = PageCache.getPage((int)_size);
-				if( _bdata==null )
-					_bdata = new byte[(int)_size];
+				//deep serialize (for compression), where pooled
+				//pages might be larger than the serialized block
+				_bdata = CacheableData.CACHING_BUFFER_PAGECACHE ?
+					PageCache.getPage((int)_size) : new byte[(int)_size];
 				DataOutput dout = new CacheDataOutput(_bdata);
 				cb.write(dout);
 			}
@@ -78,18 +79,31 @@ public class ByteBuffer
 			}
 		}
 		catch(Exception ex) {
-			throw new IOException("Failed to serialize cache block.", ex);
+			_error = new IOException("Failed to serialize cache block.", ex);
+			throw _error;
+		}
+		finally {
+			//signal completion (or failure) to waiting threads
+			_serialized.countDown();
 		}
-		
-		_serialized = true;
 	}
 
-	public CacheBlock deserializeBlock() 
+	/**
+	 * Deserializes the buffered cache block. Synchronized with freeMemory
+	 * in order to prevent concurrent eviction from releasing (and potentially
+	 * reusing) the buffer during deserialization.
+	 * 
+	 * @return cache block, or null if the buffer has already been freed
+	 * @throws IOException if IOException occurs
+	 */
+	public synchronized CacheBlock deserializeBlock() 
 		throws IOException
 	{
 		CacheBlock ret = null;
 		
 		if( !_shallow ) { //sparse matrix / string frame
+			if( _bdata == null )
+				return null;
 			DataInput din = _matrix ? new CacheDataInput(_bdata) :
 				new DataInputStream(new ByteArrayInputStream(_bdata));
 			ret = _matrix ? new MatrixBlock() : new FrameBlock();
@@ -105,13 +119,17 @@ public class ByteBuffer
 	public void evictBuffer( String fname ) 
 		throws IOException
 	{
+		//write into memory-mapped arena if enabled and sufficient space
+		CacheArena arena = LazyWriteBuffer.getArena();
 		if( !_shallow ) {
 			//write out byte serialized array
-			LocalFileUtils.writeByteArrayToLocal(fname, _bdata);
+			if( arena == null || !arena.write(fname, _bdata, (int)_size) )
+				LocalFileUtils.writeByteArrayToLocal(fname, _bdata, (int)_size);
 		}
 		else {
 			//serialize cache block to output stream
-			LocalFileUtils.writeCacheBlockToLocal(fname, _cdata);
+			if( arena == null || !arena.write(fname, _cdata) )
+				LocalFileUtils.writeCacheBlockToLocal(fname, _cdata);
 		}
 	}
 	
@@ -128,7 +146,7 @@ public class ByteBuffer
 		return _shallow;
 	}
 	
-	public void freeMemory()
+	public synchronized void freeMemory()
 	{
 		//clear strong references to buffer/matrix
 		if( !_shallow ) {
@@ -141,16 +159,32 @@ public class ByteBuffer
 		}
 	}
 
-	public void checkSerialized()
+	/**
+	 * Blocks until a pending serialization of this buffer completed.
+	 * 
+	 * @throws IOException if the serialization failed
+	 */
+	public void checkSerialized() 
+		throws IOException
 	{
-		//check if already serialized
-		if( _serialized )
-			return;
-		
-		//robust checking until serialized
-		while( !_serialized ) {
-			try{Thread.sleep(1);} catch(Exception e) {}
+		//wait for completion signal (no polling)
+		boolean interrupted = false;
+		while( _serialized.getCount() > 0 ) {
+			try {
+				_serialized.await();
+			}
+			catch(InterruptedException ex) {
+				interrupted = true;
+			}
 		}
+		if( interrupted )
+			Thread.currentThread().interrupt();
+		if( _error != null )
+			throw _error;
+	}
+	
+	public boolean isSerialized() {
+		return _serialized.getCount() == 0 && _error == null;
 	}
 	
 	/**
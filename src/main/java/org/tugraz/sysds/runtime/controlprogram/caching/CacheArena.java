@@ -0,0 +1,647 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.controlprogram.caching;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UTFDataFormatException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.tugraz.sysds.runtime.data.SparseBlock;
+import org.tugraz.sysds.runtime.io.IOUtilFunctions;
+import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlockDataInput;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlockDataOutput;
+import org.tugraz.sysds.runtime.util.LocalFileUtils;
+
+/**
+ * Memory-mapped arena file as eviction tier of the buffer pool. Instead of
+ * writing and deleting one file per evicted block, blocks are serialized into
+ * slots of a single arena file, which is mapped in fixed-size segments and grows
+ * segment by segment up to a given capacity. Slots are managed by a simple slab
+ * allocator with power-of-two size classes and per-class free lists, keyed by
+ * the block file name. Restore deserializes directly from the mapped segment,
+ * without intermediate heap buffers.
+ *
+ * Allocation and release of slots are synchronized; serialization and
+ * deserialization happen outside the arena lock on pinned slots. A slot is only
+ * visible to readers once it is completely written, and released slots are only
+ * reused once all readers unpinned them. Close waits for all pinned slots and
+ * unmaps the segments. Blocks that do not fit into a segment or the remaining
+ * capacity are rejected and the caller falls back to file-per-block eviction.
+ */
+public class CacheArena
+{
+	private static final Log LOG = LogFactory.getLog(CacheArena.class.getName());
+
+	//segment size (max mapped region) and min slot size (log2)
+	private static final int SEGMENT_LOG = 28; //256MB
+	private static final int MIN_SLOT_LOG = 12; //4KB
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_LOG;
+
+	private final String _fname;
+	private final long _capacity;
+	private final RandomAccessFile _file;
+	private final FileChannel _channel;
+	private final ArrayList<MappedByteBuffer> _segments = new ArrayList<>();
+	private final ArrayDeque<Slot>[] _free;
+	private final HashMap<String, Slot> _slots = new HashMap<>();
+	private int _pos = SEGMENT_SIZE; //offset in last segment
+	private long _used = 0; //bytes in allocated slots
+	private int _pinned = 0; //number of pins for ongoing reads and writes
+	private boolean _closed = false;
+
+	@SuppressWarnings("unchecked")
+	public CacheArena(String fname, long capacity)
+		throws IOException
+	{
+		_fname = fname;
+		_capacity = capacity;
+		_file = new RandomAccessFile(fname, "rw");
+		_channel = _file.getChannel();
+		_free = new ArrayDeque[SEGMENT_LOG-MIN_SLOT_LOG+1];
+		for( int i=0; i<_free.length; i++ )
+			_free[i] = new ArrayDeque<>();
+	}
+
+	/**
+	 * Writes the given serialized block into a slot of the arena.
+	 *
+	 * @param fname block file name
+	 * @param data serialized block
+	 * @param len number of valid bytes in data
+	 * @return true if written, false if the block does not fit into the arena
+	 * @throws IOException if IOException occurs
+	 */
+	public boolean write(String fname, byte[] data, int len)
+		throws IOException
+	{
+		Slot slot = allocate(len);
+		if( slot == null )
+			return false;
+		boolean success = false;
+		try {
+			slot.getBuffer().put(data, 0, len);
+			success = true;
+		}
+		finally {
+			commit(fname, slot, success);
+		}
+		return true;
+	}
+
+	/**
+	 * Serializes the given cache block into a slot of the arena.
+	 *
+	 * @param fname block file name
+	 * @param cb cache block
+	 * @return true if written, false if the block does not fit into the arena
+	 * @throws IOException if IOException occurs
+	 */
+	public boolean write(String fname, CacheBlock cb)
+		throws IOException
+	{
+		long size = cb.getExactSerializedSize();
+		if( size > SEGMENT_SIZE )
+			return false;
+		Slot slot = allocate((int)size);
+		if( slot == null )
+			return false;
+		boolean success = false;
+		try {
+			cb.write(new ArenaDataOutput(slot.getBuffer()));
+			success = true;
+		}
+		catch(BufferOverflowException ex) {
+			//robustness for inaccurate size estimates
+			return false;
+		}
+		finally {
+			commit(fname, slot, success);
+		}
+		return true;
+	}
+
+	/**
+	 * Deserializes the block of the given file name from the arena.
+	 *
+	 * @param fname block file name
+	 * @param matrix true if matrix block, false if frame block
+	 * @return cache block, or null if not contained in the arena
+	 * @throws IOException if IOException occurs
+	 */
+	public CacheBlock read(String fname, boolean matrix)
+		throws IOException
+	{
+		Slot slot = null;
+		synchronized( this ) {
+			slot = _closed ? null : _slots.get(fname);
+			if( slot == null )
+				return null;
+			pin(slot);
+		}
+		try {
+			CacheBlock ret = matrix ? new MatrixBlock() : new FrameBlock();
+			ret.readFields(new ArenaDataInput(slot.getBuffer()));
+			return ret;
+		}
+		finally {
+			synchronized( this ) {
+				unpin(slot);
+			}
+		}
+	}
+
+	/**
+	 * Releases the slot of the given file name, if contained.
+	 *
+	 * @param fname block file name
+	 * @return true if the block was contained in the arena
+	 */
+	public synchronized boolean delete(String fname) {
+		Slot slot = _slots.remove(fname);
+		if( slot == null )
+			return false;
+		release(slot);
+		return true;
+	}
+
+	public synchronized boolean contains(String fname) {
+		return _slots.containsKey(fname);
+	}
+
+	public synchronized long getMappedSize() {
+		return (long)_segments.size() * SEGMENT_SIZE;
+	}
+
+	public synchronized long getUsedSize() {
+		return _used;
+	}
+
+	public synchronized void close() {
+		if( _closed )
+			return;
+		_closed = true;
+
+		//wait for ongoing reads and writes on mapped segments
+		boolean interrupted = false;
+		while( _pinned > 0 ) {
+			try {
+				wait();
+			}
+			catch(InterruptedException ex) {
+				interrupted = true;
+				break;
+			}
+		}
+
+		//unmap all segments (unless still in use after interrupt)
+		_slots.clear();
+		if( !interrupted )
+			for( MappedByteBuffer segment : _segments )
+				unmap(segment);
+		_segments.clear();
+		IOUtilFunctions.closeSilently(_channel);
+		IOUtilFunctions.closeSilently(_file);
+		LocalFileUtils.deleteFileIfExists(_fname, true);
+		if( interrupted )
+			Thread.currentThread().interrupt();
+	}
+
+	private synchronized Slot allocate(int len)
+		throws IOException
+	{
+		int clazz = getSizeClass(len);
+		if( _closed || clazz < 0 )
+			return null;
+
+		//reuse free slot of the same size class
+		Slot slot = _free[clazz].poll();
+
+		//allocate new slot from the current or a new segment
+		if( slot == null ) {
+			int size = 1 << (clazz+MIN_SLOT_LOG);
+			if( _pos + size > SEGMENT_SIZE ) {
+				if( getMappedSize() + SEGMENT_SIZE > _capacity )
+					return null;
+				addSegment();
+			}
+			slot = new Slot(_segments.size()-1, _pos, clazz);
+			_pos += size;
+		}
+
+		slot._len = len;
+		slot._released = false;
+		_used += slot.getCapacity();
+		pin(slot);
+		return slot;
+	}
+
+	private synchronized void commit(String fname, Slot slot, boolean success) {
+		unpin(slot);
+		//make the written slot visible, and release the previous slot
+		//of the same block, or release the slot on failures
+		Slot old = (success && !_closed) ? _slots.put(fname, slot) : slot;
+		if( old != null )
+			release(old);
+	}
+
+	private void pin(Slot slot) {
+		slot._pins++;
+		_pinned++;
+	}
+
+	private void unpin(Slot slot) {
+		slot._pins--;
+		_pinned--;
+		if( slot._released && slot._pins == 0 )
+			free(slot);
+		if( _pinned == 0 && _closed )
+			notifyAll();
+	}
+
+	private void release(Slot slot) {
+		//defer reuse until all readers unpinned the slot
+		slot._released = true;
+		if( slot._pins == 0 )
+			free(slot);
+	}
+
+	private void free(Slot slot) {
+		_free[slot._clazz].push(slot);
+		_used -= slot.getCapacity();
+	}
+
+	private static void unmap(MappedByteBuffer buff) {
+		//explicitly release the mapped region instead of waiting for the
+		//buffer being garbage collected (Java 9+ and Java 8 cleaners)
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method clean = null;
+			try {
+				clean = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			}
+			catch(NoSuchMethodException ex) {
+				Method getCleaner = buff.getClass().getMethod("cleaner");
+				getCleaner.setAccessible(true);
+				Object cleaner = getCleaner.invoke(buff);
+				if( cleaner != null )
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
+				return;
+			}
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			clean.invoke(theUnsafe.get(null), buff);
+		}
+		catch(Exception ex) {
+			//mapped region is released once the buffer is collected
+			LOG.debug("Failed to unmap cache arena segment.", ex);
+		}
+	}
+
+	private void addSegment()
+		throws IOException
+	{
+		//recycle the tail of the current segment into free slots
+		//(all offsets are multiples of the min slot size)
+		while( !_segments.isEmpty() && SEGMENT_SIZE - _pos >= (1 << MIN_SLOT_LOG) ) {
+			int clazz = 31 - Integer.numberOfLeadingZeros(SEGMENT_SIZE - _pos) - MIN_SLOT_LOG;
+			clazz = Math.min(clazz, Integer.numberOfTrailingZeros(_pos) - MIN_SLOT_LOG);
+			_free[clazz].push(new Slot(_segments.size()-1, _pos, clazz));
+			_pos += 1 << (clazz+MIN_SLOT_LOG);
+		}
+
+		//map the next segment (extends the arena file)
+		long off = (long)_segments.size() * SEGMENT_SIZE;
+		_segments.add(_channel.map(MapMode.READ_WRITE, off, SEGMENT_SIZE));
+		_pos = 0;
+		if( LOG.isDebugEnabled() )
+			LOG.debug("Extended cache arena "+_fname+" to "+getMappedSize()+" bytes.");
+	}
+
+	private static int getSizeClass(int len) {
+		if( len > SEGMENT_SIZE )
+			return -1;
+		int log = Math.max(32 - Integer.numberOfLeadingZeros(Math.max(len, 1)-1), MIN_SLOT_LOG);
+		return log - MIN_SLOT_LOG;
+	}
+
+	private class Slot {
+		private final int _segment;
+		private final int _offset;
+		private final int _clazz;
+		private int _len;
+		private int _pins;          //guarded by arena
+		private boolean _released;  //guarded by arena
+
+		public Slot(int segment, int offset, int clazz) {
+			_segment = segment;
+			_offset = offset;
+			_clazz = clazz;
+		}
+
+		public int getCapacity() {
+			return 1 << (_clazz+MIN_SLOT_LOG);
+		}
+
+		public ByteBuffer getBuffer() {
+			//independent view of the slot (position/limit)
+			ByteBuffer buff;
+			synchronized( CacheArena.this ) {
+				buff = _segments.get(_segment).duplicate();
+			}
+			buff.position(_offset);
+			buff.limit(_offset + _len);
+			return buff.slice();
+		}
+	}
+
+	/**
+	 * Custom DataOutput to serialize directly into a mapped arena slot.
+	 */
+	private static class ArenaDataOutput implements DataOutput, MatrixBlockDataOutput
+	{
+		private final ByteBuffer _buff;
+
+		public ArenaDataOutput(ByteBuffer buff) {
+			_buff = buff;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			_buff.put((byte)b);
+		}
+
+		@Override
+		public void write(byte[] b) throws IOException {
+			_buff.put(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			_buff.put(b, off, len);
+		}
+
+		@Override
+		public void writeBoolean(boolean v) throws IOException {
+			_buff.put((byte)(v ? 1 : 0));
+		}
+
+		@Override
+		public void writeByte(int v) throws IOException {
+			_buff.put((byte)v);
+		}
+
+		@Override
+		public void writeShort(int v) throws IOException {
+			_buff.putShort((short)v);
+		}
+
+		@Override
+		public void writeChar(int v) throws IOException {
+			_buff.putChar((char)v);
+		}
+
+		@Override
+		public void writeInt(int v) throws IOException {
+			_buff.putInt(v);
+		}
+
+		@Override
+		public void writeLong(long v) throws IOException {
+			_buff.putLong(v);
+		}
+
+		@Override
+		public void writeFloat(float v) throws IOException {
+			_buff.putFloat(v);
+		}
+
+		@Override
+		public void writeDouble(double v) throws IOException {
+			_buff.putDouble(v);
+		}
+
+		@Override
+		public void writeBytes(String s) throws IOException {
+			throw new IOException("Not supported.");
+		}
+
+		@Override
+		public void writeChars(String s) throws IOException {
+			throw new IOException("Not supported.");
+		}
+
+		@Override
+		public void writeUTF(String s) throws IOException {
+			int slen = s.length();
+			int utflen = IOUtilFunctions.getUTFSize(s) - 2;
+			if (utflen > 65535)
+				throw new UTFDataFormatException("encoded string too long: "+utflen);
+
+			//write utf len (2 bytes) and payload
+			writeShort(utflen);
+			for( int i=0; i<slen; i++ ) {
+				char c = s.charAt(i);
+				if( c>= 0x0001 && c<=0x007F ) //1 byte range
+					_buff.put((byte) c);
+				else if( c>=0x0800 ) { //3 byte range
+					_buff.put((byte) (0xE0 | ((c >> 12) & 0x0F)));
+					_buff.put((byte) (0x80 | ((c >>  6) & 0x3F)));
+					_buff.put((byte) (0x80 | ((c >>  0) & 0x3F)));
+				}
+				else { //2 byte range and null
+					_buff.put((byte) (0xC0 | ((c >>  6) & 0x1F)));
+					_buff.put((byte) (0x80 | ((c >>  0) & 0x3F)));
+				}
+			}
+		}
+
+		@Override
+		public void writeDoubleArray(int len, double[] varr) throws IOException {
+			//bulk copy via double view of the mapped buffer
+			_buff.asDoubleBuffer().put(varr, 0, len);
+			_buff.position(_buff.position() + len*8);
+		}
+
+		@Override
+		public void writeSparseRows(int rlen, SparseBlock rows) throws IOException {
+			int lrlen = Math.min(rows.numRows(), rlen);
+
+			//process existing rows
+			for( int i=0; i<lrlen; i++ ) {
+				if( !rows.isEmpty(i) ) {
+					int apos = rows.pos(i);
+					int alen = rows.size(i);
+					int[] aix = rows.indexes(i);
+					double[] avals = rows.values(i);
+					_buff.putInt(alen);
+					for( int j=apos; j<apos+alen; j++ ) {
+						_buff.putInt(aix[j]);
+						_buff.putDouble(avals[j]);
+					}
+				}
+				else
+					_buff.putInt(0);
+			}
+
+			//process remaining empty rows
+			for( int i=lrlen; i<rlen; i++ )
+				_buff.putInt(0);
+		}
+	}
+
+	/**
+	 * Custom DataInput to deserialize directly from a mapped arena slot.
+	 */
+	private static class ArenaDataInput implements DataInput, MatrixBlockDataInput
+	{
+		private final ByteBuffer _buff;
+
+		public ArenaDataInput(ByteBuffer buff) {
+			_buff = buff;
+		}
+
+		@Override
+		public void readFully(byte[] b) throws IOException {
+			_buff.get(b);
+		}
+
+		@Override
+		public void readFully(byte[] b, int off, int len) throws IOException {
+			_buff.get(b, off, len);
+		}
+
+		@Override
+		public int skipBytes(int n) throws IOException {
+			int len = Math.min(n, _buff.remaining());
+			_buff.position(_buff.position() + len);
+			return len;
+		}
+
+		@Override
+		public boolean readBoolean() throws IOException {
+			return _buff.get() != 0;
+		}
+
+		@Override
+		public byte readByte() throws IOException {
+			return _buff.get();
+		}
+
+		@Override
+		public int readUnsignedByte() throws IOException {
+			return _buff.get() & 0xFF;
+		}
+
+		@Override
+		public short readShort() throws IOException {
+			return _buff.getShort();
+		}
+
+		@Override
+		public int readUnsignedShort() throws IOException {
+			return _buff.getShort() & 0xFFFF;
+		}
+
+		@Override
+		public char readChar() throws IOException {
+			return _buff.getChar();
+		}
+
+		@Override
+		public int readInt() throws IOException {
+			return _buff.getInt();
+		}
+
+		@Override
+		public long readLong() throws IOException {
+			return _buff.getLong();
+		}
+
+		@Override
+		public float readFloat() throws IOException {
+			return _buff.getFloat();
+		}
+
+		@Override
+		public double readDouble() throws IOException {
+			return _buff.getDouble();
+		}
+
+		@Override
+		public String readLine() throws IOException {
+			throw new IOException("Not supported.");
+		}
+
+		@Override
+		public String readUTF() throws IOException {
+			return DataInputStream.readUTF(this);
+		}
+
+		@Override
+		public long readDoubleArray(int len, double[] varr) throws IOException {
+			//bulk copy via double view of the mapped buffer
+			DoubleBuffer dbuff = _buff.asDoubleBuffer();
+			dbuff.get(varr, 0, len);
+			_buff.position(_buff.position() + len*8);
+
+			//nnz maintenance
+			long nnz = 0;
+			for( int i=0; i<len; i++ )
+				nnz += (varr[i]!=0) ? 1 : 0;
+			return nnz;
+		}
+
+		@Override
+		public long readSparseRows(int rlen, long nnz, SparseBlock rows) throws IOException {
+			long gnnz = 0;
+			for( int i=0; i<rlen; i++ ) {
+				int lnnz = _buff.getInt();
+				if( lnnz > 0 ) {
+					rows.allocate(i, lnnz);
+					for( int j=0; j<lnnz; j++ ) {
+						int aix = _buff.getInt();
+						rows.append(i, aix, _buff.getDouble());
+					}
+					gnnz += lnnz;
+				}
+			}
+
+			//sanity check valid number of read nnz
+			if( gnnz != nnz )
+				throw new IOException("Invalid number of read nnz: "+gnnz+" vs "+nnz);
+			return nnz;
+		}
+	}
+}
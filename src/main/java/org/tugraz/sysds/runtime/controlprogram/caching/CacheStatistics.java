@@ -60,6 +60,11 @@ public class CacheStatistics
 	private static final LongAdder _numWritesFS     = new LongAdder();
 	private static final LongAdder _numWritesHDFS   = new LongAdder();
 	
+	//page cache statistics
+	private static final LongAdder _numPageHits     = new LongAdder();
+	private static final LongAdder _numPageMisses   = new LongAdder();
+	private static final LongAdder _numPageRejects  = new LongAdder();
+	
 	//time statistics caching
 	private static final LongAdder _ctimeAcquireR   = new LongAdder(); //in nano sec
 	private static final LongAdder _ctimeAcquireM   = new LongAdder(); //in nano sec
@@ -76,6 +81,10 @@ public class CacheStatistics
 		_numWritesFS.reset();
 		_numWritesHDFS.reset();
 		
+		_numPageHits.reset();
+		_numPageMisses.reset();
+		_numPageRejects.reset();
+		
 		_ctimeAcquireR.reset();
 		_ctimeAcquireM.reset();
 		_ctimeRelease.reset();
@@ -166,6 +175,26 @@ public class CacheStatistics
 		return _numWritesHDFS.longValue();
 	}
 	
+	public static void incrementPageHits() {
+		_numPageHits.increment();
+	}
+	
+	public static void incrementPageMisses() {
+		_numPageMisses.increment();
+	}
+	
+	public static void incrementPageRejects() {
+		_numPageRejects.increment();
+	}
+	
+	public static long getPageHits() {
+		return _numPageHits.longValue();
+	}
+	
+	public static long getPageMisses() {
+		return _numPageMisses.longValue();
+	}
+	
 	public static void incrementAcquireRTime(long delta) {
 		_ctimeAcquireR.add(delta);
 	}
@@ -222,6 +251,17 @@ public class CacheStatistics
 		return sb.toString();
 	}
 	
+	public static String displayPages() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(_numPageHits.longValue());
+		sb.append("/");
+		sb.append(_numPageMisses.longValue());
+		sb.append("/");
+		sb.append(_numPageRejects.longValue());
+		
+		return sb.toString();
+	}
+	
 	public static String displayTime() {	
 		StringBuilder sb = new StringBuilder();
 		sb.append(String.format("%.3f", ((double)_ctimeAcquireR.longValue())/1000000000)); //in sec
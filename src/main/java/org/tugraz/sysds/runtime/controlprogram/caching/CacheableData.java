@@ -82,11 +82,14 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 		1e-5 * InfrastructureAnalyzer.getLocalMaxMemory());       //if below threshold [in bytes]
 	public static final double CACHING_BUFFER_SIZE = 0.15;
 	public static final RPolicy CACHING_BUFFER_POLICY = RPolicy.FIFO;
-	public static final boolean CACHING_BUFFER_PAGECACHE = false;
+	public static boolean CACHING_BUFFER_PAGECACHE = false; //pooled pages for serialized blocks
+	public static final double  CACHING_PAGECACHE_SIZE = 0.05; //page cache budget relative to max heap
 	public static final boolean CACHING_WRITE_CACHE_ON_READ = false;
 	public static final String  CACHING_COUNTER_GROUP_NAME    = "SystemDS Caching Counters";
 	public static final String  CACHING_EVICTION_FILEEXTENSION = ".dat";
 	public static final boolean CACHING_ASYNC_FILECLEANUP = true;
+	public static final double  CACHING_ARENA_SIZE = 2.0; //max arena size relative to max heap
+	public static boolean CACHING_BUFFER_ARENA = false; //memory-mapped arena as eviction tier
 	
 	/**
 	 * Defines all possible cache status types for a data blob.
@@ -1197,6 +1200,9 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 		//get directory name
 		String dir = cacheEvictionLocalFilePath;
 		
+		//release mapped arena file before deleting cache files
+		LazyWriteBuffer.closeArena();
+		
 		//clean files with cache prefix
 		if( dir != null ) //if previous init cache
 		{
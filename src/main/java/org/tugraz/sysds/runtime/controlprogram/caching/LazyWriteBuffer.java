@@ -25,6 +25,7 @@ import java.util.LinkedHashMap;
 import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.tugraz.sysds.api.DMLScript;
 import org.tugraz.sysds.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
@@ -37,19 +38,26 @@ public class LazyWriteBuffer
 		LRU   //least recently used eviction
 	}
 	
+	//maximum number of buffer pool shards
+	private static final int MAX_SHARDS = 64;
+	
 	//global size limit in bytes
 	private static final long _limit;
 	
-	//current size in bytes
-	private static long _size;
+	//current size in bytes (reserved across all shards)
+	private static final AtomicLong _size = new AtomicLong(0);
 	
-	//eviction queue of <filename,buffer> pairs (implemented via linked hash map
-	//for (1) queue semantics and (2) constant time get/insert/delete operations)
-	private static EvictionQueue _mQueue;
+	//sharded eviction queues of <filename,buffer> pairs (each implemented via linked
+	//hash map for (1) queue semantics and (2) constant time get/insert/delete operations),
+	//where every shard is guarded by its own monitor to reduce lock contention
+	private static EvictionQueue[] _mQueues;
 	
 	//file cleaner for synchronous or asynchronous delete of evicted files
 	private static FileCleaner _fClean;
 	
+	//optional memory-mapped arena for evicted blocks (null if disabled)
+	private static CacheArena _arena;
+	
 	static {
 		//obtain the logical buffer size in bytes
 		long maxMem = InfrastructureAnalyzer.getLocalMaxMemory();
@@ -70,37 +78,34 @@ public class LazyWriteBuffer
 		{
 			//create byte buffer handle (no block allocation yet)
 			ByteBuffer bbuff = new ByteBuffer( lSize );
+			EvictionQueue queue = getQueue(fname);
 			
-			//modify buffer pool
-			synchronized( _mQueue )
-			{
-				//evict matrices to make room (by default FIFO)
-				while( _size+lSize > _limit && !_mQueue.isEmpty() )
-				{
-					//remove first entry from eviction queue
-					Entry<String, ByteBuffer> entry = _mQueue.removeFirst();
-					String ftmp = entry.getKey();
-					ByteBuffer tmp = entry.getValue();
-					
-					if( tmp != null ) {
-						//wait for pending serialization
-						tmp.checkSerialized();
-						
-						//evict matrix
-						tmp.evictBuffer(ftmp);
-						tmp.freeMemory();
-						_size -= tmp.getSize();
-						numEvicted++;
-					}
-				}
-				
-				//put placeholder into buffer pool (reserve mem)
-				_mQueue.addLast(fname, bbuff);
-				_size += lSize;
+			//reserve memory and evict matrices to make room (by default FIFO),
+			//starting at the own shard and holding only one shard lock at a time
+			_size.addAndGet(lSize);
+			int pos = getShardIndex(fname);
+			for( int i=0; i<_mQueues.length && _size.get() > _limit; i++ )
+				numEvicted += evictEntries(_mQueues[(pos+i) % _mQueues.length]);
+			
+			//put placeholder into buffer pool
+			synchronized( queue ) {
+				queue.addLast(fname, bbuff);
 			}
 			
 			//serialize matrix (outside synchronized critical path)
-			bbuff.serializeBlock(cb);
+			try {
+				bbuff.serializeBlock(cb);
+			}
+			catch(IOException ex) {
+				//release placeholder unless already removed by concurrent eviction
+				synchronized( queue ) {
+					if( queue.get(fname) == bbuff ) {
+						queue.remove(fname);
+						_size.addAndGet(-lSize);
+					}
+				}
+				throw ex;
+			}
 			
 			if( DMLScript.STATISTICS ) {
 				CacheStatistics.incrementFSBuffWrites();
@@ -123,20 +128,21 @@ public class LazyWriteBuffer
 	public static void deleteBlock(String fname)
 	{
 		boolean requiresDelete = true;
+		EvictionQueue queue = getQueue(fname);
 		
-		synchronized( _mQueue )
+		synchronized( queue )
 		{
 			//remove queue entry 
-			ByteBuffer ldata = _mQueue.remove(fname);
+			ByteBuffer ldata = queue.remove(fname);
 			if( ldata != null ) {
-				_size -= ldata.getSize();
+				_size.addAndGet(-ldata.getSize());
 				requiresDelete = false;
 				ldata.freeMemory(); //cleanup
 			}
 		}
 		
-		//delete from FS if required
-		if( requiresDelete )
+		//release arena slot or delete from FS if required
+		if( requiresDelete && (_arena == null || !_arena.delete(fname)) )
 			_fClean.deleteFile(fname);
 	}
 	
@@ -145,32 +151,38 @@ public class LazyWriteBuffer
 	{
 		CacheBlock cb = null;
 		ByteBuffer ldata = null;
+		EvictionQueue queue = getQueue(fname);
 		
 		//probe write buffer
-		synchronized( _mQueue )
+		synchronized( queue )
 		{
-			ldata = _mQueue.get(fname);
+			ldata = queue.get(fname);
 			
 			//modify eviction order (accordingly to access)
 			if(    CacheableData.CACHING_BUFFER_POLICY == RPolicy.LRU
 				&& ldata != null )
 			{
 				//reinsert entry at end of eviction queue
-				_mQueue.remove( fname );
-				_mQueue.addLast( fname, ldata );
+				queue.remove( fname );
+				queue.addLast( fname, ldata );
 			}
 		}
 		
 		//deserialize or read from FS if required
-		if( ldata != null )
-		{
+		//(buffer might have been concurrently evicted and freed)
+		if( ldata != null ) {
+			ldata.checkSerialized();
 			cb = ldata.deserializeBlock();
-			if( DMLScript.STATISTICS )
+			if( cb != null && DMLScript.STATISTICS )
 				CacheStatistics.incrementFSBuffHits();
 		}
-		else
+		if( cb == null )
 		{
-			cb = LocalFileUtils.readCacheBlockFromLocal(fname, matrix);
+			//zero-copy read from mapped arena or read from local FS
+			if( _arena != null )
+				cb = _arena.read(fname, matrix);
+			if( cb == null )
+				cb = LocalFileUtils.readCacheBlockFromLocal(fname, matrix);
 			if( DMLScript.STATISTICS )
 				CacheStatistics.incrementFSHits();
 		}
@@ -179,20 +191,53 @@ public class LazyWriteBuffer
 	}
 
 	public static void init() {
-		_mQueue = new EvictionQueue();
+		_mQueues = new EvictionQueue[getNumShards()];
+		for( int i=0; i<_mQueues.length; i++ )
+			_mQueues[i] = new EvictionQueue();
 		_fClean = new FileCleaner();
-		_size = 0;
+		_size.set(0);
+		if( CacheableData.CACHING_BUFFER_ARENA )
+			initArena();
 		if( CacheableData.CACHING_BUFFER_PAGECACHE )
-			PageCache.init();
+			PageCache.init((long)(CacheableData.CACHING_PAGECACHE_SIZE
+				* InfrastructureAnalyzer.getLocalMaxMemory()));
 	}
 
 	public static void cleanup() {
-		if( _mQueue != null )
-			_mQueue.clear();
+		if( _mQueues != null )
+			for( EvictionQueue queue : _mQueues )
+				synchronized( queue ) {
+					queue.clear(); }
 		if( _fClean != null )
 			_fClean.close();
-		if( CacheableData.CACHING_BUFFER_PAGECACHE )
-			PageCache.clear();
+		closeArena();
+		PageCache.clear();
+	}
+	
+	public static void closeArena() {
+		if( _arena != null )
+			_arena.close();
+		_arena = null;
+	}
+	
+	public static CacheArena getArena() {
+		return _arena;
+	}
+	
+	private static void initArena() {
+		closeArena();
+		String fname = CacheableData.cacheEvictionLocalFilePath + "/"
+			+ CacheableData.cacheEvictionLocalFilePrefix + "arena"
+			+ CacheableData.CACHING_EVICTION_FILEEXTENSION;
+		long capacity = (long)(CacheableData.CACHING_ARENA_SIZE
+			* InfrastructureAnalyzer.getLocalMaxMemory());
+		try {
+			_arena = new CacheArena(fname, capacity);
+		}
+		catch(IOException ex) {
+			//fall back to file-per-block eviction
+			_arena = null;
+		}
 	}
 
 	public static long getWriteBufferLimit() {
@@ -202,13 +247,11 @@ public class LazyWriteBuffer
 	}
 	
 	public static long getWriteBufferSize() {
-		synchronized( _mQueue ) {
-			return _size; }
+		return _size.get();
 	}
 	
 	public static long getWriteBufferFree() {
-		synchronized( _mQueue ) {
-			return _limit - _size; }
+		return _limit - _size.get();
 	}
 	
 	public static long getCacheBlockSize(CacheBlock cb) {
@@ -226,21 +269,27 @@ public class LazyWriteBuffer
 	{
 		System.out.println("WRITE BUFFER STATUS ("+position+") --");
 		
-		synchronized( _mQueue ) {
-			//print buffer meta data
-			System.out.println("\tWB: Buffer Meta Data: " +
-				"limit="+_limit+", " +
-				"size[bytes]="+_size+", " +
-				"size[elements]="+_mQueue.size()+"/"+_mQueue.size());
-			
-			//print current buffer entries
-			int count = _mQueue.size();
-			for( Entry<String, ByteBuffer> entry : _mQueue.entrySet() ) {
-				String fname = entry.getKey();
-				ByteBuffer bbuff = entry.getValue();
-				System.out.println("\tWB: buffer element ("+count+"): "
-					+fname+", "+bbuff.getSize()+", "+bbuff.isShallow());
-				count--;
+		//print buffer meta data
+		int size = 0;
+		for( EvictionQueue queue : _mQueues )
+			synchronized( queue ) {
+				size += queue.size(); }
+		System.out.println("\tWB: Buffer Meta Data: " +
+			"limit="+_limit+", " +
+			"size[bytes]="+_size.get()+", " +
+			"size[elements]="+size+"/"+_mQueues.length);
+		
+		//print current buffer entries
+		int count = size;
+		for( EvictionQueue queue : _mQueues ) {
+			synchronized( queue ) {
+				for( Entry<String, ByteBuffer> entry : queue.entrySet() ) {
+					String fname = entry.getKey();
+					ByteBuffer bbuff = entry.getValue();
+					System.out.println("\tWB: buffer element ("+count+"): "
+						+fname+", "+bbuff.getSize()+", "+bbuff.isShallow());
+					count--;
+				}
 			}
 		}
 	}
@@ -255,21 +304,64 @@ public class LazyWriteBuffer
 		throws IOException 
 	{
 		//evict all matrices and frames
-		while( !_mQueue.isEmpty() )
-		{
-			//remove first entry from eviction queue
-			Entry<String, ByteBuffer> entry = _mQueue.removeFirst();
-			ByteBuffer tmp = entry.getValue();
-			
-			if( tmp != null ) {
-				//wait for pending serialization
-				tmp.checkSerialized();
-				
-				//evict matrix
-				tmp.evictBuffer(entry.getKey());
-				tmp.freeMemory();
+		for( EvictionQueue queue : _mQueues )
+			synchronized( queue ) {
+				while( !queue.isEmpty() )
+					evictFirst(queue);
 			}
+	}
+	
+	private static int evictEntries(EvictionQueue queue)
+		throws IOException
+	{
+		int numEvicted = 0;
+		synchronized( queue ) {
+			while( _size.get() > _limit && !queue.isEmpty() )
+				numEvicted += evictFirst(queue);
 		}
+		return numEvicted;
+	}
+	
+	private static int evictFirst(EvictionQueue queue)
+		throws IOException
+	{
+		//remove first entry from eviction queue
+		//(the caller holds the monitor of the queue)
+		Entry<String, ByteBuffer> entry = queue.removeFirst();
+		ByteBuffer tmp = entry.getValue();
+		if( tmp == null )
+			return 0;
+		_size.addAndGet(-tmp.getSize());
+		
+		try {
+			//wait for pending serialization (failed serializations
+			//are reported to the writer, so there is nothing to evict)
+			tmp.checkSerialized();
+		}
+		catch(IOException ex) {
+			tmp.freeMemory();
+			return 0;
+		}
+		
+		//evict matrix
+		tmp.evictBuffer(entry.getKey());
+		tmp.freeMemory();
+		return 1;
+	}
+	
+	private static int getNumShards() {
+		//power of two >= number of vcores, to map file names via bit masking
+		int k = Math.max(InfrastructureAnalyzer.getLocalParallelism(), 1);
+		return Math.min(Integer.highestOneBit(2*k-1), MAX_SHARDS);
+	}
+	
+	private static int getShardIndex(String fname) {
+		int h = fname.hashCode();
+		return (h ^ (h >>> 16)) & (_mQueues.length-1);
+	}
+	
+	private static EvictionQueue getQueue(String fname) {
+		return _mQueues[getShardIndex(fname)];
 	}
 	
 	public static ExecutorService getUtilThreadPool() {
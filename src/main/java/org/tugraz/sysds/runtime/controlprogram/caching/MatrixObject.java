@@ -54,8 +54,11 @@ import org.tugraz.sysds.runtime.util.IndexRange;
 import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Future;
 
 
@@ -154,6 +157,42 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 	
 	public void setFedMapping(Map<FederatedRange, FederatedData> fedMapping) {
 		_fedMapping = fedMapping;
+		if( fedMapping != null )
+			for( FederatedData fd : getDistinctFedData() )
+				fd.retain();
+	}
+	
+	/**
+	 * Releases the federated mapping of this matrix object, where worker-side
+	 * variables are removed once no other federated matrix object refers to them.
+	 */
+	public void releaseFedMapping() {
+		if( !isFederated() )
+			return;
+		List<Future<FederatedResponse>> responses = new ArrayList<>();
+		for( FederatedData fd : getDistinctFedData() ) {
+			Future<FederatedResponse> response = fd.release();
+			if( response != null )
+				responses.add(response);
+		}
+		_fedMapping = null;
+		try {
+			for( Future<FederatedResponse> response : responses ) {
+				FederatedResponse tmp = response.get();
+				if( !tmp.isSuccessful() )
+					throw new DMLRuntimeException("Federated variable removal failed: " + tmp.getErrorMessage());
+			}
+		}
+		catch (Exception e) {
+			throw new DMLRuntimeException("Federated variable removal failed.", e);
+		}
+	}
+	
+	private Set<FederatedData> getDistinctFedData() {
+		//shards might be mapped multiple times (e.g., rbind(X, X))
+		Set<FederatedData> ret = Collections.newSetFromMap(new IdentityHashMap<>());
+		ret.addAll(_fedMapping.values());
+		return ret;
 	}
 	
 	@Override
@@ -267,6 +306,18 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 		return OptimizerUtils.getSparsity(getDataCharacteristics());
 	}
 	
+	/**
+	 * Indicates the format of the in-memory matrix block, without
+	 * pinning or restoring it (e.g., for profiling purposes).
+	 * 
+	 * @return true/false if the block is in memory and in sparse/dense format,
+	 *   null if the block is not in memory (e.g., evicted or not yet read)
+	 */
+	public Boolean isInSparseFormatInMemory() {
+		MatrixBlock mb = _data;
+		return (mb != null) ? mb.isInSparseFormat() : null;
+	}
+	
 	// *********************************************
 	// ***                                       ***
 	// ***       HIGH-LEVEL PUBLIC METHODS       ***
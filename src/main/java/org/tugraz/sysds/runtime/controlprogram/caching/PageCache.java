@@ -19,49 +19,122 @@
 
 package org.tugraz.sysds.runtime.controlprogram.caching;
 
-import java.lang.ref.SoftReference;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.tugraz.sysds.api.DMLScript;
+
+/**
+ * Slab-based pool of byte pages for serialized cache blocks.
+ * 
+ * Pages are organized in size classes with four classes per power of two
+ * (similar to jemalloc), i.e., a request is served by a page of at most 25%
+ * larger size. Pooled pages are strongly referenced and bounded by an explicit
+ * memory budget; pages returned beyond this budget are dropped. All operations
+ * are thread-safe and lock-free.
+ */
 public class PageCache 
 {
-	private static final int CLEANUP_THRESHOLD = 128;
-	private static HashMap<Integer, LinkedList<SoftReference<byte[]>>> _pool;
+	//min and max pooled page sizes (log2)
+	private static final int MIN_PAGE_LOG = 10; //1KB
+	private static final int MAX_PAGE_LOG = 30; //1GB
+	private static final int NUM_CLASSES = (MAX_PAGE_LOG-MIN_PAGE_LOG)*4 + 1;
+	
+	private static ConcurrentLinkedDeque<byte[]>[] _pool;
+	private static final AtomicLong _size = new AtomicLong(0);
+	private static long _limit = 0;
 
-	public static void init() {
-		_pool = new HashMap<>();
+	@SuppressWarnings("unchecked")
+	public static void init(long limit) {
+		_pool = new ConcurrentLinkedDeque[NUM_CLASSES];
+		for( int i=0; i<NUM_CLASSES; i++ )
+			_pool[i] = new ConcurrentLinkedDeque<>();
+		_size.set(0);
+		_limit = limit;
 	}
 
-	public static void clear()
-	{
+	public static void clear() {
 		_pool = null;
+		_size.set(0);
 	}
-
-	public static void putPage( byte[] data )
+	
+	/**
+	 * Returns a page of at least the given size, either from the
+	 * pool or newly allocated with the capacity of its size class.
+	 * 
+	 * @param size requested size in bytes
+	 * @return byte page with length &gt;= size
+	 */
+	public static byte[] getPage( int size )
 	{
-		//cleanup if too many different size lists
-		if( _pool.size()>CLEANUP_THRESHOLD )
-			_pool.clear();
+		ConcurrentLinkedDeque<byte[]>[] pool = _pool;
+		int clazz = getSizeClass(size);
 		
-		LinkedList<SoftReference<byte[]>> list = _pool.get( data.length );
-		if( list==null ){
-			list = new LinkedList<>();
-			_pool.put(data.length, list);
+		//allocate exact size if not poolable
+		if( pool == null || clazz < 0 )
+			return new byte[size];
+		
+		//reuse pooled page (most recently returned)
+		byte[] ret = pool[clazz].pollFirst();
+		if( ret != null ) {
+			_size.addAndGet(-ret.length);
+			if( DMLScript.STATISTICS )
+				CacheStatistics.incrementPageHits();
+			return ret;
 		}
-		list.addLast(new SoftReference<>(data));	
+		
+		if( DMLScript.STATISTICS )
+			CacheStatistics.incrementPageMisses();
+		return new byte[getClassSize(clazz)];
 	}
-
-	public static byte[] getPage( int size )
+	
+	/**
+	 * Returns the given page to the pool, if it has been allocated by
+	 * the pool and the memory budget is not exceeded.
+	 * 
+	 * @param data byte page
+	 */
+	public static void putPage( byte[] data )
 	{
-		LinkedList<SoftReference<byte[]>> list = _pool.get( size );
-		if( list!=null ) {
-			while( !list.isEmpty() ){
-				SoftReference<byte[]> ref = list.removeFirst();
-				byte[] tmp = ref.get();
-				if( tmp!=null )
-					return tmp;
-			}
+		ConcurrentLinkedDeque<byte[]>[] pool = _pool;
+		int clazz = getSizeClass(data.length);
+		if( pool == null || clazz < 0 || getClassSize(clazz) != data.length )
+			return;
+		
+		//reserve budget before making the page available
+		if( _size.addAndGet(data.length) > _limit ) {
+			_size.addAndGet(-data.length);
+			if( DMLScript.STATISTICS )
+				CacheStatistics.incrementPageRejects();
+			return;
 		}
-		return null;
+		pool[clazz].addFirst(data);
+	}
+	
+	public static long getPoolSize() {
+		return _size.get();
+	}
+	
+	public static long getPoolLimit() {
+		return _limit;
+	}
+	
+	protected static int getSizeClass( int size ) {
+		if( size <= (1 << MIN_PAGE_LOG) )
+			return 0;
+		//size in (2^log, 2^(log+1)], with four sub-classes of 2^(log-2)
+		int log = 31 - Integer.numberOfLeadingZeros(size-1);
+		if( log >= MAX_PAGE_LOG )
+			return -1;
+		int sub = ((size-1) >>> (log-2)) - 4;
+		return (log-MIN_PAGE_LOG)*4 + sub + 1;
+	}
+	
+	protected static int getClassSize( int clazz ) {
+		if( clazz == 0 )
+			return 1 << MIN_PAGE_LOG;
+		int log = (clazz-1)/4 + MIN_PAGE_LOG;
+		int sub = (clazz-1) % 4;
+		return (sub+5) << (log-2);
 	}
 }
@@ -715,13 +715,16 @@ public class ExecutionContext {
 			Statistics.removeCPMemObject(System.identityHashCode(mo));
 		//early abort w/o scan of symbol table if no cleanup required
 		boolean fileExists = (mo.isHDFSFileExists() && mo.getFileName() != null);
-		if( !CacheableData.isCachingActive() && !fileExists )
+		boolean federated = (mo instanceof MatrixObject && ((MatrixObject)mo).isFederated());
+		if( !CacheableData.isCachingActive() && !fileExists && !federated )
 			return;
 		
 		try {
 			//compute ref count only if matrix cleanup actually necessary
 			if ( mo.isCleanupEnabled() && !getVariables().hasReferences(mo) )  {
 				mo.clearData(); //clean cached data
+				if( federated ) //remove worker-side variables
+					((MatrixObject)mo).releaseFedMapping();
 				if( fileExists ) {
 					HDFSTool.deleteFileIfExistOnHDFS(mo.getFileName());
 					HDFSTool.deleteFileIfExistOnHDFS(mo.getFileName()+".mtd");
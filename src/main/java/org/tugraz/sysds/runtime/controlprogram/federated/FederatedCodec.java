@@ -0,0 +1,317 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.controlprogram.federated;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheBlock;
+import org.tugraz.sysds.runtime.data.TensorBlock;
+import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary wire protocol for federated requests and responses.
+ *
+ * Every message is sent as a length-prefixed frame. Matrix, frame, and tensor
+ * blocks are serialized via their native <code>write(DataOutput)</code> directly
+ * into pooled Netty buffers and deserialized from the received frame without
+ * intermediate copies. Only remaining objects (e.g., operators) fall back to Java
+ * serialization, which is cheap for these small objects.
+ */
+public class FederatedCodec
+{
+	//message types
+	private static final byte MSG_REQUEST = 1;
+	private static final byte MSG_RESPONSE = 2;
+
+	//value tags
+	private static final byte TAG_NULL = 0;
+	private static final byte TAG_LONG = 1;
+	private static final byte TAG_INT = 2;
+	private static final byte TAG_DOUBLE = 3;
+	private static final byte TAG_BOOLEAN = 4;
+	private static final byte TAG_STRING = 5;
+	private static final byte TAG_MATRIX = 6;
+	private static final byte TAG_FRAME = 7;
+	private static final byte TAG_TENSOR = 8;
+	private static final byte TAG_LIST = 9;
+	private static final byte TAG_OBJECT = 10;
+	private static final byte TAG_REQUEST = 11;
+	private static final byte TAG_REF = 12;
+
+	//initial buffer size for messages without blocks
+	private static final int DEFAULT_BUFFER_SIZE = 256;
+
+	/**
+	 * Encoder of federated requests and responses into length-prefixed frames.
+	 */
+	@Sharable
+	public static class Encoder extends MessageToByteEncoder<Object>
+	{
+		@Override
+		public boolean acceptOutboundMessage(Object msg) {
+			return msg instanceof FederatedRequest || msg instanceof FederatedResponse;
+		}
+
+		@Override
+		protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Object msg, boolean preferDirect) {
+			//allocate pooled buffer of sufficient size to avoid buffer expansions
+			int size = (int) Math.min(Integer.MAX_VALUE, 5 + estimateSize(msg));
+			return preferDirect ? ctx.alloc().ioBuffer(size) : ctx.alloc().heapBuffer(size);
+		}
+
+		@Override
+		protected void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out) throws IOException {
+			//reserve frame length, filled after serialization
+			int start = out.writerIndex();
+			out.writeInt(0);
+			ByteBufOutputStream dout = new ByteBufOutputStream(out);
+			if( msg instanceof FederatedRequest ) {
+				dout.writeByte(MSG_REQUEST);
+				writeRequest(dout, (FederatedRequest) msg);
+			}
+			else {
+				FederatedResponse response = (FederatedResponse) msg;
+				dout.writeByte(MSG_RESPONSE);
+				dout.writeByte(response.getStatus().ordinal());
+				writeValue(dout, response.getData());
+			}
+			out.setInt(start, out.writerIndex() - start - 4);
+		}
+	}
+
+	/**
+	 * Decoder of length-prefixed frames into federated requests and responses.
+	 */
+	public static class Decoder extends LengthFieldBasedFrameDecoder
+	{
+		public Decoder() {
+			super(Integer.MAX_VALUE, 0, 4, 0, 4);
+		}
+
+		@Override
+		protected Object decode(ChannelHandlerContext ctx, ByteBuf in) throws Exception {
+			ByteBuf frame = (ByteBuf) super.decode(ctx, in);
+			if( frame == null )
+				return null;
+			try {
+				ByteBufInputStream din = new ByteBufInputStream(frame);
+				byte type = din.readByte();
+				if( type == MSG_REQUEST )
+					return readRequest(din);
+				else if( type == MSG_RESPONSE ) {
+					FederatedResponse.Type status = FederatedResponse.Type.values()[din.readByte()];
+					return new FederatedResponse(status, readValue(din));
+				}
+				throw new DMLRuntimeException("FederatedCodec: Unknown message type " + type + ".");
+			}
+			finally {
+				frame.release();
+			}
+		}
+
+		@Override
+		protected ByteBuf extractFrame(ChannelHandlerContext ctx, ByteBuf buffer, int index, int length) {
+			//retained slice instead of copy, released after decoding
+			return buffer.slice(index, length).retain();
+		}
+	}
+
+	private static void writeRequest(ByteBufOutputStream out, FederatedRequest request) throws IOException {
+		out.writeByte(request.getMethod().ordinal());
+		out.writeInt(request.getNumParams());
+		for( int i=0; i<request.getNumParams(); i++ )
+			writeValue(out, request.getParam(i));
+	}
+
+	private static FederatedRequest readRequest(ByteBufInputStream in) throws IOException {
+		FederatedRequest.FedMethod method = FederatedRequest.FedMethod.values()[in.readByte()];
+		int numParams = in.readInt();
+		List<Object> params = new ArrayList<>(numParams);
+		for( int i=0; i<numParams; i++ )
+			params.add(readValue(in));
+		return new FederatedRequest(method, params);
+	}
+
+	private static void writeValue(ByteBufOutputStream out, Object value) throws IOException {
+		if( value == null )
+			out.writeByte(TAG_NULL);
+		else if( value instanceof Long ) {
+			out.writeByte(TAG_LONG);
+			out.writeLong((Long) value);
+		}
+		else if( value instanceof Integer ) {
+			out.writeByte(TAG_INT);
+			out.writeInt((Integer) value);
+		}
+		else if( value instanceof Double ) {
+			out.writeByte(TAG_DOUBLE);
+			out.writeDouble((Double) value);
+		}
+		else if( value instanceof Boolean ) {
+			out.writeByte(TAG_BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		}
+		else if( value instanceof String ) {
+			//length-prefixed utf-8 (no 64KB limit of writeUTF)
+			byte[] tmp = ((String) value).getBytes(StandardCharsets.UTF_8);
+			out.writeByte(TAG_STRING);
+			out.writeInt(tmp.length);
+			out.write(tmp);
+		}
+		else if( value instanceof MatrixBlock ) {
+			out.writeByte(TAG_MATRIX);
+			((MatrixBlock) value).write(out);
+		}
+		else if( value instanceof FrameBlock ) {
+			out.writeByte(TAG_FRAME);
+			((FrameBlock) value).write(out);
+		}
+		else if( value instanceof TensorBlock ) {
+			out.writeByte(TAG_TENSOR);
+			((TensorBlock) value).write(out);
+		}
+		else if( value instanceof FederatedRequest ) {
+			//nested request of batches
+			out.writeByte(TAG_REQUEST);
+			writeRequest(out, (FederatedRequest) value);
+		}
+		else if( value instanceof FederatedRequest.BatchRef ) {
+			out.writeByte(TAG_REF);
+			out.writeInt(((FederatedRequest.BatchRef) value).getIndex());
+		}
+		else if( value instanceof List && isNativeList((List<?>) value) ) {
+			List<?> list = (List<?>) value;
+			out.writeByte(TAG_LIST);
+			out.writeInt(list.size());
+			for( Object o : list )
+				writeValue(out, o);
+		}
+		else if( value instanceof Serializable ) {
+			//fallback java serialization (e.g., operators)
+			out.writeByte(TAG_OBJECT);
+			ObjectOutputStream oos = new ObjectOutputStream(out);
+			oos.writeObject(value);
+			oos.flush();
+		}
+		else
+			throw new DMLRuntimeException("FederatedCodec: Unsupported object of type "
+				+ value.getClass().getSimpleName() + ".");
+	}
+
+	private static Object readValue(ByteBufInputStream in) throws IOException {
+		byte tag = in.readByte();
+		switch( tag ) {
+			case TAG_NULL: return null;
+			case TAG_LONG: return in.readLong();
+			case TAG_INT: return in.readInt();
+			case TAG_DOUBLE: return in.readDouble();
+			case TAG_BOOLEAN: return in.readBoolean();
+			case TAG_STRING: {
+				byte[] tmp = new byte[in.readInt()];
+				in.readFully(tmp);
+				return new String(tmp, StandardCharsets.UTF_8);
+			}
+			case TAG_MATRIX: {
+				MatrixBlock mb = new MatrixBlock();
+				mb.readFields(in);
+				return mb;
+			}
+			case TAG_FRAME: {
+				FrameBlock fb = new FrameBlock();
+				fb.readFields(in);
+				return fb;
+			}
+			case TAG_TENSOR: {
+				TensorBlock tb = new TensorBlock();
+				tb.readFields(in);
+				return tb;
+			}
+			case TAG_LIST: {
+				int len = in.readInt();
+				List<Object> list = new ArrayList<>(len);
+				for( int i=0; i<len; i++ )
+					list.add(readValue(in));
+				return list;
+			}
+			case TAG_REQUEST: return readRequest(in);
+			case TAG_REF: return new FederatedRequest.BatchRef(in.readInt());
+			case TAG_OBJECT: {
+				ObjectInputStream ois = new ObjectInputStream(in);
+				try {
+					return ois.readObject();
+				}
+				catch(ClassNotFoundException ex) {
+					throw new IOException(ex);
+				}
+			}
+			default:
+				throw new DMLRuntimeException("FederatedCodec: Unknown value tag " + tag + ".");
+		}
+	}
+
+	private static boolean isNativeList(List<?> list) {
+		//lists are encoded natively if all items are
+		for( Object o : list )
+			if( !(o == null || o instanceof Number || o instanceof Boolean
+				|| o instanceof String || o instanceof CacheBlock || o instanceof List
+				|| o instanceof FederatedRequest || o instanceof FederatedRequest.BatchRef) )
+				return false;
+		return true;
+	}
+
+	private static long estimateSize(Object msg) {
+		long size = DEFAULT_BUFFER_SIZE;
+		if( msg instanceof FederatedRequest ) {
+			FederatedRequest request = (FederatedRequest) msg;
+			for( int i=0; i<request.getNumParams(); i++ )
+				size += estimateSize(request.getParam(i), 0);
+		}
+		else if( msg instanceof FederatedResponse )
+			size += estimateSize(((FederatedResponse) msg).getData(), 0);
+		return size;
+	}
+
+	private static long estimateSize(Object value, int depth) {
+		if( value instanceof CacheBlock )
+			return ((CacheBlock) value).getExactSerializedSize();
+		if( value instanceof FederatedRequest )
+			return estimateSize(value);
+		if( value instanceof List && depth < 2 ) {
+			long size = 0;
+			for( Object o : (List<?>) value )
+				size += estimateSize(o, depth+1);
+			return size;
+		}
+		return 0;
+	}
+}
@@ -26,9 +26,6 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.serialization.ClassResolvers;
-import io.netty.handler.codec.serialization.ObjectDecoder;
-import io.netty.handler.codec.serialization.ObjectEncoder;
 import io.netty.util.concurrent.Promise;
 
 import org.tugraz.sysds.conf.DMLConfig;
@@ -46,6 +43,10 @@ public class FederatedData {
 	 */
 	private long _varID = -1; // -1 is never valid since varIDs start at 0
 	private int _nrThreads = Integer.parseInt(DMLConfig.DEFAULT_NUMBER_OF_FEDERATED_WORKER_THREADS);
+	/**
+	 * The number of federated matrix objects whose mapping refers to this data (e.g., after cbind).
+	 */
+	private int _refCount = 0;
 
 
 	public FederatedData(InetSocketAddress address, String filepath) {
@@ -67,6 +68,10 @@ public class FederatedData {
 		return _address;
 	}
 	
+	public long getVarID() {
+		return _varID;
+	}
+	
 	public void setVarID(long varID) {
 		_varID = varID;
 	}
@@ -88,6 +93,29 @@ public class FederatedData {
 		
 	}
 	
+	/**
+	 * Registers a federated matrix object whose mapping refers to this data.
+	 */
+	public synchronized void retain() {
+		_refCount++;
+	}
+	
+	/**
+	 * Unregisters a federated matrix object whose mapping referred to this data,
+	 * and removes the variable at the federated worker once no other object
+	 * refers to it.
+	 *
+	 * @return the response of the removal, or null if the variable is still referenced
+	 */
+	public synchronized Future<FederatedResponse> release() {
+		if( --_refCount > 0 || !isInitialized() )
+			return null;
+		Future<FederatedResponse> ret = executeFederatedOperation(
+			new FederatedRequest(FederatedRequest.FedMethod.REMOVE_VAR), true);
+		_varID = -1;
+		return ret;
+	}
+	
 	/**
 	 * Executes an federated operation on a federated worker and default variable.
 	 *
@@ -133,10 +161,9 @@ public class FederatedData {
 			b.group(workerGroup).channel(NioSocketChannel.class).handler(new ChannelInitializer<SocketChannel>() {
 				@Override
 				public void initChannel(SocketChannel ch) {
-					ch.pipeline().addLast("ObjectDecoder",
-							new ObjectDecoder(Integer.MAX_VALUE, ClassResolvers.weakCachingResolver(ClassLoader.getSystemClassLoader())))
+					ch.pipeline().addLast("FederatedDecoder", new FederatedCodec.Decoder())
 							.addLast("FederatedOperationHandler", handler)
-							.addLast("ObjectEncoder", new ObjectEncoder());
+							.addLast("FederatedEncoder", new FederatedCodec.Encoder());
 				}
 			});
 			
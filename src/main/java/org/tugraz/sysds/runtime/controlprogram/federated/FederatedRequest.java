@@ -21,12 +21,16 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.tugraz.sysds.runtime.DMLRuntimeException;
 
 public class FederatedRequest implements Serializable {
 	private static final long serialVersionUID = 5946781306963870394L;
 	
 	public enum FedMethod {
-		READ, MATVECMULT, TRANSFER, AGGREGATE, SCALAR
+		READ, MATVECMULT, TRANSFER, AGGREGATE, SCALAR, BATCH, EXEC_INST, REMOVE_VAR
 	}
 	
 	private FedMethod _method;
@@ -72,4 +76,63 @@ public class FederatedRequest implements Serializable {
 	public FederatedRequest deepClone() {
 		return new FederatedRequest(_method, new ArrayList<>(_data));
 	}
+	
+	/**
+	 * Creates a batched request of operations, which are executed in order
+	 * by the federated worker in a single round trip. Operations may refer to
+	 * the results of previous operations of the batch via {@link BatchRef}.
+	 * The response contains the list of results of the given outputs.
+	 * 
+	 * @param ops list of operations (without nested batches)
+	 * @param outputs indexes of operations whose results are returned
+	 * @return batched request
+	 */
+	public static FederatedRequest createBatch(List<FederatedRequest> ops, Integer... outputs) {
+		for( FederatedRequest op : ops )
+			if( op.getMethod() == FedMethod.BATCH )
+				throw new DMLRuntimeException("Nested federated batches are not supported.");
+		return new FederatedRequest(FedMethod.BATCH, new ArrayList<>(ops),
+			new ArrayList<>(Arrays.asList(outputs)));
+	}
+	
+	/**
+	 * Creates a request of CP instructions, which are executed by the federated
+	 * worker on a local execution context. The given inputs are bound by name
+	 * either to worker-side variables (by ID) or to shipped data (e.g., a matrix
+	 * block or scalar object). Matrix, frame, and tensor outputs remain resident
+	 * at the worker and are returned as new variable IDs, while scalar outputs
+	 * are returned as scalar objects.
+	 * 
+	 * @param insts list of serialized CP instructions, executed in order
+	 * @param inputs map of variable names to variable IDs or data
+	 * @param outputs names of output variables
+	 * @return instruction request
+	 */
+	public static FederatedRequest createExecInst(List<String> insts, Map<String, Object> inputs, String... outputs) {
+		ArrayList<Object> names = new ArrayList<>();
+		ArrayList<Object> values = new ArrayList<>();
+		for( Entry<String, Object> e : inputs.entrySet() ) {
+			names.add(e.getKey());
+			values.add(e.getValue());
+		}
+		return new FederatedRequest(FedMethod.EXEC_INST, new ArrayList<>(insts),
+			names, values, new ArrayList<>(Arrays.asList(outputs)));
+	}
+	
+	/**
+	 * Reference to the result of a previous operation within a batched request.
+	 */
+	public static class BatchRef implements Serializable {
+		private static final long serialVersionUID = -3536391380950343153L;
+		
+		private final int _index;
+		
+		public BatchRef(int index) {
+			_index = index;
+		}
+		
+		public int getIndex() {
+			return _index;
+		}
+	}
 }
@@ -42,6 +42,10 @@ public class FederatedResponse implements Serializable {
 			_status = FederatedResponse.Type.SUCCESS_EMPTY;
 	}
 	
+	public FederatedResponse.Type getStatus() {
+		return _status;
+	}
+	
 	public boolean isSuccessful() {
 		return _status != FederatedResponse.Type.ERROR;
 	}
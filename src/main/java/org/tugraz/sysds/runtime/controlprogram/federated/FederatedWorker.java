@@ -25,9 +25,6 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.serialization.ClassResolvers;
-import io.netty.handler.codec.serialization.ObjectDecoder;
-import io.netty.handler.codec.serialization.ObjectEncoder;
 import org.apache.log4j.Logger;
 import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
 import org.tugraz.sysds.runtime.controlprogram.parfor.util.IDSequence;
@@ -59,10 +56,8 @@ public class FederatedWorker {
 				@Override
 				public void initChannel(SocketChannel ch) {
 					ch.pipeline()
-						.addLast("ObjectDecoder",
-							new ObjectDecoder(Integer.MAX_VALUE,
-								ClassResolvers.weakCachingResolver(ClassLoader.getSystemClassLoader())))
-						.addLast("ObjectEncoder", new ObjectEncoder())
+						.addLast("FederatedDecoder", new FederatedCodec.Decoder())
+						.addLast("FederatedEncoder", new FederatedCodec.Encoder())
 						.addLast("FederatedWorkerHandler", new FederatedWorkerHandler(_seq, _vars));
 				}
 			}).option(ChannelOption.SO_BACKLOG, 128).childOption(ChannelOption.SO_KEEPALIVE, true);
@@ -34,9 +34,17 @@ import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.controlprogram.caching.TensorObject;
+import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
+import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContextFactory;
 import org.tugraz.sysds.runtime.controlprogram.parfor.util.IDSequence;
 import org.tugraz.sysds.runtime.functionobjects.Multiply;
 import org.tugraz.sysds.runtime.functionobjects.Plus;
+import org.tugraz.sysds.runtime.instructions.CPInstructionParser;
+import org.tugraz.sysds.runtime.instructions.Instruction;
+import org.tugraz.sysds.runtime.instructions.cp.CPInstruction;
+import org.tugraz.sysds.runtime.instructions.cp.CPInstruction.CPType;
+import org.tugraz.sysds.runtime.instructions.cp.CPOperand;
+import org.tugraz.sysds.runtime.instructions.cp.ComputationCPInstruction;
 import org.tugraz.sysds.runtime.instructions.cp.Data;
 import org.tugraz.sysds.runtime.instructions.cp.ListObject;
 import org.tugraz.sysds.runtime.io.IOUtilFunctions;
@@ -54,12 +62,30 @@ import org.tugraz.sysds.utils.JSONHelper;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class FederatedWorkerHandler extends ChannelInboundHandlerAdapter {
 	protected static Logger log = Logger.getLogger(FederatedWorkerHandler.class);
 
+	// types of CP instructions allowed in EXEC_INST requests
+	private static final EnumSet<CPType> ALLOWED_INST_TYPES = EnumSet.of(
+		CPType.AggregateUnary, CPType.AggregateBinary, CPType.AggregateTernary,
+		CPType.Unary, CPType.Binary, CPType.Ternary, CPType.Quaternary, CPType.Builtin, CPType.Reorg, CPType.Append, CPType.MatrixIndexing, CPType.Reshape,
+		CPType.MMTSJ, CPType.PMMJ, CPType.MMChain, CPType.Ctable, CPType.QSort, CPType.QPick,
+		CPType.CentralMoment, CPType.Covariance, CPType.UaggOuterChain);
+	
+	// opcodes of allowed types with side effects at the worker
+	private static final Set<String> EXCLUDED_INST_OPCODES = new HashSet<>(
+		Arrays.asList("print", "assert", "stop"));
+
 	private final IDSequence _seq;
 	private Map<Long, CacheableData<?>> _vars;
 
@@ -101,6 +127,12 @@ public class FederatedWorkerHandler extends ChannelInboundHandlerAdapter {
 					return executeAggregation(request);
 				case SCALAR:
 					return executeScalarOperation(request);
+				case BATCH:
+					return executeBatch(request);
+				case EXEC_INST:
+					return executeInstruction(request);
+				case REMOVE_VAR:
+					return removeVariable(request);
 				default:
 					String message = String.format("Method %s is not supported.", method);
 					return new FederatedResponse(FederatedResponse.Type.ERROR, message);
@@ -156,16 +188,14 @@ public class FederatedWorkerHandler extends ChannelInboundHandlerAdapter {
 
 	private FederatedResponse executeMatVecMult(FederatedRequest request) {
 		checkNumParams(request.getNumParams(), 3);
-		MatrixBlock vector = (MatrixBlock) request.getParam(0);
+		MatrixBlock vector = getMatrixBlock(request.getParam(0));
 		boolean isMatVecMult = (Boolean) request.getParam(1);
-		long varID = (Long) request.getParam(2);
+		MatrixBlock matBlock1 = getMatrixBlock(request.getParam(2));
 
-		return executeMatVecMult(varID, vector, isMatVecMult);
+		return executeMatVecMult(matBlock1, vector, isMatVecMult);
 	}
 
-	private FederatedResponse executeMatVecMult(long varID, MatrixBlock vector, boolean isMatVecMult) {
-		MatrixObject matTo = (MatrixObject) _vars.get(varID);
-		MatrixBlock matBlock1 = matTo.acquireReadAndRelease();
+	private static FederatedResponse executeMatVecMult(MatrixBlock matBlock1, MatrixBlock vector, boolean isMatVecMult) {
 		// TODO other datatypes
 		AggregateBinaryOperator ab_op = new AggregateBinaryOperator(
 			Multiply.getMultiplyFnObject(), new AggregateOperator(0, Plus.getPlusFnObject()));
@@ -177,8 +207,11 @@ public class FederatedWorkerHandler extends ChannelInboundHandlerAdapter {
 
 	private FederatedResponse getVariableData(FederatedRequest request) {
 		checkNumParams(request.getNumParams(), 1);
-		long varID = (Long) request.getParam(0);
-		return getVariableData(varID);
+		Object param = request.getParam(0);
+		//results of previous batch operations are returned as is
+		if( !(param instanceof Long) )
+			return new FederatedResponse(FederatedResponse.Type.SUCCESS, param);
+		return getVariableData((Long) param);
 	}
 
 	private FederatedResponse getVariableData(long varID) {
@@ -202,23 +235,24 @@ public class FederatedWorkerHandler extends ChannelInboundHandlerAdapter {
 	private FederatedResponse executeAggregation(FederatedRequest request) {
 		checkNumParams(request.getNumParams(), 2);
 		AggregateUnaryOperator operator = (AggregateUnaryOperator) request.getParam(0);
-		long varID = (Long) request.getParam(1);
-		return executeAggregation(varID, operator);
+		Object param = request.getParam(1);
+		if( param instanceof Long ) {
+			Data dataObject = _vars.get(param);
+			if (dataObject.getDataType() != Types.DataType.MATRIX) {
+				return new FederatedResponse(FederatedResponse.Type.ERROR,
+					"FederatedWorkerHandler: Aggregation only supported for matrices, not for "
+						+ dataObject.getDataType().name());
+			}
+		}
+		return executeAggregation(getMatrixBlock(param), operator);
 	}
 
-	private FederatedResponse executeAggregation(long varID, AggregateUnaryOperator operator) {
-		Data dataObject = _vars.get(varID);
-		if (dataObject.getDataType() != Types.DataType.MATRIX) {
-			return new FederatedResponse(FederatedResponse.Type.ERROR,
-				"FederatedWorkerHandler: Aggregation only supported for matrices, not for "
-					+ dataObject.getDataType().name());
-		}
-		MatrixObject matrixObject = (MatrixObject) dataObject;
-		MatrixBlock matrixBlock = matrixObject.acquireRead();
+	private static FederatedResponse executeAggregation(MatrixBlock matrixBlock, AggregateUnaryOperator operator) {
 		// create matrix for calculation with correction
 		MatrixCharacteristics mc = new MatrixCharacteristics();
 		// find out the characteristics after aggregation
-		operator.indexFn.computeDimension(matrixObject.getDataCharacteristics(), mc);
+		operator.indexFn.computeDimension(new MatrixCharacteristics(matrixBlock.getNumRows(),
+			matrixBlock.getNumColumns(), matrixBlock.getNonZeros()), mc);
 		// make outBlock right size
 		int outNumRows = (int) mc.getRows();
 		int outNumCols = (int) mc.getCols();
@@ -245,26 +279,208 @@ public class FederatedWorkerHandler extends ChannelInboundHandlerAdapter {
 	private FederatedResponse executeScalarOperation(FederatedRequest request) {
 		checkNumParams(request.getNumParams(), 2);
 		ScalarOperator operator = (ScalarOperator) request.getParam(0);
-		long varID = (Long) request.getParam(1);
-		return executeScalarOperation(varID, operator);
+		Object param = request.getParam(1);
+		if( param instanceof Long ) {
+			Data dataObject = _vars.get(param);
+			if (dataObject.getDataType() != Types.DataType.MATRIX) {
+				return new FederatedResponse(FederatedResponse.Type.ERROR,
+					"FederatedWorkerHandler: ScalarOperator dont support "
+						+ dataObject.getDataType().name());
+			}
+		}
+		MatrixBlock inBlock = getMatrixBlock(param);
+		MatrixBlock retBlock = inBlock.scalarOperations(operator, new MatrixBlock());
+		return new FederatedResponse(FederatedResponse.Type.SUCCESS, retBlock);
 	}
 
-	private FederatedResponse executeScalarOperation(long varID, ScalarOperator operator) {
-		Data dataObject = _vars.get(varID);
-		if (dataObject.getDataType() != Types.DataType.MATRIX) {
+	private FederatedResponse executeBatch(FederatedRequest request) {
+		checkNumParams(request.getNumParams(), 2);
+		List<?> ops = (List<?>) request.getParam(0);
+		List<?> outputs = (List<?>) request.getParam(1);
+
+		// execute operations in order, where later operations
+		// can consume the (transient) results of previous operations
+		Object[] results = new Object[ops.size()];
+		for (int i = 0; i < ops.size(); i++) {
+			FederatedRequest op = resolveBatchRefs((FederatedRequest) ops.get(i), results, i);
+			if (op.getMethod() == FederatedRequest.FedMethod.BATCH)
+				throw new DMLRuntimeException("FederatedWorkerHandler: Nested batches are not supported.");
+			FederatedResponse response = constructResponse(op);
+			if (!response.isSuccessful())
+				return new FederatedResponse(FederatedResponse.Type.ERROR, "FederatedWorkerHandler: Batch operation "
+					+ i + " (" + op.getMethod() + ") failed: " + response.getErrorMessage());
+			results[i] = response.getData();
+		}
+
+		// return only the requested results
+		List<Object> ret = new ArrayList<>(outputs.size());
+		for (Object output : outputs)
+			ret.add(results[(Integer) output]);
+		return new FederatedResponse(FederatedResponse.Type.SUCCESS, ret);
+	}
+
+	private static FederatedRequest resolveBatchRefs(FederatedRequest op, Object[] results, int pos) {
+		FederatedRequest ret = new FederatedRequest(op.getMethod());
+		for (int i = 0; i < op.getNumParams(); i++) {
+			Object param = op.getParam(i);
+			if (param instanceof FederatedRequest.BatchRef) {
+				int index = ((FederatedRequest.BatchRef) param).getIndex();
+				if (index < 0 || index >= pos)
+					throw new DMLRuntimeException("FederatedWorkerHandler: Invalid batch reference " + index
+						+ " in operation " + pos + ".");
+				param = results[index];
+			}
+			ret.appendParam(param);
+		}
+		return ret;
+	}
+
+	private FederatedResponse executeInstruction(FederatedRequest request) {
+		checkNumParams(request.getNumParams(), 4);
+		List<?> insts = (List<?>) request.getParam(0);
+		List<?> names = (List<?>) request.getParam(1);
+		List<?> inputs = (List<?>) request.getParam(2);
+		List<?> outputs = (List<?>) request.getParam(3);
+
+		// parse and validate all instructions before execution
+		List<ComputationCPInstruction> cpinsts = new ArrayList<>(insts.size());
+		for (Object str : insts)
+			cpinsts.add(parseComputeInstruction((String) str, names));
+		// outputs must be distinct and not bound inputs, which would
+		// register the same (e.g., resident) data under a second ID
+		Set<Object> outnames = new HashSet<>();
+		for (Object output : outputs)
+			if (names.contains(output) || !outnames.add(output))
+				throw new DMLRuntimeException("FederatedWorkerHandler: Invalid output variable " + output
+					+ " (bound input or duplicate).");
+
+		// bind inputs by name into a local execution context
+		ExecutionContext ec = ExecutionContextFactory.createContext();
+		Set<Data> resident = Collections.newSetFromMap(new IdentityHashMap<>());
+		try {
+			for (int i = 0; i < names.size(); i++) {
+				Data data = getData(inputs.get(i));
+				if (inputs.get(i) instanceof Long)
+					resident.add(data);
+				ec.setVariable((String) names.get(i), data);
+			}
+
+			// execute the CP instructions in order
+			for (ComputationCPInstruction inst : cpinsts) {
+				createOutputIfMissing(ec, inst.output);
+				Instruction tmp = inst.preprocessInstruction(ec);
+				tmp.processInstruction(ec);
+				tmp.postprocessInstruction(ec);
+			}
+
+			// lookup all outputs before registration, in order to
+			// not leak resident variables if an output is missing
+			List<Data> dout = new ArrayList<>(outputs.size());
+			for (Object output : outputs) {
+				Data data = ec.getVariable((String) output);
+				if (data == null)
+					throw new DMLRuntimeException("FederatedWorkerHandler: Output variable " + output + " not found.");
+				if (data instanceof CacheableData && (resident.contains(data) || dout.contains(data)))
+					throw new DMLRuntimeException("FederatedWorkerHandler: Output variable " + output
+						+ " refers to a resident variable or another output.");
+				dout.add(data);
+			}
+
+			// keep data outputs resident, and return their new IDs
+			List<Object> ret = new ArrayList<>(outputs.size());
+			for (Data data : dout) {
+				if (data instanceof CacheableData) {
+					ret.add(registerVariable((CacheableData<?>) data));
+					resident.add(data);
+				}
+				else
+					ret.add(data);
+			}
+			return new FederatedResponse(FederatedResponse.Type.SUCCESS, ret);
+		}
+		finally {
+			// cleanup shipped inputs and intermediates (e.g., buffer pool
+			// entries and evicted files), except resident variables
+			for (String name : new ArrayList<>(ec.getVariables().keySet())) {
+				Data data = ec.removeVariable(name);
+				if (!resident.contains(data))
+					ec.cleanupDataObject(data);
+			}
+		}
+	}
+
+	private FederatedResponse removeVariable(FederatedRequest request) {
+		checkNumParams(request.getNumParams(), 1);
+		long id = (Long) request.getParam(0);
+		CacheableData<?> data = _vars.remove(id);
+		if (data == null)
 			return new FederatedResponse(FederatedResponse.Type.ERROR,
-				"FederatedWorkerHandler: ScalarOperator dont support "
-					+ dataObject.getDataType().name());
+				"FederatedWorkerHandler: Unknown variable ID " + id + ".");
+		// cleanup buffer pool entries and evicted files, but
+		// not the files read via federated() on this worker
+		data.clearData();
+		return new FederatedResponse(FederatedResponse.Type.SUCCESS_EMPTY);
+	}
+
+	private static ComputationCPInstruction parseComputeInstruction(String str, List<?> inputs) {
+		// only compute instructions are allowed, which excludes variable
+		// instructions (e.g., rmvar of resident variables) and IO instructions
+		CPInstruction inst = CPInstructionParser.parseSingleInstruction(str);
+		if (!(inst instanceof ComputationCPInstruction)
+			|| !ALLOWED_INST_TYPES.contains(inst.getCPInstructionType())
+			|| EXCLUDED_INST_OPCODES.contains(inst.getOpcode()))
+			throw new DMLRuntimeException("FederatedWorkerHandler: Unsupported instruction: " + str);
+		// outputs must not overwrite bound (e.g., resident) inputs
+		CPOperand output = ((ComputationCPInstruction) inst).output;
+		if (output != null && inputs.contains(output.getName()))
+			throw new DMLRuntimeException("FederatedWorkerHandler: Instruction output "
+				+ output.getName() + " overwrites an input: " + str);
+		return (ComputationCPInstruction) inst;
+	}
+
+	private Data getData(Object param) {
+		if (param instanceof Long) {
+			CacheableData<?> data = _vars.get(param);
+			if (data == null)
+				throw new DMLRuntimeException("FederatedWorkerHandler: Unknown variable ID " + param + ".");
+			return data;
 		}
+		else if (param instanceof MatrixBlock)
+			return createMatrixObject((MatrixBlock) param);
+		else if (param instanceof Data)
+			return (Data) param;
+		throw new DMLRuntimeException("FederatedWorkerHandler: Unsupported instruction input of type "
+			+ (param == null ? "null" : param.getClass().getSimpleName()) + ".");
+	}
 
-		MatrixObject matrixObject = (MatrixObject) dataObject;
-		MatrixBlock inBlock = matrixObject.acquireRead();
-		MatrixBlock retBlock = inBlock.scalarOperations(operator, new MatrixBlock());
-		return new FederatedResponse(FederatedResponse.Type.SUCCESS, retBlock);
+	private static void createOutputIfMissing(ExecutionContext ec, CPOperand output) {
+		// matrix outputs are usually created by a preceding createvar,
+		// which the worker adds if not shipped with the instructions
+		if (output == null || !output.isMatrix() || ec.containsVariable(output))
+			return;
+		MatrixObject mo = new MatrixObject(Types.ValueType.FP64, OptimizerUtils.getUniqueTempFileName(),
+			new MetaDataFormat(new MatrixCharacteristics(-1, -1, ConfigurationManager.getBlocksize(), -1),
+			OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo));
+		ec.setVariable(output.getName(), mo);
+	}
+
+	/**
+	 * Obtains the matrix block of a parameter, which is either the ID of a
+	 * worker-side variable or an intermediate matrix block (e.g., of a batch).
+	 *
+	 * @param param variable ID or matrix block
+	 * @return matrix block
+	 */
+	private MatrixBlock getMatrixBlock(Object param) {
+		if (param instanceof MatrixBlock)
+			return (MatrixBlock) param;
+		CacheableData<?> data = _vars.get((Long) param);
+		if (data == null)
+			throw new DMLRuntimeException("FederatedWorkerHandler: Unknown variable ID " + param + ".");
+		return ((MatrixObject) data).acquireReadAndRelease();
 	}
 
-	@SuppressWarnings("unused")
-	private FederatedResponse createMatrixObject(MatrixBlock result) {
+	private static MatrixObject createMatrixObject(MatrixBlock result) {
 		MatrixObject resTo = new MatrixObject(Types.ValueType.FP64, OptimizerUtils.getUniqueTempFileName());
 		MetaDataFormat metadata = new MetaDataFormat(
 			new MatrixCharacteristics(result.getNumRows(), result.getNumColumns()),
@@ -272,9 +488,13 @@ public class FederatedWorkerHandler extends ChannelInboundHandlerAdapter {
 		resTo.setMetaData(metadata);
 		resTo.acquireModify(result);
 		resTo.release();
-		long result_var = _seq.getNextID();
-		_vars.put(result_var, resTo);
-		return new FederatedResponse(FederatedResponse.Type.SUCCESS, result_var);
+		return resTo;
+	}
+
+	private long registerVariable(CacheableData<?> data) {
+		long id = _seq.getNextID();
+		_vars.put(id, data);
+		return id;
 	}
 
 	private static void checkNumParams(int actual, int... expected) {
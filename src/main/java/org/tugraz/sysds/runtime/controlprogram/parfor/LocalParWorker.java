@@ -20,16 +20,20 @@
 package org.tugraz.sysds.runtime.controlprogram.parfor;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.tugraz.sysds.api.DMLScript;
 import org.tugraz.sysds.conf.CompilerConfig;
 import org.tugraz.sysds.conf.ConfigurationManager;
 import org.tugraz.sysds.hops.OptimizerUtils;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.controlprogram.context.SparkExecutionContext;
 import org.tugraz.sysds.runtime.controlprogram.parfor.stat.Stat;
 import org.tugraz.sysds.runtime.controlprogram.parfor.stat.StatisticMonitor;
 import org.tugraz.sysds.runtime.controlprogram.parfor.stat.Timing;
+import org.tugraz.sysds.runtime.instructions.cp.Data;
 
 /**
  * Instances of this class can be used to execute tasks in parallel. Within each ParWorker 
@@ -46,6 +50,9 @@ public class LocalParWorker extends ParWorker implements Runnable
 	protected final boolean _stopped;
 	protected final int _max_retry;
 	protected Collection<String> _fnNames = null;
+	protected Map<String, ResultMergeLocalStreaming> _resultMerges = null;
+	protected long _idleTime = 0; //in nano sec
+	protected long _endTime = -1;
 	
 	public LocalParWorker( long ID, LocalTaskQueue<Task> q, ParForBody body, CompilerConfig cconf, int max_retry, boolean monitor ) {
 		super(ID, body, monitor);
@@ -63,6 +70,30 @@ public class LocalParWorker extends ParWorker implements Runnable
 		return _fnNames;
 	}
 	
+	public void setResultMerges(Map<String, ResultMergeLocalStreaming> merges) {
+		_resultMerges = merges;
+	}
+	
+	/**
+	 * Returns the time this worker waited for tasks, and hence should
+	 * only be called after execution.
+	 * 
+	 * @return idle time in nano seconds
+	 */
+	public long getIdleTime() {
+		return _idleTime;
+	}
+	
+	/**
+	 * Returns the point in time this worker finished execution,
+	 * and hence should only be called after execution.
+	 * 
+	 * @return end time in nano seconds (see System.nanoTime)
+	 */
+	public long getEndTime() {
+		return _endTime;
+	}
+	
 	@Override
 	public void run() 
 	{
@@ -98,7 +129,9 @@ public class LocalParWorker extends ParWorker implements Runnable
 			while( !_stopped ) {
 				//dequeue the next task (abort on NO_MORE_TASKS or error)
 				try {
+					long t0 = System.nanoTime();
 					lTask = _taskQueue.dequeueTask();
+					_idleTime += System.nanoTime() - t0;
 					
 					if( lTask == LocalTaskQueue.NO_MORE_TASKS ) // task queue closed (no more tasks)
 						break; //normal end of parallel worker
@@ -135,8 +168,14 @@ public class LocalParWorker extends ParWorker implements Runnable
 					}
 				}
 			}
+			
+			//stream results into shared outputs (overlapped with other workers)
+			if( _resultMerges != null )
+				mergeResultVariables();
 		}
 		finally {
+			_endTime = System.nanoTime();
+			
 			//cleanup fair scheduler pool for worker thread
 			if( OptimizerUtils.isSparkExecutionMode() && pool != -1 ) {
 				SparkExecutionContext sec = (SparkExecutionContext)_ec;
@@ -150,4 +189,16 @@ public class LocalParWorker extends ParWorker implements Runnable
 			StatisticMonitor.putPWStat(_workerID, Stat.PARWRK_EXEC_T, time1.stop());
 		}
 	}
+	
+	private void mergeResultVariables() {
+		for( Entry<String, ResultMergeLocalStreaming> e : _resultMerges.entrySet() ) {
+			Data dat = _ec.getVariable(e.getKey());
+			if( !(dat instanceof MatrixObject) || dat == e.getValue().getOutput() )
+				continue; //no iterations executed
+			e.getValue().merge((MatrixObject) dat);
+			//release worker result early, as it is no longer required
+			_ec.removeVariable(e.getKey());
+			_ec.cleanupCacheableData((MatrixObject) dat);
+		}
+	}
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.controlprogram.parfor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.parfor.Task.TaskType;
+import org.tugraz.sysds.runtime.instructions.cp.IntObject;
+
+/**
+ * Lock-free task queue for local parfor with work stealing. Instead of a
+ * shared FIFO of pre-partitioned tasks, every worker owns a contiguous range
+ * of iterations (initially numIterations/numWorkers), and dequeues range tasks
+ * from the front of its own range, where the task size decreases with the
+ * remaining iterations. Workers with an exhausted range steal the back half of
+ * the remaining range of another worker, which thus splits ranges on demand.
+ *
+ * Each range [lo, hi) of iteration positions is packed into a single atomic
+ * long, such that both dequeues of the owner and steals of other workers
+ * are realized via compare-and-swap without locks. Since workers are
+ * assigned to ranges on their first dequeue, this queue has the same
+ * interface as {@link LocalTaskQueue} and requires no changes to workers.
+ */
+public class LocalTaskQueueWorkStealing extends LocalTaskQueue<Task>
+{
+	//fraction of the remaining own range, dequeued as a single task
+	private static final int CHUNK_DIVISOR = 4;
+
+	private final AtomicLong[] _ranges;
+	private final AtomicInteger _nextSlot = new AtomicInteger(0);
+	private final ThreadLocal<Integer> _slot = new ThreadLocal<>();
+	private final CountDownLatch _init = new CountDownLatch(1);
+	private final LongAdder _numTasks = new LongAdder();
+	private final LongAdder _numSteals = new LongAdder();
+
+	private String _iterVarName = null;
+	private long _from = -1;
+	private long _incr = -1;
+	private int _minTaskSize = 1;
+
+	public LocalTaskQueueWorkStealing( int numWorkers ) {
+		_ranges = new AtomicLong[numWorkers];
+		for( int i=0; i<numWorkers; i++ )
+			_ranges[i] = new AtomicLong(pack(0, 0));
+	}
+
+	/**
+	 * Initializes the ranges of all workers with the given loop, which
+	 * unblocks all waiting workers.
+	 *
+	 * @param iterVarName name of the iteration variable
+	 * @param from first iteration value
+	 * @param incr increment
+	 * @param numIter number of iterations
+	 * @param minTaskSize minimum number of iterations per task
+	 */
+	public void init( String iterVarName, long from, long incr, long numIter, int minTaskSize ) {
+		if( numIter > Integer.MAX_VALUE )
+			throw new DMLRuntimeException("Work stealing not supported for "+numIter+" iterations.");
+		_iterVarName = iterVarName;
+		_from = from;
+		_incr = incr;
+		_minTaskSize = Math.max(minTaskSize, 1);
+
+		//equal initial ranges (first n ranges w/ one additional iteration)
+		int k = _ranges.length;
+		int len = (int) (numIter / k);
+		int rem = (int) (numIter % k);
+		for( int i=0, lo=0; i<k; i++ ) {
+			int hi = lo + len + ((i < rem) ? 1 : 0);
+			_ranges[i].set(pack(lo, hi));
+			lo = hi;
+		}
+		_init.countDown();
+	}
+
+	@Override
+	public void enqueueTask( Task t ) {
+		throw new DMLRuntimeException("Work stealing task queue does not support enqueue of tasks.");
+	}
+
+	@Override
+	public void closeInput() {
+		//do nothing (ranges are closed on init)
+	}
+
+	@Override
+	public Task dequeueTask() throws InterruptedException {
+		_init.await();
+		int slot = getSlot();
+
+		while( true ) {
+			//dequeue task from front of own range
+			Task task = dequeueOwnTask(_ranges[slot]);
+			if( task != null )
+				return task;
+
+			//steal back half of another range (and retry own)
+			if( !steal(slot) )
+				return (Task) NO_MORE_TASKS;
+		}
+	}
+
+	public long getNumTasks() {
+		return _numTasks.longValue();
+	}
+
+	public long getNumSteals() {
+		return _numSteals.longValue();
+	}
+
+	private int getSlot() {
+		Integer slot = _slot.get();
+		if( slot == null ) {
+			//assign ranges to workers on first dequeue
+			slot = _nextSlot.getAndIncrement();
+			if( slot >= _ranges.length )
+				throw new DMLRuntimeException("Work stealing task queue with more workers than ranges.");
+			_slot.set(slot);
+		}
+		return slot;
+	}
+
+	private Task dequeueOwnTask( AtomicLong range ) {
+		while( true ) {
+			long val = range.get();
+			int lo = lo(val), hi = hi(val);
+			if( lo >= hi )
+				return null;
+			int len = Math.min(hi - lo, Math.max((hi - lo) / CHUNK_DIVISOR, _minTaskSize));
+			if( range.compareAndSet(val, pack(lo + len, hi)) )
+				return createTask(lo, lo + len);
+		}
+	}
+
+	private boolean steal( int slot ) {
+		int k = _ranges.length;
+		for( int i=1; i<k; i++ ) {
+			AtomicLong victim = _ranges[(slot + i) % k];
+			while( true ) {
+				long val = victim.get();
+				int lo = lo(val), hi = hi(val);
+				if( lo >= hi )
+					break; //next victim
+				int len = (hi - lo + 1) / 2;
+				if( victim.compareAndSet(val, pack(lo, hi - len)) ) {
+					//own range is empty, and thus, not modified by others
+					_ranges[slot].set(pack(hi - len, hi));
+					_numSteals.increment();
+					return true;
+				}
+			}
+		}
+		//note: ranges in transit of a concurrent steal are
+		//executed by the stealing worker itself
+		return false;
+	}
+
+	private Task createTask( int lo, int hi ) {
+		Task task = new Task(_iterVarName, TaskType.RANGE);
+		task.addIteration(new IntObject(_from + lo * _incr));       //from
+		task.addIteration(new IntObject(_from + (hi - 1) * _incr)); //to
+		task.addIteration(new IntObject(_incr));                    //increment
+		_numTasks.increment();
+		return task;
+	}
+
+	private static long pack( int lo, int hi ) {
+		return ((long) lo << 32) | (hi & 0xFFFFFFFFL);
+	}
+
+	private static int lo( long val ) {
+		return (int) (val >>> 32);
+	}
+
+	private static int hi( long val ) {
+		return (int) val;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("WORK STEALING TASK QUEUE (tasks=");
+		sb.append(getNumTasks());
+		sb.append(",steals=");
+		sb.append(getNumSteals());
+		sb.append(")\n");
+		for( int i=0; i<_ranges.length; i++ ) {
+			long val = _ranges[i].get();
+			sb.append("  RANGE #"+(i+1)+": ["+lo(val)+", "+hi(val)+")\n");
+		}
+		return sb.toString();
+	}
+}
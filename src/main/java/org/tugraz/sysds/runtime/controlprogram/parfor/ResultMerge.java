@@ -23,11 +23,17 @@ package org.tugraz.sysds.runtime.controlprogram.parfor;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.data.DenseBlock;
 import org.tugraz.sysds.runtime.instructions.InstructionUtils;
+import org.tugraz.sysds.runtime.matrix.data.InputInfo;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
 import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
+import org.tugraz.sysds.runtime.meta.DataCharacteristics;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.meta.MetaDataFormat;
 
 import java.io.Serializable;
 import java.util.List;
@@ -139,6 +145,31 @@ public abstract class ResultMerge implements Serializable
 		}
 	}
 
+	protected MatrixObject createNewMatrixObject( MatrixBlock data ) {
+		ValueType vt = _output.getValueType();
+		MetaDataFormat metadata = (MetaDataFormat) _output.getMetaData();
+		MatrixObject moNew = new MatrixObject( vt, _outputFName );
+		
+		//create deep copy of metadata obj
+		DataCharacteristics mcOld = metadata.getDataCharacteristics();
+		OutputInfo oiOld = metadata.getOutputInfo();
+		InputInfo iiOld = metadata.getInputInfo();
+		MatrixCharacteristics mc = new MatrixCharacteristics(
+			mcOld.getRows(),mcOld.getCols(), mcOld.getBlocksize());
+		mc.setNonZeros(data.getNonZeros());
+		MetaDataFormat meta = new MetaDataFormat(mc,oiOld,iiOld);
+		moNew.setMetaData( meta );
+		
+		//adjust dense/sparse representation
+		data.examSparsity();
+		
+		//release new output
+		moNew.acquireModify(data);
+		moNew.release();
+		
+		return moNew;
+	}
+
 	protected long computeNonZeros( MatrixObject out, List<MatrixObject> in ) {
 		//sum of nnz of input (worker result) - output var existing nnz
 		long outNNZ = out.getDataCharacteristics().getNonZeros();
@@ -21,17 +21,11 @@
 
 package org.tugraz.sysds.runtime.controlprogram.parfor;
 
-import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
 import org.tugraz.sysds.runtime.data.DenseBlock;
-import org.tugraz.sysds.runtime.matrix.data.InputInfo;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
-import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
-import org.tugraz.sysds.runtime.meta.DataCharacteristics;
-import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
-import org.tugraz.sysds.runtime.meta.MetaDataFormat;
 import org.tugraz.sysds.runtime.util.DataConverter;
 
 import java.util.ArrayList;
@@ -226,32 +220,6 @@ public class ResultMergeLocalMemory extends ResultMerge
 		return null;
 	}
 
-	private MatrixObject createNewMatrixObject( MatrixBlock data ) {
-		ValueType vt = _output.getValueType();
-		MetaDataFormat metadata = (MetaDataFormat) _output.getMetaData();
-		MatrixObject moNew = new MatrixObject( vt, _outputFName );
-		
-		//create deep copy of metadata obj
-		DataCharacteristics mcOld = metadata.getDataCharacteristics();
-		OutputInfo oiOld = metadata.getOutputInfo();
-		InputInfo iiOld = metadata.getInputInfo();
-		MatrixCharacteristics mc = new MatrixCharacteristics(
-			mcOld.getRows(),mcOld.getCols(), mcOld.getBlocksize());
-		mc.setNonZeros(data.getNonZeros());
-		MetaDataFormat meta = new MetaDataFormat(mc,oiOld,iiOld);
-		moNew.setMetaData( meta );
-		
-		//adjust dense/sparse representation
-		data.examSparsity();
-		
-		//release new output
-		moNew.acquireModify(data);
-		moNew.release();
-		
-		return moNew;
-	}
-
-	
 	/**
 	 * Merges <code>in</code> into <code>out</code> by inserting all non-zeros of <code>in</code>
 	 * into <code>out</code> at their given positions. This is an update-in-place.
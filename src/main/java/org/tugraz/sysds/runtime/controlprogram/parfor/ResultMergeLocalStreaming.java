@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.controlprogram.parfor;
+
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.data.DenseBlock;
+import org.tugraz.sysds.runtime.data.SparseBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+
+/**
+ * Local in-memory realization of a streaming result merge, where local parfor
+ * workers merge their results into a shared output as soon as they finish,
+ * instead of merging all worker results at the end of the parfor loop. This
+ * overlaps the merge with the remaining computation, and releases the result
+ * of each worker early.
+ *
+ * The merged output is kept in dense format, which allows for concurrent
+ * unsynchronized merges of workers because parfor results are independent
+ * (i.e., workers write disjoint cells). Only for accumulation (+=), which
+ * updates the same cells from multiple workers, the merge is synchronized
+ * on stripes of rows to avoid a single lock.
+ */
+public class ResultMergeLocalStreaming extends ResultMerge
+{
+	private static final long serialVersionUID = -6505744624566493785L;
+
+	//number of rows per lock stripe for accumulation
+	private static final int STRIPE_SIZE = 64;
+
+	private final MatrixBlock _outMB;
+	private final DenseBlock _compare;
+	private final Object[] _locks;
+	private volatile boolean _merged = false;
+	private volatile Exception _error = null;
+
+	public ResultMergeLocalStreaming( MatrixObject out, String outputFilename, boolean accum ) {
+		super( out, null, outputFilename, accum );
+
+		//create dense output and compare matrix if required (existing data in result)
+		MatrixBlock outMB = out.acquireRead();
+		int rows = outMB.getNumRows();
+		int cols = outMB.getNumColumns();
+		_outMB = new MatrixBlock(rows, cols, false);
+		_outMB.allocateDenseBlockUnsafe(rows, cols);
+		_compare = !outMB.isEmptyBlock(false) ?
+			DataConverter.convertToDenseBlock(outMB, false) : null;
+		if( _compare != null )
+			_outMB.copy(outMB, false); //keep dense output
+		out.release();
+
+		//create lock stripes for accumulation
+		_locks = accum ? new Object[(rows + STRIPE_SIZE - 1) / STRIPE_SIZE] : null;
+		for( int i=0; _locks != null && i<_locks.length; i++ )
+			_locks[i] = new Object();
+	}
+
+	public MatrixObject getOutput() {
+		return _output;
+	}
+
+	/**
+	 * Merges the given worker result into the shared output. This method is
+	 * thread-safe and called by the local parfor workers once they finish.
+	 * Errors are recorded and thrown on obtaining the final output.
+	 *
+	 * @param in worker result
+	 */
+	public void merge( MatrixObject in ) {
+		//check for empty inputs (no iterations executed)
+		if( in == null || in == _output )
+			return;
+
+		boolean pinned = false;
+		try {
+			if( LOG.isTraceEnabled() )
+				LOG.trace("ResultMerge (local, streaming): Merge input "+in.hashCode()+" (fname="+in.getFileName()+")");
+
+			MatrixBlock inMB = in.acquireRead();
+			pinned = true;
+			if( _locks == null ) {
+				//disjoint results, no synchronization required
+				mergeRows(inMB, 0, inMB.getNumRows());
+			}
+			else {
+				for( int k=0; k<_locks.length; k++ ) {
+					int rl = k * STRIPE_SIZE;
+					int ru = Math.min(rl + STRIPE_SIZE, inMB.getNumRows());
+					synchronized( _locks[k] ) {
+						mergeRows(inMB, rl, ru);
+					}
+				}
+			}
+			_merged = true;
+		}
+		catch(Exception ex) {
+			_error = ex;
+			LOG.error("ResultMerge (local, streaming): Failed to merge input.", ex);
+		}
+		finally {
+			if( pinned )
+				in.release();
+		}
+	}
+
+	@Override
+	public MatrixObject executeSerialMerge() {
+		//all inputs are already merged by the workers
+		if( _error != null )
+			throw new DMLRuntimeException("Failed streaming result merge.", _error);
+		if( !_merged )
+			return _output; //return old matrix, to prevent copy
+
+		//create new output matrix (with exact nnz)
+		_outMB.recomputeNonZeros();
+		return createNewMatrixObject(_outMB);
+	}
+
+	@Override
+	public MatrixObject executeParallelMerge( int par ) {
+		return executeSerialMerge();
+	}
+
+	private void mergeRows( MatrixBlock in, int rl, int ru ) {
+		DenseBlock c = _outMB.getDenseBlock();
+		if( _compare != null ) {
+			mergeRowsWithComp(c, in, rl, ru);
+		}
+		else if( in.isEmptyBlock(false) ) {
+			return; //nothing to do
+		}
+		else if( in.isInSparseFormat() ) {
+			SparseBlock a = in.getSparseBlock();
+			for( int i=rl; i<ru; i++ ) {
+				if( a.isEmpty(i) ) continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				double[] cvals = c.values(i);
+				int cix = c.pos(i);
+				for( int k=apos; k<apos+alen; k++ )
+					cvals[cix+aix[k]] = _isAccum ?
+						cvals[cix+aix[k]] + avals[k] : avals[k];
+			}
+		}
+		else {
+			DenseBlock a = in.getDenseBlock();
+			int n = in.getNumColumns();
+			for( int i=rl; i<ru; i++ ) {
+				double[] avals = a.values(i);
+				double[] cvals = c.values(i);
+				int aix = a.pos(i), cix = c.pos(i);
+				for( int j=0; j<n; j++ )
+					if( avals[aix+j] != 0 )
+						cvals[cix+j] = _isAccum ?
+							cvals[cix+j] + avals[aix+j] : avals[aix+j];
+			}
+		}
+	}
+
+	private void mergeRowsWithComp( DenseBlock c, MatrixBlock in, int rl, int ru ) {
+		//see ResultMerge.mergeWithComp for notes on correctness
+		//(changed values, NaN awareness, and accumulation of deltas)
+		boolean empty = in.isEmptyBlock(false);
+		if( empty && _isAccum )
+			return; //nothing to do
+		int n = in.getNumColumns();
+		if( !empty && in.isInSparseFormat() ) {
+			//row-wise merge of sparse rows, where missing cells are zeros
+			SparseBlock a = in.getSparseBlock();
+			for( int i=rl; i<ru; i++ ) {
+				double[] bvals = _compare.values(i);
+				double[] cvals = c.values(i);
+				int bix = _compare.pos(i), cix = c.pos(i);
+				if( a.isEmpty(i) ) {
+					for( int j=0; j<n; j++ )
+						mergeCell(cvals, cix+j, bvals[bix+j], 0);
+					continue;
+				}
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				for( int j=0, k=apos; j<n; j++ ) {
+					double valNew = (k < apos+alen && aix[k] == j) ? avals[k++] : 0;
+					mergeCell(cvals, cix+j, bvals[bix+j], valNew);
+				}
+			}
+		}
+		else {
+			//row-wise merge of dense rows (or zeros for empty inputs)
+			DenseBlock a = empty ? null : in.getDenseBlock();
+			for( int i=rl; i<ru; i++ ) {
+				double[] bvals = _compare.values(i);
+				double[] cvals = c.values(i);
+				int bix = _compare.pos(i), cix = c.pos(i);
+				double[] avals = empty ? null : a.values(i);
+				int aix = empty ? 0 : a.pos(i);
+				for( int j=0; j<n; j++ )
+					mergeCell(cvals, cix+j, bvals[bix+j], empty ? 0 : avals[aix+j]);
+			}
+		}
+	}
+
+	private void mergeCell( double[] cvals, int cix, double valOld, double valNew ) {
+		if( (valNew != valOld && !Double.isNaN(valNew) )
+			|| Double.isNaN(valNew) != Double.isNaN(valOld) )
+		{
+			cvals[cix] = !_isAccum ? valNew :
+				(cvals[cix] + (valNew - valOld));
+		}
+	}
+}
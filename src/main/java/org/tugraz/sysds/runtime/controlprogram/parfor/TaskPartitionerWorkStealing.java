@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.controlprogram.parfor;
+
+import org.tugraz.sysds.runtime.instructions.cp.IntObject;
+
+/**
+ * This work stealing task partitioner does not pre-partition the iterations
+ * into tasks, but initializes the per-worker ranges of a work stealing task
+ * queue (see {@link LocalTaskQueueWorkStealing}), where tasks are created on
+ * demand. The given task size is used as the minimum task size. For other
+ * task queues and the creation of all tasks at once (e.g., for remote
+ * parfor), this partitioner falls back to static partitioning.
+ */
+public class TaskPartitionerWorkStealing extends TaskPartitionerStatic
+{
+	private final long _minTaskSize;
+
+	public TaskPartitionerWorkStealing( long taskSize, int numThreads, String iterVarName, IntObject fromVal, IntObject toVal, IntObject incrVal ) 
+	{
+		super(taskSize, numThreads, iterVarName, fromVal, toVal, incrVal);
+		_minTaskSize = taskSize;
+	}
+
+	@Override
+	public long createTasks(LocalTaskQueue<Task> queue) 
+	{
+		if( !(queue instanceof LocalTaskQueueWorkStealing) )
+			return super.createTasks(queue);
+		
+		//tasks are created on demand by the workers, hence the number
+		//of tasks is only known after execution (see getNumTasks)
+		((LocalTaskQueueWorkStealing) queue).init(_iterVarName, _fromVal.getLongValue(),
+			_incrVal.getLongValue(), _numIter, (int) Math.min(Math.max(_minTaskSize, 1), Integer.MAX_VALUE));
+		return 0;
+	}
+}
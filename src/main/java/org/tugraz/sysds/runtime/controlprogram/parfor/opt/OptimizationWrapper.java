@@ -31,6 +31,7 @@ import org.tugraz.sysds.api.DMLScript;
 import org.tugraz.sysds.conf.ConfigurationManager;
 import org.tugraz.sysds.hops.OptimizerUtils;
 import org.tugraz.sysds.hops.ipa.InterProceduralAnalysis;
+import org.tugraz.sysds.hops.recompile.RecompileCache;
 import org.tugraz.sysds.hops.recompile.Recompiler;
 import org.tugraz.sysds.hops.recompile.Recompiler.ResetType;
 import org.tugraz.sysds.hops.rewrite.HopRewriteRule;
@@ -115,6 +116,9 @@ public class OptimizationWrapper
 		//execute optimizer
 		optimize( type, ck, cm, sb, pb, ec, monitor );
 		
+		//invalidate cached recompilation plans of potentially modified hop dags
+		RecompileCache.invalidateAll();
+		
 		double timeVal = time.stop();
 		LOG.debug("ParFOR Opt: Finished optimization for PARFOR("+pb.getID()+") in "+timeVal+"ms.");
 		//System.out.println("ParFOR Opt: Finished optimization for PARFOR("+pb.getID()+") in "+timeVal+"ms.");
@@ -1334,6 +1334,13 @@ public class OptimizerRuleBased extends Optimizer
 		{
 			setTaskPartitioner( pn, PTaskPartitioner.FACTORING_CMAX );
 		}
+		else if( pn.getExecType()==ExecType.CP && PTaskPartitioner.WORK_STEALING.name()
+			.equals(pn.getParam(ParamType.TASK_PARTITIONER)) )
+		{
+			//keep user-specified work stealing for local parfor (never a default), 
+			//which dynamically balances the load independent of the number of tasks
+			setTaskPartitioner( pn, PTaskPartitioner.WORK_STEALING );
+		}
 		else if( pn.getExecType()==ExecType.SPARK && pn.hasOnlySimpleChilds() )
 		{
 			//for simple body programs without loops, branches, or function calls, we don't
@@ -2195,7 +2202,8 @@ public class OptimizerRuleBased extends Optimizer
 			case STATIC:           W = N / k; break;
 			case FACTORING:
 			case FACTORING_CMIN:
-			case FACTORING_CMAX:   W = k * (long)(Math.log(((double)N)/k)/Math.log(2.0)); break;
+			case FACTORING_CMAX:
+			case WORK_STEALING:    W = k * (long)(Math.log(((double)N)/k)/Math.log(2.0)); break;
 			default:               W = N; break; //N as worst case estimate
 		}
 		
@@ -508,6 +508,17 @@ public class InstructionUtils
 				parseBinaryOperator(opcode));
 	}
 	
+	public static Operator parseBinaryOrBuiltinOperator(String opcode, CPOperand in1, CPOperand in2, int k) {
+		Operator op = parseBinaryOrBuiltinOperator(opcode, in1, in2);
+		if( k <= 1 )
+			return op;
+		else if( op instanceof BinaryOperator )
+			return new BinaryOperator(((BinaryOperator) op).fn, k);
+		else if( op instanceof ScalarOperator )
+			return ((ScalarOperator) op).setNumThreads(k);
+		return op;
+	}
+	
 	public static Operator parseExtendedBinaryOrBuiltinOperator(String opcode, CPOperand in1, CPOperand in2) {
 		boolean matrixScalar = (in1.getDataType() != in2.getDataType());
 		return Builtin.isBuiltinFnObject(opcode) ?
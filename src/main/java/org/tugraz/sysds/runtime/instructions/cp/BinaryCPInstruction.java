@@ -41,10 +41,11 @@ public abstract class BinaryCPInstruction extends ComputationCPInstruction {
 		CPOperand in2 = new CPOperand("", ValueType.UNKNOWN, DataType.UNKNOWN);
 		CPOperand out = new CPOperand("", ValueType.UNKNOWN, DataType.UNKNOWN);
 		String opcode = parseBinaryInstruction(str, in1, in2, out);
+		int numThreads = parseNumThreads(str);
 		
 		checkOutputDataType(in1, in2, out);
 		
-		Operator operator = InstructionUtils.parseBinaryOrBuiltinOperator(opcode, in1, in2);
+		Operator operator = InstructionUtils.parseBinaryOrBuiltinOperator(opcode, in1, in2, numThreads);
 
 		if (in1.getDataType() == DataType.SCALAR && in2.getDataType() == DataType.SCALAR)
 			return new BinaryScalarScalarCPInstruction(operator, in1, in2, out, opcode, str);
@@ -58,7 +59,7 @@ public abstract class BinaryCPInstruction extends ComputationCPInstruction {
 	
 	protected static String parseBinaryInstruction(String instr, CPOperand in1, CPOperand in2, CPOperand out) {
 		String[] parts = InstructionUtils.getInstructionPartsWithValueType(instr);
-		InstructionUtils.checkNumFields ( parts, 3 );
+		InstructionUtils.checkNumFields ( parts, 3, 4 );
 		String opcode = parts[0];
 		in1.split(parts[1]);
 		in2.split(parts[2]);
@@ -66,6 +67,12 @@ public abstract class BinaryCPInstruction extends ComputationCPInstruction {
 		return opcode;
 	}
 	
+	protected static int parseNumThreads(String instr) {
+		//optional degree of parallelism of cp instructions
+		String[] parts = InstructionUtils.getInstructionPartsWithValueType(instr);
+		return (parts.length == 5) ? Integer.parseInt(parts[4]) : 1;
+	}
+	
 	protected static String parseBinaryInstruction(String instr, CPOperand in1, CPOperand in2, CPOperand in3, CPOperand out) {
 		String[] parts = InstructionUtils.getInstructionPartsWithValueType(instr);
 		InstructionUtils.checkNumFields ( parts, 4 );
@@ -53,6 +53,16 @@ public abstract class ComputationCPInstruction extends CPInstruction implements
 		output = out;
 	}
 
+	/**
+	 * Obtains the input operands of this instruction, including
+	 * literals and null entries of unused inputs.
+	 * 
+	 * @return array of input operands
+	 */
+	public CPOperand[] getInputs() {
+		return new CPOperand[]{input1, input2, input3};
+	}
+
 	public String getOutputVariableName() {
 		return output.getName();
 	}
@@ -38,10 +38,11 @@ public class CtableCPInstruction extends ComputationCPInstruction {
 	private final boolean _dim2Literal;
 	private final boolean _isExpand;
 	private final boolean _ignoreZeros;
+	private final int _numThreads;
 
 	private CtableCPInstruction(CPOperand in1, CPOperand in2, CPOperand in3, CPOperand out,
 			String outputDim1, boolean dim1Literal, String outputDim2, boolean dim2Literal, boolean isExpand,
-			boolean ignoreZeros, String opcode, String istr) {
+			boolean ignoreZeros, int numThreads, String opcode, String istr) {
 		super(CPType.Ctable, null, in1, in2, in3, out, opcode, istr);
 		_outDim1 = outputDim1;
 		_dim1Literal = dim1Literal;
@@ -49,12 +50,21 @@ public class CtableCPInstruction extends ComputationCPInstruction {
 		_dim2Literal = dim2Literal;
 		_isExpand = isExpand;
 		_ignoreZeros = ignoreZeros;
+		_numThreads = numThreads;
 	}
 
+	@Override
+	public CPOperand[] getInputs() {
+		//output dimensions are either literals or scalar variables
+		return new CPOperand[]{input1, input2, input3,
+			new CPOperand(_outDim1, ValueType.INT64, DataType.SCALAR, _dim1Literal),
+			new CPOperand(_outDim2, ValueType.INT64, DataType.SCALAR, _dim2Literal)};
+	}
+	
 	public static CtableCPInstruction parseInstruction(String inst)
 	{
 		String[] parts = InstructionUtils.getInstructionPartsWithValueType(inst);
-		InstructionUtils.checkNumFields ( parts, 7 );
+		InstructionUtils.checkNumFields ( parts, 7, 8 );
 		
 		String opcode = parts[0];
 		
@@ -75,9 +85,10 @@ public class CtableCPInstruction extends ComputationCPInstruction {
 
 		CPOperand out = new CPOperand(parts[6]);
 		boolean ignoreZeros = Boolean.parseBoolean(parts[7]);
+		int numThreads = (parts.length > 8) ? Integer.parseInt(parts[8]) : 1;
 		
 		// ctable does not require any operator, so we simply pass-in a dummy operator with null functionobject
-		return new CtableCPInstruction(in1, in2, in3, out, dim1Fields[0], Boolean.parseBoolean(dim1Fields[1]), dim2Fields[0], Boolean.parseBoolean(dim2Fields[1]), isExpand, ignoreZeros, opcode, inst);
+		return new CtableCPInstruction(in1, in2, in3, out, dim1Fields[0], Boolean.parseBoolean(dim1Fields[1]), dim2Fields[0], Boolean.parseBoolean(dim2Fields[1]), isExpand, ignoreZeros, numThreads, opcode, inst);
 	}
 
 	private Ctable.OperationTypes findCtableOperation() {
@@ -120,13 +131,13 @@ public class CtableCPInstruction extends ComputationCPInstruction {
 				// F=ctable(A,B,W)
 				matBlock2 = ec.getMatrixInput(input2.getName());
 				wtBlock = ec.getMatrixInput(input3.getName());
-				matBlock1.ctableOperations(_optr, matBlock2, wtBlock, resultMap, resultBlock);
+				matBlock1.ctableOperations(_optr, matBlock2, wtBlock, resultMap, resultBlock, _numThreads);
 				break;
 			case CTABLE_TRANSFORM_SCALAR_WEIGHT: //(VECTOR/MATRIX)
 				// F = ctable(A,B) or F = ctable(A,B,1)
 				matBlock2 = ec.getMatrixInput(input2.getName());
 				cst1 = ec.getScalarInput(input3.getName(), input3.getValueType(), input3.isLiteral()).getDoubleValue();
-				matBlock1.ctableOperations(_optr, matBlock2, cst1, _ignoreZeros, resultMap, resultBlock);
+				matBlock1.ctableOperations(_optr, matBlock2, cst1, _ignoreZeros, resultMap, resultBlock, _numThreads);
 				break;
 			case CTABLE_EXPAND_SCALAR_WEIGHT: //(VECTOR)
 				// F = ctable(seq,A) or F = ctable(seq,B,1)
@@ -139,13 +150,13 @@ public class CtableCPInstruction extends ComputationCPInstruction {
 				// F=ctable(A,1) or F = ctable(A,1,1)
 				cst1 = ec.getScalarInput(input2.getName(), input2.getValueType(), input2.isLiteral()).getDoubleValue();
 				cst2 = ec.getScalarInput(input3.getName(), input3.getValueType(), input3.isLiteral()).getDoubleValue();
-				matBlock1.ctableOperations(_optr, cst1, cst2, resultMap, resultBlock);
+				matBlock1.ctableOperations(_optr, cst1, cst2, resultMap, resultBlock, _numThreads);
 				break;
 			case CTABLE_TRANSFORM_WEIGHTED_HISTOGRAM: //(VECTOR)
 				// F=ctable(A,1,W)
 				wtBlock = ec.getMatrixInput(input3.getName());
 				cst1 = ec.getScalarInput(input2.getName(), input2.getValueType(), input2.isLiteral()).getDoubleValue();
-				matBlock1.ctableOperations(_optr, cst1, wtBlock, resultMap, resultBlock);
+				matBlock1.ctableOperations(_optr, cst1, wtBlock, resultMap, resultBlock, _numThreads);
 				break;
 			
 			default:
@@ -129,6 +129,11 @@ public class DataGenCPInstruction extends UnaryCPInstruction {
 			null, null, 1, null, null, null, false, opcode, istr);
 	}
 
+	@Override
+	public CPOperand[] getInputs() {
+		return new CPOperand[]{input1, input2, input3, rows, cols, dims, seq_from, seq_to, seq_incr};
+	}
+	
 	public long getRows() {
 		return rows.isLiteral() ? Long.parseLong(rows.getName()) : -1;
 	}
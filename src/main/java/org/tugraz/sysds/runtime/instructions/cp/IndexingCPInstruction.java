@@ -56,6 +56,11 @@ public abstract class IndexingCPInstruction extends UnaryCPInstruction {
 			(int)(ec.getScalarInput(colUpper).getLongValue()-1));
 	}
 
+	@Override
+	public CPOperand[] getInputs() {
+		return new CPOperand[]{input1, input2, input3, rowLower, rowUpper, colLower, colUpper};
+	}
+	
 	public static IndexingCPInstruction parseInstruction ( String str ) {
 		String[] parts = InstructionUtils.getInstructionPartsWithValueType(str);
 		String opcode = parts[0];
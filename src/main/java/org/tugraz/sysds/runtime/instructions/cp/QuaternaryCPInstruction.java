@@ -44,6 +44,11 @@ public class QuaternaryCPInstruction extends ComputationCPInstruction {
 		_numThreads = k;
 	}
 
+	@Override
+	public CPOperand[] getInputs() {
+		return new CPOperand[]{input1, input2, input3, input4};
+	}
+	
 	public static QuaternaryCPInstruction parseInstruction(String inst) {
 		String[] parts = InstructionUtils.getInstructionPartsWithValueType(inst);
 		String opcode = parts[0];
@@ -85,6 +85,11 @@ public class ReorgCPInstruction extends UnaryCPInstruction {
 		_ixret = ixret;
 	}
 
+	@Override
+	public CPOperand[] getInputs() {
+		return new CPOperand[]{input1, input2, input3, _col, _desc, _ixret};
+	}
+	
 	public static ReorgCPInstruction parseInstruction ( String str ) {
 		CPOperand in = new CPOperand("", ValueType.UNKNOWN, DataType.UNKNOWN);
 		CPOperand out = new CPOperand("", ValueType.UNKNOWN, DataType.UNKNOWN);
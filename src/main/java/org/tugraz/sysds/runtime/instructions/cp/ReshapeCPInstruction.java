@@ -48,6 +48,11 @@ public class ReshapeCPInstruction extends UnaryCPInstruction {
 		_opByRow = in5;
 	}
 
+	@Override
+	public CPOperand[] getInputs() {
+		return new CPOperand[]{input1, _opRows, _opCols, _opDims, _opByRow};
+	}
+	
 	public static ReshapeCPInstruction parseInstruction (String str ) {
 		String[] parts = InstructionUtils.getInstructionPartsWithValueType(str);
 		InstructionUtils.checkNumFields( parts, 6 );
@@ -50,6 +50,11 @@ public class SpoofCPInstruction extends ComputationCPInstruction {
 		return _class;
 	}
 
+	@Override
+	public CPOperand[] getInputs() {
+		return _in;
+	}
+	
 	public static SpoofCPInstruction parseInstruction(String str) {
 		String[] parts = InstructionUtils.getInstructionPartsWithValueType(str);
 		
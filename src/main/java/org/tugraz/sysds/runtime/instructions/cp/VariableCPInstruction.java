@@ -284,6 +284,10 @@ public class VariableCPInstruction extends CPInstruction implements LineageTrace
 			inputs.add(input);
 	}
 	
+	public CPOperand getOutput() {
+		return output;
+	}
+	
 	public String getOutputVariableName(){
 		String ret = null;
 		if( output != null )
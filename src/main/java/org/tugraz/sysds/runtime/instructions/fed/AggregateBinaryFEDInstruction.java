@@ -312,21 +312,18 @@ public class AggregateBinaryFEDInstruction extends BinaryFEDInstruction {
 			// are the number of columns of our federated data
 			_result.setLeft(new FederatedRange(new long[] {rowsBeginOtherBlock, beginDims[1]},
 					new long[] {rowsEndOtherBlock, endDims[1]}));
-			// vector which we will distribute otherBlock.rows number of times
-			MatrixBlock vec = new MatrixBlock(1, colsEndOtherBlock - colsBeginOtherBlock, false);
+			// row vectors, which we send as a single batch of vm multiplications to the federated worker
+			List<MatrixBlock> vecs = new ArrayList<>();
 			for (int r = rowsBeginOtherBlock; r < rowsEndOtherBlock; r++) {
 				// slice row vector out of other matrix which we will send to federated worker
+				MatrixBlock vec = new MatrixBlock(1, colsEndOtherBlock - colsBeginOtherBlock, false);
 				_otherMatrix.slice(r, r, colsBeginOtherBlock, colsEndOtherBlock - 1, vec);
-				// TODO experiment if sending multiple requests at the same time to the same worker increases
-				//  performance (remove get and do multithreaded?)
-				FederatedResponse response = executeMVMultiply(_range, _data, vec, _distributeCols).get();
-				if (response.isSuccessful()) {
-					result.copy(r, r, 0, endDims[1] - beginDims[1] - 1, (MatrixBlock) response.getData(), true);
-				}
-				else
-					throw new DMLRuntimeException(
-						"Federated Matrix-Matrix Multiplication failed: " + response.getErrorMessage());
+				vecs.add(vec);
 			}
+			List<?> partials = executeBatchedMVMultiply(vecs);
+			for (int r = rowsBeginOtherBlock; r < rowsEndOtherBlock; r++)
+				result.copy(r, r, 0, endDims[1] - beginDims[1] - 1,
+					(MatrixBlock) partials.get(r - rowsBeginOtherBlock), true);
 			_result.setRight(result);
 		}
 		
@@ -355,22 +352,47 @@ public class AggregateBinaryFEDInstruction extends BinaryFEDInstruction {
 			// are the number of columns of the other block
 			_result.setLeft(new FederatedRange(new long[] {beginDims[0], colsBeginOtherBlock},
 					new long[] {endDims[0], colsEndOtherBlock}));
-			// vector which we will distribute otherBlock.cols number of times
-			MatrixBlock vec = new MatrixBlock(rowsEndOtherBlock - rowsBeginOtherBlock, 1, false);
+			// column vectors, which we send as a single batch of mv multiplications to the federated worker
+			List<MatrixBlock> vecs = new ArrayList<>();
 			for (int c = colsBeginOtherBlock; c < colsEndOtherBlock; c++) {
 				// slice column vector out of other matrix which we will send to federated worker
+				MatrixBlock vec = new MatrixBlock(rowsEndOtherBlock - rowsBeginOtherBlock, 1, false);
 				_otherMatrix.slice(rowsBeginOtherBlock, rowsEndOtherBlock - 1, c, c, vec);
-				// TODO experiment if sending multiple requests at the same time to the same worker increases
-				//  performance
-				FederatedResponse response = executeMVMultiply(_range, _data, vec, _distributeCols).get();
-				if (response.isSuccessful()) {
-					result.copy(0, endDims[0] - beginDims[0] - 1, c, c, (MatrixBlock) response.getData(), true);
-				}
-				else
-					throw new DMLRuntimeException(
-							"Federated Matrix-Matrix Multiplication failed: " + response.getErrorMessage());
+				vecs.add(vec);
 			}
+			List<?> partials = executeBatchedMVMultiply(vecs);
+			for (int c = colsBeginOtherBlock; c < colsEndOtherBlock; c++)
+				result.copy(0, endDims[0] - beginDims[0] - 1, c, c,
+					(MatrixBlock) partials.get(c - colsBeginOtherBlock), true);
 			_result.setRight(result);
 		}
+		
+		/**
+		 * Sends all vectors as a single batch request of matrix-vector (or vector-matrix) multiplications
+		 * to the federated worker, which avoids a round trip per row or column of the other matrix.
+		 *
+		 * @param vecs the vectors to multiply with the federated data
+		 * @return the partial results in the order of the given vectors
+		 * @throws InterruptedException if .get() on federated response future fails -> interrupted
+		 * @throws ExecutionException   if .get() on federated response future fails -> execution failed
+		 */
+		private List<?> executeBatchedMVMultiply(List<MatrixBlock> vecs)
+				throws InterruptedException, ExecutionException {
+			if (!_data.isInitialized())
+				throw new DMLRuntimeException("Not all FederatedData was initialized for federated matrix");
+			List<FederatedRequest> ops = new ArrayList<>(vecs.size());
+			Integer[] outputs = new Integer[vecs.size()];
+			for (int i = 0; i < vecs.size(); i++) {
+				ops.add(new FederatedRequest(FederatedRequest.FedMethod.MATVECMULT,
+					vecs.get(i), _distributeCols, _data.getVarID()));
+				outputs[i] = i;
+			}
+			FederatedResponse response = _data.executeFederatedOperation(
+				FederatedRequest.createBatch(ops, outputs)).get();
+			if (!response.isSuccessful())
+				throw new DMLRuntimeException(
+					"Federated Matrix-Matrix Multiplication failed: " + response.getErrorMessage());
+			return (List<?>) response.getData();
+		}
 	}
 }
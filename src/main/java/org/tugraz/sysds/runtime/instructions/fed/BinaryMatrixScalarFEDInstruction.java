@@ -23,16 +23,17 @@ import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
 import org.tugraz.sysds.runtime.controlprogram.federated.*;
+import org.tugraz.sysds.runtime.instructions.InstructionUtils;
 import org.tugraz.sysds.runtime.instructions.cp.CPOperand;
-import org.tugraz.sysds.runtime.instructions.cp.ScalarObject;
 import org.tugraz.sysds.runtime.instructions.fed.BinaryFEDInstruction;
-import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.operators.Operator;
-import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.Future;
 
 public class BinaryMatrixScalarFEDInstruction extends BinaryFEDInstruction
@@ -44,49 +45,49 @@ public class BinaryMatrixScalarFEDInstruction extends BinaryFEDInstruction
 
 	@Override
 	public void processInstruction(ExecutionContext ec) {
-		MatrixObject matrix = ec.getMatrixObject(input1.isMatrix() ? input1 : input2);
-		ScalarObject scalar = ec.getScalarInput(input2.isScalar() ? input2 : input1);
-
-		ScalarOperator sc_op = (ScalarOperator) _optr;
-		sc_op = sc_op.setConstant(scalar.getDoubleValue());
+		CPOperand matrixOp = input1.isMatrix() ? input1 : input2;
+		CPOperand scalarOp = input2.isScalar() ? input2 : input1;
+		MatrixObject matrix = ec.getMatrixObject(matrixOp);
 
 		if (!matrix.isFederated())
 			throw new DMLRuntimeException("Trying to execute federated operation on non federated matrix");
 
-		MatrixBlock ret = new MatrixBlock((int)matrix.getNumRows(), (int) matrix.getNumColumns(), false);
-		try {
-			//Keep track on federated execution ond matrix shards
-			List<Pair<FederatedRange, Future<FederatedResponse>>> idResponsePairs = new ArrayList<>();
-
-			//execute federated operation
-			for (Map.Entry<FederatedRange, FederatedData> entry : matrix.getFedMapping().entrySet()) {
-				FederatedData shard = entry.getValue();
-				if (!shard.isInitialized())
-					throw new DMLRuntimeException("Not all FederatedData was initialized for federated matrix");
-				Future<FederatedResponse> future = shard.executeFederatedOperation(
-					new FederatedRequest(FederatedRequest.FedMethod.SCALAR, sc_op), true);
-				idResponsePairs.add(new ImmutablePair<>(entry.getKey(), future));
-			}
+		// execute the CP instruction at the federated workers, where the results remain
+		// resident and form the federated output (w/o transfer of the individual shards)
+		String inst = InstructionUtils.replaceOperand(instString, 0, "CP");
+		Map<String, Object> inputs = new HashMap<>();
+		if (!scalarOp.isLiteral())
+			inputs.put(scalarOp.getName(), ec.getScalarInput(scalarOp));
+		List<Pair<Map.Entry<FederatedRange, FederatedData>, Future<FederatedResponse>>> idResponsePairs = new ArrayList<>();
+		for (Map.Entry<FederatedRange, FederatedData> entry : matrix.getFedMapping().entrySet()) {
+			FederatedData shard = entry.getValue();
+			if (!shard.isInitialized())
+				throw new DMLRuntimeException("Not all FederatedData was initialized for federated matrix");
+			inputs.put(matrixOp.getName(), shard.getVarID());
+			Future<FederatedResponse> future = shard.executeFederatedOperation(
+				FederatedRequest.createExecInst(Collections.singletonList(inst), inputs, output.getName()));
+			idResponsePairs.add(new ImmutablePair<>(entry, future));
+		}
 
-			for (Pair<FederatedRange, Future<FederatedResponse>> idResponsePair : idResponsePairs) {
-				FederatedRange range = idResponsePair.getLeft();
+		Map<FederatedRange, FederatedData> fedMapping = new TreeMap<>();
+		try {
+			for (Pair<Map.Entry<FederatedRange, FederatedData>, Future<FederatedResponse>> idResponsePair : idResponsePairs) {
 				//wait for fed workers finishing their work
 				FederatedResponse federatedResponse = idResponsePair.getRight().get();
 				if (!federatedResponse.isSuccessful())
 					throw new DMLRuntimeException("Federated binary operation failed: " + federatedResponse.getErrorMessage());
-
-				MatrixBlock shard = (MatrixBlock) federatedResponse.getData();
-				ret.copy(range.getBeginDimsInt()[0], range.getEndDimsInt()[0]-1,
-					range.getBeginDimsInt()[1], range.getEndDimsInt()[1]-1, shard, false);
+				long varID = (Long) ((List<?>) federatedResponse.getData()).get(0);
+				Map.Entry<FederatedRange, FederatedData> entry = idResponsePair.getLeft();
+				fedMapping.put(new FederatedRange(entry.getKey()), new FederatedData(entry.getValue(), varID));
 			}
 		}
 		catch (Exception e) {
 			throw new DMLRuntimeException("Federated binary operation failed", e);
 		}
 
-		if(ret.getNumRows() != matrix.getNumRows() || ret.getNumColumns() != matrix.getNumColumns())
-			throw new DMLRuntimeException("Federated binary operation returns invalid matrix dimension");
-		
-		ec.setMatrixOutput(output.getName(), ret);
+		MatrixObject out = ec.getMatrixObject(output);
+		out.getDataCharacteristics().setRows(matrix.getNumRows())
+			.setCols(matrix.getNumColumns()).setNonZeros(-1);
+		out.setFedMapping(fedMapping);
 	}
 }
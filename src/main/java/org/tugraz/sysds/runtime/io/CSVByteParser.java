@@ -0,0 +1,497 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.tugraz.sysds.runtime.data.DenseBlock;
+import org.tugraz.sysds.runtime.data.SparseBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.UtilFunctions;
+
+/**
+ * Byte-level parser of delimited text (CSV) into numeric rows.
+ *
+ * In contrast to line readers and string tokenization, the parser scans lines and
+ * cells directly in a reused byte buffer, and parses numbers from the raw bytes
+ * without intermediate strings (with fallback to the default string parsing for
+ * special values such as NA, NaN, or numbers without exact fast-path representation).
+ * The line and cell semantics are consistent with the line-based readers: lines
+ * are terminated by LF, CR, or CRLF, and both lines and cells are trimmed.
+ */
+public class CSVByteParser
+{
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	//powers of ten that are exactly representable as doubles
+	private static final double[] POW10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+	private final InputStream _in;
+	private final byte[] _delim;
+	private final boolean _fill;
+	private final double _fillValue;
+	private final String _srcInfo;
+
+	private byte[] _buff;
+	private int _pos = 0;      //current position in buffer
+	private int _len = 0;      //number of valid bytes in buffer
+	private long _offset = 0;  //stream position of buffer start
+	private boolean _eof = false;
+	private double[] _row = new double[16];
+
+	/**
+	 * Creates a parser for the given input stream.
+	 *
+	 * @param in input stream
+	 * @param offset position of the input stream within the file
+	 * @param delim cell delimiter
+	 * @param fill if true, fill empty cells with the fill value
+	 * @param fillValue fill value for empty cells
+	 * @param srcInfo source information for error messages
+	 */
+	public CSVByteParser(InputStream in, long offset, String delim, boolean fill, double fillValue, String srcInfo) {
+		_in = in;
+		_buff = new byte[BUFFER_SIZE];
+		_offset = offset;
+		_delim = delim.getBytes(StandardCharsets.UTF_8);
+		_fill = fill;
+		_fillValue = fillValue;
+		_srcInfo = srcInfo;
+	}
+
+	/**
+	 * Creates a parser for the given byte range, which is parsed in place
+	 * (without copy and without modifications of the given buffer).
+	 *
+	 * @param buff byte buffer
+	 * @param len number of valid bytes in the buffer
+	 * @param offset position of the buffer within the file
+	 * @param delim cell delimiter
+	 * @param fill if true, fill empty cells with the fill value
+	 * @param fillValue fill value for empty cells
+	 * @param srcInfo source information for error messages
+	 */
+	public CSVByteParser(byte[] buff, int len, long offset, String delim, boolean fill, double fillValue, String srcInfo) {
+		_in = null;
+		_buff = buff;
+		_len = len;
+		_eof = true;
+		_offset = offset;
+		_delim = delim.getBytes(StandardCharsets.UTF_8);
+		_fill = fill;
+		_fillValue = fillValue;
+		_srcInfo = srcInfo;
+	}
+
+	/**
+	 * Returns the position of the next unread byte within the file.
+	 *
+	 * @return position
+	 */
+	public long getPosition() {
+		return _offset + _pos;
+	}
+
+	/**
+	 * Skips the remaining bytes of the current line including its terminator,
+	 * e.g., for skipping headers or partial lines at the start of splits.
+	 *
+	 * @throws IOException if IOException occurs
+	 */
+	public void skipLine() throws IOException {
+		while( _pos < _len || fill(_pos) ) {
+			byte b = _buff[_pos++];
+			if( b == '\n' )
+				return;
+			if( b == '\r' ) {
+				if( (_pos < _len || fill(_pos)) && _buff[_pos] == '\n' )
+					_pos++;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Parses the next line and appends its cells as a row to the given buffer.
+	 * All rows of a buffer are required to have the same number of cells.
+	 *
+	 * @param out row buffer
+	 * @return false if the end of input has been reached, true otherwise
+	 * @throws IOException if IOException occurs
+	 */
+	public boolean parseLine(RowBuffer out) throws IOException {
+		//find end of line (refill and compact buffer as necessary)
+		int lstart = _pos;
+		int lend = _pos;
+		while( true ) {
+			while( lend < _len && _buff[lend] != '\n' && _buff[lend] != '\r' )
+				lend++;
+			if( lend < _len )
+				break;
+			long offset = _offset;
+			boolean more = fill(lstart);
+			int shift = (int)(_offset - offset);
+			lstart -= shift;
+			lend -= shift;
+			if( !more ) {
+				if( lstart >= _len )
+					return false; //end of input
+				break; //last line w/o terminator
+			}
+		}
+
+		//parse cells of the trimmed line
+		int ncells = parseCells(lstart, lend);
+		if( out.getNumColumns() >= 0 && ncells != out.getNumColumns() )
+			IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(_srcInfo, getLine(lstart, lend), ncells, out.getNumColumns());
+		out.appendRow(_row, ncells);
+
+		//consume line terminator
+		_pos = lend;
+		if( _pos < _len ) {
+			byte b = _buff[_pos++];
+			if( b == '\r' && (_pos < _len || fill(_pos)) && _buff[_pos] == '\n' )
+				_pos++;
+		}
+		return true;
+	}
+
+	private int parseCells(int lstart, int lend) throws IOException {
+		//trim line (consistent with String.trim)
+		while( lstart < lend && _buff[lstart] <= ' ' )
+			lstart++;
+		while( lend > lstart && _buff[lend-1] <= ' ' )
+			lend--;
+
+		//note: empty lines are parsed as a single empty cell (filled or
+		//raising an error), consistent with splitting empty strings
+		int ncells = 0;
+		int cstart = lstart;
+		while( true ) {
+			int cend = indexOfDelim(cstart, lend);
+			if( ncells == _row.length )
+				_row = Arrays.copyOf(_row, 2 * _row.length);
+
+			//trim cell and parse value
+			int s = cstart, e = cend;
+			while( s < e && _buff[s] <= ' ' )
+				s++;
+			while( e > s && _buff[e-1] <= ' ' )
+				e--;
+			if( s == e ) {
+				if( !_fill )
+					IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(getLine(lstart, lend), false, true);
+				_row[ncells++] = _fillValue;
+			}
+			else
+				_row[ncells++] = parseDouble(_buff, s, e);
+
+			if( cend == lend )
+				break;
+			cstart = cend + _delim.length;
+		}
+		return ncells;
+	}
+
+	private int indexOfDelim(int start, int end) {
+		byte d0 = _delim[0];
+		int dlen = _delim.length;
+		for( int i=start; i<=end-dlen; i++ ) {
+			if( _buff[i] != d0 )
+				continue;
+			boolean match = true;
+			for( int j=1; j<dlen & match; j++ )
+				match = (_buff[i+j] == _delim[j]);
+			if( match )
+				return i;
+		}
+		return end;
+	}
+
+	private String getLine(int lstart, int lend) {
+		return new String(_buff, lstart, lend-lstart, StandardCharsets.UTF_8).trim();
+	}
+
+	/**
+	 * Reads more bytes into the buffer, after discarding all bytes
+	 * before the given position (which is the new buffer start).
+	 *
+	 * @param keep first buffer position to keep
+	 * @return true if new bytes have been read
+	 * @throws IOException if IOException occurs
+	 */
+	private boolean fill(int keep) throws IOException {
+		if( _eof )
+			return false;
+
+		//compact buffer, and grow if necessary (lines larger than buffer)
+		int remaining = _len - keep;
+		if( keep > 0 )
+			System.arraycopy(_buff, keep, _buff, 0, remaining);
+		else if( remaining == _buff.length )
+			_buff = Arrays.copyOf(_buff, 2 * _buff.length);
+		_offset += keep;
+		_pos -= keep;
+		_len = remaining;
+
+		//read next chunk (at least one byte unless end of input)
+		int n = _in.read(_buff, _len, _buff.length - _len);
+		while( n == 0 )
+			n = _in.read(_buff, _len, _buff.length - _len);
+		if( n < 0 ) {
+			_eof = true;
+			return false;
+		}
+		_len += n;
+		return true;
+	}
+
+	/**
+	 * Parses a double from the given byte range. Decimal numbers with up to 15
+	 * significant digits and small exponents are parsed exactly from the bytes,
+	 * all other inputs fall back to the default string parsing.
+	 *
+	 * @param b byte array
+	 * @param s start position, inclusive
+	 * @param e end position, exclusive
+	 * @return double value
+	 */
+	public static double parseDouble(byte[] b, int s, int e) {
+		int i = s;
+		boolean neg = (b[i] == '-');
+		if( neg || b[i] == '+' )
+			i++;
+
+		//parse mantissa digits and decimal point
+		long mant = 0;
+		int ndigits = 0, nmant = 0, exp = 0;
+		for( ; i < e && b[i] >= '0' && b[i] <= '9'; i++, ndigits++ )
+			if( (mant = mant*10 + (b[i]-'0')) != 0 )
+				nmant++;
+		if( i < e && b[i] == '.' )
+			for( i++; i < e && b[i] >= '0' && b[i] <= '9'; i++, ndigits++, exp-- )
+				if( (mant = mant*10 + (b[i]-'0')) != 0 )
+					nmant++;
+
+		//parse optional exponent
+		if( ndigits > 0 && i < e && (b[i] == 'e' || b[i] == 'E') ) {
+			i++;
+			boolean eneg = (i < e && b[i] == '-');
+			if( i < e && (eneg || b[i] == '+') )
+				i++;
+			int eexp = 0, edigits = 0;
+			for( ; i < e && b[i] >= '0' && b[i] <= '9' && edigits < 4; i++, edigits++ )
+				eexp = eexp*10 + (b[i]-'0');
+			exp += eneg ? -eexp : eexp;
+			if( edigits == 0 )
+				i = -1; //invalid exponent
+		}
+
+		//fast path for exactly representable mantissa and powers of ten
+		if( i == e && ndigits > 0 && nmant <= 15 ) {
+			if( mant == 0 )
+				return neg ? -0d : 0d;
+			if( exp >= -22 && exp <= 22 ) {
+				double v = (exp < 0) ? mant / POW10[-exp] : mant * POW10[exp];
+				return neg ? -v : v;
+			}
+		}
+
+		//fallback for special values and numbers w/o exact fast path
+		return UtilFunctions.parseToDouble(new String(b, s, e-s, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Buffer of parsed rows, which is either sparse (row pointers, column indexes,
+	 * and values of non-zeros) or dense (row-major values). The buffer starts sparse,
+	 * and is converted to dense if the first rows are dense. Row buffers allow
+	 * reading splits of unknown number of rows in a single pass, and copying them
+	 * into the output once the row offsets of all splits are known.
+	 */
+	public static class RowBuffer
+	{
+		private static final int DENSE_PROBE_ROWS = 1024;
+
+		private int _nrow = 0;
+		private int _ncol = -1;
+		private long _nnz = 0;
+		private boolean _dense = false;
+		private int[] _rptr = new int[64];
+		private int[] _cix = new int[256];
+		private double[] _vals = new double[256];
+
+		public int getNumRows() {
+			return _nrow;
+		}
+
+		public int getNumColumns() {
+			return _ncol;
+		}
+
+		public long getNonZeros() {
+			return _nnz;
+		}
+
+		public void appendRow(double[] row, int ncol) {
+			if( _ncol < 0 )
+				_ncol = ncol;
+			if( _dense ) {
+				int pos = _nrow * _ncol;
+				if( pos + (long)_ncol > _vals.length )
+					_vals = Arrays.copyOf(_vals, newCapacity(_vals.length, checkedSize(pos + (long)_ncol)));
+				System.arraycopy(row, 0, _vals, pos, _ncol);
+				_nnz += UtilFunctions.countNonZeros(row, 0, _ncol);
+			}
+			else {
+				if( _nrow + 2 > _rptr.length )
+					_rptr = Arrays.copyOf(_rptr, newCapacity(_rptr.length, _nrow + 2));
+				int pos = _rptr[_nrow];
+				if( pos + ncol > _vals.length ) {
+					int cap = newCapacity(_vals.length, pos + ncol);
+					_cix = Arrays.copyOf(_cix, cap);
+					_vals = Arrays.copyOf(_vals, cap);
+				}
+				for( int j=0; j<ncol; j++ )
+					if( row[j] != 0 ) {
+						_cix[pos] = j;
+						_vals[pos++] = row[j];
+					}
+				_nnz += pos - _rptr[_nrow];
+				_rptr[_nrow+1] = pos;
+			}
+			_nrow++;
+			probeDense();
+		}
+
+		/**
+		 * Appends a sparse row of sorted, distinct column indexes.
+		 *
+		 * @param cix column indexes
+		 * @param vals values
+		 * @param len number of entries
+		 * @param ncol number of columns
+		 */
+		public void appendRow(int[] cix, double[] vals, int len, int ncol) {
+			if( _ncol < 0 )
+				_ncol = ncol;
+			if( _dense ) {
+				int pos = _nrow * _ncol;
+				if( pos + (long)_ncol > _vals.length )
+					_vals = Arrays.copyOf(_vals, newCapacity(_vals.length, checkedSize(pos + (long)_ncol)));
+				for( int k=0; k<len; k++ )
+					_vals[pos+cix[k]] = vals[k];
+			}
+			else {
+				if( _nrow + 2 > _rptr.length )
+					_rptr = Arrays.copyOf(_rptr, newCapacity(_rptr.length, _nrow + 2));
+				int pos = _rptr[_nrow];
+				if( pos + len > _vals.length ) {
+					int cap = newCapacity(_vals.length, pos + len);
+					_cix = Arrays.copyOf(_cix, cap);
+					_vals = Arrays.copyOf(_vals, cap);
+				}
+				System.arraycopy(cix, 0, _cix, pos, len);
+				System.arraycopy(vals, 0, _vals, pos, len);
+				_rptr[_nrow+1] = pos + len;
+			}
+			_nnz += len;
+			_nrow++;
+			probeDense();
+		}
+
+		private void probeDense() {
+			//convert to dense if the first rows are dense
+			if( !_dense && _nrow == DENSE_PROBE_ROWS
+				&& _nnz > MatrixBlock.SPARSITY_TURN_POINT * _nrow * _ncol )
+				toDense();
+		}
+
+		/**
+		 * Copies all rows into the given, allocated output block. The number of
+		 * non-zeros of the output is not maintained, because row buffers are
+		 * copied in parallel into disjoint row ranges; callers set the nnz from
+		 * {@link #getNonZeros()} of all buffers.
+		 *
+		 * @param dest output matrix block
+		 * @param rl row offset in the output block
+		 */
+		public void copyTo(MatrixBlock dest, int rl) {
+			if( dest.isInSparseFormat() ) {
+				SparseBlock c = dest.getSparseBlock();
+				for( int i=0; i<_nrow; i++ ) {
+					if( _dense ) {
+						int pos = i * _ncol;
+						int lnnz = UtilFunctions.countNonZeros(_vals, pos, _ncol);
+						if( lnnz == 0 ) continue;
+						c.allocate(rl+i, lnnz);
+						for( int j=0; j<_ncol; j++ )
+							if( _vals[pos+j] != 0 )
+								c.append(rl+i, j, _vals[pos+j]);
+					}
+					else {
+						int apos = _rptr[i], alen = _rptr[i+1] - apos;
+						if( alen == 0 ) continue;
+						c.allocate(rl+i, alen);
+						for( int k=apos; k<apos+alen; k++ )
+							c.append(rl+i, _cix[k], _vals[k]);
+					}
+				}
+			}
+			else {
+				DenseBlock c = dest.getDenseBlock();
+				for( int i=0; i<_nrow; i++ ) {
+					double[] cvals = c.values(rl+i);
+					int cpos = c.pos(rl+i);
+					if( _dense )
+						System.arraycopy(_vals, i*_ncol, cvals, cpos, _ncol);
+					else
+						for( int k=_rptr[i]; k<_rptr[i+1]; k++ )
+							cvals[cpos+_cix[k]] = _vals[k];
+				}
+			}
+		}
+
+		private void toDense() {
+			//exact size w/ range check (appended rows grow the array)
+			double[] vals = new double[checkedSize((long)_nrow * _ncol)];
+			for( int i=0; i<_nrow; i++ )
+				for( int k=_rptr[i]; k<_rptr[i+1]; k++ )
+					vals[i*_ncol + _cix[k]] = _vals[k];
+			_vals = vals;
+			_rptr = null;
+			_cix = null;
+			_dense = true;
+		}
+
+		private static int newCapacity(int curr, int min) {
+			long cap = Math.max((long)min, 2L * curr);
+			if( min < 0 || (cap > Integer.MAX_VALUE - 8 && min > Integer.MAX_VALUE - 8) )
+				throw new IllegalStateException("Row buffer exceeds maximum array size.");
+			return (int)Math.min(cap, Integer.MAX_VALUE - 8);
+		}
+
+		private static int checkedSize(long len) {
+			if( len > Integer.MAX_VALUE - 8 )
+				throw new IllegalStateException("Row buffer exceeds maximum array size.");
+			return (int)len;
+		}
+	}
+}
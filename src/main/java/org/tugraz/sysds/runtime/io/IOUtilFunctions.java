@@ -46,6 +46,8 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.PathFilter;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputFormat;
 import org.apache.hadoop.mapred.InputSplit;
@@ -121,6 +123,21 @@ public class IOUtilFunctions
 		return scheme.startsWith("s3") || scheme.startsWith("swift");
 	}
 	
+	/**
+	 * Opens the given file, and decompresses it if its extension
+	 * refers to a registered compression codec (e.g., .gz).
+	 * 
+	 * @param fs file system
+	 * @param path file path
+	 * @param conf configuration of compression codecs
+	 * @return input stream of uncompressed data
+	 * @throws IOException if IOException occurs
+	 */
+	public static InputStream openInputStream(FileSystem fs, Path path, Configuration conf) throws IOException {
+		CompressionCodec codec = new CompressionCodecFactory(conf).getCodec(path);
+		return (codec != null) ? codec.createInputStream(fs.open(path)) : fs.open(path);
+	}
+	
 	public static String getPartFileName(int pos) {
 		return String.format("0-m-%05d", pos);
 	}
@@ -158,8 +175,12 @@ public class IOUtilFunctions
 	public static void checkAndRaiseErrorCSVNumColumns(String fname, String line, String[] parts, long ncol) 
 		throws IOException
 	{
-		int realncol = parts.length;
-		
+		checkAndRaiseErrorCSVNumColumns(fname, line, parts.length, ncol);
+	}
+	
+	public static void checkAndRaiseErrorCSVNumColumns(String fname, String line, int realncol, long ncol) 
+		throws IOException
+	{
 		if( realncol != ncol ) {
 			throw new IOException("Invalid number of columns (" + realncol + ", expected=" + ncol + ") "
 					+ "found in delimited file (" + fname + ") for line: " + line);
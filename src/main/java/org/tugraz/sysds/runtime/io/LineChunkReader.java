@@ -0,0 +1,290 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
+
+/**
+ * Reader of an input stream into chunks of complete lines, which allows the
+ * pipelined, parallel parsing of text streams with unknown size (e.g., streams
+ * handed over via JMLC). The chunks are backed by a bounded set of reusable
+ * byte buffers, which also bounds the number of chunks in flight: the reader
+ * blocks until a chunk of a previous {@link #next()} call has been released.
+ * Buffers are allocated lazily, and their size grows geometrically from the
+ * minimum to the maximum chunk size, such that small streams only allocate
+ * a single small buffer.
+ *
+ * Chunks end after a line terminator (LF, CR, or CRLF, where CRLF is never
+ * split across chunks), and only the last chunk may end without terminator.
+ */
+public class LineChunkReader
+{
+	public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+	public static final int MIN_CHUNK_SIZE = 64 * 1024;
+	//estimated text size per cell (value and delimiter) for sizing chunks
+	public static final int EST_BYTES_PER_CELL = 16;
+	//minimum estimated input size for parallel parsing
+	public static final long MIN_PARALLEL_SIZE = 1024 * 1024;
+
+	private final InputStream _in;
+	private final BlockingQueue<byte[]> _free;
+	private final int _numBuffers;
+	private final int _maxChunkSize;
+	private int _chunkSize;     //size of next allocated buffer
+	private int _allocated = 0; //number of allocated buffers
+	private byte[] _carry;     //partial line of previous chunk
+	private int _carryLen = 0;
+	private long _position = 0; //stream position of next chunk
+	private int _index = 0;     //index of next chunk
+	private boolean _eof = false;
+
+	/**
+	 * Creates a line chunk reader for the given input stream.
+	 *
+	 * @param in input stream
+	 * @param chunkSize initial size of chunk buffers
+	 * @param numBuffers maximum number of reusable chunk buffers
+	 */
+	public LineChunkReader(InputStream in, int chunkSize, int numBuffers) {
+		this(in, chunkSize, chunkSize, numBuffers);
+	}
+
+	/**
+	 * Creates a line chunk reader for the given input stream, whose
+	 * chunk buffers grow from the minimum to the maximum chunk size.
+	 *
+	 * @param in input stream
+	 * @param minChunkSize size of the first chunk buffer
+	 * @param maxChunkSize maximum size of chunk buffers (except for larger lines)
+	 * @param numBuffers maximum number of reusable chunk buffers
+	 */
+	public LineChunkReader(InputStream in, int minChunkSize, int maxChunkSize, int numBuffers) {
+		_in = in;
+		_free = new ArrayBlockingQueue<>(numBuffers);
+		_numBuffers = numBuffers;
+		_chunkSize = Math.min(minChunkSize, maxChunkSize);
+		_maxChunkSize = maxChunkSize;
+		_carry = new byte[1024];
+	}
+
+	public int getNumAllocatedBuffers() {
+		return _allocated;
+	}
+
+	/**
+	 * Reads the next chunk of complete lines, and blocks until
+	 * a chunk buffer is available.
+	 *
+	 * @return next chunk, or null if the end of input has been reached
+	 * @throws IOException if IOException occurs
+	 * @throws InterruptedException if interrupted while waiting for free buffers
+	 */
+	public Chunk next() throws IOException, InterruptedException {
+		if( _eof && _carryLen == 0 )
+			return null;
+
+		//take free buffer and prepend partial line of previous chunk
+		byte[] buff = takeBuffer();
+		if( buff.length < 2 * _carryLen )
+			buff = new byte[2 * _carryLen];
+		System.arraycopy(_carry, 0, buff, 0, _carryLen);
+		int len = _carryLen;
+
+		//fill buffer and find last line end (grow for lines larger than buffer)
+		int end = 0;
+		while( true ) {
+			while( !_eof && len < buff.length ) {
+				int n = _in.read(buff, len, buff.length - len);
+				if( n < 0 )
+					_eof = true;
+				else
+					len += n;
+			}
+			end = _eof ? len : lastLineEnd(buff, len);
+			if( end > 0 || _eof )
+				break;
+			buff = Arrays.copyOf(buff, 2 * buff.length);
+		}
+
+		//keep partial last line for next chunk
+		_carryLen = len - end;
+		if( _carry.length < _carryLen )
+			_carry = new byte[Math.max(_carryLen, 2 * _carry.length)];
+		System.arraycopy(buff, end, _carry, 0, _carryLen);
+
+		if( end == 0 ) {
+			_free.add(buff);
+			return null;
+		}
+		Chunk ret = new Chunk(buff, end, _position, _index++);
+		_position += end;
+		return ret;
+	}
+
+	private byte[] takeBuffer() throws InterruptedException {
+		//allocate new buffers until the maximum number of buffers
+		//is reached, otherwise wait for released buffers
+		byte[] buff = _free.poll();
+		if( buff == null && _allocated < _numBuffers ) {
+			_allocated++;
+			buff = new byte[_chunkSize];
+		}
+		else if( buff == null )
+			buff = _free.take();
+		//replace small buffers of the geometric growth
+		if( buff.length < _chunkSize )
+			buff = new byte[_chunkSize];
+		_chunkSize = (int) Math.min(2L * _chunkSize, _maxChunkSize);
+		return buff;
+	}
+
+	/**
+	 * Releases the buffer of a chunk for reuse by subsequent chunks.
+	 *
+	 * @param chunk chunk that is no longer used
+	 */
+	public void release(Chunk chunk) {
+		_free.offer(chunk.getBuffer());
+	}
+
+	private static int lastLineEnd(byte[] buff, int len) {
+		for( int i=len-1; i>=0; i-- ) {
+			if( buff[i] == '\n' )
+				return i + 1;
+			//CR only if next byte is known (no split of CRLF)
+			if( buff[i] == '\r' && i < len-1 )
+				return i + 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Parses all chunks of the given input stream in parallel, where the calling
+	 * thread reads the chunks and a pool of k threads parses them. The results are
+	 * returned in the order of chunks (i.e., in the order of lines).
+	 *
+	 * @param in input stream
+	 * @param k degree of parallelism
+	 * @param estSize estimated size of the input in bytes, or -1 if unknown
+	 * @param parser chunk parser, called concurrently
+	 * @param <T> result type of parsed chunks
+	 * @return list of parsed chunks in order
+	 * @throws IOException if IOException occurs
+	 */
+	public static <T> List<T> parseChunks(InputStream in, int k, long estSize, ChunkParser<T> parser)
+		throws IOException
+	{
+		//bounded buffers for reading ahead while all threads are parsing,
+		//with chunk sizes capped by the estimated input size per thread
+		int maxChunkSize = (estSize < 0) ? DEFAULT_CHUNK_SIZE :
+			(int) Math.min(DEFAULT_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, estSize / k));
+		LineChunkReader reader = new LineChunkReader(in, MIN_CHUNK_SIZE, maxChunkSize, 2 * k);
+		ExecutorService pool = CommonThreadPool.get(k);
+		List<Future<T>> futures = new ArrayList<>();
+		try {
+			Chunk chunk = null;
+			while( (chunk = reader.next()) != null ) {
+				final Chunk lchunk = chunk;
+				futures.add(pool.submit(() -> {
+					try {
+						return parser.parse(lchunk);
+					}
+					finally {
+						reader.release(lchunk);
+					}
+				}));
+			}
+			List<T> ret = new ArrayList<>(futures.size());
+			for( Future<T> f : futures )
+				ret.add(f.get());
+			return ret;
+		}
+		catch(IOException ex) {
+			throw ex;
+		}
+		catch(Exception ex) {
+			throw new IOException("Parallel parsing of input stream failed: " + ex.getMessage(), ex);
+		}
+		finally {
+			for( Future<T> f : futures )
+				f.cancel(true);
+			pool.shutdown();
+			IOUtilFunctions.closeSilently(in);
+		}
+	}
+
+	/**
+	 * Estimates the text size of an input with the given number of cells.
+	 *
+	 * @param cells number of cells (or non-zeros), or -1 if unknown
+	 * @return estimated size in bytes, or -1 if unknown
+	 */
+	public static long estimateSize(long cells) {
+		return (cells < 0) ? -1 : cells * EST_BYTES_PER_CELL;
+	}
+
+	/**
+	 * Parser of individual chunks into results of type T.
+	 */
+	public interface ChunkParser<T> {
+		public T parse(Chunk chunk) throws IOException;
+	}
+
+	/**
+	 * Chunk of complete lines in the bytes [0, length) of a buffer.
+	 */
+	public static class Chunk
+	{
+		private final byte[] _buff;
+		private final int _len;
+		private final long _offset;
+		private final int _index;
+
+		public Chunk(byte[] buff, int len, long offset, int index) {
+			_buff = buff;
+			_len = len;
+			_offset = offset;
+			_index = index;
+		}
+
+		public byte[] getBuffer() {
+			return _buff;
+		}
+
+		public int getLength() {
+			return _len;
+		}
+
+		public long getOffset() {
+			return _offset;
+		}
+
+		public int getIndex() {
+			return _index;
+		}
+	}
+}
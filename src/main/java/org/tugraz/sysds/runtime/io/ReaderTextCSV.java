@@ -118,7 +118,7 @@ public class ReaderTextCSV extends MatrixReader
 		long lnnz = 0;
 		MutableInt row = new MutableInt(0);
 		for(int fileNo=0; fileNo<files.size(); fileNo++) {
-			lnnz += readCSVMatrixFromInputStream(fs.open(files.get(fileNo)), path.toString(), dest, 
+			lnnz += readCSVMatrixFromInputStream(IOUtilFunctions.openInputStream(fs, files.get(fileNo), job), path.toString(), dest, 
 				row, rlen, clen, blen, hasHeader, delim, fill, fillValue, fileNo==0);
 		}
 		
@@ -227,7 +227,8 @@ public class ReaderTextCSV extends MatrixReader
 		String cellStr = null;
 		for(int fileNo=0; fileNo<files.size(); fileNo++)
 		{
-			BufferedReader br = new BufferedReader(new InputStreamReader(fs.open(files.get(fileNo))));	
+			BufferedReader br = new BufferedReader(new InputStreamReader(
+				IOUtilFunctions.openInputStream(fs, files.get(fileNo), job)));	
 			try
 			{
 				// Read the header line, if there is one.
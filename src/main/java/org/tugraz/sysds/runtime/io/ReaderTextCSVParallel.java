@@ -21,50 +21,51 @@ package org.tugraz.sysds.runtime.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
-import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.io.LongWritable;
-import org.apache.hadoop.io.Text;
-import org.apache.hadoop.mapred.FileInputFormat;
-import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.hadoop.mapred.JobConf;
-import org.apache.hadoop.mapred.RecordReader;
-import org.apache.hadoop.mapred.Reporter;
-import org.apache.hadoop.mapred.TextInputFormat;
 import org.tugraz.sysds.conf.ConfigurationManager;
 import org.tugraz.sysds.hops.OptimizerUtils;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
-import org.tugraz.sysds.runtime.data.DenseBlock;
-import org.tugraz.sysds.runtime.io.IOUtilFunctions.CountRowsTask;
+import org.tugraz.sysds.runtime.io.CSVByteParser.RowBuffer;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.util.CommonThreadPool;
-import org.tugraz.sysds.runtime.util.UtilFunctions;
 
 /**
- * Parallel version of ReaderTextCSV.java. To summarize, we do two passes in
- * order to compute row offsets and the actual read. We accordingly create count
- * and read tasks and use fixed-size thread pools to execute these tasks. If the
- * target matrix is dense, the inserts are done lock-free. In contrast to
- * textcell parallel read, we also do lock-free inserts. If the matrix is
- * sparse, because splits contain row partitioned lines and hence there is no
- * danger of lost updates. Note, there is also no sorting of sparse rows
- * required because data comes in sorted order per row.
+ * Parallel version of ReaderTextCSV.java. To summarize, we read all files in a 
+ * single pass over byte-range splits. Each read task parses the lines of its split 
+ * directly from bytes (see CSVByteParser) into a split-local row buffer, because the
+ * row offsets of splits are unknown before the read. Once all splits are read, we 
+ * allocate the output (with exact nnz) and copy the row buffers in parallel into 
+ * disjoint row ranges of the output, which requires no synchronization and no 
+ * sorting of sparse rows. Local files are read via NIO file channels, and compressed
+ * files are read as a single split.
  * 
  */
 public class ReaderTextCSVParallel extends MatrixReader 
 {
+	//split size bounds (max bounds the size of row buffers)
+	private static final long MIN_SPLIT_SIZE = 1L * 1024 * 1024;
+	private static final long MAX_SPLIT_SIZE = 128L * 1024 * 1024;
+	
 	private FileFormatPropertiesCSV _props = null;
 	private int _numThreads = 1;
 
-	private SplitOffsetInfos _offsets = null;
-
 	public ReaderTextCSVParallel(FileFormatPropertiesCSV props) {
 		_numThreads = OptimizerUtils.getParallelTextReadParallelism();
 		_props = props;
@@ -80,27 +81,20 @@ public class ReaderTextCSVParallel extends MatrixReader
 		Path path = new Path(fname);
 		FileSystem fs = IOUtilFunctions.getFileSystem(path, job);
 		
-		FileInputFormat.addInputPath(job, path);
-		TextInputFormat informat = new TextInputFormat();
-		informat.configure(job);
-
-		InputSplit[] splits = informat.getSplits(job, _numThreads);
-		splits = IOUtilFunctions.sortInputSplits(splits);
-
 		// check existence and non-empty file
 		checkValidInputFile(fs, path);
-
-		// allocate output matrix block
-		// First Read Pass (count rows/cols, determine offsets, allocate matrix block)
-		MatrixBlock ret = computeCSVSizeAndCreateOutputMatrixBlock(splits, path, job,
-			_props.hasHeader(), _props.getDelim(), rlen, clen, estnnz);
-		rlen = ret.getNumRows();
-		clen = ret.getNumColumns();
-
-		// Second Read Pass (read, parse strings, append to matrix block)
-		readCSVMatrixFromHDFS(splits, path, job, ret, rlen, clen, blen,
-				_props.hasHeader(), _props.getDelim(), _props.isFill(),
-				_props.getFillValue());
+		
+		// create byte-range splits over all files
+		List<CSVSplit> splits = createSplits(path, job, fs);
+		
+		// sequential read of compressed files, which cannot be split into byte
+		// ranges and would exceed the size of a single row buffer if large
+		if( splits == null )
+			return new ReaderTextCSV(_props).readMatrixFromHDFS(fname, rlen, clen, blen, estnnz);
+		
+		// single read pass (read, parse bytes, copy to matrix block)
+		MatrixBlock ret = readCSVMatrixFromHDFS(splits, fs, fname, rlen, clen,
+			_props.hasHeader(), _props.getDelim(), _props.isFill(), _props.getFillValue());
 		
 		//post-processing (representation-specific, change of sparse/dense block representation)
 		// - no sorting required for CSV because it is read in sorted order per row
@@ -119,101 +113,133 @@ public class ReaderTextCSVParallel extends MatrixReader
 	public MatrixBlock readMatrixFromInputStream(InputStream is, long rlen, long clen, int blen, long estnnz) 
 		throws IOException, DMLRuntimeException 
 	{
-		//not implemented yet, fallback to sequential reader
-		return new ReaderTextCSV(_props)
-			.readMatrixFromInputStream(is, rlen, clen, blen, estnnz);
+		// sequential read of small inputs with known dimensions
+		long estSize = LineChunkReader.estimateSize((rlen >= 0 && clen >= 0) ? rlen * clen : -1);
+		if( estSize >= 0 && estSize < LineChunkReader.MIN_PARALLEL_SIZE )
+			return new ReaderTextCSV(_props).readMatrixFromInputStream(is, rlen, clen, blen, estnnz);
+		
+		// pipelined read of line chunks and parallel parsing into row buffers
+		final boolean hasHeader = _props.hasHeader();
+		final String delim = _props.getDelim();
+		final boolean fill = _props.isFill();
+		final double fillValue = _props.getFillValue();
+		List<RowBuffer> buffs = LineChunkReader.parseChunks(is, _numThreads, estSize, chunk -> {
+			CSVByteParser parser = new CSVByteParser(chunk.getBuffer(), chunk.getLength(),
+				chunk.getOffset(), delim, fill, fillValue, "external inputstream");
+			if( chunk.getIndex() == 0 && hasHeader )
+				parser.skipLine();
+			RowBuffer ret = new RowBuffer();
+			while( parser.parseLine(ret) );
+			return ret;
+		});
+		
+		// append row buffers in order into the output
+		ExecutorService pool = CommonThreadPool.get(_numThreads);
+		try {
+			MatrixBlock ret = stitchRowBuffers(buffs, rlen, clen, pool, "external inputstream");
+			ret.examSparsity();
+			return ret;
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+	
+	private List<CSVSplit> createSplits(Path path, JobConf job, FileSystem fs) 
+		throws IOException
+	{
+		//prepare file paths in alphanumeric order
+		ArrayList<FileStatus> files = new ArrayList<>();
+		if( fs.isDirectory(path) ) {
+			for( FileStatus stat : fs.listStatus(path, IOUtilFunctions.hiddenFileFilter) )
+				files.add(stat);
+			Collections.sort(files, (a,b) -> a.getPath().compareTo(b.getPath()));
+		}
+		else
+			files.add(fs.getFileStatus(path));
+		
+		//determine split size for balanced splits
+		long total = 0;
+		for( FileStatus stat : files )
+			total += stat.getLen();
+		long splitSize = Math.min(MAX_SPLIT_SIZE,
+			Math.max(MIN_SPLIT_SIZE, (total + _numThreads - 1) / _numThreads));
+		
+		//create splits per file (none if any file is compressed)
+		List<CSVSplit> splits = new ArrayList<>();
+		CompressionCodecFactory codecs = new CompressionCodecFactory(job);
+		for( int i=0; i<files.size(); i++ ) {
+			Path file = files.get(i).getPath();
+			long len = files.get(i).getLen();
+			if( codecs.getCodec(file) != null )
+				return null;
+			if( len <= splitSize )
+				splits.add(new CSVSplit(file, 0, len, i==0));
+			else
+				for( long start=0; start<len; start+=splitSize )
+					splits.add(new CSVSplit(file, start, Math.min(start+splitSize, len), i==0 && start==0));
+		}
+		return splits;
 	}
 	
-	private void readCSVMatrixFromHDFS(InputSplit[] splits, Path path, JobConf job, 
-			MatrixBlock dest, long rlen, long clen, int blen, 
+	private MatrixBlock readCSVMatrixFromHDFS(List<CSVSplit> splits, FileSystem fs, String srcInfo, long rlen, long clen, 
 			boolean hasHeader, String delim, boolean fill, double fillValue) 
 		throws IOException 
 	{
-		FileInputFormat.addInputPath(job, path);
-		TextInputFormat informat = new TextInputFormat();
-		informat.configure(job);
-
 		ExecutorService pool = CommonThreadPool.get(_numThreads);
-
-		try 
-		{
-			// create read tasks for all splits
-			ArrayList<CSVReadTask> tasks = new ArrayList<>();
-			int splitCount = 0;
-			for (InputSplit split : splits) {
-				tasks.add( new CSVReadTask(split, _offsets, informat, job, dest, 
-					rlen, clen, hasHeader, delim, fill, fillValue, splitCount++) );
+		try {
+			// parse all splits into split-local row buffers
+			RowBuffer[] buffs = new RowBuffer[splits.size()];
+			try {
+				ArrayList<CSVReadTask> tasks = new ArrayList<>();
+				for( CSVSplit split : splits )
+					tasks.add(new CSVReadTask(split, fs, hasHeader, delim, fill, fillValue));
+				List<Future<RowBuffer>> rt = pool.invokeAll(tasks);
+				for( int i=0; i<buffs.length; i++ )
+					buffs[i] = rt.get(i).get();
 			}
-			pool.invokeAll(tasks);
-			pool.shutdown();
-
-			// check return codes and aggregate nnz
-			long lnnz = 0;
-			for (CSVReadTask rt : tasks) {
-				lnnz += rt.getPartialNnz();
-				if (!rt.getReturnCode()) {
-					Exception err = rt.getException();
-					throw new IOException("Read task for csv input failed: "+ err.toString(), err);
-				}
+			catch (Exception e) {
+				throw new IOException("Read task for csv input failed: " + e.getMessage(), e);
 			}
-			dest.setNonZeros(lnnz);
-		} 
-		catch (Exception e) {
-			throw new IOException("Threadpool issue, while parallel read.", e);
+			
+			return stitchRowBuffers(Arrays.asList(buffs), rlen, clen, pool, srcInfo);
 		}
-	}
-
-	private MatrixBlock computeCSVSizeAndCreateOutputMatrixBlock(InputSplit[] splits, Path path,
-			JobConf job, boolean hasHeader, String delim, long rlen, long clen, long estnnz)
-		throws IOException, DMLRuntimeException 
-	{
-		int nrow = 0;
-		int ncol = 0;
-		
-		FileInputFormat.addInputPath(job, path);
-		TextInputFormat informat = new TextInputFormat();
-		informat.configure(job);
-
-		// count no of entities in the first non-header row
-		LongWritable key = new LongWritable();
-		Text oneLine = new Text();
-		RecordReader<LongWritable, Text> reader = informat
-				.getRecordReader(splits[0], job, Reporter.NULL);
-		try {
-			if (reader.next(key, oneLine)) {
-				String cellStr = oneLine.toString().trim();
-				ncol = StringUtils.countMatches(cellStr, delim) + 1;
-			}
-		} 
 		finally {
-			IOUtilFunctions.closeSilently(reader);
-		}
-
-		// count rows in parallel per split
-		try 
-		{
-			ExecutorService pool = CommonThreadPool.get(_numThreads);
-			ArrayList<CountRowsTask> tasks = new ArrayList<>();
-			for (InputSplit split : splits) {
-				tasks.add(new CountRowsTask(split, informat, job, hasHeader));
-				hasHeader = false;
-			}
-			List<Future<Long>> ret = pool.invokeAll(tasks);
 			pool.shutdown();
+		}
+	}
 
-			// collect row counts for offset computation
-			// early error notify in case not all tasks successful
-			_offsets = new SplitOffsetInfos(tasks.size());
-			for (Future<Long> rc : ret) {
-				int lnrow = (int)rc.get().longValue(); //incl error handling
-				_offsets.setOffsetPerSplit(ret.indexOf(rc), nrow);
-				_offsets.setLenghtPerSplit(ret.indexOf(rc), lnrow);
-				nrow = nrow + lnrow;
-			}
-		} 
-		catch (Exception e) {
-			throw new IOException("Threadpool Error " + e.getMessage(), e);
+	/**
+	 * Creates the output matrix block (with exact nnz) from the given row buffers
+	 * in order, and copies the row buffers in parallel into disjoint row ranges.
+	 * 
+	 * @param buffs row buffers in order of rows
+	 * @param rlen number of rows, or -1 if unknown
+	 * @param clen number of columns, or -1 if unknown
+	 * @param pool thread pool for parallel copy
+	 * @param srcInfo source information for error messages
+	 * @return output matrix block
+	 * @throws IOException if IOException occurs
+	 */
+	protected static MatrixBlock stitchRowBuffers(List<RowBuffer> buffs, long rlen, long clen, 
+			ExecutorService pool, String srcInfo) 
+		throws IOException
+	{
+		// compute row offsets per split, and the overall size
+		int[] offsets = new int[buffs.size()];
+		long nrow = 0, nnz = 0;
+		int ncol = -1;
+		for( int i=0; i<buffs.size(); i++ ) {
+			offsets[i] = (int) nrow;
+			nrow += buffs.get(i).getNumRows();
+			nnz += buffs.get(i).getNonZeros();
+			int lncol = buffs.get(i).getNumColumns();
+			if( lncol >= 0 && ncol >= 0 && lncol != ncol )
+				throw new IOException("Invalid number of columns (" + lncol + ", expected=" + ncol + ") "
+					+ "found in delimited file (" + srcInfo + ").");
+			ncol = (lncol >= 0) ? lncol : ncol;
 		}
+		ncol = Math.max(ncol, 0);
 		
 		//robustness for wrong dimensions which are already compiled into the plan
 		if( (rlen != -1 && nrow != rlen) || (clen != -1 && ncol != clen) ) {
@@ -225,220 +251,115 @@ public class ReaderTextCSVParallel extends MatrixReader
 			else {
 				//b) specified matrix dimensions too large -> padding and warning
 				LOG.warn(msg);
-				nrow = (int) rlen;
+				nrow = rlen;
 				ncol = (int) clen;
 			}
 		}
 		
-		// allocate target matrix block based on given size; 
-		// need to allocate sparse as well since lock-free insert into target
-		long estnnz2 = (estnnz < 0) ? (long)nrow * ncol : estnnz;
-		return createOutputMatrixBlock(nrow, ncol, nrow, estnnz2, true, true);
-	}
-
-	private static class SplitOffsetInfos {
-		// offset & length info per split
-		private int[] offsetPerSplit = null;
-		private int[] lenghtPerSplit = null;
-
-		public SplitOffsetInfos(int numSplits) {
-			lenghtPerSplit = new int[numSplits];
-			offsetPerSplit = new int[numSplits];
+		// allocate target matrix block based on exact nnz, and copy 
+		// row buffers into disjoint row ranges (lock-free inserts)
+		MatrixBlock ret = createOutputMatrixBlock(nrow, ncol, (int)Math.max(nrow, 1), nnz, true, true);
+		try {
+			ArrayList<Callable<Object>> tasks = new ArrayList<>();
+			for( int i=0; i<buffs.size(); i++ ) {
+				final RowBuffer buff = buffs.get(i);
+				final int rl = offsets[i];
+				tasks.add(() -> { buff.copyTo(ret, rl); return null; });
+			}
+			for( Future<Object> task : pool.invokeAll(tasks) )
+				task.get();
 		}
-
-		public int getLenghtPerSplit(int split) {
-			return lenghtPerSplit[split];
+		catch (Exception e) {
+			throw new IOException("Threadpool issue, while parallel read.", e);
 		}
+		ret.setNonZeros(nnz);
+		return ret;
+	}
 
-		public void setLenghtPerSplit(int split, int r) {
-			lenghtPerSplit[split] = r;
+	/**
+	 * Byte range of a file. A split reads all lines that start within
+	 * (start, end], or at start 0, which is consistent with Hadoop's
+	 * line record readers.
+	 */
+	private static class CSVSplit
+	{
+		private final Path _path;
+		private final long _start;
+		private final long _end;
+		private final boolean _first;
+		
+		public CSVSplit(Path path, long start, long end, boolean first) {
+			_path = path;
+			_start = start;
+			_end = end;
+			_first = first;
 		}
-
-		public int getOffsetPerSplit(int split) {
-			return offsetPerSplit[split];
+		
+		public Path getPath() {
+			return _path;
 		}
-
-		public void setOffsetPerSplit(int split, int o) {
-			offsetPerSplit[split] = o;
+		
+		public InputStream open(FileSystem fs) throws IOException {
+			if( fs instanceof LocalFileSystem ) {
+				//direct channel access to local files (w/o checksum stream stack)
+				FileChannel channel = FileChannel.open(
+					((LocalFileSystem)fs).pathToFile(_path).toPath(), StandardOpenOption.READ);
+				channel.position(_start);
+				return Channels.newInputStream(channel);
+			}
+			FSDataInputStream in = fs.open(_path);
+			in.seek(_start);
+			return in;
+		}
+		
+		@Override
+		public String toString() {
+			return _path + ":" + _start + "+" + (_end - _start);
 		}
 	}
 
-	private static class CSVReadTask implements Callable<Object> 
+	private static class CSVReadTask implements Callable<RowBuffer> 
 	{
-		private InputSplit _split = null;
-		private SplitOffsetInfos _splitoffsets = null;
-		private boolean _sparse = false;
-		private TextInputFormat _informat = null;
-		private JobConf _job = null;
-		private MatrixBlock _dest = null;
-		private long _rlen = -1;
-		private long _clen = -1;
-		private boolean _isFirstSplit = false;
-		private boolean _hasHeader = false;
-		private boolean _fill = false;
-		private double _fillValue = 0;
-		private String _delim = null;
-		private int _splitCount = 0;
-		
-		private boolean _rc = true;
-		private Exception _exception = null;
-		private long _nnz;
+		private final CSVSplit _split;
+		private final FileSystem _fs;
+		private final boolean _hasHeader;
+		private final String _delim;
+		private final boolean _fill;
+		private final double _fillValue;
 		
-		public CSVReadTask(InputSplit split, SplitOffsetInfos offsets,
-				TextInputFormat informat, JobConf job, MatrixBlock dest,
-				long rlen, long clen, boolean hasHeader, String delim,
-				boolean fill, double fillValue, int splitCount) 
+		public CSVReadTask(CSVSplit split, FileSystem fs, boolean hasHeader, 
+			String delim, boolean fill, double fillValue) 
 		{
 			_split = split;
-			_splitoffsets = offsets; // new SplitOffsetInfos(offsets);
-			_sparse = dest.isInSparseFormat();
-			_informat = informat;
-			_job = job;
-			_dest = dest;
-			_rlen = rlen;
-			_clen = clen;
-			_isFirstSplit = (splitCount == 0);
+			_fs = fs;
 			_hasHeader = hasHeader;
+			_delim = delim;
 			_fill = fill;
 			_fillValue = fillValue;
-			_delim = delim;
-			_rc = true;
-			_splitCount = splitCount;
-		}
-
-		public boolean getReturnCode() {
-			return _rc;
-		}
-
-		public Exception getException() {
-			return _exception;
-		}
-		
-		public long getPartialNnz() {
-			return _nnz;
 		}
 
 		@Override
-		public Object call() 
-			throws Exception 
-		{
-			int row = 0;
-			int col = 0;
-			double cellValue = 0;
-			long lnnz = 0;
-			
-			try 
-			{
-				RecordReader<LongWritable, Text> reader = _informat.getRecordReader(_split, _job, Reporter.NULL);
-				LongWritable key = new LongWritable();
-				Text value = new Text();
+		public RowBuffer call() throws Exception {
+			InputStream in = _split.open(_fs);
+			try {
+				CSVByteParser parser = new CSVByteParser(in, 
+					_split._start, _delim, _fill, _fillValue, _split.toString());
 				
-				// skip the header line
-				if (_isFirstSplit && _hasHeader) {
-					reader.next(key, value);
-				}
-
-				boolean noFillEmpty = false;
-				row = _splitoffsets.getOffsetPerSplit(_splitCount);
-
-				try {
-					if (_sparse) // SPARSE<-value
-					{
-						while (reader.next(key, value)) // foreach line
-						{
-							String cellStr = value.toString().trim();
-							String[] parts = IOUtilFunctions.split(cellStr, _delim);
-							col = 0;
-
-							for (String part : parts) // foreach cell
-							{
-								part = part.trim();
-								if (part.isEmpty()) {
-									noFillEmpty |= !_fill;
-									cellValue = _fillValue;
-								} 
-								else {
-									cellValue = UtilFunctions.parseToDouble(part);
-								}
-
-								if( cellValue != 0 ) {
-									_dest.appendValue(row, col, cellValue);
-									lnnz++;
-								}
-								col++;
-							}
-
-							// sanity checks (number of columns, fill values)
-							IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(cellStr, _fill, noFillEmpty);
-							IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(_split.toString(), cellStr, parts, _clen);
-							
-							row++;
-						}
-					} 
-					else // DENSE<-value
-					{
-						DenseBlock a = _dest.getDenseBlock();
-						while (reader.next(key, value)) { // foreach line
-							String cellStr = value.toString().trim();
-							String[] parts = IOUtilFunctions.split(cellStr, _delim);
-							col = 0;
-							for (String part : parts) { // foreach cell
-								part = part.trim();
-								if (part.isEmpty()) {
-									noFillEmpty |= !_fill;
-									cellValue = _fillValue;
-								} 
-								else {
-									cellValue = UtilFunctions.parseToDouble(part);
-								}
-								if( cellValue != 0 ) {
-									a.set(row, col, cellValue);
-									lnnz++;
-								}
-								col++;
-							}
-
-							// sanity checks (number of columns, fill values)
-							IOUtilFunctions.checkAndRaiseErrorCSVEmptyField(cellStr, _fill, noFillEmpty);
-							IOUtilFunctions.checkAndRaiseErrorCSVNumColumns(_split.toString(), cellStr, parts, _clen);
-							
-							row++;
-						}
-					}
-
-					// sanity checks (number of rows)
-					if (row != (_splitoffsets.getOffsetPerSplit(_splitCount) + _splitoffsets.getLenghtPerSplit(_splitCount)) ) 
-					{
-						throw new IOException("Incorrect number of rows ("+ row+ ") found in delimited file ("
-										+ (_splitoffsets.getOffsetPerSplit(_splitCount) 
-										+ _splitoffsets.getLenghtPerSplit(_splitCount))+ "): " + value);
-					}
-				} 
-				finally {
-					IOUtilFunctions.closeSilently(reader);
-				}
-			} 
-			catch (Exception ex) {
-				// central error handling (return code, message)
-				_rc = false;
-				_exception = ex;
-
-				// post-mortem error handling and bounds checking
-				if (row < 0 || row + 1 > _rlen || col < 0 || col + 1 > _clen) {
-					String errMsg = "CSV cell [" + (row + 1) + "," + (col + 1)+ "] " + 
-							"out of overall matrix range [1:" + _rlen+ ",1:" + _clen + "]. " + ex.getMessage();
-					throw new IOException(errMsg, _exception);
-				} 
-				else {
-					String errMsg = "Unable to read matrix in text CSV format. "+ ex.getMessage();
-					throw new IOException(errMsg, _exception);
-				}
+				// skip the partial first line (read by previous split) or header
+				if( _split._start > 0 || (_split._first && _hasHeader) )
+					parser.skipLine();
+				
+				// parse all lines that start within the split
+				RowBuffer ret = new RowBuffer();
+				while( parser.getPosition() <= _split._end && parser.parseLine(ret) );
+				return ret;
+			}
+			catch(Exception ex) {
+				throw new IOException("Unable to read matrix in text CSV format. " + ex.getMessage(), ex);
+			}
+			finally {
+				IOUtilFunctions.closeSilently(in);
 			}
-
-			//post processing
-			_nnz = lnnz;
-			
-			return null;
 		}
 	}
 }
@@ -16,9 +16,13 @@
 
 package org.tugraz.sysds.runtime.io;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 
@@ -36,6 +40,7 @@ import org.tugraz.sysds.conf.ConfigurationManager;
 import org.tugraz.sysds.hops.OptimizerUtils;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.data.SparseRowVector;
+import org.tugraz.sysds.runtime.io.CSVByteParser.RowBuffer;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.util.CommonThreadPool;
 
@@ -93,9 +98,39 @@ public class ReaderTextLIBSVMParallel extends MatrixReader
 	public MatrixBlock readMatrixFromInputStream(InputStream is, long rlen, long clen, int blen, long estnnz) 
 		throws IOException, DMLRuntimeException 
 	{
-		//not implemented yet, fallback to sequential reader
-		return new ReaderTextLIBSVM()
-			.readMatrixFromInputStream(is, rlen, clen, blen, estnnz);
+		// sequential read of small inputs with known dimensions
+		long estSize = LineChunkReader.estimateSize((estnnz >= 0) ? estnnz :
+			(rlen >= 0 && clen >= 0) ? rlen * clen : -1);
+		if( rlen >= 0 && clen >= 0 && estSize >= 0 && estSize < LineChunkReader.MIN_PARALLEL_SIZE )
+			return new ReaderTextLIBSVM().readMatrixFromInputStream(is, rlen, clen, blen, estnnz);
+		
+		// pipelined read of line chunks and parallel parsing into row buffers
+		final int ncol = (int) clen;
+		List<RowBuffer> buffs = LineChunkReader.parseChunks(is, _numThreads, estSize, chunk -> {
+			SparseRowVector vect = new SparseRowVector(1024);
+			RowBuffer ret = new RowBuffer();
+			try( BufferedReader br = new BufferedReader(new InputStreamReader(
+				new ByteArrayInputStream(chunk.getBuffer(), 0, chunk.getLength()))) ) {
+				String value = null;
+				while( (value=br.readLine())!=null ) {
+					ReaderTextLIBSVM.parseLibsvmRow(value.trim(), vect, ncol);
+					ret.appendRow(vect.indexes(), vect.values(), vect.size(), ncol);
+				}
+			}
+			return ret;
+		});
+		
+		// append row buffers in order into the output
+		ExecutorService pool = CommonThreadPool.get(_numThreads);
+		try {
+			MatrixBlock ret = ReaderTextCSVParallel.stitchRowBuffers(
+				buffs, rlen, clen, pool, "external inputstream");
+			ret.examSparsity();
+			return ret;
+		}
+		finally {
+			pool.shutdown();
+		}
 	}
 	
 	private void readLIBSVMMatrixFromHDFS(InputSplit[] splits, Path path, JobConf job, 
@@ -16,25 +16,22 @@
 
 package org.tugraz.sysds.runtime.lineage;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.tugraz.sysds.api.DMLScript;
 import org.tugraz.sysds.common.Types.ValueType;
 import org.tugraz.sysds.hops.OptimizerUtils;
 import org.tugraz.sysds.hops.cost.CostEstimatorStaticRuntime;
-import org.tugraz.sysds.lops.MMTSJ.MMTSJType;
-import org.tugraz.sysds.parser.Statement;
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
 import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
-import org.tugraz.sysds.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
-import org.tugraz.sysds.runtime.instructions.CPInstructionParser;
 import org.tugraz.sysds.runtime.instructions.Instruction;
 import org.tugraz.sysds.runtime.instructions.cp.BinaryMatrixMatrixCPInstruction;
-import org.tugraz.sysds.runtime.instructions.cp.CPInstruction.CPType;
 import org.tugraz.sysds.runtime.instructions.cp.ComputationCPInstruction;
 import org.tugraz.sysds.runtime.instructions.cp.Data;
-import org.tugraz.sysds.runtime.instructions.cp.MMTSJCPInstruction;
-import org.tugraz.sysds.runtime.instructions.cp.ParameterizedBuiltinCPInstruction;
 import org.tugraz.sysds.runtime.instructions.cp.ScalarObject;
+import org.tugraz.sysds.runtime.lineage.LineageCacheConfig.LineageCachePolicy;
 import org.tugraz.sysds.runtime.lineage.LineageCacheConfig.ReuseCacheType;
 import org.tugraz.sysds.runtime.matrix.data.InputInfo;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
@@ -42,28 +39,44 @@ import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
 import org.tugraz.sysds.runtime.meta.MetaDataFormat;
 import org.tugraz.sysds.runtime.util.LocalFileUtils;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class LineageCache {
-	private static final Map<LineageItem, Entry> _cache = new HashMap<>();
-	private static final Map<LineageItem, SpilledItem> _spillList = new HashMap<>();
-	private static final HashSet<LineageItem> _removelist = new HashSet<>();
-	private static final double CACHE_FRAC = 0.05; // 5% of JVM mem
-	private static final long CACHE_LIMIT; //limit in bytes
+	private static final Log LOG = LogFactory.getLog(LineageCache.class.getName());
+	//NOTE: the cache and spill list are concurrent maps in order to allow
+	//probing and reusing entries without a global monitor (e.g., in parfor);
+	//only the space management (size accounting and eviction) is serialized
+	private static final Map<LineageItem, Entry> _cache = new ConcurrentHashMap<>();
+	private static final Map<LineageItem, SpilledItem> _spillList = new ConcurrentHashMap<>();
+	private static final Set<LineageItem> _removelist = ConcurrentHashMap.newKeySet();
+	private static final Object _evictLock = new Object();
 	private static String outdir = null;
-	private static long _cachesize = 0;
-	private static Entry _head = null;
-	private static Entry _end = null;
-
-	static {
-		long maxMem = InfrastructureAnalyzer.getLocalMaxMemory();
-		CACHE_LIMIT = (long)(CACHE_FRAC * maxMem);
-	}
+	private static long _cachesize = 0; //guarded by _evictLock
+	private static final double EVICTION_WATERMARK = 0.9; //fraction of cache limit after eviction
+	private static final int SPILL_THREADS = 2;
+	private static final int SPILL_QUEUE_SIZE = 8; //max pending spill/restore tasks
+	private static ExecutorService _spillPool = null;
+	private static LineageCacheStore _store = null;
+	private static volatile DMLRuntimeException _spillError = null; //failed background write
+	//per-thread accumulated time of waiting for placeholders (in nano sec)
+	private static final ThreadLocal<long[]> _waitTime = ThreadLocal.withInitial(() -> new long[1]);
 	
 	//--------------------- CACHE LOGIC METHODS ----------------------
 	
@@ -77,20 +90,27 @@ public class LineageCache {
 		if (inst instanceof ComputationCPInstruction && LineageCache.isReusable(inst, ec)) {
 			LineageItem item = ((ComputationCPInstruction) inst).getLineageItems(ec)[0];
 			
-			synchronized( _cache ) {
-				//try to reuse full or partial intermediates
-				if (LineageCacheConfig.getCacheType().isFullReuse())
-					reuse = fullReuse(item, (ComputationCPInstruction)inst, ec); 
-				if (LineageCacheConfig.getCacheType().isPartialReuse())
-					reuse |= LineageRewriteReuse.executeRewrites(inst, ec);
-				
-				if (reuse && DMLScript.STATISTICS)
+			//try to reuse full or partial intermediates
+			if (LineageCacheConfig.getCacheType().isFullReuse())
+				reuse = fullReuse(item, (ComputationCPInstruction)inst, ec); 
+			if (!reuse && LineageCacheConfig.getCacheType().isPartialReuse())
+				reuse = LineageRewriteReuse.executeRewrites(inst, ec);
+			
+			//create a placeholder if no reuse to avoid redundancy
+			//(e.g., concurrent threads that try to start the computation),
+			//if another thread created the placeholder in the meantime, we
+			//wait for this thread's result instead of computing it again
+			if(!reuse && isMarkedForCaching(inst, ec)) {
+				Entry e = putIntern(item, null, 0);
+				if( e != null && LineageCacheConfig.getCacheType().isFullReuse() )
+					reuse = fullReuse(item, e, (ComputationCPInstruction)inst, ec);
+			}
+			
+			if (DMLScript.STATISTICS) {
+				if (reuse)
 					LineageCacheStatistics.incrementInstHits();
-				
-				//create a placeholder if no reuse to avoid redundancy
-				//(e.g., concurrent threads that try to start the computation)
-				if(!reuse && isMarkedForCaching(inst, ec))
-					putIntern(item, null, 0);
+				else
+					LineageCacheStatistics.incrementInstMisses();
 			}
 		}
 		
@@ -102,15 +122,18 @@ public class LineageCache {
 			return null;
 
 		MatrixBlock d = null;
-		synchronized( _cache ) {
-			if (LineageCache.probe(item)) 
-				d = LineageCache.get(item);
-			else
-				//create a placeholder if no reuse to avoid redundancy
-				//(e.g., concurrent threads that try to start the computation)
-				putIntern(item, null, 0);
-				//FIXME: parfor - every thread gets different function names
+		if (LineageCache.probe(item)) 
+			d = LineageCache.get(item);
+		if (d == null) {
+			//create a placeholder if no reuse to avoid redundancy
+			//(e.g., concurrent threads that try to start the computation)
+			Entry e = putIntern(item, null, 0);
+			if (e != null)
+				d = e.getValue(); //wait for the concurrent computation
+			//FIXME: parfor - every thread gets different function names
 		}
+		if (d == null && DMLScript.STATISTICS)
+			LineageCacheStatistics.incrementInstMisses();
 		return d;
 	}
 	
@@ -126,7 +149,8 @@ public class LineageCache {
 			MatrixBlock cachedValue = LineageCache.reuse(li); 
 			//TODO: handling of recursive calls
 			
-			if (cachedValue != null) {
+			Entry e = (cachedValue != null) ? _cache.get(li) : null;
+			if (e != null) {
 				String boundVarName = outputs.get(i);
 				//convert to matrix object
 				MetaDataFormat md = new MetaDataFormat(cachedValue.getDataCharacteristics(), 
@@ -144,8 +168,7 @@ public class LineageCache {
 				ec.setVariable(boundVarName, boundValue);
 				
 				// map original lineage of function return to the calling site
-				LineageItem orig = _cache.get(li)._origItem; //FIXME: synchronize
-				ec.getLineage().set(boundVarName, orig);
+				ec.getLineage().set(boundVarName, e._origItem);
 			}
 			else {
 				// if one output cannot be reused, we need to execute the function
@@ -158,13 +181,11 @@ public class LineageCache {
 	}
 	
 	//NOTE: safe to pin the object in memory as coming from CPInstruction
-	public static void put(Instruction inst, ExecutionContext ec) {
+	public static void put(Instruction inst, ExecutionContext ec, double computetime) {
 		if (inst instanceof ComputationCPInstruction && isReusable(inst, ec) ) {
 			LineageItem item = ((LineageTraceable) inst).getLineageItems(ec)[0];
 			MatrixObject mo = ec.getMatrixObject(((ComputationCPInstruction) inst).output);
-			synchronized( _cache ) {
-				putIntern(item, mo.acquireReadAndRelease(), getRecomputeEstimate(inst, ec));
-			}
+			putIntern(item, mo.acquireReadAndRelease(), computetime);
 		}
 	}
 	
@@ -176,34 +197,41 @@ public class LineageCache {
 			LineageItem item = ((LineageTraceable) inst).getLineageItems(ec)[0];
 			MatrixObject mo = ec.getMatrixObject(((ComputationCPInstruction) inst).output);
 			MatrixBlock value = mo.acquireReadAndRelease();
-			_cache.get(item).setValue(value, getRecomputeEstimate(inst, ec)); //outside sync to prevent deadlocks
-			
-			synchronized( _cache ) {
-				if( !isBelowThreshold(value) ) 
-					makeSpace(value);
-				updateSize(value, true);
-			}
+			Entry e = _cache.get(item);
+			if (e != null && e.isNullVal())
+				setEntryValue(e, value, e.getComputeTime());
 		}
 	}
 	
+	/**
+	 * Fills the placeholder created by a previous reuse(item) miss with the
+	 * given value and compute time (exposed for testing purposes only).
+	 * 
+	 * @param item lineage item
+	 * @param value matrix block
+	 * @param computetime compute time in seconds
+	 */
+	public static void putValue(LineageItem item, MatrixBlock value, double computetime) {
+		if (ReuseCacheType.isNone())
+			return;
+		Entry e = _cache.get(item);
+		if (e != null && e.isNullVal())
+			setEntryValue(e, value, computetime);
+	}
+	
 	public static void putValue(LineageItem item, LineageItem probeItem) {
 		if (ReuseCacheType.isNone())
 			return;
-		if (LineageCache.probe(probeItem)) {
-			MatrixBlock value = LineageCache.get(probeItem);
-			Entry e = _cache.get(item);
-			e.setValue(value, 0); //TODO: compute estimate for function
+		MatrixBlock value = LineageCache.probe(probeItem) ?
+			LineageCache.get(probeItem) : null;
+		Entry e = _cache.get(item);
+		if (value != null && e != null && e.isNullVal()) {
 			e._origItem = probeItem; 
-
-			synchronized( _cache ) {
-				if(!isBelowThreshold(value)) 
-					makeSpace(value);
-				updateSize(value, true);
-			}
+			//measured compute time of the function or statement block
+			setEntryValue(e, value, e.getComputeTime());
 		}
 		else
 			removeEntry(item);  //remove the placeholder
-
 	}
 
 	public static void putValue(List<String> outputs, int numOutputs, LineageItem[] liInputs, String name, ExecutionContext ec)
@@ -240,34 +268,68 @@ public class LineageCache {
 		return;
 	}
 	
-	private static void putIntern(LineageItem key, MatrixBlock value, double compcost) {
-		if (_cache.containsKey(key))
-			//can come here if reuse_partial option is enabled
-			return; 
-			//throw new DMLRuntimeException("Redundant lineage caching detected: "+inst);
+	/**
+	 * Atomically adds a new entry (or placeholder if value is null) to the cache.
+	 * 
+	 * @param key lineage item of the cached intermediate
+	 * @param value matrix block, or null for a placeholder
+	 * @param compcost re-computation cost in seconds
+	 * @return the already existing entry, or null if the new entry was added
+	 */
+	private static Entry putIntern(LineageItem key, MatrixBlock value, double compcost) {
+		if( value != null && value.getInMemorySize() > LineageCacheConfig.getCacheLimit() )
+			return null; //not applicable
 		
-		// Create a new entry.
-		Entry newItem = new Entry(key, value, compcost);
-		
-		// Make space by removing or spilling LRU entries.
-		if( value != null ) {
-			if( value.getInMemorySize() > CACHE_LIMIT )
-				return; //not applicable
-			if( !isBelowThreshold(value) ) 
-				makeSpace(value);
-			updateSize(value, true);
+		// Create a new entry, if no entry exists yet.
+		Entry newItem = new Entry(key, null, compcost);
+		Entry oldItem = _cache.putIfAbsent(key, newItem);
+		if( oldItem != null ) {
+			//can come here if reuse_partial option is enabled
+			//or if multiple threads try to compute the same intermediate
+			if( value != null && oldItem.isNullVal() )
+				setEntryValue(oldItem, value, compcost);
+			return oldItem;
 		}
 		
-		// Place the entry at head position.
-		setHead(newItem);
+		// Make space by removing or spilling LRU entries.
+		if( value != null )
+			setEntryValue(newItem, value, compcost);
 		
-		_cache.put(key, newItem);
 		if (DMLScript.STATISTICS)
 			LineageCacheStatistics.incrementMemWrites();
+		return null;
+	}
+	
+	private static void setEntryValue(Entry e, MatrixBlock value, double compcost) {
+		if( value.getInMemorySize() > LineageCacheConfig.getCacheLimit() ) {
+			removeEntry(e._key); //remove the placeholder, and notify waiting threads
+			return;
+		}
+		List<SpilledItem> spills = null;
+		synchronized( _evictLock ) {
+			if( _cache.get(e._key) != e ) {
+				//entry removed concurrently (e.g., cache reset)
+				e.setValue(value, compcost);
+				return;
+			}
+			if( !isBelowThreshold(value) ) 
+				spills = makeSpace(value);
+			e.setValue(value, compcost);
+			updateSize(value, true);
+		}
+		//write the spilled entries outside the eviction lock
+		if( spills != null && !spills.isEmpty() )
+			writeToLocalFS(spills);
 	}
 	
 	protected static boolean probe(LineageItem key) {
-		boolean p = (_cache.containsKey(key) || _spillList.containsKey(key));
+		boolean p = _cache.containsKey(key);
+		if (!p && _spillList.containsKey(key)) {
+			prefetch(key);
+			p = true;
+		}
+		if (!p && LineageCacheConfig.isSetStore())
+			p = restoreFromStore(key);
 		if (!p && DMLScript.STATISTICS && _removelist.contains(key))
 			// The sought entry was in cache but removed later 
 			LineageCacheStatistics.incrementDelHits();
@@ -275,37 +337,76 @@ public class LineageCache {
 	}
 	
 	public static void resetCache() {
-		_cache.clear();
-		_spillList.clear();
-		_head = null;
-		_end = null;
-		if (DMLScript.STATISTICS)
-			_removelist.clear();
+		List<SpilledItem> spilled;
+		synchronized( _evictLock ) {
+			spilled = new ArrayList<>(_spillList.values());
+			_cache.clear();
+			_spillList.clear();
+			_cachesize = 0;
+			if (DMLScript.STATISTICS)
+				_removelist.clear();
+		}
+		//drain pending writes and prefetches, and cleanup the spilled files
+		for (SpilledItem item : spilled) {
+			synchronized( item ) {
+				item._restored = true; //discard running writes
+			}
+			waitForTask(item._write);
+			waitForTask(item._prefetch);
+			LocalFileUtils.deleteFileIfExists(item._outfile, true);
+		}
+		_spillError = null;
+	}
+	
+	private static void waitForTask(Future<?> task) {
+		if (task == null || task.cancel(false))
+			return;
+		try {
+			task.get();
+		}
+		catch(Exception ex) {
+			//ignore errors of discarded tasks
+		}
 	}
 	
 
 	private static boolean fullReuse (LineageItem item, ComputationCPInstruction inst, ExecutionContext ec) {
 		if (LineageCache.probe(item)) {
 			MatrixBlock d = LineageCache.get(item);
-			ec.setMatrixOutput(inst.output.getName(), d);
-			return true;
+			if (d != null) {
+				ec.setMatrixOutput(inst.output.getName(), d);
+				return true;
+			}
 		}
 		return false;
 	}
 	
+	private static boolean fullReuse (LineageItem item, Entry e, ComputationCPInstruction inst, ExecutionContext ec) {
+		//blocks only on the given entry until the concurrent computation finished
+		MatrixBlock d = e.getValue();
+		if (d == null)
+			return fullReuse(item, inst, ec);
+		e.touch();
+		ec.setMatrixOutput(inst.output.getName(), d);
+		return true;
+	}
+	
 	protected static MatrixBlock get(LineageItem key) {
 		// This method is called only when entry is present either in cache or in local FS.
-		if (_cache.containsKey(key)) {
-			// Read and put the entry at head.
-			Entry e = _cache.get(key);
-			delete(e);
-			setHead(e);
-			if (DMLScript.STATISTICS)
-				LineageCacheStatistics.incrementMemHits();
-			return e.getValue();
+		// If the entry is a placeholder, we wait for the concurrent computation, 
+		// and return null if the placeholder was removed in the meantime.
+		Entry e = _cache.get(key);
+		if (e != null) {
+			// Read and mark the entry as recently used.
+			MatrixBlock mb = e.getValue();
+			if (mb != null) {
+				e.touch();
+				if (DMLScript.STATISTICS)
+					LineageCacheStatistics.incrementMemHits();
+				return mb;
+			}
 		}
-		else
-			return readFromLocalFS(key);
+		return restoreFromLocalFS(key);
 	}
 	
 	public static boolean isReusable (Instruction inst, ExecutionContext ec) {
@@ -345,26 +446,53 @@ public class LineageCache {
 	//---------------- CACHE SPACE MANAGEMENT METHODS -----------------
 	
 	private static boolean isBelowThreshold(MatrixBlock value) {
-		return ((value.getInMemorySize() + _cachesize) <= CACHE_LIMIT);
+		return ((value.getInMemorySize() + _cachesize) <= LineageCacheConfig.getCacheLimit());
 	}
 	
-	private static void makeSpace(MatrixBlock value) {
+	private static List<SpilledItem> makeSpace(MatrixBlock value) {
+		//NOTE: called with _evictLock held, the returned
+		//spilled entries are written after releasing the lock
+		List<SpilledItem> spills = new ArrayList<>();
 		double valSize = value.getInMemorySize();
-		// cost based eviction
-		while ((valSize+_cachesize) > CACHE_LIMIT)
-		{
-			if (_cache.get(_end._key).isNullVal()) {
-				setEnd2Head(_end);  // Must be null function entry. Move to next.
-				continue;
+		long limit = LineageCacheConfig.getCacheLimit();
+		
+		// collect all entries with values (placeholders cannot be evicted)
+		// in eviction order of the configured cache policy, ordered by a
+		// snapshot of their keys because entries are touched concurrently
+		ArrayList<Entry> candidates = new ArrayList<>();
+		for( Entry e : _cache.values() )
+			if( !e.isNullVal() ) {
+				e.snapshotEvictionKeys();
+				candidates.add(e);
 			}
-				
-			double reduction = _cache.get(_end._key).getValue().getInMemorySize();
-			if (_cache.get(_end._key)._compEst > getDiskSpillEstimate() 
+		candidates.sort(getEvictionOrder(LineageCacheConfig.getCachePolicy()));
+		
+		// cost based eviction down to a low watermark of the cache limit,
+		// which amortizes the ordering of candidates over subsequent puts
+		long target = (long) (EVICTION_WATERMARK * limit);
+		Iterator<Entry> iter = candidates.iterator();
+		while ((valSize+_cachesize) > target && iter.hasNext())
+		{
+			Entry e = iter.next();
+			if (e._compEst > getDiskSpillEstimate(e) 
 					&& LineageCacheConfig.isSetSpill())
-				spillToLocalFS(); // If re-computation is more expensive, spill data to disk.
+				spills.add(spillToLocalFS(e)); // If re-computation is more expensive, spill data to disk.
 
-			removeEntry(reduction);
-		} 
+			removeEntry(e);
+		}
+		return spills;
+	}
+	
+	private static Comparator<Entry> getEvictionOrder(LineageCachePolicy policy) {
+		switch( policy ) {
+			case COSTNSIZE:
+				//lowest compute time per byte first, ties broken by LRU
+				return Comparator.comparingDouble((Entry e) -> e._evictCost)
+					.thenComparingLong(e -> e._evictTime);
+			case LRU:
+			default:
+				return Comparator.comparingLong(e -> e._evictTime);
+		}
 	}
 	
 	private static void updateSize(MatrixBlock value, boolean addspace) {
@@ -376,10 +504,11 @@ public class LineageCache {
 
 	//---------------- COSTING RELATED METHODS -----------------
 
-	private static double getDiskSpillEstimate() {
-		// This includes sum of writing to and reading from disk
+	private static double getDiskSpillEstimate(Entry e) {
+		// This includes sum of writing to and reading from disk (in sec),
+		// which is compared with the measured compute time (in sec)
 		long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
-		MatrixBlock mb = _cache.get(_end._key).getValue();
+		MatrixBlock mb = e._val;
 		long r = mb.getNumRows();
 		long c = mb.getNumColumns();
 		long nnz = mb.getNonZeros();
@@ -390,283 +519,361 @@ public class LineageCache {
 			LineageCacheStatistics.incrementCostingTime(System.nanoTime() - t0);
 		return loadtime+writetime;
 	}
-	
-	private static double getRecomputeEstimate(Instruction inst, ExecutionContext ec) {
-		long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
-		double nflops = 0;
-		String instop= inst.getOpcode().contains("spoof") ? "spoof" : inst.getOpcode();
-		CPType cptype = CPInstructionParser.String2CPInstructionType.get(instop);
-		//TODO: All other relevant instruction types.
-		switch (cptype)
-		{
-			case MMTSJ:  //tsmm
-			{
-				MatrixObject mo = ec.getMatrixObject(((ComputationCPInstruction)inst).input1);
-				long r = mo.getNumRows();
-				long c = mo.getNumColumns();
-				long nnz = mo.getNnz();
-				double s = OptimizerUtils.getSparsity(r, c, nnz);
-				boolean sparse = MatrixBlock.evalSparseFormatInMemory(r, c, nnz);
-				MMTSJType type = ((MMTSJCPInstruction)inst).getMMTSJType();
-				if (type.isLeft())
-					nflops = !sparse ? (r * c * s * c /2):(r * c * s * c * s /2);
-				else
-					nflops = !sparse ? ((double)r * c * r/2):(r*c*s + r*c*s*c*s /2);
-				break;
-			}
-				
-			case AggregateBinary:  //ba+*
-			{
-				MatrixObject mo1 = ec.getMatrixObject(((ComputationCPInstruction)inst).input1);
-				MatrixObject mo2 = ec.getMatrixObject(((ComputationCPInstruction)inst).input2);
-				long r1 = mo1.getNumRows();
-				long c1 = mo1.getNumColumns();
-				long nnz1 = mo1.getNnz();
-				double s1 = OptimizerUtils.getSparsity(r1, c1, nnz1);
-				boolean lsparse = MatrixBlock.evalSparseFormatInMemory(r1, c1, nnz1);
-				long r2 = mo2.getNumRows();
-				long c2 = mo2.getNumColumns();
-				long nnz2 = mo2.getNnz();
-				double s2 = OptimizerUtils.getSparsity(r2, c2, nnz2);
-				boolean rsparse = MatrixBlock.evalSparseFormatInMemory(r2, c2, nnz2);
-				if( !lsparse && !rsparse )
-					nflops = 2 * (r1 * c1 * ((c2>1)?s1:1.0) * c2) /2;
-				else if( !lsparse && rsparse )
-					nflops = 2 * (r1 * c1 * s1 * c2 * s2) /2;
-				else if( lsparse && !rsparse )
-					nflops = 2 * (r1 * c1 * s1 * c2) /2;
-				else //lsparse && rsparse
-					nflops = 2 * (r1 * c1 * s1 * c2 * s2) /2;
-				break;
-			}
-				
-			case Binary:  //*, /
-			{
-				MatrixObject mo1 = ec.getMatrixObject(((ComputationCPInstruction)inst).input1);
-				long r1 = mo1.getNumRows();
-				long c1 = mo1.getNumColumns();
-				if (inst.getOpcode().equalsIgnoreCase("*") || inst.getOpcode().equalsIgnoreCase("/"))
-					// considering the dimensions of inputs and the output are same 
-					nflops = r1 * c1; 
-				else if (inst.getOpcode().equalsIgnoreCase("solve"))
-					nflops = r1 * c1 * c1;
-				break;
-			}
-			
-			case MatrixIndexing:  //rightIndex
-			{
-				MatrixObject mo1 = ec.getMatrixObject(((ComputationCPInstruction)inst).input1);
-				long r1 = mo1.getNumRows();
-				long c1 = mo1.getNumColumns();
-				long nnz1 = mo1.getNnz();
-				double s1 = OptimizerUtils.getSparsity(r1, c1, nnz1);
-				boolean lsparse = MatrixBlock.evalSparseFormatInMemory(r1, c1, nnz1);
-				if (inst.getOpcode().equalsIgnoreCase("rightIndex"))
-					nflops = 1.0 * (lsparse ? r1 * c1 * s1 : r1 * c1); //FIXME
-				break;
-			}
-			
-			case ParameterizedBuiltin:  //groupedagg (sum, count)
-			{
-				String opcode = ((ParameterizedBuiltinCPInstruction)inst).getOpcode();
-				HashMap<String, String> params = ((ParameterizedBuiltinCPInstruction)inst).getParameterMap();
-				long r1 = ec.getMatrixObject(params.get(Statement.GAGG_TARGET)).getNumRows();
-				String fn = params.get(Statement.GAGG_FN);
-				double xga = 0;
-				if (opcode.equalsIgnoreCase("groupedagg")) {
-					if (fn.equalsIgnoreCase("sum"))
-						xga = 4;
-					else if(fn.equalsIgnoreCase("count"))
-						xga = 1;
-					//TODO: cm, variance
-				}
-				//TODO: support other PBuiltin ops
-				nflops = 2 * r1+xga * r1;
-				break;
-			}
-
-			case Reorg:  //r'
-			{
-				MatrixObject mo = ec.getMatrixObject(((ComputationCPInstruction)inst).input1);
-				long r = mo.getNumRows();
-				long c = mo.getNumColumns();
-				long nnz = mo.getNnz();
-				double s = OptimizerUtils.getSparsity(r, c, nnz);
-				boolean sparse = MatrixBlock.evalSparseFormatInMemory(r, c, nnz);
-				nflops = sparse ? r*c*s : r*c; 
-				break;
-			}
-
-			case Append:  //cbind, rbind
-			{
-				MatrixObject mo1 = ec.getMatrixObject(((ComputationCPInstruction)inst).input1);
-				MatrixObject mo2 = ec.getMatrixObject(((ComputationCPInstruction)inst).input2);
-				long r1 = mo1.getNumRows();
-				long c1 = mo1.getNumColumns();
-				long nnz1 = mo1.getNnz();
-				double s1 = OptimizerUtils.getSparsity(r1, c1, nnz1);
-				boolean lsparse = MatrixBlock.evalSparseFormatInMemory(r1, c1, nnz1);
-				long r2 = mo2.getNumRows();
-				long c2 = mo2.getNumColumns();
-				long nnz2 = mo2.getNnz();
-				double s2 = OptimizerUtils.getSparsity(r2, c2, nnz2);
-				boolean rsparse = MatrixBlock.evalSparseFormatInMemory(r2, c2, nnz2);
-				nflops = 1.0 * ((lsparse ? r1*c1*s1 : r1*c1) + (rsparse ? r2*c2*s2 : r2*c2));
-				break;
-			}
-			
-			case SpoofFused:  //spoof
-			{
-				nflops = 0; //FIXME: this method will be deprecated
-				break;
-			}
-
-			default:
-				throw new DMLRuntimeException("Lineage Cache: unsupported instruction: "+inst.getOpcode());
-		}
-		
-		if (DMLScript.STATISTICS) {
-			long t1 = System.nanoTime();
-			LineageCacheStatistics.incrementCostingTime(t1-t0);
-		}
-		return nflops / (2L * 1024 * 1024 * 1024);
-	}
 
 	// ---------------- I/O METHODS TO LOCAL FS -----------------
 	
-	private static void spillToLocalFS() {
-		long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
+	private static SpilledItem spillToLocalFS(Entry e) {
+		//NOTE: called with _evictLock held
 		if (outdir == null) {
 			outdir = LocalFileUtils.getUniqueWorkingDir(LocalFileUtils.CATEGORY_LINEAGE);
 			LocalFileUtils.createLocalFileIfNotExist(outdir);
 		}
-		String outfile = outdir+"/"+_cache.get(_end._key)._key.getId();
+		String outfile = outdir+"/"+e._key.getId();
+		SpilledItem item = new SpilledItem(e._key, outfile, e._compEst,
+			e._val, LineageCacheConfig.isSetSpillCompression());
+		//until written, restores use the pending in-memory value
+		_spillList.put(e._key, item);
+		return item;
+	}
+	
+	private static void writeToLocalFS(List<SpilledItem> items) {
+		//NOTE: called w/o _evictLock held
+		//surface failures of previous background writes
+		DMLRuntimeException err = _spillError;
+		if (err != null) {
+			_spillError = null;
+			throw err;
+		}
+		//write the entries in the background to remove disk writes from
+		//the critical path; if the bounded queue of pending writes is full,
+		//the calling thread blocks until a write completed (back pressure)
+		for (SpilledItem item : items) {
+			if (LineageCacheConfig.isSetSpillAsync())
+				item._write = getSpillPool().submit(() -> writeToLocalFSAsync(item));
+			else
+				writeToLocalFS(item);
+		}
+	}
+	
+	private static void writeToLocalFSAsync(SpilledItem item) {
 		try {
-			LocalFileUtils.writeMatrixBlockToLocal(outfile, _cache.get(_end._key).getValue());
-		} catch (IOException e) {
-			throw new DMLRuntimeException ("Write to " + outfile + " failed.", e);
+			writeToLocalFS(item);
+		}
+		catch(DMLRuntimeException ex) {
+			LOG.error("Failed to spill lineage cache entry.", ex);
+			_spillError = ex;
+			throw ex;
+		}
+	}
+	
+	private static void writeToLocalFS(SpilledItem item) {
+		long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
+		long bytes = 0;
+		synchronized( item ) {
+			if( item._restored ) //restored or discarded before write
+				return;
+		}
+		try {
+			bytes = LocalFileUtils.writeMatrixBlockToLocal(
+				item._outfile, item._pending, item._compressed);
+		} catch (IOException ex) {
+			//drop the entry (if not yet restored), which releases the
+			//pinned in-memory value, and cleanup the partially written file
+			_spillList.remove(item._key, item);
+			synchronized( item ) {
+				item._pending = null;
+			}
+			LocalFileUtils.deleteFileIfExists(item._outfile, true);
+			throw new DMLRuntimeException ("Write to " + item._outfile + " failed.", ex);
 		}
 		if (DMLScript.STATISTICS) {
 			long t1 = System.nanoTime();
 			LineageCacheStatistics.incrementFSWriteTime(t1-t0);
 			LineageCacheStatistics.incrementFSWrites();
+			LineageCacheStatistics.incrementFSWriteBytes(bytes);
+		}
+		//release the in-memory value, or cleanup if already restored
+		synchronized( item ) {
+			item._pending = null;
+			if( item._restored )
+				LocalFileUtils.deleteFileIfExists(item._outfile, true);
 		}
-
-		_spillList.put(_end._key, new SpilledItem(outfile, _end._compEst));
 	}
 	
-	private static MatrixBlock readFromLocalFS(LineageItem key) {
+	private static MatrixBlock readFromLocalFS(SpilledItem item) {
 		long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
 		MatrixBlock mb = null;
-		// Read from local FS
 		try {
-			mb = LocalFileUtils.readMatrixBlockFromLocal(_spillList.get(key)._outfile);
-		} catch (IOException e) {
-			throw new DMLRuntimeException ("Read from " + _spillList.get(key)._outfile + " failed.", e);
+			mb = LocalFileUtils.readMatrixBlockFromLocal(item._outfile, item._compressed);
+		} catch (IOException ex) {
+			throw new DMLRuntimeException ("Read from " + item._outfile + " failed.", ex);
 		}
-		// Restore to cache
-		LocalFileUtils.deleteFileIfExists(_spillList.get(key)._outfile, true);
-		putIntern(key, mb, _spillList.get(key)._compEst);
-		_spillList.remove(key);
 		if (DMLScript.STATISTICS) {
 			long t1 = System.nanoTime();
 			LineageCacheStatistics.incrementFSReadTime(t1-t0);
-			LineageCacheStatistics.incrementFSHits();
+			LineageCacheStatistics.incrementFSReadBytes(new File(item._outfile).length());
 		}
 		return mb;
 	}
-
-	//------------------ LINKEDLIST MAINTENANCE METHODS -------------------
 	
-	private static void delete(Entry entry) {
-		if (entry._prev != null)
-			entry._prev._next = entry._next;
-		else
-			_head = entry._next;
-		if (entry._next != null)
-			entry._next._prev = entry._prev;
-		else
-			_end = entry._prev;
+	private static void prefetch(LineageItem key) {
+		//asynchronously read a probed, spilled item in order to
+		//overlap the restore with the remaining work until get
+		SpilledItem item = _spillList.get(key);
+		if (item == null || !LineageCacheConfig.isSetSpillAsync())
+			return;
+		synchronized( item ) {
+			if( item._pending != null || item._prefetch != null || item._restored )
+				return;
+			item._prefetch = getSpillPool().submit(() -> readFromLocalFS(item));
+		}
+		if (DMLScript.STATISTICS)
+			LineageCacheStatistics.incrementFSPrefetches();
 	}
 	
-	private static void setHead(Entry entry) {
-		entry._next = _head;
-		entry._prev = null;
-		if (_head != null)
-			_head._prev = entry;
-		_head = entry;
-		if (_end == null)
-			_end = _head;
+	private static MatrixBlock restoreFromLocalFS(LineageItem key) {
+		if (!_spillList.containsKey(key))
+			return null;
+		// Create a placeholder to make concurrent readers of the
+		// same spilled item wait for this restore instead of re-reading
+		Entry e = new Entry(key, null, 0);
+		Entry oldItem = _cache.putIfAbsent(key, e);
+		if (oldItem != null) //concurrent restore or computation
+			return oldItem.getValue();
+		SpilledItem item = _spillList.remove(key);
+		if (item == null) { //not spilled (anymore)
+			removeEntry(key);
+			return null;
+		}
+		
+		MatrixBlock mb = null;
+		Future<MatrixBlock> prefetch = null;
+		synchronized( item ) {
+			item._restored = true;
+			mb = item._pending;
+			prefetch = item._prefetch;
+		}
+		try {
+			if (mb != null) {
+				// Pending write, restore from memory and skip or discard the write
+				if (item._write != null)
+					item._write.cancel(false);
+			}
+			else {
+				// Read from local FS, or wait for the prefetched value
+				mb = (prefetch != null) ? prefetch.get() : readFromLocalFS(item);
+				LocalFileUtils.deleteFileIfExists(item._outfile, true);
+			}
+		}
+		catch(Exception ex) {
+			removeEntry(key);
+			throw (ex instanceof DMLRuntimeException) ? (DMLRuntimeException) ex :
+				new DMLRuntimeException ("Read from " + item._outfile + " failed.", ex);
+		}
+		
+		// Restore to cache
+		setEntryValue(e, mb, item._compEst);
+		if (DMLScript.STATISTICS)
+			LineageCacheStatistics.incrementFSHits();
+		return mb;
+	}
+	
+	// ---------------- PERSISTENT STORE METHODS -----------------
+	
+	private static boolean restoreFromStore(LineageItem key) {
+		LineageCacheStore store = getStore();
+		long t0 = System.nanoTime();
+		MatrixBlock mb = store.read(key);
+		if (mb == null)
+			return false;
+		//note: if a concurrent thread added an entry in the meantime,
+		//the restored block is discarded but the probe is still valid;
+		//the original compute time is unknown, so we use the read time
+		long t1 = System.nanoTime();
+		putIntern(key, mb, (t1-t0)/1e9);
+		if (DMLScript.STATISTICS) {
+			LineageCacheStatistics.incrementFSReadTime(t1-t0);
+			LineageCacheStatistics.incrementStoreHits();
+		}
+		return _cache.containsKey(key);
+	}
+	
+	/**
+	 * Writes all cached intermediates with persistable lineage (i.e., computed
+	 * from read input files and literals) to the configured persistent store, 
+	 * which makes them available for reuse in subsequent runs.
+	 */
+	public static void persistToStore() {
+		if (ReuseCacheType.isNone() || !LineageCacheConfig.isSetStore())
+			return;
+		LineageCacheStore store = getStore();
+		boolean compress = LineageCacheConfig.isSetSpillCompression();
+		long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
+		for (Entry e : _cache.values()) {
+			MatrixBlock mb = e._val;
+			//skip placeholders and function/statement block outputs
+			if (mb == null || e._origItem != null)
+				continue;
+			if (store.write(e._key, mb, compress) && DMLScript.STATISTICS)
+				LineageCacheStatistics.incrementStoreWrites();
+		}
+		if (DMLScript.STATISTICS)
+			LineageCacheStatistics.incrementFSWriteTime(System.nanoTime()-t0);
+	}
+	
+	private static synchronized LineageCacheStore getStore() {
+		String dir = LineageCacheConfig.getStore();
+		long limit = LineageCacheConfig.getStoreSize();
+		if (_store == null || !_store.getDirectory().equals(dir) || _store.getLimit() != limit)
+			_store = new LineageCacheStore(dir, limit);
+		return _store;
 	}
 	
-	private static void setEnd2Head(Entry entry) {
-		delete(entry);
-		setHead(entry);
+	private static synchronized ExecutorService getSpillPool() {
+		if (_spillPool == null) {
+			BasicThreadFactory factory = new BasicThreadFactory.Builder()
+				.namingPattern("lineage-spill-thread-%d").daemon(true).build();
+			//block the submitting thread (never holding the eviction lock) if the queue is full
+			_spillPool = new ThreadPoolExecutor(SPILL_THREADS, SPILL_THREADS, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(SPILL_QUEUE_SIZE), factory, (r, executor) -> {
+					try {
+						executor.getQueue().put(r);
+					}
+					catch(InterruptedException ex) {
+						throw new RejectedExecutionException(ex);
+					}
+				});
+		}
+		return _spillPool;
 	}
 
-	private static void removeEntry(double space) {
+	//------------------ ENTRY MAINTENANCE METHODS -------------------
+	
+	private static void removeEntry(Entry e) {
+		//NOTE: called with _evictLock held
+		if (!_cache.remove(e._key, e))
+			return;
 		if (DMLScript.STATISTICS)
-			_removelist.add(_end._key);
-		_cache.remove(_end._key);
-		_cachesize -= space;
-		delete(_end);
+			_removelist.add(e._key);
+		updateSize(e._val, false);
 	}
 	
 	public static void removeEntry(LineageItem key) {
 		// Remove the entry for key
-		if (!_cache.containsKey(key))
+		Entry e = _cache.get(key);
+		if (e == null)
 			return;
-		delete(_cache.get(key));
-		_cache.remove(key);
+		synchronized( _evictLock ) {
+			if (!_cache.remove(key, e))
+				return;
+			if (!e.isNullVal())
+				updateSize(e._val, false);
+		}
+		e.invalidate(); //notify threads waiting on the placeholder
 	}
 	
 	private static class Entry {
 		private final LineageItem _key;
-		private MatrixBlock _val;
-		double _compEst;
-		private Entry _prev;
-		private Entry _next;
+		private volatile MatrixBlock _val;
+		private volatile boolean _removed;
+		private volatile long _timestamp;
+		private final long _created;
+		private final long _createdWait;
+		double _compEst; //measured compute time in sec
 		private LineageItem _origItem;
+		private double _evictCost; //snapshot of cost per byte, guarded by _evictLock
+		private long _evictTime;   //snapshot of timestamp, guarded by _evictLock
 		
 		public Entry(LineageItem key, MatrixBlock value, double computecost) {
 			_key = key;
 			_val = value;
 			_compEst = computecost;
 			_origItem = null;
+			_removed = false;
+			_created = System.nanoTime();
+			_createdWait = _waitTime.get()[0];
+			touch();
+		}
+		
+		public double getComputeTime() {
+			//time since creation of the placeholder in sec, excluding the time
+			//this thread waited for concurrently computed placeholders
+			long wait = _waitTime.get()[0] - _createdWait;
+			return Math.max(System.nanoTime() - _created - wait, 0) / 1e9;
+		}
+		
+		public double getCostPerByte() {
+			MatrixBlock val = _val;
+			return (val != null) ? _compEst / Math.max(val.getInMemorySize(), 1) : 0;
 		}
 
-		public synchronized MatrixBlock getValue() {
+		public void snapshotEvictionKeys() {
+			//NOTE: called with _evictLock held
+			_evictCost = getCostPerByte();
+			_evictTime = _timestamp;
+		}
+
+		public MatrixBlock getValue() {
+			MatrixBlock val = _val;
+			return (val != null || _removed) ? val : waitForValue();
+		}
+		
+		private synchronized MatrixBlock waitForValue() {
+			long t0 = System.nanoTime();
 			try {
 				//wait until other thread completes operation
 				//in order to avoid redundant computation
-				while( _val == null ) {
+				while( _val == null && !_removed ) {
 					wait();
 				}
-				return _val;
 			}
 			catch( InterruptedException ex ) {
 				throw new DMLRuntimeException(ex);
 			}
+			long delta = System.nanoTime() - t0;
+			_waitTime.get()[0] += delta;
+			if (DMLScript.STATISTICS)
+				LineageCacheStatistics.incrementWaitTime(delta);
+			return _val;
 		}
 		
 		public boolean isNullVal() {
 			return(_val == null);
 		}
 		
+		public void touch() {
+			_timestamp = System.nanoTime();
+		}
+		
 		public synchronized void setValue(MatrixBlock val, double compEst) {
 			_val = val;
 			_compEst = compEst;
+			touch();
+			notifyAll();
+		}
+		
+		public synchronized void invalidate() {
+			_removed = true;
 			notifyAll();
 		}
 	}
 	
 	private static class SpilledItem {
-		String _outfile;
-		double _compEst;
+		final LineageItem _key;
+		final String _outfile;
+		final double _compEst;
+		final boolean _compressed;
+		MatrixBlock _pending; //value until written, guarded by this
+		boolean _restored;    //restored to cache, guarded by this
+		volatile Future<?> _write;
+		volatile Future<MatrixBlock> _prefetch;
 
-		public SpilledItem(String outfile, double computecost) {
+		public SpilledItem(LineageItem key, String outfile, double computecost, MatrixBlock value, boolean compressed) {
+			this._key = key;
 			this._outfile = outfile;
 			this._compEst = computecost;
+			this._pending = value;
+			this._compressed = compressed;
 		}
 	}
 }
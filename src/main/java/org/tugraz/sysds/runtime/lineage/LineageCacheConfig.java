@@ -17,6 +17,9 @@
 package org.tugraz.sysds.runtime.lineage;
 
 import org.tugraz.sysds.api.DMLScript;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+
 import java.util.ArrayList;
 
 public class LineageCacheConfig {
@@ -38,6 +41,25 @@ public class LineageCacheConfig {
 		}
 	}
 	
+	/**
+	 * Eviction policies of the lineage cache: LRU evicts the least recently
+	 * used entries first, while COSTNSIZE evicts entries with the lowest
+	 * (measured or estimated) compute time per byte first, i.e., large
+	 * but cheap-to-recompute intermediates before small, expensive ones.
+	 */
+	public enum LineageCachePolicy {
+		LRU,
+		COSTNSIZE;
+		public static LineageCachePolicy parse(String policy) {
+			try {
+				return valueOf(policy.trim().toUpperCase());
+			}
+			catch(IllegalArgumentException ex) {
+				throw new DMLRuntimeException("Unsupported lineage cache policy: "+policy);
+			}
+		}
+	}
+	
 	public enum CachedItemHead {
 		TSMM,
 		ALL
@@ -52,11 +74,17 @@ public class LineageCacheConfig {
 	
 	public ArrayList<String> _MMult = new ArrayList<>();
 	public static boolean _allowSpill = true;
+	private static boolean _asyncSpill = true;
+	private static boolean _compressSpill = false;
 
 	private static ReuseCacheType _cacheType = null;
 	private static CachedItemHead _itemH = null;
 	private static CachedItemTail _itemT = null;
 	private static boolean _compilerAssistedRW = true;
+	private static LineageCachePolicy _cachePolicy = LineageCachePolicy.LRU;
+	private static double _cacheFrac = 0.05; // 5% of JVM mem
+	private static String _storeDir = null; // persistent store, disabled by default
+	private static long _storeSize = 4096L * 1024 * 1024; // 4GB max store size
 	static {
 		//setup static configuration parameters
 		setSpill(false); //disable spilling of cache entries to disk
@@ -100,6 +128,71 @@ public class LineageCacheConfig {
 		return _allowSpill;
 	}
 	
+	public static void setSpillAsync(boolean async) {
+		_asyncSpill = async;
+	}
+	
+	public static boolean isSetSpillAsync() {
+		return _asyncSpill;
+	}
+	
+	public static void setSpillCompression(boolean compress) {
+		_compressSpill = compress;
+	}
+	
+	public static boolean isSetSpillCompression() {
+		return _compressSpill;
+	}
+	
+	public static void setCachePolicy(LineageCachePolicy policy) {
+		_cachePolicy = policy;
+	}
+	
+	public static LineageCachePolicy getCachePolicy() {
+		return _cachePolicy;
+	}
+	
+	public static void setCacheBudget(double fraction) {
+		if( fraction <= 0 || fraction > 1 )
+			throw new DMLRuntimeException("Invalid lineage cache budget "
+				+ "(fraction of max heap, in (0,1]): "+fraction);
+		_cacheFrac = fraction;
+	}
+	
+	public static double getCacheBudget() {
+		return _cacheFrac;
+	}
+	
+	public static long getCacheLimit() {
+		//limit in bytes
+		return (long)(_cacheFrac * InfrastructureAnalyzer.getLocalMaxMemory());
+	}
+	
+	public static void setStore(String dir) {
+		//null, empty, or none disable the persistent store
+		_storeDir = (dir == null || dir.trim().isEmpty() 
+			|| dir.trim().equalsIgnoreCase("none")) ? null : dir.trim();
+	}
+	
+	public static String getStore() {
+		return _storeDir;
+	}
+	
+	public static void setStoreSize(long mb) {
+		if( mb <= 0 )
+			throw new DMLRuntimeException("Lineage cache store size must be positive: "+mb+" MB.");
+		_storeSize = mb * 1024 * 1024;
+	}
+	
+	public static long getStoreSize() {
+		//limit in bytes
+		return _storeSize;
+	}
+	
+	public static boolean isSetStore() {
+		return _storeDir != null;
+	}
+	
 	public static ReuseCacheType getCacheType() {
 		return _cacheType;
 	}
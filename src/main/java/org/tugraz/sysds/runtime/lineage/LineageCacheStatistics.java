@@ -20,7 +20,8 @@ import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This singleton provides basic lineage caching statistics in CP.
- * Hit statistics for caching (mem, fs, total)
+ * Hit statistics for caching (mem, fs, total), misses, and
+ * waits on placeholders of concurrently computed intermediates
  */
 public class LineageCacheStatistics {
 	private static final LongAdder _numHitsMem      = new LongAdder();
@@ -29,12 +30,20 @@ public class LineageCacheStatistics {
 	private static final LongAdder _numHitsInst     = new LongAdder();
 	private static final LongAdder _numHitsSB       = new LongAdder();
 	private static final LongAdder _numHitsFunc     = new LongAdder();
+	private static final LongAdder _numMissesInst   = new LongAdder();
+	private static final LongAdder _numWaits        = new LongAdder();
 	private static final LongAdder _numWritesMem    = new LongAdder();
 	private static final LongAdder _numWritesFS     = new LongAdder();
+	private static final LongAdder _numPrefetchFS   = new LongAdder();
+	private static final LongAdder _numHitsStore    = new LongAdder();
+	private static final LongAdder _numWritesStore  = new LongAdder();
+	private static final LongAdder _numBytesFSRead  = new LongAdder();
+	private static final LongAdder _numBytesFSWrite = new LongAdder();
 	private static final LongAdder _numRewrites     = new LongAdder();
 	private static final LongAdder _ctimeFSRead     = new LongAdder(); //in nano sec
 	private static final LongAdder _ctimeFSWrite    = new LongAdder(); //in nano sec
 	private static final LongAdder _ctimeCosting    = new LongAdder(); //in nano sec
+	private static final LongAdder _ctimeWait       = new LongAdder(); //in nano sec
 	private static final LongAdder _ctimeRewrite    = new LongAdder(); //in nano sec
 	private static final LongAdder _ctimeRewriteEx  = new LongAdder(); //in nano sec
 
@@ -45,12 +54,20 @@ public class LineageCacheStatistics {
 		_numHitsInst.reset();
 		_numHitsSB.reset();
 		_numHitsFunc.reset();
+		_numMissesInst.reset();
+		_numWaits.reset();
 		_numWritesMem.reset();
 		_numWritesFS.reset();
+		_numPrefetchFS.reset();
+		_numHitsStore.reset();
+		_numWritesStore.reset();
+		_numBytesFSRead.reset();
+		_numBytesFSWrite.reset();
 		_numRewrites.reset();
 		_ctimeFSRead.reset();
 		_ctimeFSWrite.reset();
 		_ctimeCosting.reset();
+		_ctimeWait.reset();
 		_ctimeRewrite.reset();
 		_ctimeRewriteEx.reset();
 	}
@@ -85,6 +102,17 @@ public class LineageCacheStatistics {
 		_numHitsFunc.increment();
 	}
 
+	public static void incrementInstMisses() {
+		// Number of times single instruction or function results are not found in cache.
+		_numMissesInst.increment();
+	}
+
+	public static void incrementWaitTime(long delta) {
+		// Number of times and total time spent waiting for concurrent computations of placeholders.
+		_numWaits.increment();
+		_ctimeWait.add(delta);
+	}
+
 	public static void incrementMemWrites() {
 		// Number of times written in cache.
 		_numWritesMem.increment();
@@ -100,6 +128,35 @@ public class LineageCacheStatistics {
 		_numWritesFS.increment();
 	}
 
+	public static void incrementFSPrefetches() {
+		// Number of asynchronous reads of spilled entries on probe.
+		_numPrefetchFS.increment();
+	}
+
+	public static void incrementStoreHits() {
+		// Number of times restored from the persistent store.
+		_numHitsStore.increment();
+	}
+
+	public static long getStoreHits() {
+		return _numHitsStore.longValue();
+	}
+
+	public static void incrementStoreWrites() {
+		// Number of times written to the persistent store.
+		_numWritesStore.increment();
+	}
+
+	public static void incrementFSReadBytes(long delta) {
+		// Total number of bytes read from local FS.
+		_numBytesFSRead.add(delta);
+	}
+
+	public static void incrementFSWriteBytes(long delta) {
+		// Total number of bytes written to local FS.
+		_numBytesFSWrite.add(delta);
+	}
+
 	public static void incrementFSReadTime(long delta) {
 		// Total time spent on reading from FS.
 		_ctimeFSRead.add(delta);
@@ -145,6 +202,14 @@ public class LineageCacheStatistics {
 		return sb.toString();
 	}
 
+	public static String displayMisses() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(_numMissesInst.longValue());
+		sb.append("/");
+		sb.append(_numWaits.longValue());
+		return sb.toString();
+	}
+
 	public static String displayWtrites() {
 		StringBuilder sb = new StringBuilder();
 		sb.append(_numWritesMem.longValue());
@@ -153,6 +218,24 @@ public class LineageCacheStatistics {
 		return sb.toString();
 	}
 
+	public static String displayFSBytes() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(_numBytesFSRead.longValue());
+		sb.append("/");
+		sb.append(_numBytesFSWrite.longValue());
+		sb.append("/");
+		sb.append(_numPrefetchFS.longValue());
+		return sb.toString();
+	}
+
+	public static String displayStore() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(_numHitsStore.longValue());
+		sb.append("/");
+		sb.append(_numWritesStore.longValue());
+		return sb.toString();
+	}
+
 	public static String displayRewrites() {
 		StringBuilder sb = new StringBuilder();
 		sb.append(_numRewrites.longValue());
@@ -173,6 +256,12 @@ public class LineageCacheStatistics {
 		return sb.toString();
 	}
 
+	public static String displayWaitTime() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%.3f", ((double)_ctimeWait.longValue())/1000000000)); //in sec
+		return sb.toString();
+	}
+
 	public static String displayRewriteTime() {
 		StringBuilder sb = new StringBuilder();
 		sb.append(String.format("%.3f", ((double)_ctimeRewrite.longValue())/1000000000)); //in sec
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.runtime.lineage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.tugraz.sysds.lops.Lop;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.instructions.Instruction;
+import org.tugraz.sysds.runtime.instructions.InstructionUtils;
+import org.tugraz.sysds.runtime.io.IOUtilFunctions;
+import org.tugraz.sysds.runtime.lineage.LineageItem.LineageItemType;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.LocalFileUtils;
+
+/**
+ * Persistent, on-disk store of lineage cache entries across JVM runs.
+ *
+ * Entries are keyed by a run-independent digest of their lineage DAG, which
+ * excludes item IDs and variable names but includes fingerprints (length and
+ * modification time) of all read input files. Entries whose lineage depends on
+ * non-persistent inputs (e.g., in-memory inputs bound via JMLC) are never stored,
+ * because their lineage does not identify the data across runs. The size of the
+ * store is bounded, and the least recently used entries are evicted on overflow.
+ */
+public class LineageCacheStore
+{
+	private static final Log LOG = LogFactory.getLog(LineageCacheStore.class.getName());
+	private static final String SUFFIX = ".bin";
+	private static final String SUFFIX_COMPRESSED = ".cbin";
+
+	private static final byte[] NOT_PERSISTABLE = new byte[0];
+
+	private final String _dir;
+	private final long _limit;
+	//in-memory index of stored entries (file name -> size in bytes)
+	private final Map<String, Long> _index = new ConcurrentHashMap<>();
+	private final AtomicLong _size = new AtomicLong(0);
+
+	public LineageCacheStore(String dir, long limit) {
+		_dir = dir;
+		_limit = limit;
+		LocalFileUtils.createLocalFileIfNotExist(dir);
+
+		//load the keys of all existing entries
+		File[] files = new File(dir).listFiles();
+		if( files != null )
+			for( File f : files ) {
+				String fname = f.getName();
+				if( fname.endsWith(SUFFIX) || fname.endsWith(SUFFIX_COMPRESSED) ) {
+					_index.put(fname, f.length());
+					_size.addAndGet(f.length());
+				}
+			}
+		//shrink stores of previous runs with larger limits
+		synchronized( this ) {
+			makeSpace(0);
+		}
+		if( LOG.isDebugEnabled() )
+			LOG.debug("Opened lineage cache store "+dir+" with "+_index.size()+" entries.");
+	}
+
+	public String getDirectory() {
+		return _dir;
+	}
+
+	public long getLimit() {
+		return _limit;
+	}
+
+	public int getNumEntries() {
+		return _index.size();
+	}
+
+	public long getSize() {
+		return _size.get();
+	}
+
+	/**
+	 * Reads the entry of the given lineage item if available.
+	 *
+	 * @param key lineage item
+	 * @return matrix block, or null if not contained in the store
+	 */
+	public MatrixBlock read(LineageItem key) {
+		if( _index.isEmpty() )
+			return null;
+		String digest = getDigest(key);
+		if( digest == null )
+			return null;
+		boolean compressed = _index.containsKey(digest+SUFFIX_COMPRESSED);
+		if( !compressed && !_index.containsKey(digest+SUFFIX) )
+			return null;
+
+		String fname = _dir + "/" + digest + (compressed ? SUFFIX_COMPRESSED : SUFFIX);
+		try {
+			MatrixBlock ret = LocalFileUtils.readMatrixBlockFromLocal(fname, compressed);
+			//touch the entry for lru eviction
+			new File(fname).setLastModified(System.currentTimeMillis());
+			return ret;
+		}
+		catch(IOException ex) {
+			//corrupted or concurrently deleted entry, treat as miss
+			LOG.warn("Failed to read lineage cache store entry "+fname+".", ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the given entry if it is persistable, not yet contained, and
+	 * fits into the store. Least recently used entries are evicted as needed.
+	 *
+	 * @param key lineage item
+	 * @param value matrix block
+	 * @param compress if true, write the block compressed
+	 * @return true if the entry has been written
+	 */
+	public boolean write(LineageItem key, MatrixBlock value, boolean compress) {
+		String digest = getDigest(key);
+		if( digest == null || _index.containsKey(digest+SUFFIX)
+			|| _index.containsKey(digest+SUFFIX_COMPRESSED) 
+			|| (!compress && value.getExactSizeOnDisk() > _limit) )
+			return false;
+
+		//write to temporary file and rename, to avoid partially
+		//written entries in case of failures or concurrent jobs
+		String fname = digest + (compress ? SUFFIX_COMPRESSED : SUFFIX);
+		File tmp = new File(_dir, fname + "." + Thread.currentThread().getId() + ".tmp");
+		try {
+			LocalFileUtils.writeMatrixBlockToLocal(tmp.getPath(), value, compress);
+			long len = tmp.length();
+			synchronized( this ) {
+				if( len > _limit ) {
+					LocalFileUtils.deleteFileIfExists(tmp.getPath(), true);
+					return false;
+				}
+				makeSpace(len);
+				if( !tmp.renameTo(new File(_dir, fname)) )
+					throw new IOException("Failed to rename "+tmp.getPath()+".");
+				_index.put(fname, len);
+				_size.addAndGet(len);
+			}
+			return true;
+		}
+		catch(IOException ex) {
+			LocalFileUtils.deleteFileIfExists(tmp.getPath(), true);
+			throw new DMLRuntimeException("Failed to write lineage cache store entry "+fname+".", ex);
+		}
+	}
+
+	private void makeSpace(long len) {
+		if( _size.get() + len <= _limit )
+			return;
+		//evict least recently used (i.e., written or read) entries
+		List<File> files = new ArrayList<>();
+		for( String fname : _index.keySet() )
+			files.add(new File(_dir, fname));
+		files.sort(Comparator.comparingLong(File::lastModified));
+		for( File f : files ) {
+			if( _size.get() + len <= _limit )
+				break;
+			Long flen = _index.remove(f.getName());
+			if( flen != null ) {
+				_size.addAndGet(-flen);
+				LocalFileUtils.deleteFileIfExists(f.getPath(), true);
+			}
+		}
+		if( LOG.isDebugEnabled() )
+			LOG.debug("Evicted lineage cache store entries, remaining "+_index.size()+" entries.");
+	}
+
+	/**
+	 * Computes a run-independent digest of the given lineage DAG. The digests
+	 * are memoized at the lineage items, which avoids repeated hashing of shared
+	 * sub-DAGs and repeated file system lookups of read inputs.
+	 *
+	 * @param root lineage item
+	 * @return hex string of the digest, or null if the DAG is not persistable
+	 */
+	public static String getDigest(LineageItem root) {
+		byte[] digest = rGetDigest(root);
+		if( digest == NOT_PERSISTABLE )
+			return null;
+		StringBuilder sb = new StringBuilder(2*digest.length);
+		for( byte b : digest )
+			sb.append(String.format("%02x", b));
+		return sb.toString();
+	}
+
+	private static byte[] rGetDigest(LineageItem li) {
+		byte[] ret = li.getStoreDigest();
+		if( ret != null )
+			return ret;
+		String data = null;
+		switch( li.getType() ) {
+			case Literal:
+				//only true literals are persistable, but not
+				//variables without lineage trace (e.g., jmlc inputs)
+				data = li.getData().endsWith(Instruction.VALUETYPE_PREFIX + "true") ?
+					li.getData() : null;
+				break;
+			case Creation:
+				data = removeOperand(li.getData(), li.getName());
+				if( isFileRead(li) ) {
+					String fp = getFileFingerprint(li);
+					data = (fp != null) ? data + fp : null;
+				}
+				break;
+			case Instruction:
+				data = li.getData();
+				break;
+			case Dedup:
+			default:
+				data = null; //not supported
+		}
+
+		if( data != null ) {
+			MessageDigest md = createMessageDigest();
+			md.update(li.getOpcode().getBytes(StandardCharsets.UTF_8));
+			md.update((byte)0);
+			md.update(data.getBytes(StandardCharsets.UTF_8));
+			if( !li.isLeaf() ) {
+				for( LineageItem in : li.getInputs() ) {
+					byte[] tmp = rGetDigest(in);
+					if( tmp == NOT_PERSISTABLE ) {
+						md = null;
+						break;
+					}
+					md.update(tmp);
+				}
+			}
+			ret = (md != null) ? md.digest() : null;
+		}
+
+		ret = (ret != null) ? ret : NOT_PERSISTABLE;
+		li.setStoreDigest(ret);
+		return ret;
+	}
+
+	private static String removeOperand(String inst, String varname) {
+		//drop the variable name of whole operands (w/o value and data type),
+		//but keep all other operands such as file names that contain it
+		String[] parts = inst.split(Lop.OPERAND_DELIMITOR, -1);
+		for( int i=0; i<parts.length; i++ ) {
+			String name = parts[i].split(Instruction.VALUETYPE_PREFIX, -1)[0];
+			if( name.equals(varname) )
+				parts[i] = parts[i].substring(name.length());
+		}
+		return String.join(Lop.OPERAND_DELIMITOR, parts);
+	}
+
+	private static boolean isFileRead(LineageItem li) {
+		return li.getType() == LineageItemType.Creation
+			&& (li.getOpcode().equalsIgnoreCase("createvar")
+			|| li.getOpcode().equalsIgnoreCase("read"));
+	}
+
+	private static String getFileFingerprint(LineageItem li) {
+		try {
+			//parts: opcode, variable name, file name, ...
+			String[] parts = InstructionUtils.getInstructionParts(li.getData());
+			Path path = new Path(parts[2]);
+			FileSystem fs = IOUtilFunctions.getFileSystem(path);
+			if( !fs.exists(path) )
+				return null;
+			long len = 0, mtime = 0;
+			FileStatus[] stats = fs.getFileStatus(path).isDirectory() ?
+				fs.listStatus(path) : new FileStatus[]{fs.getFileStatus(path)};
+			for( FileStatus st : stats ) {
+				len += st.getLen();
+				mtime = Math.max(mtime, st.getModificationTime());
+			}
+			return Lop.OPERAND_DELIMITOR + len + Lop.OPERAND_DELIMITOR + mtime;
+		}
+		catch(Exception ex) {
+			//non-persistable input (e.g., invalid file name)
+			return null;
+		}
+	}
+
+	private static MessageDigest createMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch(NoSuchAlgorithmException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+}
@@ -29,6 +29,9 @@ public class LineageItem {
 	private final String _data;
 	private final LineageItem[] _inputs;
 	private int _hash = 0;
+	// run-independent digest of the lineage DAG, computed on demand
+	// by the persistent store (empty if the DAG is not persistable)
+	private byte[] _storeDigest = null;
 	// init visited to true to ensure visited items are
 	// not hidden when used as inputs to new items
 	private boolean _visited = true;
@@ -112,6 +115,14 @@ public class LineageItem {
 		return _opcode;
 	}
 	
+	byte[] getStoreDigest() {
+		return _storeDigest;
+	}
+	
+	void setStoreDigest(byte[] digest) {
+		_storeDigest = digest;
+	}
+	
 	public LineageItemType getType() {
 		if (_opcode.equals(dedupItemOpcode))
 			return LineageItemType.Dedup;
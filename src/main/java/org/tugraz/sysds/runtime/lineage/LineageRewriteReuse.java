@@ -92,11 +92,12 @@ public class LineageRewriteReuse
 			return false;
 		
 		//execute instructions & write the o/p to symbol table
+		long t0 = System.nanoTime();
 		executeInst(newInst, lrwec);
 		ec.setVariable(((ComputationCPInstruction)curr).output.getName(), lrwec.getVariable(LR_VAR));
 
-		//put the result into the cache
-		LineageCache.put(curr, ec);
+		//put the result into the cache, w/ the compute time of the compensation plan
+		LineageCache.put(curr, ec, (System.nanoTime() - t0) / 1e9);
 		DMLScript.EXPLAIN = et;
 		return true;
 	}
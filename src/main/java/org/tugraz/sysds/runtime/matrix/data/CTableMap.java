@@ -35,7 +35,7 @@ import org.tugraz.sysds.runtime.util.LongLongDoubleHashMap.EntryType;
  */
 public class CTableMap 
 {
-	private final LongLongDoubleHashMap _map;
+	private LongLongDoubleHashMap _map;
 	private long _maxRow = -1;
 	private long _maxCol = -1;
 	
@@ -53,6 +53,10 @@ public class CTableMap
 		return _map.size();
 	}
 	
+	public EntryType getEntryType() {
+		return _map.getEntryType();
+	}
+	
 	public Iterator<ADoubleEntry> getIterator() {
 		return _map.getIterator();
 	}
@@ -75,6 +79,27 @@ public class CTableMap
 		_maxCol = Math.max(_maxCol, col);
 	}
 
+	/**
+	 * Merges the given map into this map, e.g., for aggregating
+	 * thread-local maps of multi-threaded ctable operations.
+	 * The given map must not be used after the merge.
+	 * 
+	 * @param that ctable map
+	 */
+	public void merge(CTableMap that) {
+		//take over the larger map, and add the smaller map
+		if( that._map.size() > _map.size() && getEntryType() == that.getEntryType() ) {
+			LongLongDoubleHashMap tmp = _map;
+			_map = that._map;
+			that._map = tmp;
+		}
+		_map.addAll(that._map);
+		
+		//maintain internal summaries 
+		_maxRow = Math.max(_maxRow, that._maxRow);
+		_maxCol = Math.max(_maxCol, that._maxCol);
+	}
+
 	public MatrixBlock toMatrixBlock(int rlen, int clen)
 	{
 		//allocate new matrix block
@@ -19,7 +19,11 @@
 
 package org.tugraz.sysds.runtime.matrix.data;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.tugraz.sysds.runtime.DMLRuntimeException;
 import org.tugraz.sysds.runtime.data.DenseBlock;
@@ -48,6 +52,7 @@ import org.tugraz.sysds.runtime.functionobjects.ValueFunction;
 import org.tugraz.sysds.runtime.functionobjects.Builtin.BuiltinCode;
 import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
 import org.tugraz.sysds.runtime.util.DataConverter;
 import org.tugraz.sysds.runtime.util.SortUtils;
 import org.tugraz.sysds.runtime.util.UtilFunctions;
@@ -56,11 +61,13 @@ import org.tugraz.sysds.runtime.util.UtilFunctions;
  * Library for binary cellwise operations (incl arithmetic, relational, etc). Currently,
  * we don't have dedicated support for the individual operations but for categories of
  * operations and combinations of dense/sparse and MM/MV. Safe/unsafe refer to sparse-safe
- * and sparse-unsafe operations.
+ * and sparse-unsafe operations. The core dense and sparse kernels are partitioned
+ * over rows and executed multi-threaded for sufficiently large inputs.
  * 
  */
 public class LibMatrixBincell 
 {
+	private static final long PAR_NUMCELL_THRESHOLD = 1024*1024; //Min 1M elements
 
 	public enum BinaryAccessType {
 		MATRIX_MATRIX,
@@ -86,6 +93,18 @@ public class LibMatrixBincell
 	 * @param op scalar operator
 	 */
 	public static void bincellOp(MatrixBlock m1, MatrixBlock ret, ScalarOperator op) {
+		bincellOp(m1, ret, op, 1);
+	}
+	
+	/**
+	 * matrix-scalar, scalar-matrix binary operations.
+	 * 
+	 * @param m1 input matrix
+	 * @param ret result matrix
+	 * @param op scalar operator
+	 * @param k degree of parallelism
+	 */
+	public static void bincellOp(MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int k) {
 		//check internal assumptions 
 		if(   (op.sparseSafe && m1.isInSparseFormat()!=ret.isInSparseFormat())
 			||(!op.sparseSafe && ret.isInSparseFormat()) ) {
@@ -94,9 +113,9 @@ public class LibMatrixBincell
 		
 		//execute binary cell operations
 		if(op.sparseSafe)
-			safeBinaryScalar(m1, ret, op);
+			safeBinaryScalar(m1, ret, op, k);
 		else
-			unsafeBinaryScalar(m1, ret, op);
+			unsafeBinaryScalar(m1, ret, op, k);
 		
 		//ensure empty results sparse representation 
 		//(no additional memory requirements)
@@ -113,11 +132,24 @@ public class LibMatrixBincell
 	 * @param op binary operator
 	 */
 	public static void bincellOp(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
+		bincellOp(m1, m2, ret, op, 1);
+	}
+	
+	/**
+	 * matrix-matrix binary operations, MM, MV
+	 * 
+	 * @param m1 input matrix 1
+	 * @param m2 input matrix 2
+	 * @param ret result matrix
+	 * @param op binary operator
+	 * @param k degree of parallelism
+	 */
+	public static void bincellOp(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int k) {
 		//execute binary cell operations
 		if(op.sparseSafe || isSparseSafeDivide(op, m2))
-			safeBinary(m1, m2, ret, op);
+			safeBinary(m1, m2, ret, op, k);
 		else
-			unsafeBinary(m1, m2, ret, op);
+			unsafeBinary(m1, m2, ret, op, k);
 		
 		//ensure empty results sparse representation 
 		//(no additional memory requirements)
@@ -193,7 +225,7 @@ public class LibMatrixBincell
 	// private sparse-safe/sparse-unsafe implementations
 	///////////////////////////////////
 
-	private static void safeBinary(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
+	private static void safeBinary(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int k) {
 		boolean skipEmpty = (op.fn instanceof Multiply 
 			|| isSparseSafeDivide(op, m2) );
 		boolean copyLeftRightEmpty = (op.fn instanceof Plus || op.fn instanceof Minus 
@@ -213,9 +245,9 @@ public class LibMatrixBincell
 		{
 			//note: m2 vector and hence always dense
 			if( !m1.sparse && !m2.sparse && !ret.sparse ) //DENSE all
-				safeBinaryMVDense(m1, m2, ret, op);
+				safeBinaryMVDense(m1, m2, ret, op, k);
 			else if( m1.sparse ) //SPARSE m1
-				safeBinaryMVSparse(m1, m2, ret, op);
+				safeBinaryMVSparse(m1, m2, ret, op, k);
 			else if( !m1.sparse && !m2.sparse && ret.sparse && op.fn instanceof Multiply
 				&& atype == BinaryAccessType.MATRIX_COL_VECTOR
 				&& (long)m1.rlen * m2.clen < Integer.MAX_VALUE )
@@ -238,17 +270,17 @@ public class LibMatrixBincell
 				ret.copyShallow(m2);
 			}
 			else if(m1.sparse && m2.sparse) {
-				safeBinaryMMSparseSparse(m1, m2, ret, op);
+				safeBinaryMMSparseSparse(m1, m2, ret, op, k);
 			}
 			else if( !ret.sparse && (m1.sparse || m2.sparse) &&
 				(op.fn instanceof Plus || op.fn instanceof Minus ||
 				op.fn instanceof PlusMultiply || op.fn instanceof MinusMultiply ||
 				(op.fn instanceof Multiply && !m2.sparse ))) {
-				safeBinaryMMSparseDenseDense(m1, m2, ret, op);
+				safeBinaryMMSparseDenseDense(m1, m2, ret, op, k);
 			}
 			else if( !ret.sparse && !m1.sparse && !m2.sparse 
 				&& m1.denseBlock!=null && m2.denseBlock!=null ) {
-				safeBinaryMMDenseDenseDense(m1, m2, ret, op);
+				safeBinaryMMDenseDenseDense(m1, m2, ret, op, k);
 			}
 			else if( skipEmpty && (m1.sparse || m2.sparse) ) {
 				safeBinaryMMSparseDenseSkip(m1, m2, ret, op);
@@ -259,117 +291,105 @@ public class LibMatrixBincell
 		}
 	}
 
-	private static void safeBinaryMVDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
+	private static void safeBinaryMVDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int k) {
+		//early abort on skip and empy
+		if( op.fn instanceof Multiply && (m1.isEmptyBlock(false) || m2.isEmptyBlock(false) ) )
+			return; // skip entire empty block
+		
+		ret.allocateDenseBlock();
+		ret.nonZeros = executeRowRanges((rl, ru) -> safeBinaryMVDense(m1, m2, ret, op, rl, ru),
+			m1.rlen, (long)m1.rlen*m1.clen, k);
+	}
+	
+	private static long safeBinaryMVDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) {
 		boolean isMultiply = (op.fn instanceof Multiply);
 		boolean skipEmpty = (isMultiply);
 		BinaryAccessType atype = getBinaryAccessType(m1, m2);
-		int rlen = m1.rlen;
 		int clen = m1.clen;
 		
-		//early abort on skip and empy
-		if( skipEmpty && (m1.isEmptyBlock(false) || m2.isEmptyBlock(false) ) )
-			return; // skip entire empty block
-		
-		ret.allocateDenseBlock();
 		DenseBlock da = m1.getDenseBlock();
 		DenseBlock dc = ret.getDenseBlock();
+		double[] b = m2.getDenseBlockValues(); // always single block
 		long nnz = 0;
 		
 		if( atype == BinaryAccessType.MATRIX_COL_VECTOR )
 		{
-			double[] b = m2.getDenseBlockValues(); // always single block
-			
-			for( int bi=0; bi<dc.numBlocks(); bi++ ) {
-				double[] a = da.valuesAt(bi);
-				double[] c = dc.valuesAt(bi);
-				int len = dc.blockSize(bi);
-				int off = bi * dc.blockSize();
-				for( int i=0, ix=0; i<len; i++, ix+=clen )
-				{
-					//replicate vector value
-					double v2 = (b==null) ? 0 : b[off+i];
-					if( skipEmpty && v2 == 0 ) //skip empty rows
-						continue;
-						
-					if( isMultiply && v2 == 1 ) { //ROW COPY
-						//a guaranteed to be non-null (see early abort)
-						System.arraycopy(a, ix, c, ix, clen);
-						nnz += m1.recomputeNonZeros(i, i, 0, clen-1);
-					}
-					else { //GENERAL CASE
-						if( a != null )
-							for( int j=0; j<clen; j++ ) {
-								c[ix+j] = op.fn.execute( a[ix+j], v2 );	
-								nnz += (c[ix+j] != 0) ? 1 : 0;
-							}
-						else {
-							double val = op.fn.execute( 0, v2 );
-							Arrays.fill(c, ix, ix+clen, val);
-							nnz += (val != 0) ? clen : 0;
-						}
+			for( int i=rl; i<ru; i++ )
+			{
+				//replicate vector value
+				double v2 = (b==null) ? 0 : b[i];
+				if( skipEmpty && v2 == 0 ) //skip empty rows
+					continue;
+				
+				double[] c = dc.values(i);
+				int ix = dc.pos(i);
+				if( isMultiply && v2 == 1 ) { //ROW COPY
+					//a guaranteed to be non-null (see early abort)
+					System.arraycopy(da.values(i), ix, c, ix, clen);
+					nnz += UtilFunctions.computeNnz(c, ix, clen);
+				}
+				else if( da != null ) { //GENERAL CASE
+					double[] a = da.values(i);
+					for( int j=ix; j<ix+clen; j++ ) {
+						c[j] = op.fn.execute( a[j], v2 );
+						nnz += (c[j] != 0) ? 1 : 0;
 					}
 				}
+				else {
+					double val = op.fn.execute( 0, v2 );
+					Arrays.fill(c, ix, ix+clen, val);
+					nnz += (val != 0) ? clen : 0;
+				}
 			}
 		}
 		else if( atype == BinaryAccessType.MATRIX_ROW_VECTOR )
 		{
-			double[] b = m2.getDenseBlockValues(); // always single block
-			
-			if( da==null && b==null ) { //both empty
-				double v = op.fn.execute( 0, 0 );
-				dc.set(v);
-				nnz += (v != 0) ? (long)rlen*clen : 0;
-			}
-			else if( da==null ) //left empty
+			for( int i=rl; i<ru; i++ )
 			{
-				//compute first row
-				double[] c = dc.valuesAt(0);
+				double[] a = (da != null) ? da.values(i) : null;
+				double[] c = dc.values(i);
+				int ix = dc.pos(i);
 				for( int j=0; j<clen; j++ ) {
-					c[j] = op.fn.execute( 0, b[j] );
-					nnz += (c[j] != 0) ? rlen : 0;
-				}
-				//copy first to all other rows
-				for( int i=1; i<rlen; i++ )
-					dc.set(i, c);
-			}
-			else //default case (incl right empty) 
-			{
-				for( int bi=0; bi<dc.numBlocks(); bi++ ) {
-					double[] a = da.valuesAt(bi);
-					double[] c = dc.valuesAt(bi);
-					int len = dc.blockSize(bi);
-					for( int i=0, ix=0; i<len; i++, ix+=clen )
-						for( int j=0; j<clen; j++ ) {
-							c[ix+j] = op.fn.execute( a[ix+j], ((b!=null) ? b[j] : 0) );	
-							nnz += (c[ix+j] != 0) ? 1 : 0;
-						}
+					c[ix+j] = op.fn.execute( ((a!=null) ? a[ix+j] : 0), ((b!=null) ? b[j] : 0) );
+					nnz += (c[ix+j] != 0) ? 1 : 0;
 				}
 			}
 		}
 		
-		ret.nonZeros = nnz;
+		return nnz;
 	}
 
-	private static void safeBinaryMVSparse(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
-		boolean isMultiply = (op.fn instanceof Multiply);
-		boolean skipEmpty = (isMultiply);
-		
-		int rlen = m1.rlen;
-		int clen = m1.clen;
-		SparseBlock a = m1.sparseBlock;
-		BinaryAccessType atype = getBinaryAccessType(m1, m2);
-		
+	private static void safeBinaryMVSparse(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int k) {
 		//early abort on skip and empty
-		if( skipEmpty && (m1.isEmptyBlock(false) || m2.isEmptyBlock(false) ) )
+		if( op.fn instanceof Multiply && (m1.isEmptyBlock(false) || m2.isEmptyBlock(false) ) )
 			return; // skip entire empty block
 		
 		//allocate once in order to prevent repeated reallocation
 		if( ret.sparse )
 			ret.allocateSparseRowsBlock();
+		else
+			ret.allocateDenseBlock();
+		
+		//multi-threading only for thread-safe row appends
+		int k2 = (!ret.sparse || ret.sparseBlock instanceof SparseBlockMCSR) ? k : 1;
+		ret.nonZeros = executeRowRanges((rl, ru) -> safeBinaryMVSparse(m1, m2, ret, op, rl, ru),
+			m1.rlen, ret.sparse ? m1.nonZeros : (long)m1.rlen*m1.clen, k2);
+	}
+	
+	private static long safeBinaryMVSparse(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) {
+		boolean isMultiply = (op.fn instanceof Multiply);
+		boolean skipEmpty = (isMultiply);
+		
+		int clen = m1.clen;
+		SparseBlock a = m1.sparseBlock;
+		SparseBlock c = ret.sparse ? ret.sparseBlock : null;
+		DenseBlock dc = ret.sparse ? null : ret.getDenseBlock();
+		BinaryAccessType atype = getBinaryAccessType(m1, m2);
+		long nnz = 0;
 		
 		if( atype == BinaryAccessType.MATRIX_COL_VECTOR )
 		{
-			for( int i=0; i<rlen; i++ )
+			for( int i=rl; i<ru; i++ )
 			{
 				double v2 = m2.quickGetValue(i, 0);
 				
@@ -381,8 +401,16 @@ public class LibMatrixBincell
 					
 				if( isMultiply && v2==1 ) //ROW COPY
 				{
-					if( a != null && !a.isEmpty(i)  )
-						ret.appendRow(i, a.get(i));
+					if( a != null && !a.isEmpty(i)  ) {
+						int apos = a.pos(i);
+						int alen = a.size(i);
+						int[] aix = a.indexes(i);
+						double[] avals = a.values(i);
+						if( c != null )
+							c.allocate(i, alen);
+						for( int j=apos; j<apos+alen; j++ )
+							nnz += appendValue(c, dc, i, aix[j], avals[j]);
+					}
 				}
 				else //GENERAL CASE
 				{
@@ -396,28 +424,23 @@ public class LibMatrixBincell
 						for( int j=apos; j<apos+alen; j++ )
 						{
 							//empty left
-							for( int k = lastIx+1; k<aix[j]; k++ ){
-								double v = op.fn.execute( 0, v2 );
-								ret.appendValue(i, k, v);
-							}
+							for( int k = lastIx+1; k<aix[j]; k++ )
+								nnz += appendValue(c, dc, i, k, op.fn.execute( 0, v2 ));
 							//actual value
-							double v = op.fn.execute( avals[j], v2 );
-							ret.appendValue(i, aix[j], v);	
+							nnz += appendValue(c, dc, i, aix[j], op.fn.execute( avals[j], v2 ));
 							lastIx = aix[j];
 						}
 					}
 					
 					//empty left
-					for( int k = lastIx+1; k<clen; k++ ){
-						double v = op.fn.execute( 0, v2 );
-						ret.appendValue(i, k, v);
-					}
+					for( int k = lastIx+1; k<clen; k++ )
+						nnz += appendValue(c, dc, i, k, op.fn.execute( 0, v2 ));
 				}
 			}
 		}
 		else if( atype == BinaryAccessType.MATRIX_ROW_VECTOR )
 		{
-			for( int i=0; i<rlen; i++ )
+			for( int i=rl; i<ru; i++ )
 			{
 				if( skipEmpty && (a==null || a.isEmpty(i)) )
 					continue; //skip empty rows
@@ -432,29 +455,22 @@ public class LibMatrixBincell
 					for( int j=apos; j<apos+alen; j++ )
 					{
 						//empty left
-						for( int k=lastIx+1; !skipEmpty&&k<aix[j]; k++ ){
-							double v2 = m2.quickGetValue(0, k);
-							double v = op.fn.execute( 0, v2 );
-							ret.appendValue(i, k, v);
-						}
+						for( int k=lastIx+1; !skipEmpty&&k<aix[j]; k++ )
+							nnz += appendValue(c, dc, i, k, op.fn.execute( 0, m2.quickGetValue(0, k) ));
 						//actual value
 						double v2 = m2.quickGetValue(0, aix[j]);
-						double v = op.fn.execute( avals[j], v2 );
-						ret.appendValue(i, aix[j], v);	
+						nnz += appendValue(c, dc, i, aix[j], op.fn.execute( avals[j], v2 ));
 						lastIx = aix[j];
 					}
 				}
 				
 				//empty left
-				for( int k=lastIx+1; !skipEmpty&&k<clen; k++ ){
-					double v2 = m2.quickGetValue(0, k);
-					double v = op.fn.execute( 0, v2 );
-					ret.appendValue(i, k, v);
-				}
+				for( int k=lastIx+1; !skipEmpty&&k<clen; k++ )
+					nnz += appendValue(c, dc, i, k, op.fn.execute( 0, m2.quickGetValue(0, k) ));
 			}
 		}
 		
-		//no need to recomputeNonZeros since maintained in append value
+		return nnz;
 	}
 
 	private static void safeBinaryMVDenseSparseMult(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
@@ -600,52 +616,39 @@ public class LibMatrixBincell
 		//no need to recomputeNonZeros since maintained in append value
 	}
 	
-	private static void safeBinaryMMSparseSparse(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
-		final int rlen = m1.rlen;
-		if(ret.sparse)
+	private static void safeBinaryMMSparseSparse(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int k) {
+		if( ret.sparse )
 			ret.allocateSparseRowsBlock();
 		
+		//row-wise processing into sparse rows (thread-safe for MCSR)
+		if( ret.sparse && ret.sparseBlock instanceof SparseBlockMCSR ) {
+			ret.nonZeros = executeRowRanges((rl, ru) -> safeBinaryMMSparseSparse(m1, m2, ret, op, rl, ru),
+				m1.rlen, m1.nonZeros + m2.nonZeros, k);
+			return;
+		}
+		
+		final int rlen = m1.rlen;
+		
 		//both sparse blocks existing
 		if(m1.sparseBlock!=null && m2.sparseBlock!=null)
 		{
 			SparseBlock lsblock = m1.sparseBlock;
 			SparseBlock rsblock = m2.sparseBlock;
 			
-			if( ret.sparse && lsblock.isAligned(rsblock) )
-			{
-				SparseBlock c = ret.sparseBlock;
-				for(int r=0; r<rlen; r++) 
-					if( !lsblock.isEmpty(r) ) {
-						int alen = lsblock.size(r);
-						int apos = lsblock.pos(r);
-						int[] aix = lsblock.indexes(r);
-						double[] avals = lsblock.values(r);
-						double[] bvals = rsblock.values(r);
-						c.allocate(r, alen);
-						for( int j=apos; j<apos+alen; j++ ) {
-							double tmp = op.fn.execute(avals[j], bvals[j]);
-							c.append(r, aix[j], tmp);
-						}
-						ret.nonZeros += c.size(r);
-					}
-			}
-			else //general case
-			{
-				for(int r=0; r<rlen; r++) {
-					if( !lsblock.isEmpty(r) && !rsblock.isEmpty(r) ) {
-						mergeForSparseBinary(op, lsblock.values(r), lsblock.indexes(r), lsblock.pos(r), lsblock.size(r),
-							rsblock.values(r), rsblock.indexes(r), rsblock.pos(r), rsblock.size(r), r, ret);
-					}
-					else if( !rsblock.isEmpty(r) ) {
-						appendRightForSparseBinary(op, rsblock.values(r), rsblock.indexes(r), 
-							rsblock.pos(r), rsblock.size(r), 0, r, ret);
-					}
-					else if( !lsblock.isEmpty(r) ){
-						appendLeftForSparseBinary(op, lsblock.values(r), lsblock.indexes(r), 
-							lsblock.pos(r), lsblock.size(r), 0, r, ret);
-					}
-					// do nothing if both not existing
+			for(int r=0; r<rlen; r++) {
+				if( !lsblock.isEmpty(r) && !rsblock.isEmpty(r) ) {
+					mergeForSparseBinary(op, lsblock.values(r), lsblock.indexes(r), lsblock.pos(r), lsblock.size(r),
+						rsblock.values(r), rsblock.indexes(r), rsblock.pos(r), rsblock.size(r), r, ret);
+				}
+				else if( !rsblock.isEmpty(r) ) {
+					appendRightForSparseBinary(op, rsblock.values(r), rsblock.indexes(r), 
+						rsblock.pos(r), rsblock.size(r), 0, r, ret);
 				}
+				else if( !lsblock.isEmpty(r) ){
+					appendLeftForSparseBinary(op, lsblock.values(r), lsblock.indexes(r), 
+						lsblock.pos(r), lsblock.size(r), 0, r, ret);
+				}
+				// do nothing if both not existing
 			}
 		}
 		//right sparse block existing
@@ -670,108 +673,149 @@ public class LibMatrixBincell
 		}
 	}
 	
-	private static void safeBinaryMMSparseDenseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
+	private static long safeBinaryMMSparseSparse(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) {
+		SparseBlock a = m1.sparseBlock;
+		SparseBlock b = m2.sparseBlock;
+		SparseBlock c = ret.sparseBlock;
+		boolean aligned = (a!=null && b!=null && a.isAligned(b));
+		long lnnz = 0;
+		
+		for( int r=rl; r<ru; r++ ) {
+			boolean aempty = (a==null || r>=a.numRows() || a.isEmpty(r));
+			boolean bempty = (b==null || r>=b.numRows() || b.isEmpty(r));
+			if( aempty && bempty )
+				continue;
+			
+			if( aligned ) {
+				//aligned rows (same structure): single pass
+				int apos = a.pos(r);
+				int alen = a.size(r);
+				int[] aix = a.indexes(r);
+				double[] avals = a.values(r);
+				double[] bvals = b.values(r);
+				int bpos = b.pos(r);
+				c.allocate(r, alen);
+				for( int j=0; j<alen; j++ )
+					c.append(r, aix[apos+j], op.fn.execute(avals[apos+j], bvals[bpos+j]));
+			}
+			else if( !aempty && !bempty ) {
+				mergeForSparseBinary(op, a.values(r), a.indexes(r), a.pos(r), a.size(r),
+					b.values(r), b.indexes(r), b.pos(r), b.size(r), r, c, ret.clen);
+			}
+			else if( !bempty ) {
+				int bpos = b.pos(r);
+				int blen = b.size(r);
+				int[] bix = b.indexes(r);
+				double[] bvals = b.values(r);
+				c.allocate(r, blen);
+				for( int j=bpos; j<bpos+blen; j++ )
+					c.append(r, bix[j], op.fn.execute(0, bvals[j]));
+			}
+			else {
+				int apos = a.pos(r);
+				int alen = a.size(r);
+				int[] aix = a.indexes(r);
+				double[] avals = a.values(r);
+				c.allocate(r, alen);
+				for( int j=apos; j<apos+alen; j++ )
+					c.append(r, aix[j], op.fn.execute(avals[j], 0));
+			}
+			lnnz += c.size(r);
+		}
+		return lnnz;
+	}
+	
+	private static void safeBinaryMMSparseDenseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int k) {
 		//specific case in order to prevent binary search on sparse inputs (see quickget and quickset)
 		ret.allocateDenseBlock();
+		ret.setNonZeros(executeRowRanges((rl, ru) -> safeBinaryMMSparseDenseDense(m1, m2, ret, op, rl, ru),
+			m1.rlen, (long)m1.rlen*m1.clen, k));
+	}
+	
+	private static long safeBinaryMMSparseDenseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) {
 		final int n = ret.clen;
 		DenseBlock dc = ret.getDenseBlock();
+		SparseBlock a = m1.sparse ? m1.sparseBlock : null;
+		SparseBlock b = m2.sparse ? m2.sparseBlock : null;
+		DenseBlock da = !m1.sparse ? m1.getDenseBlock() : null;
+		DenseBlock db = !m2.sparse ? m2.getDenseBlock() : null;
 		
-		//1) process left input: assignment
-		
-		if( m1.sparse && m1.sparseBlock != null ) //SPARSE left
-		{
-			SparseBlock a = m1.sparseBlock;
-			for( int bi=0; bi<dc.numBlocks(); bi++ ) {
-				double[] c = dc.valuesAt(bi);
-				int blen = dc.blockSize(bi);
-				int off = bi * dc.blockSize();
-				for( int i=0, ix=0; i<blen; i++, ix+=n ) {
-					int ai = off + i;
-					if( a.isEmpty(ai) ) continue;
-					int apos = a.pos(ai);
-					int alen = a.size(ai);
-					int[] aix = a.indexes(ai);
-					double[] avals = a.values(ai);
+		long lnnz = 0;
+		for( int i=rl; i<ru; i++ ) {
+			double[] c = dc.values(i);
+			int cix = dc.pos(i);
+			
+			//1) process left input: assignment
+			if( a != null ) { //SPARSE left
+				if( !a.isEmpty(i) ) {
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
 					for(int k = apos; k < apos+alen; k++) 
-						c[ix+aix[k]] = avals[k];
+						c[cix+aix[k]] = avals[k];
 				}
 			}
-		}
-		else if( !m1.sparse ) //DENSE left
-		{
-			if( !m1.isEmptyBlock(false) ) 
-				dc.set(m1.getDenseBlock());
-			else
-				dc.set(0);
-		}
-		
-		//2) process right input: op.fn (+,-,*), * only if dense
-		long lnnz = 0;
-		if( m2.sparse && m2.sparseBlock!=null ) //SPARSE right
-		{
-			SparseBlock a = m2.sparseBlock;
-			for( int bi=0; bi<dc.numBlocks(); bi++ ) {
-				double[] c = dc.valuesAt(bi);
-				int blen = dc.blockSize(bi);
-				int off = bi * dc.blockSize();
-				for( int i=0, ix=0; i<blen; i++, ix+=n ) {
-					int ai = off + i;
-					if( !a.isEmpty(ai) ) {
-						int apos = a.pos(ai);
-						int alen = a.size(ai);
-						int[] aix = a.indexes(ai);
-						double[] avals = a.values(ai);
-						for(int k = apos; k < apos+alen; k++) 
-							c[ix+aix[k]] = op.fn.execute(c[ix+aix[k]], avals[k]);
-					}
-					//exploit temporal locality of rows
-					lnnz += ret.recomputeNonZeros(ai, ai, 0, n-1);
+			else if( da != null ) //DENSE left
+				System.arraycopy(da.values(i), da.pos(i), c, cix, n);
+			else if( !m1.sparse )
+				Arrays.fill(c, cix, cix+n, 0);
+			
+			//2) process right input: op.fn (+,-,*), * only if dense
+			if( b != null ) { //SPARSE right
+				if( !b.isEmpty(i) ) {
+					int bpos = b.pos(i);
+					int blen = b.size(i);
+					int[] bix = b.indexes(i);
+					double[] bvals = b.values(i);
+					for(int k = bpos; k < bpos+blen; k++) 
+						c[cix+bix[k]] = op.fn.execute(c[cix+bix[k]], bvals[k]);
 				}
 			}
-		}
-		else if( !m2.sparse ) //DENSE right
-		{
-			if( !m2.isEmptyBlock(false) ) {
-				for( int bi=0; bi<dc.numBlocks(); bi++ ) {
-					double[] a = m2.getDenseBlock().valuesAt(bi);
-					double[] c = dc.valuesAt(bi);
-					int len = dc.size(bi);
-					for( int i=0; i<len; i++ ) {
-						c[i] = op.fn.execute(c[i], a[i]);
-						lnnz += (c[i]!=0) ? 1 : 0;
-					}
-				}
+			else if( db != null ) { //DENSE right
+				double[] bvals = db.values(i);
+				int bix = db.pos(i);
+				for( int j=0; j<n; j++ )
+					c[cix+j] = op.fn.execute(c[cix+j], bvals[bix+j]);
 			}
-			else if(op.fn instanceof Multiply)
-				ret.denseBlock.set(0);
-			else
-				lnnz = m1.nonZeros;
+			else if( !m2.sparse && op.fn instanceof Multiply )
+				Arrays.fill(c, cix, cix+n, 0);
+			
+			//3) maintain nnz, exploiting temporal locality of rows
+			lnnz += UtilFunctions.computeNnz(c, cix, n);
 		}
-		
-		//3) recompute nnz
-		ret.setNonZeros(lnnz);
+		return lnnz;
 	}
 	
-	private static void safeBinaryMMDenseDenseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
+	private static void safeBinaryMMDenseDenseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int k) {
 		ret.allocateDenseBlock();
+		ret.setNonZeros(executeRowRanges((rl, ru) -> safeBinaryMMDenseDenseDense(m1, m2, ret, op, rl, ru),
+			m1.rlen, (long)m1.rlen*m1.clen, k));
+	}
+	
+	private static long safeBinaryMMDenseDenseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) {
 		DenseBlock da = m1.getDenseBlock();
 		DenseBlock db = m2.getDenseBlock();
 		DenseBlock dc = ret.getDenseBlock();
 		ValueFunction fn = op.fn;
+		int clen = m1.clen;
 		
 		//compute dense-dense binary, maintain nnz on-the-fly
+		//(over contiguous cell ranges of the row range per block)
 		long lnnz = 0;
-		for( int bi=0; bi<da.numBlocks(); bi++ ) {
+		int bl = da.index(rl), bu = da.index(ru-1);
+		for( int bi=bl; bi<=bu; bi++ ) {
 			double[] a = da.valuesAt(bi);
 			double[] b = db.valuesAt(bi);
 			double[] c = dc.valuesAt(bi);
-			int len = da.size(bi);
-			for( int i=0; i<len; i++ ) {
+			int start = (bi==bl) ? da.pos(rl) : 0;
+			int end = (bi==bu) ? da.pos(ru-1)+clen : da.size(bi);
+			for( int i=start; i<end; i++ ) {
 				c[i] = fn.execute(a[i], b[i]);
 				lnnz += (c[i]!=0)? 1 : 0;
 			}
 		}
-		ret.setNonZeros(lnnz);
+		return lnnz;
 	}
 	
 	private static void safeBinaryMMSparseDenseSkip(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
@@ -871,12 +915,24 @@ public class LibMatrixBincell
 		ret.examSparsity();
 	}
 
-	private static void unsafeBinary(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op) {
+	private static void unsafeBinary(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int k) {
 		int rlen = m1.rlen;
 		int clen = m1.clen;
 		BinaryAccessType atype = getBinaryAccessType(m1, m2);
 		
-		if( atype == BinaryAccessType.MATRIX_COL_VECTOR ) //MATRIX - COL_VECTOR
+		//dense kernels compute all cells, and hence also apply for sparse-unsafe ops
+		//(multiply is always sparse-safe and thus never skips cells here)
+		if( (atype == BinaryAccessType.MATRIX_COL_VECTOR || atype == BinaryAccessType.MATRIX_ROW_VECTOR)
+			&& !m1.sparse && !m2.sparse && !ret.sparse )
+		{
+			safeBinaryMVDense(m1, m2, ret, op, k);
+		}
+		else if( atype == BinaryAccessType.MATRIX_MATRIX && !m1.sparse && !m2.sparse && !ret.sparse
+			&& m1.denseBlock!=null && m2.denseBlock!=null )
+		{
+			safeBinaryMMDenseDenseDense(m1, m2, ret, op, k);
+		}
+		else if( atype == BinaryAccessType.MATRIX_COL_VECTOR ) //MATRIX - COL_VECTOR
 		{
 			for(int r=0; r<rlen; r++) {
 				double v2 = m2.quickGetValue(r, 0);
@@ -947,7 +1003,7 @@ public class LibMatrixBincell
 		}
 	}
 
-	private static void safeBinaryScalar(MatrixBlock m1, MatrixBlock ret, ScalarOperator op) {
+	private static void safeBinaryScalar(MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int k) {
 		//early abort possible since sparsesafe
 		if( m1.isEmptyBlock(false) ) {
 			return;
@@ -957,56 +1013,64 @@ public class LibMatrixBincell
 		if( m1.sparse != ret.sparse )
 			throw new DMLRuntimeException("Unsupported safe binary scalar operations over different input/output representation: "+m1.sparse+" "+ret.sparse);
 		
+		if( m1.sparse ) //SPARSE <- SPARSE
+		{
+			//allocate sparse row structure
+			ret.allocateSparseRowsBlock();
+			
+			//multi-threading only for thread-safe row updates
+			int k2 = (ret.sparseBlock instanceof SparseBlockMCSR) ? k : 1;
+			ret.nonZeros = executeRowRanges((rl, ru) -> safeBinaryScalarSparse(m1, ret, op, rl, ru),
+				m1.rlen, m1.nonZeros, k2);
+		}
+		else { //DENSE <- DENSE
+			denseBinaryScalar(m1, ret, op, k);
+		}
+	}
+	
+	private static long safeBinaryScalarSparse(MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int rl, int ru) {
 		boolean copyOnes = (op.fn instanceof NotEquals && op.getConstant()==0);
 		boolean allocExact = (op.fn instanceof Multiply || op.fn instanceof Multiply2 
 			|| op.fn instanceof Power2 || Builtin.isBuiltinCode(op.fn, BuiltinCode.MAX)
 			|| Builtin.isBuiltinCode(op.fn, BuiltinCode.MIN));
 		
-		if( m1.sparse ) //SPARSE <- SPARSE
-		{
-			//allocate sparse row structure
-			ret.allocateSparseRowsBlock();
-			SparseBlock a = m1.sparseBlock;
-			SparseBlock c = ret.sparseBlock;
-			int rlen = Math.min(m1.rlen, a.numRows());
+		SparseBlock a = m1.sparseBlock;
+		SparseBlock c = ret.sparseBlock;
+		int rlen = Math.min(ru, a.numRows());
+		
+		long nnz = 0;
+		for(int r=rl; r<rlen; r++) {
+			if( a.isEmpty(r) ) continue;
 			
-			long nnz = 0;
-			for(int r=0; r<rlen; r++) {
-				if( a.isEmpty(r) ) continue;
+			int apos = a.pos(r);
+			int alen = a.size(r);
+			int[] aix = a.indexes(r);
+			double[] avals = a.values(r);
+			
+			if( copyOnes ) { //SPECIAL CASE: e.g., (X != 0) 
+				//create sparse row without repeated resizing
+				SparseRowVector crow = new SparseRowVector(alen);
+				crow.setSize(alen);
 				
-				int apos = a.pos(r);
-				int alen = a.size(r);
-				int[] aix = a.indexes(r);
-				double[] avals = a.values(r);
+				//memcopy/memset of indexes/values (sparseblock guarantees absence of 0s) 
+				System.arraycopy(aix, apos, crow.indexes(), 0, alen);
+				Arrays.fill(crow.values(), 0, alen, 1);
+				c.set(r, crow, false);
+				nnz += alen;
+			}
+			else { //GENERAL CASE
+				//create sparse row without repeated resizing for specific ops
+				if( allocExact )
+					c.allocate(r, alen);
 				
-				if( copyOnes ) { //SPECIAL CASE: e.g., (X != 0) 
-					//create sparse row without repeated resizing
-					SparseRowVector crow = new SparseRowVector(alen);
-					crow.setSize(alen);
-					
-					//memcopy/memset of indexes/values (sparseblock guarantees absence of 0s) 
-					System.arraycopy(aix, apos, crow.indexes(), 0, alen);
-					Arrays.fill(crow.values(), 0, alen, 1);
-					c.set(r, crow, false);
-					nnz += alen;
-				}
-				else { //GENERAL CASE
-					//create sparse row without repeated resizing for specific ops
-					if( allocExact )
-						c.allocate(r, alen);
-					
-					for(int j=apos; j<apos+alen; j++) {
-						double val = op.executeScalar(avals[j]);
-						c.append(r, aix[j], val);
-						nnz += (val != 0) ? 1 : 0; 
-					}
+				for(int j=apos; j<apos+alen; j++) {
+					double val = op.executeScalar(avals[j]);
+					c.append(r, aix[j], val);
+					nnz += (val != 0) ? 1 : 0; 
 				}
 			}
-			ret.nonZeros = nnz;
-		}
-		else { //DENSE <- DENSE
-			denseBinaryScalar(m1, ret, op);
 		}
+		return nnz;
 	}
 	
 	/**
@@ -1015,8 +1079,9 @@ public class LibMatrixBincell
 	 * @param m1 input matrix
 	 * @param ret result matrix
 	 * @param op scalar operator
+	 * @param k degree of parallelism
 	 */
-	private static void unsafeBinaryScalar(MatrixBlock m1, MatrixBlock ret, ScalarOperator op) {
+	private static void unsafeBinaryScalar(MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int k) {
 		//early abort possible since sparsesafe
 		if( m1.isEmptyBlock(false) ) {
 			//compute 0 op constant once and set into dense output
@@ -1034,62 +1099,74 @@ public class LibMatrixBincell
 		{
 			ret.allocateDenseBlock();
 			
-			SparseBlock a = m1.sparseBlock;
-			DenseBlock dc = ret.getDenseBlock();
-			int m = m1.rlen;
-			int n = m1.clen;
-			
 			//init dense result with unsafe 0-value
 			double val0 = op.executeScalar(0);
 			boolean lsparseSafe = (val0 == 0);
 			if( !lsparseSafe )
-				dc.set(val0);
+				ret.getDenseBlock().set(val0);
 			
 			//compute non-zero input values
-			long nnz = lsparseSafe ? 0 : m * n;
-			for(int bi=0; bi<dc.numBlocks(); bi++) {
-				int blen = dc.blockSize(bi);
-				double[] c = dc.valuesAt(bi);
-				for(int i=bi*dc.blockSize(), cix=i*n; i<blen && i<m; i++, cix+=n) {
-					if( a.isEmpty(i) ) continue;
-					int apos = a.pos(i);
-					int alen = a.size(i);
-					int[] aix = a.indexes(i);
-					double[] avals = a.values(i);
-					for(int j=apos; j<apos+alen; j++) {
-						double val = op.executeScalar(avals[j]);
-						c[ cix+aix[j] ] = val;
-						nnz += lsparseSafe ? (val!=0 ? 1 : 0) :
-							(val==0 ? -1 : 0);
-					}
-				}
-			}
-			ret.nonZeros = nnz;
+			long nnz = lsparseSafe ? 0 : (long)m1.rlen * m1.clen;
+			ret.nonZeros = nnz + executeRowRanges((rl, ru) -> unsafeBinaryScalarSparse(m1, ret, op, lsparseSafe, rl, ru),
+				m1.rlen, m1.nonZeros, k);
 		}
 		else { //DENSE MATRIX
-			denseBinaryScalar(m1, ret, op);
+			denseBinaryScalar(m1, ret, op, k);
+		}
+	}
+	
+	private static long unsafeBinaryScalarSparse(MatrixBlock m1, MatrixBlock ret, ScalarOperator op, boolean lsparseSafe, int rl, int ru) {
+		SparseBlock a = m1.sparseBlock;
+		DenseBlock dc = ret.getDenseBlock();
+		
+		//returns the delta of non-zeros w.r.t. the initial 0-value
+		long nnz = 0;
+		for(int i=rl; i<ru; i++) {
+			if( a.isEmpty(i) ) continue;
+			int apos = a.pos(i);
+			int alen = a.size(i);
+			int[] aix = a.indexes(i);
+			double[] avals = a.values(i);
+			double[] c = dc.values(i);
+			int cix = dc.pos(i);
+			for(int j=apos; j<apos+alen; j++) {
+				double val = op.executeScalar(avals[j]);
+				c[ cix+aix[j] ] = val;
+				nnz += lsparseSafe ? (val!=0 ? 1 : 0) :
+					(val==0 ? -1 : 0);
+			}
 		}
+		return nnz;
 	}
 
-	private static void denseBinaryScalar(MatrixBlock m1, MatrixBlock ret, ScalarOperator op) {
+	private static void denseBinaryScalar(MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int k) {
 		//allocate dense block (if necessary), incl clear nnz
 		ret.allocateDenseBlock(true);
 		
+		//compute scalar operation, incl nnz maintenance
+		ret.nonZeros = executeRowRanges((rl, ru) -> denseBinaryScalar(m1, ret, op, rl, ru),
+			m1.rlen, (long)m1.rlen*m1.clen, k);
+	}
+	
+	private static long denseBinaryScalar(MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int rl, int ru) {
 		DenseBlock da = m1.getDenseBlock();
 		DenseBlock dc = ret.getDenseBlock();
+		int clen = m1.clen;
 		
-		//compute scalar operation, incl nnz maintenance
+		//compute scalar operation over contiguous cell ranges per block
 		long nnz = 0;
-		for( int bi=0; bi<da.numBlocks(); bi++) {
+		int bl = da.index(rl), bu = da.index(ru-1);
+		for( int bi=bl; bi<=bu; bi++) {
 			double[] a = da.valuesAt(bi);
 			double[] c = dc.valuesAt(bi);
-			int limit = da.size(bi);
-			for( int i=0; i<limit; i++ ) {
+			int start = (bi==bl) ? da.pos(rl) : 0;
+			int end = (bi==bu) ? da.pos(ru-1)+clen : da.size(bi);
+			for( int i=start; i<end; i++ ) {
 				c[i] = op.executeScalar( a[i] );
 				nnz += (c[i] != 0) ? 1 : 0;
 			}
 		}
-		ret.nonZeros = nnz;
+		return nnz;
 	}
 
 	private static void safeBinaryInPlace(MatrixBlock m1ret, MatrixBlock m2, BinaryOperator op) {
@@ -1282,6 +1359,42 @@ public class LibMatrixBincell
 		}
 	}
 	
+	private static void mergeForSparseBinary(BinaryOperator op, double[] values1, int[] cols1, int pos1, int size1, 
+			double[] values2, int[] cols2, int pos2, int size2, int r, SparseBlock c, int clen) {
+		int p1 = 0, p2 = 0;
+		if( op.fn instanceof Multiply ) { //skip empty
+			//skip empty: merge-join (with inner join semantics)
+			c.allocate(r, Math.min(size1, size2), clen);
+			while( p1 < size1 && p2 < size2 ) {
+				int colPos1 = cols1[pos1+p1];
+				int colPos2 = cols2[pos2+p2];
+				if( colPos1 == colPos2 )
+					c.append(r, colPos1, op.fn.execute(values1[pos1+p1], values2[pos2+p2]));
+				p1 += (colPos1 <= colPos2) ? 1 : 0;
+				p2 += (colPos1 >= colPos2) ? 1 : 0;
+			}
+		}
+		else {
+			//general case: merge-join (with outer join semantics) 
+			c.allocate(r, Math.max(size1, size2), clen);
+			while( p1 < size1 && p2 < size2 ) {
+				int colPos1 = cols1[pos1+p1];
+				int colPos2 = cols2[pos2+p2];
+				if( colPos1 < colPos2 )
+					c.append(r, colPos1, op.fn.execute(values1[pos1+p1++], 0));
+				else if( colPos1 == colPos2 )
+					c.append(r, colPos1, op.fn.execute(values1[pos1+p1++], values2[pos2+p2++]));
+				else
+					c.append(r, colPos2, op.fn.execute(0, values2[pos2+p2++]));
+			}
+			//add left over
+			for( ; p1 < size1; p1++ )
+				c.append(r, cols1[pos1+p1], op.fn.execute(values1[pos1+p1], 0));
+			for( ; p2 < size2; p2++ )
+				c.append(r, cols2[pos2+p2], op.fn.execute(0, values2[pos2+p2]));
+		}
+	}
+	
 	private static void mergeForSparseBinary(BinaryOperator op, double[] values1, int[] cols1, int pos1, int size1, 
 			double[] values2, int[] cols2, int pos2, int size2, int resultRow, MatrixBlock result) {
 		int p1 = 0, p2 = 0;
@@ -1360,4 +1473,65 @@ public class LibMatrixBincell
 		if( zero )
 			c.compact(r);
 	}
+	
+	private static int appendValue(SparseBlock c, DenseBlock dc, int r, int cix, double v) {
+		//append to pre-allocated sparse or dense output w/o nnz maintenance
+		if( v == 0 )
+			return 0;
+		if( c != null )
+			c.append(r, cix, v);
+		else
+			dc.set(r, cix, v);
+		return 1;
+	}
+	
+	/**
+	 * Executes the given row-range kernel over all rows, partitioned into
+	 * balanced row ranges for multi-threaded execution if the degree of
+	 * parallelism and the number of processed cells are sufficiently large.
+	 * 
+	 * @param kernel row-range kernel
+	 * @param rlen number of rows
+	 * @param ncells number of processed cells
+	 * @param k degree of parallelism
+	 * @return number of non-zeros, aggregated over all row ranges
+	 */
+	private static long executeRowRanges(BincellKernel kernel, int rlen, long ncells, int k) {
+		if( rlen <= 0 )
+			return 0;
+		if( k <= 1 || rlen < 2 || ncells < PAR_NUMCELL_THRESHOLD )
+			return kernel.execute(0, rlen);
+		
+		ExecutorService pool = CommonThreadPool.get(k);
+		try {
+			ArrayList<Callable<Long>> tasks = new ArrayList<>();
+			ArrayList<Integer> blklens = UtilFunctions.getBalancedBlockSizesDefault(rlen, k, false);
+			for( int i=0, lb=0; i<blklens.size(); lb+=blklens.get(i), i++ ) {
+				final int rl = lb, ru = lb + blklens.get(i);
+				tasks.add(() -> kernel.execute(rl, ru));
+			}
+			//aggregate the per-thread non-zeros
+			long nnz = 0;
+			for( Future<Long> task : pool.invokeAll(tasks) )
+				nnz += task.get();
+			return nnz;
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+	
+	private interface BincellKernel {
+		/**
+		 * Computes the rows [rl, ru) of a binary cell operation.
+		 * 
+		 * @param rl row lower bound, inclusive
+		 * @param ru row upper bound, exclusive
+		 * @return number of non-zeros of the computed rows
+		 */
+		public long execute(int rl, int ru);
+	}
 }
@@ -89,6 +89,7 @@ import org.tugraz.sysds.runtime.matrix.operators.TernaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.UnaryOperator;
 import org.tugraz.sysds.runtime.meta.DataCharacteristics;
 import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.util.CommonThreadPool;
 import org.tugraz.sysds.runtime.util.DataConverter;
 import org.tugraz.sysds.runtime.util.FastBufferedDataInputStream;
 import org.tugraz.sysds.runtime.util.FastBufferedDataOutputStream;
@@ -109,6 +110,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.stream.IntStream;
@@ -134,6 +136,8 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 	public static final boolean CONVERT_MCSR_TO_CSR_ON_DEEP_SERIALIZE = true;
 	//basic header (int rlen, int clen, byte type)
 	public static final int HEADER_SIZE = 9;
+	//minimum number of input cells for multi-threaded ctable operations
+	private static final long PAR_CTABLE_NUMCELL_THRESHOLD = 1024*1024;
 	
 	//matrix meta data
 	protected int rlen       = -1;
@@ -2617,7 +2621,7 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 			ret.reset(rlen, clen, sp, this.nonZeros);
 		
 		//core scalar operations
-		LibMatrixBincell.bincellOp(this, ret, op);
+		LibMatrixBincell.bincellOp(this, ret, op, op.getNumThreads());
 		
 		return ret;
 	}
@@ -2798,7 +2802,7 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 			ret.reset(rows, cols, resultSparse.sparse, resultSparse.estimatedNonZeros);
 		
 		//core binary cell operation
-		LibMatrixBincell.bincellOp( this, that, ret, op );
+		LibMatrixBincell.bincellOp( this, that, ret, op, op.getNumThreads() );
 		
 		return ret;
 	}
@@ -5155,18 +5159,25 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 	@Override
 	public void ctableOperations(Operator op, double scalarThat,
 			MatrixValue that2Val, CTableMap resultMap, MatrixBlock resultBlock) {
+		ctableOperations(op, scalarThat, that2Val, resultMap, resultBlock, 1);
+	}
+	
+	public void ctableOperations(Operator op, double scalarThat,
+			MatrixValue that2Val, CTableMap resultMap, MatrixBlock resultBlock, int k) {
 		MatrixBlock that2 = checkType(that2Val);
 		CTable ctable = CTable.getCTableFnObject();
 		double v2 = scalarThat;
 		
 		//sparse-unsafe ctable execution
 		//(because input values of 0 are invalid and have to result in errors) 
-		for( int i=0; i<rlen; i++ )
-			for( int j=0; j<clen; j++ ) {
-				double v1 = this.quickGetValue(i, j);
-				double w = that2.quickGetValue(i, j);
-				ctable.execute(v1, v2, w, false, resultMap, resultBlock);
-			}
+		ctableOperations(resultMap, resultBlock, k, (rl, ru, map, block) -> {
+			for( int i=rl; i<ru; i++ )
+				for( int j=0; j<clen; j++ ) {
+					double v1 = this.quickGetValue(i, j);
+					double w = that2.quickGetValue(i, j);
+					ctable.execute(v1, v2, w, false, map, block);
+				}
+		});
 		
 		//maintain nnz (if necessary)
 		if( resultBlock!=null )
@@ -5184,6 +5195,12 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 	@Override
 	public void ctableOperations(Operator op, double scalarThat,
 			double scalarThat2, CTableMap resultMap, MatrixBlock resultBlock)
+	{
+		ctableOperations(op, scalarThat, scalarThat2, resultMap, resultBlock, 1);
+	}
+	
+	public void ctableOperations(Operator op, double scalarThat,
+			double scalarThat2, CTableMap resultMap, MatrixBlock resultBlock, int k)
 	{
 		CTable ctable = CTable.getCTableFnObject();
 		double v2 = scalarThat;
@@ -5191,11 +5208,13 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		
 		//sparse-unsafe ctable execution
 		//(because input values of 0 are invalid and have to result in errors) 
-		for( int i=0; i<rlen; i++ )
-			for( int j=0; j<clen; j++ ) {
-				double v1 = this.quickGetValue(i, j);
-				ctable.execute(v1, v2, w, false, resultMap, resultBlock);
-			}
+		ctableOperations(resultMap, resultBlock, k, (rl, ru, map, block) -> {
+			for( int i=rl; i<ru; i++ )
+				for( int j=0; j<clen; j++ ) {
+					double v1 = this.quickGetValue(i, j);
+					ctable.execute(v1, v2, w, false, map, block);
+				}
+		});
 		
 		//maintain nnz (if necessary)
 		if( resultBlock!=null )
@@ -5246,6 +5265,12 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 	@Override
 	public void ctableOperations(Operator op, MatrixValue thatVal, double scalarThat2, boolean ignoreZeros,
 			     CTableMap resultMap, MatrixBlock resultBlock)
+	{
+		ctableOperations(op, thatVal, scalarThat2, ignoreZeros, resultMap, resultBlock, 1);
+	}
+	
+	public void ctableOperations(Operator op, MatrixValue thatVal, double scalarThat2, boolean ignoreZeros,
+			CTableMap resultMap, MatrixBlock resultBlock, int k)
 	{
 		//setup ctable computation
 		MatrixBlock that = checkType(thatVal);
@@ -5264,28 +5289,32 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 			
 			SparseBlock a = this.sparseBlock;
 			SparseBlock b = that.sparseBlock;
-			for( int i=0; i<rlen; i++ ) {
-				if( a.isEmpty(i) ) continue; 
-				int alen = a.size(i);
-				int apos = a.pos(i);
-				double[] avals = a.values(i);
-				int bpos = b.pos(i);
-				double[] bvals = b.values(i); 
-				for( int j=0; j<alen; j++ )
-					ctable.execute(avals[apos+j], bvals[bpos+j], 
-						w, ignoreZeros, resultMap, resultBlock);
-			}
+			ctableOperations(resultMap, resultBlock, k, (rl, ru, map, block) -> {
+				for( int i=rl; i<ru; i++ ) {
+					if( a.isEmpty(i) ) continue; 
+					int alen = a.size(i);
+					int apos = a.pos(i);
+					double[] avals = a.values(i);
+					int bpos = b.pos(i);
+					double[] bvals = b.values(i); 
+					for( int j=0; j<alen; j++ )
+						ctable.execute(avals[apos+j], bvals[bpos+j], 
+							w, ignoreZeros, map, block);
+				}
+			});
 		}
 		else //SPARSE-UNSAFE | GENERIC INPUTS
 		{
 			//sparse-unsafe ctable execution
 			//(because input values of 0 are invalid and have to result in errors) 
-			for( int i=0; i<rlen; i++ )
-				for( int j=0; j<clen; j++ ) {
-					double v1 = this.quickGetValue(i, j);
-					double v2 = that.quickGetValue(i, j);
-					ctable.execute(v1, v2, w, ignoreZeros, resultMap, resultBlock);
-				}
+			ctableOperations(resultMap, resultBlock, k, (rl, ru, map, block) -> {
+				for( int i=rl; i<ru; i++ )
+					for( int j=0; j<clen; j++ ) {
+						double v1 = this.quickGetValue(i, j);
+						double v2 = that.quickGetValue(i, j);
+						ctable.execute(v1, v2, w, ignoreZeros, map, block);
+					}
+			});
 		}
 		
 		//maintain nnz (if necessary)
@@ -5346,6 +5375,10 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 	
 	@Override
 	public void ctableOperations(Operator op, MatrixValue thatVal, MatrixValue that2Val, CTableMap resultMap, MatrixBlock resultBlock) {
+		ctableOperations(op, thatVal, that2Val, resultMap, resultBlock, 1);
+	}
+	
+	public void ctableOperations(Operator op, MatrixValue thatVal, MatrixValue that2Val, CTableMap resultMap, MatrixBlock resultBlock, int k) {
 		MatrixBlock that = checkType(thatVal);
 		MatrixBlock that2 = checkType(that2Val);
 		CTable ctable = CTable.getCTableFnObject();
@@ -5354,14 +5387,16 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		//(because input values of 0 are invalid and have to result in errors) 
 		if(resultBlock == null) 
 		{
-			for( int i=0; i<rlen; i++ )
-				for( int j=0; j<clen; j++ )
-				{
-					double v1 = this.quickGetValue(i, j);
-					double v2 = that.quickGetValue(i, j);
-					double w = that2.quickGetValue(i, j);
-					ctable.execute(v1, v2, w, false, resultMap);
-				}		
+			ctableOperations(resultMap, null, k, (rl, ru, map, block) -> {
+				for( int i=rl; i<ru; i++ )
+					for( int j=0; j<clen; j++ )
+					{
+						double v1 = this.quickGetValue(i, j);
+						double v2 = that.quickGetValue(i, j);
+						double w = that2.quickGetValue(i, j);
+						ctable.execute(v1, v2, w, false, map);
+					}
+			});
 		}
 		else 
 		{
@@ -5377,6 +5412,49 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		}
 	}
 	
+	private void ctableOperations(CTableMap resultMap, MatrixBlock resultBlock, int k, CTableKernel kernel) {
+		//serial execution for dense result blocks (in-place aggregation) and small inputs
+		if( resultBlock != null || k <= 1 || rlen < 2 || (long)rlen*clen < PAR_CTABLE_NUMCELL_THRESHOLD ) {
+			kernel.execute(0, rlen, resultMap, resultBlock);
+			return;
+		}
+		
+		//hash group-by of row partitions into thread-local maps, and merge
+		ExecutorService pool = CommonThreadPool.get(k);
+		try {
+			ArrayList<Callable<CTableMap>> tasks = new ArrayList<>();
+			ArrayList<Integer> blklens = UtilFunctions.getBalancedBlockSizesDefault(rlen, k, false);
+			for( int i=0, lb=0; i<blklens.size(); lb+=blklens.get(i), i++ ) {
+				final int rl = lb, ru = lb + blklens.get(i);
+				tasks.add(() -> {
+					CTableMap map = new CTableMap(resultMap.getEntryType());
+					kernel.execute(rl, ru, map, null);
+					return map;
+				});
+			}
+			for( Future<CTableMap> task : pool.invokeAll(tasks) )
+				resultMap.merge(task.get());
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+	
+	private interface CTableKernel {
+		/**
+		 * Computes the ctable group-by of the input rows [rl, ru).
+		 * 
+		 * @param rl row lower bound, inclusive
+		 * @param ru row upper bound, exclusive
+		 * @param map result map
+		 * @param block result block, or null if aggregated into the map
+		 */
+		public void execute(int rl, int ru, CTableMap map, MatrixBlock block);
+	}
+	
 	public MatrixBlock quaternaryOperations(QuaternaryOperator qop, MatrixBlock um, MatrixBlock vm, MatrixBlock wm, MatrixBlock out) {
 		return quaternaryOperations(qop, um, vm, wm, out, 1);
 	}
@@ -37,6 +37,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import org.apache.hadoop.io.Writable;
 import org.tugraz.sysds.api.DMLScript;
@@ -94,6 +98,27 @@ public class LocalFileUtils
 		return (MatrixBlock) readWritableFromLocal(fname, reuse);
 	}
 
+	/** Reads a matrix block from local file system, which was
+	 * optionally written with block compression.
+	 * 
+	 * @param fname file name to read
+	 * @param compressed if true, the file is decompressed while reading
+	 * @return matrix block
+	 * @throws IOException if IOException occurs
+	 */
+	public static MatrixBlock readMatrixBlockFromLocal(String fname, boolean compressed) throws IOException {
+		if( !compressed )
+			return readMatrixBlockFromLocal(fname);
+		Inflater inf = new Inflater();
+		try {
+			FileInputStream fis = new FileInputStream(fname);
+			return readMatrixBlockFromStream(new InflaterInputStream(fis, inf, BUFFER_SIZE));
+		}
+		finally {
+			inf.end();
+		}
+	}
+
 	/** Reads a frame block from local file system.
 	 * 
 	 * @param fname file name to read
@@ -202,6 +227,37 @@ public class LocalFileUtils
 		writeWritableToLocal(fname, mb);
 	}
 	
+	/** Writes a matrix block to local file system, optionally with a fast
+	 * block compression (deflate with best speed) of the serialized block.
+	 * 
+	 * @param fname file name to write
+	 * @param mb matrix block
+	 * @param compress if true, the serialized block is compressed
+	 * @return number of written bytes
+	 * @throws IOException if IOException occurs
+	 */
+	public static long writeMatrixBlockToLocal(String fname, MatrixBlock mb, boolean compress) throws IOException {
+		if( !compress )
+			writeWritableToLocal(fname, mb);
+		else {
+			Deflater def = new Deflater(Deflater.BEST_SPEED);
+			FileOutputStream fos = new FileOutputStream( fname );
+			DeflaterOutputStream dos = new DeflaterOutputStream(fos, def, BUFFER_SIZE);
+			FastBufferedDataOutputStream out = new FastBufferedDataOutputStream(dos, BUFFER_SIZE);
+			try {
+				mb.write(out);
+				out.flush();
+				dos.finish();
+			}
+			finally {
+				IOUtilFunctions.closeSilently(out);
+				IOUtilFunctions.closeSilently(fos);
+				def.end();
+			}
+		}
+		return new File(fname).length();
+	}
+	
 	/** Writes a frame block to local file system.
 	 * 
 	 * @param fname file name to write
@@ -247,6 +303,12 @@ public class LocalFileUtils
 
 	public static void writeByteArrayToLocal( String fname, byte[] data )
 		throws IOException
+	{
+		writeByteArrayToLocal(fname, data, data.length);
+	}
+	
+	public static void writeByteArrayToLocal( String fname, byte[] data, int len )
+		throws IOException
 	{	
 		//byte array write via java.nio file channel ~10-15% faster than java.io
 		FileChannel channel = null;
@@ -254,7 +316,7 @@ public class LocalFileUtils
 			Path path = Paths.get(fname);
 			channel = FileChannel.open(path, StandardOpenOption.CREATE, 
 				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
-			channel.write(ByteBuffer.wrap(data));
+			channel.write(ByteBuffer.wrap(data, 0, len));
 		}
 		finally {
 			IOUtilFunctions.closeSilently(channel);
@@ -21,6 +21,8 @@ package org.tugraz.sysds.runtime.util;
 
 import java.util.Iterator;
 
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+
 /**
  * This native long long - double hashmap is specifically designed for
  * ctable operations which only require addvalue - extract semantics.
@@ -28,6 +30,10 @@ import java.util.Iterator;
  * to be more memory-efficient which is important for large maps in order
  * to keep data in the caches and prevent high-latency random memory access. 
  * 
+ * The map uses open addressing with linear probing over a struct-of-arrays
+ * representation (keys, values, and a bitmap of occupied slots), i.e., it 
+ * does not create any objects per entry. For entries of type INT, both keys
+ * are packed into a single long.
  */
 public class LongLongDoubleHashMap
 {
@@ -40,7 +46,10 @@ public class LongLongDoubleHashMap
 	}
 	
 	private final EntryType type;
-	private ADoubleEntry[] data = null;
+	private long[] keys1 = null;
+	private long[] keys2 = null; //null for INT
+	private double[] values = null;
+	private long[] used = null;  //bitmap of occupied slots
 	private int size = -1;
 	
 	public LongLongDoubleHashMap() {
@@ -49,9 +58,13 @@ public class LongLongDoubleHashMap
 	
 	public LongLongDoubleHashMap(EntryType etype) {
 		type = etype;
-		data = new ADoubleEntry[INIT_CAPACITY];
+		allocate(INIT_CAPACITY);
 		size = 0;
 	}
+	
+	public EntryType getEntryType() {
+		return type;
+	}
 
 	public int size() {
 		return size;
@@ -60,179 +73,182 @@ public class LongLongDoubleHashMap
 	public int getNonZeros() {
 		//note: the exact number of non-zeros might be smaller than size
 		//if negative and positive values canceled each other out
+		//(values of unoccupied slots are always zero)
 		int ret = 0;
-		for( ADoubleEntry e : data )
-			while( e != null ) {
-				ret += (e.value != 0) ? 1 : 0;
-				e = e.next;
-			}
+		for( int i=0; i<values.length; i++ )
+			ret += (values[i] != 0) ? 1 : 0;
 		return ret;
 	}
 
-	public void addValue(long key1, long key2, double value)
-	{
-		//compute entry index position
-		int ix = getIndex(key1, key2, data.length);
+	public void addValue(long key1, long key2, double value) {
+		long k1 = (keys2 != null) ? key1 : pack(key1, key2);
+		long k2 = (keys2 != null) ? key2 : 0;
 		
-		//find existing entry and add value
-		for( ADoubleEntry e = data[ix]; e!=null; e = e.next ) {
-			if( e.getKey1()==key1 && e.getKey2()==key2 ) {
-				e.value += value;
+		//probe for existing entry and add value
+		int mask = values.length - 1;
+		int ix = hash(k1, k2) & mask;
+		while( isUsed(ix) ) {
+			if( keys1[ix]==k1 && (keys2==null || keys2[ix]==k2) ) {
+				values[ix] += value;
 				return; //no need to append or resize
 			}
+			ix = (ix + 1) & mask;
 		}
 		
-		//add non-existing entry (constant time)
-		ADoubleEntry enew = (type==EntryType.LONG) ? 
-			new LLDoubleEntry(key1, key2, value) :
-			new IIDoubleEntry(key1, key2, value);
-		enew.next = data[ix]; //colliding entries / null
-		data[ix] = enew;
+		//add non-existing entry into free slot
+		setSlot(ix, k1, k2, value);
 		size++;
 		
 		//resize if necessary
-		if( size >= LOAD_FACTOR*data.length )
+		if( size >= LOAD_FACTOR*values.length )
 			resize();
 	}
 	
+	/**
+	 * Adds all entries of the given map to this map, 
+	 * e.g., for merging thread-local partial results.
+	 * 
+	 * @param that hash map
+	 */
+	public void addAll(LongLongDoubleHashMap that) {
+		for( int i=0; i<that.values.length; i++ )
+			if( that.isUsed(i) )
+				addValue(that.getKey1(i), that.getKey2(i), that.values[i]);
+	}
+	
+	/**
+	 * Returns an iterator over all entries. Note that the returned
+	 * entry object is reused across calls of next().
+	 * 
+	 * @return iterator over entries
+	 */
 	public Iterator<ADoubleEntry> getIterator() {
 		return new ADoubleEntryIterator();
 	}
+	
+	private void allocate(int capacity) {
+		keys1 = new long[capacity];
+		keys2 = (type == EntryType.LONG) ? new long[capacity] : null;
+		values = new double[capacity];
+		used = new long[(capacity + 63) / 64];
+	}
 
 	private void resize() {
 		//check for integer overflow on resize
-		if( data.length > Integer.MAX_VALUE/RESIZE_FACTOR )
+		if( values.length > Integer.MAX_VALUE/RESIZE_FACTOR ) {
+			if( size >= values.length - 1 )
+				throw new DMLRuntimeException("LongLongDoubleHashMap: capacity exceeded.");
 			return;
+		}
 		
-		//resize data array and copy existing contents
-		ADoubleEntry[] olddata = data;
-		data = new ADoubleEntry[data.length*RESIZE_FACTOR];
-		size = 0;
+		//resize data arrays
+		long[] oldkeys1 = keys1;
+		long[] oldkeys2 = keys2;
+		double[] oldvalues = values;
+		long[] oldused = used;
+		allocate(values.length*RESIZE_FACTOR);
 		
-		//rehash all entries with reuse of existing entries
-		for( ADoubleEntry e : olddata ) {
-			if( e != null ) {
-				while( e.next!=null ) {
-					ADoubleEntry tmp = e;
-					e = e.next; //tmp.next overwritten on append
-					appendEntry(tmp.getKey1(), tmp.getKey2(), tmp);
-				}
-				appendEntry(e.getKey1(), e.getKey2(), e);
-			}
+		//rehash all entries (keys are unique, no need to probe for equality)
+		int mask = values.length - 1;
+		for( int i=0; i<oldvalues.length; i++ ) {
+			if( (oldused[i >>> 6] & (1L << i)) == 0 )
+				continue;
+			long k1 = oldkeys1[i];
+			long k2 = (oldkeys2 != null) ? oldkeys2[i] : 0;
+			int ix = hash(k1, k2) & mask;
+			while( isUsed(ix) )
+				ix = (ix + 1) & mask;
+			setSlot(ix, k1, k2, oldvalues[i]);
 		}
 	}
 	
-	private void appendEntry(long key1, long key2, ADoubleEntry e) {
-		//compute entry index position
-		int ix = getIndex(key1, key2, data.length);
-		
-		//add existing entry (constant time)
-		e.next = data[ix]; //colliding entries / null
-		data[ix] = e;
-		size++;
+	private boolean isUsed(int ix) {
+		return (used[ix >>> 6] & (1L << ix)) != 0;
 	}
 	
-	private static int getIndex(long key1, long key2, int length) {
-		int hash = hash(key1, key2);
-		return indexFor(hash, length);
+	private void setSlot(int ix, long k1, long k2, double value) {
+		keys1[ix] = k1;
+		if( keys2 != null )
+			keys2[ix] = k2;
+		values[ix] = value;
+		used[ix >>> 6] |= (1L << ix);
 	}
 	
-	private static int hash(long key1, long key2) {
-		int h = UtilFunctions.longHashCode(key1, key2);
-		
-		// This function ensures that hashCodes that differ only by
-		// constant multiples at each bit position have a bounded
-		// number of collisions (approximately 8 at default load factor).
-		h ^= (h >>> 20) ^ (h >>> 12);
-		return h ^ (h >>> 7) ^ (h >>> 4);
+	private long getKey1(int ix) {
+		return (keys2 != null) ? keys1[ix] : (int)(keys1[ix] >> 32);
 	}
-
-	private static int indexFor(int h, int length) {
-		return h & (length-1);
+	
+	private long getKey2(int ix) {
+		return (keys2 != null) ? keys2[ix] : (int)keys1[ix];
+	}
+	
+	private static long pack(long key1, long key2) {
+		return ((long)(int)key1 << 32) | ((int)key2 & 0xFFFFFFFFL);
+	}
+	
+	private static int hash(long key1, long key2) {
+		//64bit finalizer of murmur3 over both keys, which avoids long 
+		//probe sequences for regular key patterns (e.g., sequences)
+		long h = key1 * 0xC2B2AE3D27D4EB4FL + key2;
+		h ^= (h >>> 33);
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= (h >>> 33);
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= (h >>> 33);
+		return (int)h;
 	}
 
 	public static abstract class ADoubleEntry {
 		public double value = Double.MAX_VALUE;
-		public ADoubleEntry next = null;
 		public ADoubleEntry(double val) {
 			value = val;
-			next = null;
 		}
 		public abstract long getKey1();
 		public abstract long getKey2();
 	}
 	
-	private static class LLDoubleEntry extends ADoubleEntry {
-		private final long key1;
-		private final long key2;
-		public LLDoubleEntry(long k1, long k2, double val) {
-			super(val);
-			key1 = k1;
-			key2 = k2;
-		}
-		@Override
-		public long getKey1() {
-			return key1;
-		}
-		@Override
-		public long getKey2() {
-			return key2;
-		}
-	}
-	
-	private static class IIDoubleEntry extends ADoubleEntry {
-		private final int key1;
-		private final int key2;
-		public IIDoubleEntry(long k1, long k2, double val) {
-			super(val);
-			key1 = (int)k1;
-			key2 = (int)k2;
+	private class SlotEntry extends ADoubleEntry {
+		private int pos = -1;
+		public SlotEntry() {
+			super(0);
 		}
 		@Override
 		public long getKey1() {
-			return key1;
+			return LongLongDoubleHashMap.this.getKey1(pos);
 		}
 		@Override
 		public long getKey2() {
-			return key2;
+			return LongLongDoubleHashMap.this.getKey2(pos);
 		}
 	}
 	
 	private class ADoubleEntryIterator implements Iterator<ADoubleEntry> {
-		private ADoubleEntry _curr;
-		private int _currPos;
+		private final SlotEntry _curr;
+		private int _nextPos;
 		
 		public ADoubleEntryIterator() {
-			_curr = null;
-			_currPos = -1;
+			_curr = new SlotEntry();
+			_nextPos = -1;
 			findNext();
 		}
 		
 		@Override
 		public boolean hasNext() {
-			return (_curr != null);
+			return (_nextPos < values.length);
 		}
 
 		@Override
 		public ADoubleEntry next() {
-			ADoubleEntry ret = _curr;
+			_curr.pos = _nextPos;
+			_curr.value = values[_nextPos];
 			findNext();
-			return ret;
+			return _curr;
 		}
 		
 		private void findNext() {
-			if( _curr != null && _curr.next != null ) {
-				_curr = _curr.next;
-				return;
-			}
-			_currPos++;
-			while( _currPos < data.length  ) {
-				_curr = data[_currPos];
-				if( _curr != null ) 
-					return;
-				_currPos++;
-			}
-			_curr = null;
+			_nextPos++;
+			while( _nextPos < values.length && !isUsed(_nextPos) )
+				_nextPos++;
 		}
 	}
 }
@@ -1255,6 +1255,7 @@ public class ProgramConverter
 		if(confStr != null && !confStr.trim().isEmpty()) {
 			DMLConfig dmlconf = DMLConfig.parseDMLConfig(confStr);
 			CompilerConfig cconf = OptimizerUtils.constructCompilerConfig(dmlconf);
+			cconf.set(ConfigType.PARALLEL_CP_INSTRUCTIONS, false); //parfor workers
 			ConfigurationManager.setLocalConfig(dmlconf);
 			ConfigurationManager.setLocalConfig(cconf);
 		}
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.utils;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.wink.json4j.JSONArray;
+import org.apache.wink.json4j.JSONException;
+import org.apache.wink.json4j.OrderedJSONObject;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.runtime.DMLRuntimeException;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.controlprogram.context.ExecutionContext;
+import org.tugraz.sysds.runtime.instructions.Instruction;
+import org.tugraz.sysds.runtime.instructions.cp.CPOperand;
+import org.tugraz.sysds.runtime.instructions.cp.ComputationCPInstruction;
+import org.tugraz.sysds.runtime.instructions.cp.Data;
+import org.tugraz.sysds.runtime.meta.DataCharacteristics;
+import org.tugraz.sysds.runtime.util.HDFSTool;
+
+/**
+ * Low-overhead instruction profiler, which maintains per opcode latency
+ * histograms as well as the bytes and (in-memory) sparse/dense formats of
+ * inputs and outputs. In contrast to the heavy hitter statistics, the profiler is
+ * independent of -stats and intended to be always on (sysds.stats.profiler),
+ * sampled at runtime (e.g., via JMLC), and exported as JSON or Prometheus
+ * text (sysds.stats.profiler.export) at the end of a run.
+ *
+ * Every thread records into its own profile without locks or atomic
+ * read-modify-write operations, and snapshots merge the profiles of all
+ * threads. A reset starts a new generation of thread profiles, which avoids
+ * lost updates of concurrently recording threads. Profiles of terminated
+ * threads are folded into a retired profile whenever a new thread registers,
+ * which bounds the number of thread profiles by the number of live threads.
+ */
+public class InstructionProfiler
+{
+	//latency buckets of Prometheus export (upper bounds in seconds)
+	private static final double[] PROMETHEUS_BUCKETS = new double[] {
+		1e-6, 1e-5, 1e-4, 1e-3, 1e-2, 1e-1, 1, 10, 100};
+	private static final String PROMETHEUS_PREFIX = "sysds_instruction_";
+
+	private static final ConcurrentLinkedQueue<ThreadProfile> _profiles = new ConcurrentLinkedQueue<>();
+	private static final ThreadLocal<ThreadProfile> _local = new ThreadLocal<>();
+	private static final TreeMap<String, OpProfile> _retired = new TreeMap<>();
+	private static volatile long _generation = 0;
+
+	private static class ThreadProfile {
+		private final long _gen;
+		private final WeakReference<Thread> _owner;
+		private final ConcurrentHashMap<String, OpProfile> _ops = new ConcurrentHashMap<>();
+		public ThreadProfile(long gen) {
+			_gen = gen;
+			_owner = new WeakReference<>(Thread.currentThread());
+		}
+		public boolean isAlive() {
+			Thread owner = _owner.get();
+			return owner != null && owner.isAlive();
+		}
+	}
+
+	/**
+	 * Profile of a single opcode, with the latency histogram in nanoseconds
+	 * and the accumulated sizes and formats of matrix/frame inputs and outputs.
+	 */
+	public static class OpProfile {
+		//positions of aggregates in the stats array
+		private static final int BYTES_IN = 0;
+		private static final int BYTES_OUT = 1;
+		private static final int SPARSE_IN = 2;
+		private static final int DENSE_IN = 3;
+		private static final int SPARSE_OUT = 4;
+		private static final int DENSE_OUT = 5;
+
+		private final LatencyHistogram _latency;
+		private final AtomicLongArray _stats = new AtomicLongArray(6);
+
+		public OpProfile() {
+			_latency = new LatencyHistogram();
+		}
+
+		private void add(int pos, long delta) {
+			//single writer (thread-local or merge)
+			_stats.lazySet(pos, _stats.get(pos) + delta);
+		}
+
+		private void merge(OpProfile that) {
+			_latency.merge(that._latency);
+			for( int i=0; i<_stats.length(); i++ )
+				add(i, that._stats.get(i));
+		}
+
+		public LatencyHistogram getLatency() {
+			return _latency;
+		}
+
+		public long getBytesIn() {
+			return _stats.get(BYTES_IN);
+		}
+
+		public long getBytesOut() {
+			return _stats.get(BYTES_OUT);
+		}
+
+		public long getNumSparseIn() {
+			return _stats.get(SPARSE_IN);
+		}
+
+		public long getNumDenseIn() {
+			return _stats.get(DENSE_IN);
+		}
+
+		public long getNumSparseOut() {
+			return _stats.get(SPARSE_OUT);
+		}
+
+		public long getNumDenseOut() {
+			return _stats.get(DENSE_OUT);
+		}
+	}
+
+	/**
+	 * Records the execution of the given instruction. Sizes and formats are
+	 * obtained from the meta data and in-memory blocks of the inputs and
+	 * outputs in the symbol table, without pinning or reading the actual data.
+	 *
+	 * @param inst executed instruction
+	 * @param ec execution context
+	 * @param timeNanos execution time in nanoseconds
+	 */
+	public static void maintain(Instruction inst, ExecutionContext ec, long timeNanos) {
+		OpProfile op = getThreadProfile()._ops
+			.computeIfAbsent(inst.getExtendedOpcode(), k -> new OpProfile());
+		op._latency.record(timeNanos);
+
+		if( inst instanceof ComputationCPInstruction ) {
+			ComputationCPInstruction cinst = (ComputationCPInstruction) inst;
+			maintainData(op, ec, cinst.input1, true);
+			maintainData(op, ec, cinst.input2, true);
+			maintainData(op, ec, cinst.input3, true);
+			maintainData(op, ec, cinst.output, false);
+		}
+	}
+
+	private static ThreadProfile getThreadProfile() {
+		ThreadProfile tp = _local.get();
+		long gen = _generation;
+		if( tp == null || tp._gen != gen ) {
+			tp = new ThreadProfile(gen);
+			_local.set(tp);
+			registerProfile(tp);
+		}
+		return tp;
+	}
+
+	private static synchronized void registerProfile(ThreadProfile tp) {
+		pruneProfiles(_generation);
+		_profiles.add(tp);
+	}
+
+	private static void pruneProfiles(long gen) {
+		//fold profiles of terminated threads (e.g., parfor workers)
+		//into the retired profile to bound the number of thread profiles
+		Iterator<ThreadProfile> iter = _profiles.iterator();
+		while( iter.hasNext() ) {
+			ThreadProfile tp = iter.next();
+			if( tp._gen != gen )
+				iter.remove();
+			else if( !tp.isAlive() ) {
+				mergeProfile(_retired, tp._ops);
+				iter.remove();
+			}
+		}
+	}
+
+	/**
+	 * Obtains the number of registered thread profiles, which includes
+	 * profiles of terminated threads that are not yet folded.
+	 *
+	 * @return number of thread profiles
+	 */
+	public static int getNumThreadProfiles() {
+		return _profiles.size();
+	}
+
+	private static void maintainData(OpProfile op, ExecutionContext ec, CPOperand operand, boolean input) {
+		if( operand == null || operand.isLiteral() )
+			return;
+		Data dat = ec.getVariable(operand.getName());
+		if( !(dat instanceof CacheableData) )
+			return;
+		CacheableData<?> cd = (CacheableData<?>) dat;
+		DataCharacteristics dc = cd.getDataCharacteristics();
+		long size = cd.getDataSize();
+		if( size == 0 && dc.dimsKnown(true) )
+			size = OptimizerUtils.estimateSizeExactSparsity(dc);
+		op.add(input ? OpProfile.BYTES_IN : OpProfile.BYTES_OUT, size);
+		//actual formats of in-memory blocks (evicted blocks are not counted)
+		Boolean sparse = (dat instanceof MatrixObject) ?
+			((MatrixObject) dat).isInSparseFormatInMemory() : null;
+		if( sparse != null ) {
+			op.add(input ? (sparse ? OpProfile.SPARSE_IN : OpProfile.DENSE_IN) :
+				(sparse ? OpProfile.SPARSE_OUT : OpProfile.DENSE_OUT), 1);
+		}
+	}
+
+	/**
+	 * Obtains a snapshot of the current profile, merged over all threads.
+	 *
+	 * @return map of opcodes to profiles, sorted by opcode
+	 */
+	public static synchronized Map<String, OpProfile> getProfile() {
+		long gen = _generation;
+		pruneProfiles(gen);
+		TreeMap<String, OpProfile> ret = new TreeMap<>();
+		mergeProfile(ret, _retired);
+		for( ThreadProfile tp : _profiles )
+			if( tp._gen == gen )
+				mergeProfile(ret, tp._ops);
+		return ret;
+	}
+
+	private static void mergeProfile(Map<String, OpProfile> target, Map<String, OpProfile> source) {
+		for( Entry<String, OpProfile> e : source.entrySet() )
+			target.computeIfAbsent(e.getKey(), k -> new OpProfile()).merge(e.getValue());
+	}
+
+	/**
+	 * Resets the profile of all threads.
+	 */
+	public static synchronized void reset() {
+		_generation++;
+		_profiles.clear();
+		_retired.clear();
+	}
+
+	/**
+	 * Exports the current profile to the given file, as Prometheus text
+	 * if the file name ends with .prom, and as JSON otherwise.
+	 *
+	 * @param fname file name, or none to skip the export
+	 */
+	public static void export(String fname) {
+		if( fname == null || fname.isEmpty() || fname.equalsIgnoreCase("none") )
+			return;
+		try {
+			HDFSTool.writeStringToHDFS(fname.endsWith(".prom") ?
+				displayPrometheus() : displayJSON(), fname);
+		}
+		catch(IOException ex) {
+			throw new DMLRuntimeException("Failed to export instruction profile to "+fname+".", ex);
+		}
+	}
+
+	public static String displayJSON() {
+		try {
+			JSONArray ops = new JSONArray();
+			for( Entry<String, OpProfile> e : getProfile().entrySet() ) {
+				OpProfile op = e.getValue();
+				LatencyHistogram h = op.getLatency();
+				OrderedJSONObject jop = new OrderedJSONObject();
+				jop.put("opcode", e.getKey());
+				jop.put("count", h.getCount());
+				jop.put("totalNanos", h.getTotal());
+				jop.put("meanNanos", h.getMean());
+				jop.put("maxNanos", h.getMax());
+				jop.put("p50Nanos", h.getValueAtPercentile(50));
+				jop.put("p90Nanos", h.getValueAtPercentile(90));
+				jop.put("p99Nanos", h.getValueAtPercentile(99));
+				jop.put("p999Nanos", h.getValueAtPercentile(99.9));
+				jop.put("bytesIn", op.getBytesIn());
+				jop.put("bytesOut", op.getBytesOut());
+				jop.put("sparseIn", op.getNumSparseIn());
+				jop.put("denseIn", op.getNumDenseIn());
+				jop.put("sparseOut", op.getNumSparseOut());
+				jop.put("denseOut", op.getNumDenseOut());
+				//non-empty buckets as [upper bound, count]
+				JSONArray buckets = new JSONArray();
+				for( int i=0; i<LatencyHistogram.NUM_BUCKETS; i++ ) {
+					long cnt = h.getBucketCount(i);
+					if( cnt == 0 )
+						continue;
+					JSONArray bucket = new JSONArray();
+					bucket.add(LatencyHistogram.getUpperBound(i));
+					bucket.add(cnt);
+					buckets.add(bucket);
+				}
+				jop.put("histogram", buckets);
+				ops.add(jop);
+			}
+			OrderedJSONObject ret = new OrderedJSONObject();
+			ret.put("instructions", ops);
+			return ret.toString();
+		}
+		catch(JSONException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+
+	public static String displayPrometheus() {
+		Map<String, OpProfile> profile = getProfile();
+		StringBuilder sb = new StringBuilder();
+
+		//latency histograms (cumulative over coarse buckets)
+		String name = PROMETHEUS_PREFIX + "latency_seconds";
+		sb.append("# HELP " + name + " Latency of executed instructions.\n");
+		sb.append("# TYPE " + name + " histogram\n");
+		for( Entry<String, OpProfile> e : profile.entrySet() ) {
+			String label = "opcode=\"" + escapeLabel(e.getKey()) + "\"";
+			LatencyHistogram h = e.getValue().getLatency();
+			int ix = 0;
+			long cnt = 0;
+			for( double le : PROMETHEUS_BUCKETS ) {
+				for( ; ix<LatencyHistogram.NUM_BUCKETS
+					&& LatencyHistogram.getUpperBound(ix) <= le * 1e9; ix++ )
+					cnt += h.getBucketCount(ix);
+				sb.append(name + "_bucket{" + label + ",le=\"" + le + "\"} " + cnt + "\n");
+			}
+			sb.append(name + "_bucket{" + label + ",le=\"+Inf\"} " + h.getCount() + "\n");
+			sb.append(name + "_sum{" + label + "} " + (h.getTotal() / 1e9) + "\n");
+			sb.append(name + "_count{" + label + "} " + h.getCount() + "\n");
+		}
+
+		//sizes and formats of inputs and outputs
+		appendPrometheusCounter(sb, profile, "bytes_in_total",
+			"Bytes of instruction inputs.", null, OpProfile.BYTES_IN);
+		appendPrometheusCounter(sb, profile, "bytes_out_total",
+			"Bytes of instruction outputs.", null, OpProfile.BYTES_OUT);
+		appendPrometheusCounter(sb, profile, "inputs_total",
+			"In-memory matrix inputs by format.", "sparse", OpProfile.SPARSE_IN);
+		appendPrometheusCounter(sb, profile, "inputs_total",
+			null, "dense", OpProfile.DENSE_IN);
+		appendPrometheusCounter(sb, profile, "outputs_total",
+			"In-memory matrix outputs by format.", "sparse", OpProfile.SPARSE_OUT);
+		appendPrometheusCounter(sb, profile, "outputs_total",
+			null, "dense", OpProfile.DENSE_OUT);
+		return sb.toString();
+	}
+
+	private static void appendPrometheusCounter(StringBuilder sb, Map<String, OpProfile> profile,
+		String suffix, String help, String format, int pos)
+	{
+		String name = PROMETHEUS_PREFIX + suffix;
+		if( help != null ) {
+			sb.append("# HELP " + name + " " + help + "\n");
+			sb.append("# TYPE " + name + " counter\n");
+		}
+		for( Entry<String, OpProfile> e : profile.entrySet() ) {
+			sb.append(name + "{opcode=\"" + escapeLabel(e.getKey()) + "\"");
+			if( format != null )
+				sb.append(",format=\"" + format + "\"");
+			sb.append("} " + e.getValue()._stats.get(pos) + "\n");
+		}
+	}
+
+	private static String escapeLabel(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of non-negative long values (e.g., latencies in
+ * nanoseconds) in the style of HDR histograms. Values below 8 are counted
+ * exactly, while larger values are assigned to 8 linear sub-buckets per power
+ * of two, which bounds the relative error of reported percentiles to 12.5%
+ * over the entire value range with a fixed number of buckets.
+ *
+ * Recording is lock-free but assumes a single writer (e.g., a thread-local
+ * histogram), which allows ordered stores instead of atomic read-modify-write
+ * operations, while concurrent readers obtain a consistent-enough view for
+ * monitoring. Merged histograms are created via the copy constructor and
+ * {@link #merge(LatencyHistogram)}.
+ */
+public class LatencyHistogram
+{
+	private static final int SUB_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	public static final int NUM_BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+	//positions of aggregates in the stats array
+	private static final int COUNT = 0;
+	private static final int TOTAL = 1;
+	private static final int MAX = 2;
+
+	private final AtomicLongArray _buckets;
+	private final AtomicLongArray _stats;
+
+	public LatencyHistogram() {
+		_buckets = new AtomicLongArray(NUM_BUCKETS);
+		_stats = new AtomicLongArray(3);
+	}
+
+	public LatencyHistogram(LatencyHistogram that) {
+		this();
+		merge(that);
+	}
+
+	/**
+	 * Records the given value (single writer only).
+	 *
+	 * @param value non-negative value, negative values are recorded as 0
+	 */
+	public void record(long value) {
+		value = Math.max(value, 0);
+		int ix = getBucketIndex(value);
+		_buckets.lazySet(ix, _buckets.get(ix) + 1);
+		_stats.lazySet(COUNT, _stats.get(COUNT) + 1);
+		_stats.lazySet(TOTAL, _stats.get(TOTAL) + value);
+		if( value > _stats.get(MAX) )
+			_stats.lazySet(MAX, value);
+	}
+
+	/**
+	 * Adds all counts of the given histogram to this histogram
+	 * (single writer only).
+	 *
+	 * @param that histogram
+	 */
+	public void merge(LatencyHistogram that) {
+		for( int i=0; i<NUM_BUCKETS; i++ ) {
+			long cnt = that._buckets.get(i);
+			if( cnt > 0 )
+				_buckets.lazySet(i, _buckets.get(i) + cnt);
+		}
+		_stats.lazySet(COUNT, _stats.get(COUNT) + that._stats.get(COUNT));
+		_stats.lazySet(TOTAL, _stats.get(TOTAL) + that._stats.get(TOTAL));
+		_stats.lazySet(MAX, Math.max(_stats.get(MAX), that._stats.get(MAX)));
+	}
+
+	public long getCount() {
+		return _stats.get(COUNT);
+	}
+
+	public long getTotal() {
+		return _stats.get(TOTAL);
+	}
+
+	public long getMax() {
+		return _stats.get(MAX);
+	}
+
+	public double getMean() {
+		long cnt = getCount();
+		return (cnt > 0) ? (double)getTotal() / cnt : 0;
+	}
+
+	public long getBucketCount(int ix) {
+		return _buckets.get(ix);
+	}
+
+	/**
+	 * Obtains the value at the given percentile, i.e., the upper bound
+	 * of the bucket that contains the value of the given rank.
+	 *
+	 * @param percentile percentile in [0, 100]
+	 * @return value at percentile (bounded by the max value), 0 if empty
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long cnt = 0;
+		for( int i=0; i<NUM_BUCKETS; i++ )
+			cnt += _buckets.get(i);
+		if( cnt == 0 )
+			return 0;
+		long rank = Math.max((long)Math.ceil(percentile / 100 * cnt), 1);
+		long sum = 0;
+		for( int i=0; i<NUM_BUCKETS; i++ ) {
+			sum += _buckets.get(i);
+			if( sum >= rank )
+				return Math.min(getUpperBound(i), getMax());
+		}
+		return getMax();
+	}
+
+	public static int getBucketIndex(long value) {
+		if( value < SUB_BUCKETS )
+			return (int) value;
+		int exp = 63 - Long.numberOfLeadingZeros(value);
+		return ((exp - SUB_BITS + 1) << SUB_BITS)
+			+ (int)((value >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1));
+	}
+
+	public static long getLowerBound(int ix) {
+		if( ix < SUB_BUCKETS )
+			return ix;
+		int exp = (ix >>> SUB_BITS) + SUB_BITS - 1;
+		return (long)(SUB_BUCKETS + (ix & (SUB_BUCKETS - 1))) << (exp - SUB_BITS);
+	}
+
+	public static long getUpperBound(int ix) {
+		if( ix < SUB_BUCKETS )
+			return ix;
+		int exp = (ix >>> SUB_BITS) + SUB_BITS - 1;
+		return getLowerBound(ix) + (1L << (exp - SUB_BITS)) - 1;
+	}
+}
@@ -38,11 +38,13 @@ import org.tugraz.sysds.api.DMLScript;
 import org.tugraz.sysds.conf.ConfigurationManager;
 import org.tugraz.sysds.hops.OptimizerUtils;
 import org.tugraz.sysds.runtime.controlprogram.caching.CacheStatistics;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
 import org.tugraz.sysds.runtime.controlprogram.context.SparkExecutionContext;
 import org.tugraz.sysds.runtime.instructions.Instruction;
 import org.tugraz.sysds.runtime.instructions.InstructionUtils;
 import org.tugraz.sysds.runtime.instructions.cp.FunctionCallCPInstruction;
 import org.tugraz.sysds.runtime.instructions.spark.SPInstruction;
+import org.tugraz.sysds.runtime.lineage.LineageCacheConfig;
 import org.tugraz.sysds.runtime.lineage.LineageCacheConfig.ReuseCacheType;
 import org.tugraz.sysds.runtime.lineage.LineageCacheStatistics;
 import org.tugraz.sysds.runtime.matrix.data.LibMatrixDNN;
@@ -87,6 +89,12 @@ public class Statistics
 	private static final LongAdder hopRecompileTime = new LongAdder(); //in nano sec
 	private static final LongAdder hopRecompilePred = new LongAdder(); //count
 	private static final LongAdder hopRecompileSB = new LongAdder();   //count
+	private static final LongAdder hopRecompileCacheHits = new LongAdder();   //count
+	private static final LongAdder hopRecompileCacheMisses = new LongAdder(); //count
+	
+	//inter-operator parallelism stats
+	private static final LongAdder parInstSB = new LongAdder();   //count
+	private static final LongAdder parInstCount = new LongAdder(); //count
 
 	//CODEGEN
 	private static final LongAdder codegenCompileTime = new LongAdder(); //in nano
@@ -102,6 +110,8 @@ public class Statistics
 	private static final LongAdder codegenOpCacheTotal = new LongAdder(); //count
 	private static final LongAdder codegenPlanCacheHits = new LongAdder(); //count
 	private static final LongAdder codegenPlanCacheTotal = new LongAdder(); //count
+	private static final LongAdder codegenClassCacheHits = new LongAdder(); //count
+	private static final LongAdder codegenClassCacheMisses = new LongAdder(); //count
 	
 	//Function recompile stats 
 	private static final LongAdder funRecompileTime = new LongAdder(); //in nano sec
@@ -131,11 +141,17 @@ public class Statistics
 	private static long parforOptCount = 0; //count
 	private static long parforInitTime = 0; //in milli sec
 	private static long parforMergeTime = 0; //in milli sec
+	private static long parforIdleTime = 0; //in nano sec
+	private static long parforSteals = 0; //count
 
 	private static final LongAdder lTotalUIPVar = new LongAdder();
 	private static final LongAdder lTotalLix = new LongAdder();
 	private static final LongAdder lTotalLixUIP = new LongAdder();
 	
+	//Compressed linear algebra ops (compressed-domain, decompressing fallbacks)
+	private static final LongAdder claCompressedOps = new LongAdder(); //count
+	private static final LongAdder claDecompressOps = new LongAdder(); //count
+	
 	private static LongAdder numNativeFailures = new LongAdder();
 	public static LongAdder numNativeLibMatrixMultCalls = new LongAdder();
 	public static LongAdder numNativeConv2dCalls = new LongAdder();
@@ -209,6 +225,22 @@ public class Statistics
 		lTotalLix.increment();
 	}
 
+	public static long getCLACompressedOps() {
+		return claCompressedOps.longValue();
+	}
+
+	public static void incrementCLACompressedOps() {
+		claCompressedOps.increment();
+	}
+
+	public static long getCLADecompressOps() {
+		return claDecompressOps.longValue();
+	}
+
+	public static void incrementCLADecompressOps() {
+		claDecompressOps.increment();
+	}
+
 	public static void resetNoOfCompiledJobs( int count ) {
 		//reset both mr/sp for multiple tests within one jvm
 		numCompiledSPInst.reset();
@@ -255,6 +287,22 @@ public class Statistics
 		hopRecompileSB.add(delta);
 	}
 	
+	public static void incrementHOPRecompileCacheHits() {
+		hopRecompileCacheHits.increment();
+	}
+	
+	public static void incrementHOPRecompileCacheMisses() {
+		hopRecompileCacheMisses.increment();
+	}
+	
+	public static void incrementParallelInstSB() {
+		parInstSB.increment();
+	}
+	
+	public static void incrementParallelInst(long delta) {
+		parInstCount.add(delta);
+	}
+	
 	public static void incrementCodegenDAGCompile() {
 		codegenHopCompile.increment();
 	}
@@ -352,6 +400,22 @@ public class Statistics
 	public static long getCodegenPlanCacheTotal() {
 		return codegenPlanCacheTotal.longValue();
 	}
+	
+	public static void incrementCodegenClassCacheHits() {
+		codegenClassCacheHits.increment();
+	}
+	
+	public static void incrementCodegenClassCacheMisses() {
+		codegenClassCacheMisses.increment();
+	}
+	
+	public static long getCodegenClassCacheHits() {
+		return codegenClassCacheHits.longValue();
+	}
+	
+	public static long getCodegenClassCacheMisses() {
+		return codegenClassCacheMisses.longValue();
+	}
 
 	public static void incrementFunRecompileTime( long delta ) {
 		funRecompileTime.add(delta);
@@ -376,6 +440,14 @@ public class Statistics
 	public static synchronized void incrementParForMergeTime( long time ) {
 		parforMergeTime += time;
 	}
+	
+	public static synchronized void incrementParForIdleTime( long time ) {
+		parforIdleTime += time;
+	}
+	
+	public static synchronized void incrementParForSteals( long steals ) {
+		parforSteals += steals;
+	}
 
 	public static void startCompileTimer() {
 		if( DMLScript.STATISTICS )
@@ -421,6 +493,11 @@ public class Statistics
 		hopRecompileTime.reset();
 		hopRecompilePred.reset();
 		hopRecompileSB.reset();
+		hopRecompileCacheHits.reset();
+		hopRecompileCacheMisses.reset();
+		
+		parInstSB.reset();
+		parInstCount.reset();
 		
 		funRecompiles.reset();
 		funRecompileTime.reset();
@@ -438,11 +515,15 @@ public class Statistics
 		codegenOpCacheTotal.reset();
 		codegenPlanCacheHits.reset();
 		codegenPlanCacheTotal.reset();
+		codegenClassCacheHits.reset();
+		codegenClassCacheMisses.reset();
 		
 		parforOptCount = 0;
 		parforOptTime = 0;
 		parforInitTime = 0;
 		parforMergeTime = 0;
+		parforIdleTime = 0;
+		parforSteals = 0;
 		
 		sparkCtxCreateTime = 0;
 		
@@ -450,6 +531,9 @@ public class Statistics
 		lTotalLixUIP.reset();
 		lTotalUIPVar.reset();
 		
+		claCompressedOps.reset();
+		claDecompressOps.reset();
+		
 		CacheStatistics.reset();
 		LineageCacheStatistics.reset();
 		
@@ -843,6 +927,22 @@ public class Statistics
 		return hopRecompileSB.longValue();
 	}
 	
+	public static long getHopRecompileCacheHits(){
+		return hopRecompileCacheHits.longValue();
+	}
+	
+	public static long getHopRecompileCacheMisses(){
+		return hopRecompileCacheMisses.longValue();
+	}
+	
+	public static long getParallelInstSB(){
+		return parInstSB.longValue();
+	}
+	
+	public static long getParallelInst(){
+		return parInstCount.longValue();
+	}
+	
 	public static long getFunRecompileTime(){
 		return funRecompileTime.longValue();
 	}
@@ -866,6 +966,14 @@ public class Statistics
 	public static long getParforMergeTime(){
 		return parforMergeTime;
 	}
+	
+	public static long getParforIdleTime(){
+		return parforIdleTime;
+	}
+	
+	public static long getParforSteals(){
+		return parforSteals;
+	}
 
 	public static long getNumPinnedObjects() { return maxNumPinnedObjects; }
 
@@ -936,24 +1044,39 @@ public class Statistics
 
 			sb.append("Cache hits (Mem, WB, FS, HDFS):\t" + CacheStatistics.displayHits() + ".\n");
 			sb.append("Cache writes (WB, FS, HDFS):\t" + CacheStatistics.displayWrites() + ".\n");
+			if( CacheableData.CACHING_BUFFER_PAGECACHE )
+				sb.append("Cache pages (Hit, Miss, Rej):\t" + CacheStatistics.displayPages() + ".\n");
 			sb.append("Cache times (ACQr/m, RLS, EXP):\t" + CacheStatistics.displayTime() + " sec.\n");
 			if (DMLScript.JMLC_MEM_STATISTICS)
 				sb.append("Max size of live objects:\t" + byteCountToDisplaySize(getSizeofPinnedObjects()) + " ("  + getNumPinnedObjects() + " total objects)" + "\n");
 			sb.append("HOP DAGs recompiled (PRED, SB):\t" + getHopRecompiledPredDAGs() + "/" + getHopRecompiledSBDAGs() + ".\n");
 			sb.append("HOP DAGs recompile time:\t" + String.format("%.3f", ((double)getHopRecompileTime())/1000000000) + " sec.\n");
+			if( getHopRecompileCacheHits()+getHopRecompileCacheMisses()>0 )
+				sb.append("HOP DAGs recompile cache (hit, miss):\t" + getHopRecompileCacheHits() + "/" + getHopRecompileCacheMisses() + ".\n");
 			if( getFunRecompiles()>0 ) {
 				sb.append("Functions recompiled:\t\t" + getFunRecompiles() + ".\n");
 				sb.append("Functions recompile time:\t" + String.format("%.3f", ((double)getFunRecompileTime())/1000000000) + " sec.\n");
 			}
+			if( getParallelInstSB()>0 )
+				sb.append("Parallel inst (SB, inst):\t" + getParallelInstSB() + "/" + getParallelInst() + ".\n");
 			if (DMLScript.LINEAGE && !ReuseCacheType.isNone()) {
 				sb.append("LinCache hits (Mem/FS/Del): \t" + LineageCacheStatistics.displayHits() + ".\n");
 				sb.append("LinCache MultiLevel (Ins/SB/Fn):" + LineageCacheStatistics.displayMultiLvlHits() + ".\n");
+				sb.append("LinCache misses (Ins/Wait): \t" + LineageCacheStatistics.displayMisses() + ".\n");
+				sb.append("LinCache wait time:     \t" + LineageCacheStatistics.displayWaitTime() + " sec.\n");
 				sb.append("LinCache writes (Mem/FS): \t" + LineageCacheStatistics.displayWtrites() + ".\n");
 				sb.append("LinCache FStimes (Rd/Wr): \t" + LineageCacheStatistics.displayTime() + " sec.\n");
+				sb.append("LinCache FSbytes (Rd/Wr/Pf): \t" + LineageCacheStatistics.displayFSBytes() + ".\n");
+				if (LineageCacheConfig.isSetStore())
+					sb.append("LinCache store (Hits/Wr): \t" + LineageCacheStatistics.displayStore() + ".\n");
 				sb.append("LinCache costing time:  \t" + LineageCacheStatistics.displayCostingTime() + " sec.\n");
 				sb.append("LinCache Rewrites:    \t\t" + LineageCacheStatistics.displayRewrites() + ".\n");
 				sb.append("LinCache RWtime (Com/Ex): \t" + LineageCacheStatistics.displayRewriteTime() + " sec.\n");
 			}
+			if( getCLACompressedOps() > 0 || getCLADecompressOps() > 0 ) {
+				sb.append("CLA ops (compressed/decomp):\t" + getCLACompressedOps() + "/"
+						+ getCLADecompressOps() + ".\n");
+			}
 			if( ConfigurationManager.isCodegenEnabled() ) {
 				sb.append("Codegen compile (DAG,CP,JC):\t" + getCodegenDAGCompile() + "/"
 						+ getCodegenCPlanCompile() + "/" + getCodegenClassCompile() + ".\n");
@@ -963,6 +1086,8 @@ public class Statistics
 						String.format("%.3f", (double)getCodegenClassCompileTime()/1000000000)  + " sec.\n");
 				sb.append("Codegen enum plan cache hits:\t" + getCodegenPlanCacheHits() + "/" + getCodegenPlanCacheTotal() + ".\n");
 				sb.append("Codegen op plan cache hits:\t" + getCodegenOpCacheHits() + "/" + getCodegenOpCacheTotal() + ".\n");
+				if( getCodegenClassCacheHits() + getCodegenClassCacheMisses() > 0 )
+					sb.append("Codegen class cache (hit/miss):\t" + getCodegenClassCacheHits() + "/" + getCodegenClassCacheMisses() + ".\n");
 			}
 			if( OptimizerUtils.isSparkExecutionMode() ){
 				String lazy = SparkExecutionContext.isLazySparkContextCreation() ? "(lazy)" : "(eager)";
@@ -992,6 +1117,9 @@ public class Statistics
 				sb.append("ParFor optimize time:\t\t" + String.format("%.3f", ((double)getParforOptTime())/1000) + " sec.\n");
 				sb.append("ParFor initialize time:\t\t" + String.format("%.3f", ((double)getParforInitTime())/1000) + " sec.\n");
 				sb.append("ParFor result merge time:\t" + String.format("%.3f", ((double)getParforMergeTime())/1000) + " sec.\n");
+				sb.append("ParFor worker idle time:\t" + String.format("%.3f", ((double)getParforIdleTime())/1000000000) + " sec.\n");
+				if( getParforSteals() > 0 )
+					sb.append("ParFor work steals:\t\t" + getParforSteals() + ".\n");
 				sb.append("ParFor total update in-place:\t" + lTotalUIPVar + "/" + lTotalLixUIP + "/" + lTotalLix + "\n");
 			}
 
@@ -29,6 +29,7 @@ import org.tugraz.sysds.hops.codegen.cplan.CNodeUnary.UnaryType;
 import org.tugraz.sysds.runtime.codegen.LibSpoofPrimitives;
 import org.tugraz.sysds.runtime.functionobjects.Builtin;
 import org.tugraz.sysds.runtime.instructions.InstructionUtils;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixMult;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
@@ -716,6 +717,22 @@ public class CPlanVectorPrimitivesTest extends AutomatedTestBase
 	public void testVectorVectorBitwAndSparseDense() {
 		testVectorBinaryPrimitive(BinType.VECT_BITWAND, InputType.VECTOR_SPARSE, InputType.VECTOR_DENSE);
 	}
+	
+	//support multiply-add vector primitives
+	
+	@Test
+	public void testVectorVectorMultAddDense() {
+		MatrixBlock in = MatrixBlock.randOperations(m, n, sparsity1, -1, 1, "uniform", 7);
+		double[] a = in.getDenseBlockValues();
+		for( int i=1; i<m; i++ ) {
+			//compare single-pass multiply-add with multiply and add
+			double[] c1 = new double[n+3], c2 = new double[n+3];
+			LibSpoofPrimitives.vectMultAdd(a, a, c1, i*n, 3, n);
+			double[] tmp = LibSpoofPrimitives.vectMultWrite(a, a, 0, i*n, n);
+			LibMatrixMult.vectAdd(tmp, c2, 0, 3, n);
+			TestUtils.compareMatrices(c2, c1, eps);
+		}
+	}
 
 	@SuppressWarnings("incomplete-switch")
 	private static void testVectorAggPrimitive(UnaryType aggtype, InputType type1)
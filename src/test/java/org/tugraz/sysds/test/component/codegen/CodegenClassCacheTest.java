@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.codegen;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.api.DMLScript;
+import org.tugraz.sysds.hops.codegen.SpoofCompiler;
+import org.tugraz.sysds.hops.codegen.SpoofCompiler.CompilerType;
+import org.tugraz.sysds.runtime.codegen.CodegenClassCache;
+import org.tugraz.sysds.runtime.codegen.CodegenUtils;
+import org.tugraz.sysds.runtime.util.LocalFileUtils;
+import org.tugraz.sysds.utils.Statistics;
+
+public class CodegenClassCacheTest
+{
+	private static final String NAME = "codegen.TMPClassCacheTest";
+	private static final String SRC = "package codegen;\n"
+		+ "public class TMPClassCacheTest {\n"
+		+ "  public int get() { return 7; }\n"
+		+ "}\n";
+
+	@Test
+	public void testReuseAcrossClassCaches() throws Exception {
+		runClassCacheTest(CompilerType.JAVAC, false);
+	}
+
+	@Test
+	public void testCorruptedEntry() throws Exception {
+		runClassCacheTest(CompilerType.JAVAC, true);
+	}
+
+	@Test
+	public void testReuseAcrossClassCachesJanino() throws Exception {
+		runClassCacheTest(CompilerType.JANINO, false);
+	}
+
+	@Test
+	public void testCorruptedEntryJanino() throws Exception {
+		runClassCacheTest(CompilerType.JANINO, true);
+	}
+
+	@Test
+	public void testLRUEviction() throws Exception {
+		File dir = Files.createTempDirectory("classcache").toFile();
+		try {
+			//only two entries of 100 bytes fit into the cache
+			CodegenClassCache cache = new CodegenClassCache(dir.getPath(), 250);
+			long now = System.currentTimeMillis();
+			cache.write("A", new byte[100]);
+			getEntry(dir, "A").setLastModified(now - 20000);
+			cache.write("B", new byte[100]);
+			getEntry(dir, "B").setLastModified(now - 10000);
+			Assert.assertNotNull(cache.read("A")); //touch A
+			cache.write("C", new byte[100]);
+			Assert.assertEquals(2, cache.getNumEntries());
+			Assert.assertEquals(200, cache.getSize());
+			Assert.assertNull(cache.read("B"));
+			Assert.assertFalse(getEntry(dir, "B").exists());
+			Assert.assertNotNull(cache.read("A"));
+			Assert.assertNotNull(cache.read("C"));
+
+			//entries larger than the cache are not written
+			cache.write("D", new byte[300]);
+			Assert.assertNull(cache.read("D"));
+
+			//reopened cache with smaller limit is shrunk
+			CodegenClassCache cache2 = new CodegenClassCache(dir.getPath(), 150);
+			Assert.assertEquals(1, cache2.getNumEntries());
+			Assert.assertTrue(cache2.getSize() <= 150);
+		}
+		finally {
+			LocalFileUtils.deleteFileIfExists(dir.getPath());
+		}
+	}
+
+	@Test
+	public void testRuntimeDigest() {
+		//digest of codegen base classes (not running from a jar), computed once
+		String digest = CodegenClassCache.getRuntimeDigest();
+		Assert.assertEquals(64, digest.length());
+		Assert.assertSame(digest, CodegenClassCache.getRuntimeDigest());
+		Assert.assertNotEquals(CodegenClassCache.getDigest(SRC),
+			CodegenClassCache.getDigest(SRC.replace("7", "8")));
+	}
+
+	private static File getEntry(File dir, String src) {
+		return new File(dir, CodegenClassCache.getDigest(src) + ".class");
+	}
+
+	private static void runClassCacheTest(CompilerType compiler, boolean corrupt) throws Exception {
+		CompilerType oldCompiler = SpoofCompiler.JAVA_COMPILER;
+		boolean oldStats = DMLScript.STATISTICS;
+		File dir = Files.createTempDirectory("classcache").toFile();
+		try {
+			SpoofCompiler.JAVA_COMPILER = compiler;
+			DMLScript.STATISTICS = true;
+			Statistics.reset();
+			CodegenUtils.clearClassCache();
+			CodegenUtils.setPersistentClassCache(dir.getPath(), 16);
+
+			//first compilation writes the class file
+			Class<?> cla1 = CodegenUtils.compileClass(NAME, SRC);
+			Assert.assertEquals(7, cla1.getMethod("get").invoke(cla1.newInstance()));
+			Assert.assertEquals(0, Statistics.getCodegenClassCacheHits());
+			Assert.assertEquals(1, Statistics.getCodegenClassCacheMisses());
+			File entry = new File(dir, CodegenClassCache.getDigest(SRC) + ".class");
+			Assert.assertTrue(entry.exists());
+			if( corrupt )
+				Files.write(entry.toPath(), new byte[]{1, 2, 3});
+
+			//second compilation (e.g., subsequent jvm) reads the class file
+			CodegenUtils.clearClassCache();
+			Class<?> cla2 = CodegenUtils.compileClass(NAME, SRC);
+			Assert.assertEquals(7, cla2.getMethod("get").invoke(cla2.newInstance()));
+			Assert.assertEquals(corrupt ? 0 : 1, Statistics.getCodegenClassCacheHits());
+			Assert.assertEquals(corrupt ? 2 : 1, Statistics.getCodegenClassCacheMisses());
+			if( compiler == CompilerType.JAVAC )
+				Assert.assertArrayEquals(Files.readAllBytes(entry.toPath()), CodegenUtils.getClassData(NAME));
+			Assert.assertTrue(Files.readAllBytes(entry.toPath()).length > 3);
+		}
+		finally {
+			SpoofCompiler.JAVA_COMPILER = oldCompiler;
+			DMLScript.STATISTICS = oldStats;
+			CodegenUtils.setPersistentClassCache(null, 16);
+			CodegenUtils.clearClassCache();
+			LocalFileUtils.deleteFileIfExists(dir.getPath());
+		}
+	}
+}
@@ -21,11 +21,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.tugraz.sysds.lops.MMTSJ.MMTSJType;
 import org.tugraz.sysds.lops.MapMultChain.ChainType;
+import org.tugraz.sysds.runtime.compress.ColGroup;
+import org.tugraz.sysds.runtime.compress.ColGroupDDC2;
 import org.tugraz.sysds.runtime.compress.CompressedMatrixBlock;
 import org.tugraz.sysds.runtime.functionobjects.Multiply;
 import org.tugraz.sysds.runtime.functionobjects.Plus;
@@ -34,6 +37,7 @@ import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.matrix.operators.AggregateBinaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.AggregateOperator;
 import org.tugraz.sysds.runtime.matrix.operators.AggregateUnaryOperator;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
 import org.tugraz.sysds.runtime.matrix.operators.RightScalarOperator;
 import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
 import org.tugraz.sysds.runtime.util.DataConverter;
@@ -140,6 +144,33 @@ public class CompressedMatrixTest extends CompressedTestBase {
 		}
 	}
 
+	@Test
+	public void testAppendCompressed() {
+		try {
+			if(!(cmbResult instanceof CompressedMatrixBlock))
+				return; // Input was not compressed then just pass test
+
+			// matrix-matrix uncompressed
+			MatrixBlock ret1 = mb.append(mb, new MatrixBlock());
+
+			// matrix-matrix compressed (w/ shifted copies of all column groups, incl DDC2)
+			MatrixBlock ret2 = cmb.append(cmb, new MatrixBlock());
+			Assert.assertTrue(ret2 instanceof CompressedMatrixBlock);
+			Assert.assertEquals(2 * getNumColGroups(cmb, ColGroupDDC2.class),
+				getNumColGroups((CompressedMatrixBlock) ret2, ColGroupDDC2.class));
+			ret2 = ((CompressedMatrixBlock) ret2).decompress();
+
+			// compare result with input
+			double[][] d1 = DataConverter.convertToDoubleMatrix(ret1);
+			double[][] d2 = DataConverter.convertToDoubleMatrix(ret2);
+			TestUtils.compareMatricesBitAvgDistance(d1, d2, rows, 2 * cols, 0, 0);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			throw new RuntimeException(this.toString() + "\n" + e.getMessage(), e);
+		}
+	}
+
 	@Test
 	public void testMatrixMultChain() {
 		try {
@@ -317,6 +348,122 @@ public class CompressedMatrixTest extends CompressedTestBase {
 		}
 	}
 
+	@Test
+	public void testBinaryRowVectorOperations() {
+		try {
+			if(!(cmbResult instanceof CompressedMatrixBlock))
+				return; // Input was not compressed then just pass test
+
+			MatrixBlock vector = DataConverter
+				.convertToMatrixBlock(TestUtils.generateTestMatrix(1, cols, -5, 5, 1.0, 3));
+
+			// sparse-safe and sparse-unsafe operations
+			for(BinaryOperator bop : new BinaryOperator[] {new BinaryOperator(Multiply.getMultiplyFnObject()),
+				new BinaryOperator(Plus.getPlusFnObject())}) {
+				// matrix-vector uncompressed
+				MatrixBlock ret1 = mb.binaryOperations(bop, vector, new MatrixBlock());
+
+				// matrix-vector compressed
+				MatrixBlock ret2 = cmb.binaryOperations(bop, vector, new MatrixBlock());
+				if(compress)
+					ret2 = ((CompressedMatrixBlock) ret2).decompress();
+
+				// compare result with input
+				double[][] d1 = DataConverter.convertToDoubleMatrix(ret1);
+				double[][] d2 = DataConverter.convertToDoubleMatrix(ret2);
+				TestUtils.compareMatricesBitAvgDistance(d1, d2, rows, cols, 150, 1);
+			}
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			throw new RuntimeException(this.toString() + "\n" + e.getMessage(), e);
+		}
+	}
+
+	@Test
+	public void testSliceRows() {
+		runSliceTest(rows / 3, rows / 2, 0, cols - 1);
+	}
+
+	@Test
+	public void testSliceRowsColumns() {
+		runSliceTest(1, rows - 2, cols / 3, cols - 1);
+	}
+
+	@Test
+	public void testSliceColumnGroups() {
+		runSliceTest(0, rows - 1, 0, cols - 1);
+	}
+
+	@Test
+	public void testSliceColumnGroupsShifted() {
+		if(!(cmbResult instanceof CompressedMatrixBlock))
+			return; // Input was not compressed then just pass test
+
+		// find first column > 0 not splitting any column group
+		for(int cl = 1; cl < cols; cl++) {
+			boolean aligned = true;
+			for(ColGroup grp : cmb.getColGroups()) {
+				int[] ix = grp.getColIndices();
+				boolean left = false, right = false;
+				for(int j = 0; j < ix.length; j++) {
+					left |= ix[j] < cl;
+					right |= ix[j] >= cl;
+				}
+				aligned &= !(left && right);
+			}
+			if(aligned) {
+				runSliceTest(0, rows - 1, cl, cols - 1);
+				return;
+			}
+		}
+	}
+
+	private void runSliceTest(int rl, int ru, int cl, int cu) {
+		try {
+			if(!(cmbResult instanceof CompressedMatrixBlock))
+				return; // Input was not compressed then just pass test
+
+			// slice uncompressed
+			MatrixBlock ret1 = mb.slice(rl, ru, cl, cu, new MatrixBlock());
+
+			// slice compressed (compressed output for entire column groups)
+			MatrixBlock ret2 = cmb.slice(rl, ru, cl, cu, new MatrixBlock());
+			Assert.assertEquals(rl == 0 && ru == rows - 1 && isAligned(cl, cu),
+				ret2 instanceof CompressedMatrixBlock);
+			Assert.assertEquals(ret1.getNonZeros(), ret2.getNonZeros());
+			if(ret2 instanceof CompressedMatrixBlock)
+				ret2 = ((CompressedMatrixBlock) ret2).decompress();
+
+			// compare result with input
+			double[][] d1 = DataConverter.convertToDoubleMatrix(ret1);
+			double[][] d2 = DataConverter.convertToDoubleMatrix(ret2);
+			TestUtils.compareMatricesBitAvgDistance(d1, d2, ru - rl + 1, cu - cl + 1, 0, 0);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			throw new RuntimeException(this.toString() + "\n" + e.getMessage(), e);
+		}
+	}
+
+	private boolean isAligned(int cl, int cu) {
+		for(ColGroup grp : cmb.getColGroups()) {
+			int inRange = 0;
+			for(int ix : grp.getColIndices())
+				inRange += (ix >= cl && ix <= cu) ? 1 : 0;
+			if(inRange > 0 && inRange < grp.getNumCols())
+				return false;
+		}
+		return true;
+	}
+
+	private static int getNumColGroups(CompressedMatrixBlock cmb, Class<?> type) {
+		int count = 0;
+		for(ColGroup grp : cmb.getColGroups())
+			count += type.isInstance(grp) ? 1 : 0;
+		return count;
+	}
+
 	// TODO replace with Direction x Types.AggOp
 	enum AggType {
 		ROWSUMS, COLSUMS, SUM, ROWSUMSSQ, COLSUMSSQ, SUMSQ, ROWMAXS, COLMAXS, MAX, ROWMINS, COLMINS, MIN,
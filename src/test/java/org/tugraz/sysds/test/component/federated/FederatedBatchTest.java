@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tugraz.sysds.test.component.federated;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedCodec;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedRequest;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedRequest.BatchRef;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedRequest.FedMethod;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedResponse;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedWorkerHandler;
+import org.tugraz.sysds.runtime.controlprogram.parfor.util.IDSequence;
+import org.tugraz.sysds.runtime.functionobjects.Multiply;
+import org.tugraz.sysds.runtime.functionobjects.Plus;
+import org.tugraz.sysds.runtime.instructions.InstructionUtils;
+import org.tugraz.sysds.runtime.matrix.data.InputInfo;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
+import org.tugraz.sysds.runtime.matrix.operators.AggregateBinaryOperator;
+import org.tugraz.sysds.runtime.matrix.operators.AggregateOperator;
+import org.tugraz.sysds.runtime.matrix.operators.AggregateUnaryOperator;
+import org.tugraz.sysds.runtime.matrix.operators.RightScalarOperator;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.meta.MetaDataFormat;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+public class FederatedBatchTest
+{
+	private static final int rows = 50;
+	private static final int cols = 10;
+
+	@Test
+	public void testBatchedMatVecChain() {
+		// sum((X %*% v) * 2) in a single round trip
+		MatrixBlock X = MatrixBlock.randOperations(rows, cols, 0.9, -1, 1, "uniform", 7);
+		MatrixBlock v = MatrixBlock.randOperations(cols, 1, 1.0, -1, 1, "uniform", 3);
+		Map<Long, CacheableData<?>> vars = new HashMap<>();
+		vars.put(0L, createMatrixObject(X));
+
+		RightScalarOperator sop = new RightScalarOperator(Multiply.getMultiplyFnObject(), 2);
+		AggregateUnaryOperator aop = InstructionUtils.parseBasicAggregateUnaryOperator("uak+");
+		List<FederatedRequest> ops = Arrays.asList(
+			new FederatedRequest(FedMethod.MATVECMULT, v, true, 0L),
+			new FederatedRequest(FedMethod.SCALAR, sop, new BatchRef(0)),
+			new FederatedRequest(FedMethod.AGGREGATE, aop, new BatchRef(1)));
+		FederatedResponse response = execute(vars, FederatedRequest.createBatch(ops, 1, 2));
+		assertTrue(response.isSuccessful());
+		List<?> results = (List<?>) response.getData();
+		assertEquals(2, results.size());
+
+		// compare with local computation
+		AggregateBinaryOperator ab = new AggregateBinaryOperator(
+			Multiply.getMultiplyFnObject(), new AggregateOperator(0, Plus.getPlusFnObject()));
+		MatrixBlock Xv2 = X.aggregateBinaryOperations(X, v, new MatrixBlock(), ab)
+			.scalarOperations(sop, new MatrixBlock());
+		compare(Xv2, (MatrixBlock) results.get(0));
+		assertEquals(Xv2.sum(), ((MatrixBlock) results.get(1)).getValue(0, 0), 1e-10);
+	}
+
+	@Test
+	public void testBatchInvalidReference() {
+		Map<Long, CacheableData<?>> vars = new HashMap<>();
+		vars.put(0L, createMatrixObject(MatrixBlock.randOperations(rows, cols, 0.9, -1, 1, "uniform", 7)));
+		List<FederatedRequest> ops = Arrays.asList(
+			new FederatedRequest(FedMethod.TRANSFER, new BatchRef(1)),
+			new FederatedRequest(FedMethod.TRANSFER, 0L));
+		FederatedResponse response = execute(vars, FederatedRequest.createBatch(ops, 1));
+		assertFalse(response.isSuccessful());
+	}
+
+	private static FederatedResponse execute(Map<Long, CacheableData<?>> vars, FederatedRequest request) {
+		// channel with codec and worker handler, fed by a client-side encoder
+		EmbeddedChannel client = new EmbeddedChannel(new FederatedCodec.Encoder());
+		EmbeddedChannel worker = new EmbeddedChannel(new FederatedCodec.Decoder(),
+			new FederatedCodec.Encoder(), new FederatedWorkerHandler(new IDSequence(), vars));
+		EmbeddedChannel decoder = new EmbeddedChannel(new FederatedCodec.Decoder());
+		client.writeOutbound(request);
+		worker.writeInbound(client.readOutbound());
+		decoder.writeInbound(worker.readOutbound());
+		FederatedResponse ret = (FederatedResponse) decoder.readInbound();
+		client.finish();
+		decoder.finish();
+		return ret;
+	}
+
+	private static MatrixObject createMatrixObject(MatrixBlock mb) {
+		MatrixObject mo = new MatrixObject(ValueType.FP64, "target/testTemp/fedbatch");
+		mo.setMetaData(new MetaDataFormat(new MatrixCharacteristics(mb.getNumRows(), mb.getNumColumns()),
+			OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo));
+		mo.acquireModify(mb);
+		mo.release();
+		return mo;
+	}
+
+	private static void compare(MatrixBlock expected, MatrixBlock actual) {
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected),
+			DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), 1e-10);
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tugraz.sysds.test.component.federated;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import org.junit.Test;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedCodec;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedRequest;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedResponse;
+import org.tugraz.sysds.runtime.functionobjects.Multiply;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.operators.RightScalarOperator;
+import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+public class FederatedCodecTest
+{
+	@Test
+	public void testRequestDense() {
+		runRequestTest(MatrixBlock.randOperations(100, 20, 0.9, -1, 1, "uniform", 7));
+	}
+
+	@Test
+	public void testRequestSparse() {
+		runRequestTest(MatrixBlock.randOperations(100, 20, 0.05, -1, 1, "uniform", 7));
+	}
+
+	@Test
+	public void testResponseMatrix() {
+		MatrixBlock mb = MatrixBlock.randOperations(1000, 1, 0.7, -1, 1, "uniform", 3);
+		FederatedResponse response = (FederatedResponse) roundTrip(
+			new FederatedResponse(FederatedResponse.Type.SUCCESS, mb));
+		assertTrue(response.isSuccessful());
+		compare(mb, (MatrixBlock) response.getData());
+	}
+
+	@Test
+	public void testResponseError() {
+		FederatedResponse response = (FederatedResponse) roundTrip(
+			new FederatedResponse(FederatedResponse.Type.ERROR, "failed"));
+		assertEquals(FederatedResponse.Type.ERROR, response.getStatus());
+		assertEquals("failed", response.getErrorMessage());
+	}
+
+	@Test
+	public void testResponseList() {
+		List<Object> list = Arrays.asList(7L, "a", null, 3.5);
+		FederatedResponse response = (FederatedResponse) roundTrip(
+			new FederatedResponse(FederatedResponse.Type.SUCCESS, list));
+		assertEquals(list, response.getData());
+	}
+
+	private static void runRequestTest(MatrixBlock mb) {
+		ScalarOperator op = new RightScalarOperator(Multiply.getMultiplyFnObject(), 2);
+		FederatedRequest request = new FederatedRequest(
+			FederatedRequest.FedMethod.MATVECMULT, mb, true, 42L, op);
+		FederatedRequest request2 = (FederatedRequest) roundTrip(request);
+
+		assertEquals(request.getMethod(), request2.getMethod());
+		assertEquals(4, request2.getNumParams());
+		compare(mb, (MatrixBlock) request2.getParam(0));
+		assertEquals(true, request2.getParam(1));
+		assertEquals(42L, request2.getParam(2));
+		ScalarOperator op2 = (ScalarOperator) request2.getParam(3);
+		assertEquals(op.getConstant(), op2.getConstant(), 0);
+		assertEquals(op.fn.getClass(), op2.fn.getClass());
+	}
+
+	private static Object roundTrip(Object msg) {
+		EmbeddedChannel enc = new EmbeddedChannel(new FederatedCodec.Encoder());
+		EmbeddedChannel dec = new EmbeddedChannel(new FederatedCodec.Decoder());
+		enc.writeOutbound(msg);
+		ByteBuf buf = (ByteBuf) enc.readOutbound();
+		//split frame to check reassembly of partial reads
+		int half = buf.readableBytes() / 2;
+		dec.writeInbound(buf.readSlice(half).retain());
+		dec.writeInbound(buf);
+		Object ret = dec.readInbound();
+		enc.finish();
+		dec.finish();
+		return ret;
+	}
+
+	private static void compare(MatrixBlock expected, MatrixBlock actual) {
+		assertEquals(expected.getNonZeros(), actual.getNonZeros());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected),
+			DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), 0);
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.tugraz.sysds.test.component.federated;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.lops.Lop;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedCodec;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedRequest;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedRequest.FedMethod;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedResponse;
+import org.tugraz.sysds.runtime.controlprogram.federated.FederatedWorkerHandler;
+import org.tugraz.sysds.runtime.controlprogram.parfor.util.IDSequence;
+import org.tugraz.sysds.runtime.instructions.InstructionUtils;
+import org.tugraz.sysds.runtime.instructions.cp.ScalarObject;
+import org.tugraz.sysds.runtime.matrix.data.InputInfo;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.meta.MetaDataFormat;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+public class FederatedInstructionTest
+{
+	private static final int rows = 50;
+	private static final int cols = 10;
+	private static final long varID = 100;
+
+	@Test
+	public void testExecInstResidentOutput() {
+		// Z = X + Y; s = sum(Z), with resident X and shipped Y
+		MatrixBlock X = MatrixBlock.randOperations(rows, cols, 0.9, -1, 1, "uniform", 7);
+		MatrixBlock Y = MatrixBlock.randOperations(rows, cols, 0.1, -1, 1, "uniform", 3);
+		IDSequence seq = new IDSequence();
+		Map<Long, CacheableData<?>> vars = new HashMap<>();
+		vars.put(varID, createMatrixObject(X));
+
+		Map<String, Object> inputs = new LinkedHashMap<>();
+		inputs.put("X", varID);
+		inputs.put("Y", Y);
+		List<String> insts = Arrays.asList(
+			InstructionUtils.concatOperands("CP", "+",
+				operand("X", "MATRIX"), operand("Y", "MATRIX"), operand("Z", "MATRIX")),
+			InstructionUtils.concatOperands("CP", "uak+", operand("Z", "MATRIX"), operand("s", "SCALAR"), "1"));
+		FederatedResponse response = execute(seq, vars,
+			FederatedRequest.createExecInst(insts, inputs, "Z", "s"));
+		assertTrue(response.isSuccessful());
+		List<?> results = (List<?>) response.getData();
+		assertEquals(2, results.size());
+
+		// compare with local computation, where Z remains at the worker
+		MatrixBlock Z = X.binaryOperations(InstructionUtils.parseBinaryOperator("+"), Y, new MatrixBlock());
+		assertEquals(Z.sum(), ((ScalarObject) results.get(1)).getDoubleValue(), 1e-10);
+		long zID = (Long) results.get(0);
+		assertTrue(vars.containsKey(zID));
+		FederatedResponse response2 = execute(seq, vars, new FederatedRequest(FedMethod.TRANSFER, zID));
+		assertTrue(response2.isSuccessful());
+		compare(Z, (MatrixBlock) response2.getData());
+
+		// resident input is retained (not cleaned up with shipped inputs)
+		assertEquals(2, vars.size());
+		FederatedResponse response3 = execute(seq, vars, new FederatedRequest(FedMethod.TRANSFER, varID));
+		assertTrue(response3.isSuccessful());
+		compare(X, (MatrixBlock) response3.getData());
+	}
+
+	@Test
+	public void testExecInstRejectRemoveVariable() {
+		runRejectedInstructionTest(InstructionUtils.concatOperands("CP", "rmvar", "X"), "s");
+	}
+
+	@Test
+	public void testExecInstRejectWrite() {
+		runRejectedInstructionTest(InstructionUtils.concatOperands("CP", "write",
+			operand("X", "MATRIX"), literal("target/testTemp/fedinst_out", ValueType.STRING),
+			literal("textcell", ValueType.STRING), literal("", ValueType.STRING)), "s");
+	}
+
+	@Test
+	public void testExecInstRejectOverwriteInput() {
+		runRejectedInstructionTest(InstructionUtils.concatOperands("CP", "*",
+			operand("X", "MATRIX"), literal("2", ValueType.FP64), operand("X", "MATRIX")), "X");
+	}
+
+	@Test
+	public void testExecInstRejectPrint() {
+		runRejectedInstructionTest(InstructionUtils.concatOperands("CP", "print",
+			literal("fed", ValueType.STRING), operand("s", "SCALAR")), "s");
+	}
+
+	@Test
+	public void testExecInstRejectInputOutput() {
+		// a bound input as output would register X under a second ID
+		runRejectedInstructionTest(InstructionUtils.concatOperands("CP", "*",
+			operand("X", "MATRIX"), literal("2", ValueType.FP64), operand("Z", "MATRIX")), "Z", "X");
+	}
+
+	@Test
+	public void testExecInstMissingOutput() {
+		// Z is not registered if a subsequent output is missing
+		runRejectedInstructionTest(InstructionUtils.concatOperands("CP", "*",
+			operand("X", "MATRIX"), literal("2", ValueType.FP64), operand("Z", "MATRIX")), "Z", "W");
+	}
+
+	@Test
+	public void testRemoveVariable() {
+		// Z = X * 2 remains at the worker until removed
+		MatrixBlock X = MatrixBlock.randOperations(rows, cols, 0.9, -1, 1, "uniform", 7);
+		IDSequence seq = new IDSequence();
+		Map<Long, CacheableData<?>> vars = new HashMap<>();
+		vars.put(varID, createMatrixObject(X));
+		List<String> insts = Collections.singletonList(InstructionUtils.concatOperands("CP", "*",
+			operand("X", "MATRIX"), literal("2", ValueType.FP64), operand("Z", "MATRIX")));
+		FederatedResponse response = execute(seq, vars, FederatedRequest.createExecInst(
+			insts, Collections.singletonMap("X", varID), "Z"));
+		assertTrue(response.isSuccessful());
+		long zID = (Long) ((List<?>) response.getData()).get(0);
+		assertEquals(2, vars.size());
+
+		// removal of the result and input, where unknown IDs are rejected
+		assertTrue(execute(seq, vars, new FederatedRequest(FedMethod.REMOVE_VAR, zID)).isSuccessful());
+		assertTrue(execute(seq, vars, new FederatedRequest(FedMethod.REMOVE_VAR, varID)).isSuccessful());
+		assertTrue(vars.isEmpty());
+		assertFalse(execute(seq, vars, new FederatedRequest(FedMethod.REMOVE_VAR, zID)).isSuccessful());
+	}
+
+	@Test
+	public void testExecInstUnknownVariable() {
+		Map<String, Object> inputs = Collections.singletonMap("X", varID);
+		List<String> insts = Arrays.asList(
+			InstructionUtils.concatOperands("CP", "uak+", operand("X", "MATRIX"), operand("s", "SCALAR"), "1"));
+		FederatedResponse response = execute(new IDSequence(), new HashMap<>(),
+			FederatedRequest.createExecInst(insts, inputs, "s"));
+		assertFalse(response.isSuccessful());
+	}
+
+	private static void runRejectedInstructionTest(String inst, String... outputs) {
+		MatrixBlock X = MatrixBlock.randOperations(rows, cols, 0.9, -1, 1, "uniform", 7);
+		Map<Long, CacheableData<?>> vars = new HashMap<>();
+		vars.put(varID, createMatrixObject(X));
+		FederatedResponse response = execute(new IDSequence(), vars, FederatedRequest.createExecInst(
+			Collections.singletonList(inst), Collections.singletonMap("X", varID), outputs));
+		assertFalse(response.isSuccessful());
+
+		// resident variable remains unchanged
+		assertEquals(1, vars.size());
+		compare(X, ((MatrixObject) vars.get(varID)).acquireReadAndRelease());
+	}
+
+	private static String operand(String name, String dt) {
+		return name + Lop.DATATYPE_PREFIX + dt + Lop.VALUETYPE_PREFIX + ValueType.FP64.name();
+	}
+
+	private static String literal(String val, ValueType vt) {
+		return val + Lop.DATATYPE_PREFIX + "SCALAR" + Lop.VALUETYPE_PREFIX + vt.name() + Lop.LITERAL_PREFIX + "true";
+	}
+
+	private static FederatedResponse execute(IDSequence seq, Map<Long, CacheableData<?>> vars, FederatedRequest request) {
+		EmbeddedChannel client = new EmbeddedChannel(new FederatedCodec.Encoder());
+		EmbeddedChannel worker = new EmbeddedChannel(new FederatedCodec.Decoder(),
+			new FederatedCodec.Encoder(), new FederatedWorkerHandler(seq, vars));
+		EmbeddedChannel decoder = new EmbeddedChannel(new FederatedCodec.Decoder());
+		client.writeOutbound(request);
+		worker.writeInbound(client.readOutbound());
+		decoder.writeInbound(worker.readOutbound());
+		FederatedResponse ret = (FederatedResponse) decoder.readInbound();
+		client.finish();
+		decoder.finish();
+		return ret;
+	}
+
+	private static MatrixObject createMatrixObject(MatrixBlock mb) {
+		MatrixObject mo = new MatrixObject(ValueType.FP64, "target/testTemp/fedinst");
+		mo.setMetaData(new MetaDataFormat(new MatrixCharacteristics(mb.getNumRows(), mb.getNumColumns()),
+			OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo));
+		mo.acquireModify(mb);
+		mo.release();
+		return mo;
+	}
+
+	private static void compare(MatrixBlock expected, MatrixBlock actual) {
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected),
+			DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), 1e-10);
+	}
+}
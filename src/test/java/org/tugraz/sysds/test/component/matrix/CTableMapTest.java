@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.matrix;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.functionobjects.Builtin;
+import org.tugraz.sysds.runtime.matrix.data.CTableMap;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.operators.UnaryOperator;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.runtime.util.LongLongDoubleHashMap;
+import org.tugraz.sysds.runtime.util.LongLongDoubleHashMap.ADoubleEntry;
+import org.tugraz.sysds.runtime.util.LongLongDoubleHashMap.EntryType;
+import org.tugraz.sysds.test.TestUtils;
+
+public class CTableMapTest
+{
+	private static final int rows = 2000000;
+	private static final int k = 8;
+
+	@Test
+	public void testHashMapLong() {
+		runHashMapTest(EntryType.LONG, Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testHashMapInt() {
+		runHashMapTest(EntryType.INT, Integer.MAX_VALUE);
+	}
+
+	@Test
+	public void testHashMapIntSmallDomain() {
+		runHashMapTest(EntryType.INT, 50);
+	}
+
+	@Test
+	public void testCtableScalarWeightDense() {
+		runCtableTest(100, 50, false);
+	}
+
+	@Test
+	public void testCtableScalarWeightSparse() {
+		runCtableTest(5000, 1000, false);
+	}
+
+	@Test
+	public void testCtableMatrixWeightSparse() {
+		runCtableTest(5000, 1000, true);
+	}
+
+	private static void runHashMapTest(EntryType type, long maxKey) {
+		Random rand = new Random(7);
+		LongLongDoubleHashMap map1 = new LongLongDoubleHashMap(type);
+		LongLongDoubleHashMap map2 = new LongLongDoubleHashMap(type);
+		Map<String, Double> ref = new HashMap<>();
+		for( int i=0; i<100000; i++ ) {
+			long key1 = (long)(rand.nextDouble() * maxKey) * (rand.nextBoolean() ? 1 : -1);
+			long key2 = (long)(rand.nextDouble() * maxKey);
+			double val = rand.nextInt(10);
+			(i % 2 == 0 ? map1 : map2).addValue(key1, key2, val);
+			ref.merge(key1 + "," + key2, val, Double::sum);
+		}
+		map1.addAll(map2);
+
+		//check all entries against the reference map
+		Assert.assertEquals(ref.size(), map1.size());
+		Assert.assertEquals(ref.values().stream().filter(v -> v != 0).count(), map1.getNonZeros());
+		Iterator<ADoubleEntry> iter = map1.getIterator();
+		int count = 0;
+		while( iter.hasNext() ) {
+			ADoubleEntry e = iter.next();
+			Double val = ref.get(e.getKey1() + "," + e.getKey2());
+			Assert.assertNotNull(val);
+			Assert.assertEquals(val, e.value, 0);
+			count++;
+		}
+		Assert.assertEquals(ref.size(), count);
+	}
+
+	private static void runCtableTest(int maxRow, int maxCol, boolean weights) {
+		MatrixBlock A = randIntVector(maxRow, 7);
+		MatrixBlock B = randIntVector(maxCol, 3);
+		MatrixBlock W = MatrixBlock.randOperations(rows, 1, 1.0, 1, 2, "uniform", 11);
+
+		CTableMap map1 = new CTableMap(EntryType.INT);
+		CTableMap mapk = new CTableMap(EntryType.INT);
+		if( weights ) {
+			A.ctableOperations(null, B, W, map1, null, 1);
+			A.ctableOperations(null, B, W, mapk, null, k);
+		}
+		else {
+			A.ctableOperations(null, B, 1, false, map1, null, 1);
+			A.ctableOperations(null, B, 1, false, mapk, null, k);
+		}
+
+		Assert.assertEquals(map1.size(), mapk.size());
+		Assert.assertEquals(map1.getMaxRow(), mapk.getMaxRow());
+		Assert.assertEquals(map1.getMaxColumn(), mapk.getMaxColumn());
+		MatrixBlock ret1 = DataConverter.convertToMatrixBlock(map1);
+		MatrixBlock retk = DataConverter.convertToMatrixBlock(mapk);
+		Assert.assertEquals(ret1.getNonZeros(), retk.getNonZeros());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ret1),
+			DataConverter.convertToDoubleMatrix(retk), ret1.getNumRows(), ret1.getNumColumns(), 1e-8);
+	}
+
+	private static MatrixBlock randIntVector(int max, long seed) {
+		return MatrixBlock.randOperations(rows, 1, 1.0, 1, max, "uniform", seed)
+			.unaryOperations(new UnaryOperator(Builtin.getBuiltinFnObject("ceil")), new MatrixBlock());
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.matrix;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.instructions.InstructionUtils;
+import org.tugraz.sysds.runtime.matrix.data.LibMatrixBincell;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.operators.BinaryOperator;
+import org.tugraz.sysds.runtime.matrix.operators.ScalarOperator;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+public class LibMatrixBincellTest
+{
+	private static final int rows = 4000;
+	private static final int cols = 1000;
+	private static final int k = 8;
+	private static final double dense = 0.9;
+	private static final double sparse = 0.3;
+
+	@Test
+	public void testDenseDensePlus() {
+		runMatrixMatrixTest("+", dense, dense, cols);
+	}
+
+	@Test
+	public void testDenseDenseGreater() {
+		runMatrixMatrixTest(">", dense, dense, cols);
+	}
+
+	@Test
+	public void testDenseDenseMin() {
+		runMatrixMatrixTest("min", dense, dense, cols);
+	}
+
+	@Test
+	public void testSparseSparsePlus() {
+		runMatrixMatrixTest("+", sparse, sparse, cols);
+	}
+
+	@Test
+	public void testSparseSparseMult() {
+		runMatrixMatrixTest("*", sparse, sparse, cols);
+	}
+
+	@Test
+	public void testSparseDenseMult() {
+		runMatrixMatrixTest("*", sparse, dense, cols);
+	}
+
+	@Test
+	public void testDenseSparseMinus() {
+		runMatrixMatrixTest("-", dense, sparse, cols);
+	}
+
+	@Test
+	public void testDenseColVectorMinus() {
+		runMatrixMatrixTest("-", dense, 1.0, 1);
+	}
+
+	@Test
+	public void testDenseColVectorGreater() {
+		runMatrixMatrixTest(">", dense, 1.0, 1);
+	}
+
+	@Test
+	public void testSparseColVectorMult() {
+		runMatrixMatrixTest("*", sparse, 1.0, 1);
+	}
+
+	@Test
+	public void testSparseRowVectorPlus() {
+		runMatrixVectorRowTest("+", sparse);
+	}
+
+	@Test
+	public void testDenseRowVectorDiv() {
+		runMatrixVectorRowTest("/", dense);
+	}
+
+	@Test
+	public void testDenseScalarMult() {
+		runMatrixScalarTest("*", dense);
+	}
+
+	@Test
+	public void testSparseScalarMult() {
+		runMatrixScalarTest("*", sparse);
+	}
+
+	@Test
+	public void testSparseScalarPlus() {
+		runMatrixScalarTest("+", sparse);
+	}
+
+	@Test
+	public void testSparseScalarNotEquals() {
+		runMatrixScalarTest("!=", sparse);
+	}
+
+	private static void runMatrixMatrixTest(String opcode, double sp1, double sp2, int cols2) {
+		MatrixBlock m1 = MatrixBlock.randOperations(rows, cols, sp1, -1, 1, "uniform", 7);
+		MatrixBlock m2 = MatrixBlock.randOperations(rows, cols2, sp2, -1, 1, "uniform", 3);
+		runBinaryTest(opcode, m1, m2);
+	}
+
+	private static void runMatrixVectorRowTest(String opcode, double sp1) {
+		MatrixBlock m1 = MatrixBlock.randOperations(rows, cols, sp1, -1, 1, "uniform", 7);
+		MatrixBlock m2 = MatrixBlock.randOperations(1, cols, 1.0, 1, 2, "uniform", 3);
+		runBinaryTest(opcode, m1, m2);
+	}
+
+	private static void runBinaryTest(String opcode, MatrixBlock m1, MatrixBlock m2) {
+		BinaryOperator op1 = InstructionUtils.parseBinaryOperator(opcode);
+		BinaryOperator opk = new BinaryOperator(op1.fn, k);
+		MatrixBlock ret1 = m1.binaryOperations(op1, m2, new MatrixBlock());
+		MatrixBlock retk = m1.binaryOperations(opk, m2, new MatrixBlock());
+		compare(ret1, retk);
+	}
+
+	private static void runMatrixScalarTest(String opcode, double sp1) {
+		MatrixBlock m1 = MatrixBlock.randOperations(rows, cols, sp1, -1, 1, "uniform", 7);
+		ScalarOperator op1 = InstructionUtils.parseScalarBinaryOperator(opcode, false, 2);
+		ScalarOperator opk = op1.setNumThreads(k);
+		Assert.assertEquals(k, opk.setConstant(3).getNumThreads());
+		MatrixBlock ret1 = m1.scalarOperations(op1, new MatrixBlock());
+		MatrixBlock retk = m1.scalarOperations(opk, new MatrixBlock());
+		compare(ret1, retk);
+	}
+
+	private static void compare(MatrixBlock expected, MatrixBlock actual) {
+		//maintained nnz of multi-threaded results must be exact
+		Assert.assertEquals(expected.getNonZeros(), actual.getNonZeros());
+		Assert.assertEquals(actual.getNonZeros(), new MatrixBlock(actual).recomputeNonZeros());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected),
+			DataConverter.convertToDoubleMatrix(actual), expected.getNumRows(), expected.getNumColumns(), 0);
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.misc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.io.CSVByteParser;
+import org.tugraz.sysds.runtime.io.CSVByteParser.RowBuffer;
+import org.tugraz.sysds.runtime.io.FileFormatPropertiesCSV;
+import org.tugraz.sysds.runtime.io.LineChunkReader;
+import org.tugraz.sysds.runtime.io.LineChunkReader.Chunk;
+import org.tugraz.sysds.runtime.io.ReaderTextCSVParallel;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+public class CSVByteParserTest
+{
+	@Test
+	public void testParseDoubleRandom() {
+		Random rand = new Random(7);
+		for( int i=0; i<100000; i++ ) {
+			double v = (rand.nextDouble() - 0.5) * Math.pow(10, rand.nextInt(40) - 20);
+			checkParseDouble(String.valueOf(v));
+			checkParseDouble(String.valueOf((float) v));
+			checkParseDouble(String.valueOf(rand.nextInt()));
+		}
+	}
+
+	@Test
+	public void testParseDoubleSpecial() {
+		String[] values = {"0", "-0", "+7", ".5", "5.", "1e3", "1E-3", "-2.5e+10", "0.000000000000000000000001",
+			"123456789012345678", "1.7976931348623157E308", "4.9E-324", "NaN", "Infinity", "-Infinity"};
+		for( String v : values )
+			checkParseDouble(v);
+		Assert.assertTrue(Double.isNaN(parse("NA")));
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void testParseDoubleInvalid() {
+		parse("1.2.3");
+	}
+
+	@Test
+	public void testParseLinesTerminators() throws IOException {
+		RowBuffer buff = parseAll("1,2,3\r\n4, 0 ,6\r7,8,9\n 10,11,12 ", ",", false);
+		compare(new double[][]{{1,2,3},{4,0,6},{7,8,9},{10,11,12}}, buff);
+	}
+
+	@Test
+	public void testParseLinesFill() throws IOException {
+		RowBuffer buff = parseAll("1,,3\n,2,\n", ",", true);
+		compare(new double[][]{{1,-1,3},{-1,2,-1}}, buff);
+	}
+
+	@Test(expected = IOException.class)
+	public void testParseLinesNoFill() throws IOException {
+		parseAll("1,,3\n", ",", false);
+	}
+
+	@Test(expected = IOException.class)
+	public void testParseLinesNumColumns() throws IOException {
+		parseAll("1,2,3\n4,5\n", ",", false);
+	}
+
+	@Test
+	public void testParseLinesEmptyFill() throws IOException {
+		RowBuffer buff = parseAll("1\n\n 3\n", ",", true);
+		compare(new double[][]{{1},{-1},{3}}, buff);
+	}
+
+	@Test(expected = IOException.class)
+	public void testParseLinesEmptyNoFill() throws IOException {
+		parseAll("1\n\n3\n", ",", false);
+	}
+
+	@Test(expected = IOException.class)
+	public void testParseLinesEmptyNumColumns() throws IOException {
+		parseAll("1,2\n\n3,4\n", ",", true);
+	}
+
+	@Test
+	public void testParseLinesMultiCharDelim() throws IOException {
+		RowBuffer buff = parseAll("1::2::3\n4::5::6", "::", false);
+		compare(new double[][]{{1,2,3},{4,5,6}}, buff);
+	}
+
+	@Test
+	public void testParseSplitsDense() throws IOException {
+		runSplitTest(0.9, "\n");
+	}
+
+	@Test
+	public void testParseSplitsSparse() throws IOException {
+		runSplitTest(0.1, "\r\n");
+	}
+
+	@Test
+	public void testChunkReaderSmallChunks() throws Exception {
+		for( String eol : new String[]{"\n", "\r\n", "\r"} ) {
+			double[][] A = TestUtils.generateTestMatrix(500, 6, -1, 1, 0.5, 3);
+			byte[] data = toCSV(A, "h1,h2,h3,h4,h5,h6", eol);
+			
+			//chunks smaller than lines (growing buffers) and larger than lines
+			for( int chunkSize : new int[]{1, 7, 100, 4096} ) {
+				LineChunkReader reader = new LineChunkReader(new ByteArrayInputStream(data), chunkSize, 2);
+				MatrixBlock mb = new MatrixBlock(A.length, 6, false);
+				mb.allocateBlock();
+				int row = 0;
+				long pos = 0, nnz = 0;
+				Chunk chunk = null;
+				while( (chunk = reader.next()) != null ) {
+					Assert.assertEquals(pos, chunk.getOffset());
+					pos += chunk.getLength();
+					CSVByteParser parser = new CSVByteParser(chunk.getBuffer(),
+						chunk.getLength(), chunk.getOffset(), ",", false, 0, "test");
+					if( chunk.getIndex() == 0 )
+						parser.skipLine();
+					RowBuffer buff = new RowBuffer();
+					while( parser.parseLine(buff) );
+					buff.copyTo(mb, row);
+					row += buff.getNumRows();
+					nnz += buff.getNonZeros();
+					reader.release(chunk);
+				}
+				Assert.assertEquals(data.length, pos);
+				Assert.assertEquals(A.length, row);
+				Assert.assertEquals(nnz, mb.recomputeNonZeros());
+				TestUtils.compareMatrices(A, DataConverter.convertToDoubleMatrix(mb), A.length, 6, 0);
+			}
+		}
+	}
+
+	@Test
+	public void testReadStreamParallel() throws IOException {
+		double[][] A = TestUtils.generateTestMatrix(200000, 10, -1, 1, 0.3, 11);
+		byte[] data = toCSV(A, "h1,h2,h3,h4,h5,h6,h7,h8,h9,h10", "\n");
+		MatrixBlock mb = new ReaderTextCSVParallel(new FileFormatPropertiesCSV(true, ",", false))
+			.readMatrixFromInputStream(new ByteArrayInputStream(data), A.length, 10, 1000, -1);
+		Assert.assertEquals(A.length, mb.getNumRows());
+		long nnz = mb.getNonZeros();
+		Assert.assertEquals(mb.recomputeNonZeros(), nnz);
+		TestUtils.compareMatrices(A, DataConverter.convertToDoubleMatrix(mb), A.length, 10, 0);
+	}
+
+	@Test
+	public void testReadStreamParallelTiny() throws IOException {
+		double[][] A = TestUtils.generateTestMatrix(3, 4, -1, 1, 0.7, 13);
+		byte[] data = toCSV(A, "h1,h2,h3,h4", "\n");
+		
+		//known (sequential fallback) and unknown number of rows (parallel)
+		for( long rlen : new long[]{A.length, -1} ) {
+			MatrixBlock mb = new ReaderTextCSVParallel(new FileFormatPropertiesCSV(true, ",", false))
+				.readMatrixFromInputStream(new ByteArrayInputStream(data), rlen, 4, 1000, -1);
+			Assert.assertEquals(A.length, mb.getNumRows());
+			Assert.assertEquals(mb.recomputeNonZeros(), mb.getNonZeros());
+			TestUtils.compareMatrices(A, DataConverter.convertToDoubleMatrix(mb), A.length, 4, 0);
+		}
+	}
+
+	@Test
+	public void testChunkReaderLazyBuffers() throws Exception {
+		double[][] A = TestUtils.generateTestMatrix(3, 4, -1, 1, 0.7, 13);
+		byte[] data = toCSV(A, null, "\n");
+		
+		//tiny stream allocates a single buffer of minimum size
+		LineChunkReader reader = new LineChunkReader(new ByteArrayInputStream(data),
+			LineChunkReader.MIN_CHUNK_SIZE, LineChunkReader.DEFAULT_CHUNK_SIZE, 16);
+		Chunk chunk = reader.next();
+		Assert.assertEquals(data.length, chunk.getLength());
+		Assert.assertEquals(LineChunkReader.MIN_CHUNK_SIZE, chunk.getBuffer().length);
+		reader.release(chunk);
+		Assert.assertNull(reader.next());
+		Assert.assertEquals(1, reader.getNumAllocatedBuffers());
+	}
+
+	private static byte[] toCSV(double[][] A, String header, String eol) {
+		StringBuilder sb = new StringBuilder();
+		if( header != null )
+			sb.append(header).append(eol);
+		for( double[] row : A ) {
+			for( int j=0; j<row.length; j++ )
+				sb.append(j > 0 ? "," : "").append(row[j]);
+			sb.append(eol);
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static void runSplitTest(double sparsity, String eol) throws IOException {
+		double[][] A = TestUtils.generateTestMatrix(2000, 10, -1, 1, sparsity, 7);
+		byte[] data = toCSV(A, null, eol);
+
+		//read byte-range splits (incl boundaries in the middle of line terminators)
+		int[] bounds = {1, 17, data.length/3, data.length/2 + 1, data.length - 1};
+		for( int bound : bounds ) {
+			RowBuffer buff1 = parseSplit(data, 0, bound);
+			RowBuffer buff2 = parseSplit(data, bound, data.length);
+			Assert.assertEquals(A.length, buff1.getNumRows() + buff2.getNumRows());
+			MatrixBlock mb = new MatrixBlock(A.length, 10, false);
+			mb.allocateBlock();
+			buff1.copyTo(mb, 0);
+			buff2.copyTo(mb, buff1.getNumRows());
+			Assert.assertEquals(buff1.getNonZeros() + buff2.getNonZeros(), mb.recomputeNonZeros());
+			TestUtils.compareMatrices(A, DataConverter.convertToDoubleMatrix(mb), A.length, 10, 0);
+		}
+	}
+
+	private static RowBuffer parseSplit(byte[] data, int start, int end) throws IOException {
+		ByteArrayInputStream in = new ByteArrayInputStream(data, start, data.length - start);
+		CSVByteParser parser = new CSVByteParser(in, start, ",", false, 0, "test");
+		if( start > 0 )
+			parser.skipLine();
+		RowBuffer buff = new RowBuffer();
+		while( parser.getPosition() <= end && parser.parseLine(buff) );
+		return buff;
+	}
+
+	private static RowBuffer parseAll(String str, String delim, boolean fill) throws IOException {
+		ByteArrayInputStream in = new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8));
+		CSVByteParser parser = new CSVByteParser(in, 0, delim, fill, -1, "test");
+		RowBuffer buff = new RowBuffer();
+		while( parser.parseLine(buff) );
+		return buff;
+	}
+
+	private static void compare(double[][] expected, RowBuffer buff) {
+		Assert.assertEquals(expected.length, buff.getNumRows());
+		MatrixBlock mb = new MatrixBlock(buff.getNumRows(), buff.getNumColumns(), false);
+		mb.allocateBlock();
+		buff.copyTo(mb, 0);
+		Assert.assertEquals(buff.getNonZeros(), mb.recomputeNonZeros());
+		TestUtils.compareMatrices(expected, DataConverter.convertToDoubleMatrix(mb),
+			expected.length, expected[0].length, 0);
+	}
+
+	private static void checkParseDouble(String str) {
+		Assert.assertEquals(str, Double.doubleToLongBits(Double.parseDouble(str)),
+			Double.doubleToLongBits(parse(str)));
+	}
+
+	private static double parse(String str) {
+		byte[] tmp = str.getBytes(StandardCharsets.UTF_8);
+		return CSVByteParser.parseDouble(tmp, 0, tmp.length);
+	}
+}
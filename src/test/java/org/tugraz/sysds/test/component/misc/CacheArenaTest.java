@@ -0,0 +1,226 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.misc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheArena;
+import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+public class CacheArenaTest
+{
+	private final static String fname = "./tmp/cache_arena_test.dat";
+	private final static long capacity = 1L << 30;
+	private final static int numThreads = 8;
+	private final static int numBlocks = 32;
+	private final static int rows = 100;
+	private final static int cols = 10;
+
+	@Test
+	public void testWriteReadDense() throws Exception {
+		runWriteReadTest(0.9);
+	}
+
+	@Test
+	public void testWriteReadSparse() throws Exception {
+		runWriteReadTest(0.05);
+	}
+
+	@Test
+	public void testWriteReadSerialized() throws Exception {
+		CacheArena arena = createArena(capacity);
+		try {
+			MatrixBlock mb = MatrixBlock.randOperations(rows, cols, 0.9, -1, 1, "uniform", 7);
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			mb.write(new DataOutputStream(bos));
+			byte[] data = bos.toByteArray();
+			Assert.assertTrue(arena.write("A", data, data.length));
+			compare(mb, (MatrixBlock)arena.read("A", true));
+		}
+		finally {
+			arena.close();
+		}
+	}
+
+	@Test
+	public void testOverwriteDeleteReuse() throws Exception {
+		CacheArena arena = createArena(capacity);
+		try {
+			MatrixBlock mb1 = MatrixBlock.randOperations(rows, cols, 0.9, -1, 1, "uniform", 7);
+			MatrixBlock mb2 = MatrixBlock.randOperations(rows, cols, 0.9, -1, 1, "uniform", 3);
+			Assert.assertTrue(arena.write("A", mb1));
+			long used = arena.getUsedSize();
+			long mapped = arena.getMappedSize();
+			Assert.assertTrue(used > 0);
+
+			//overwrite releases the previous slot of the same block
+			Assert.assertTrue(arena.write("A", mb2));
+			Assert.assertEquals(used, arena.getUsedSize());
+			compare(mb2, (MatrixBlock)arena.read("A", true));
+
+			//delete releases the slot, subsequent writes reuse it
+			Assert.assertTrue(arena.delete("A"));
+			Assert.assertFalse(arena.delete("A"));
+			Assert.assertFalse(arena.contains("A"));
+			Assert.assertNull(arena.read("A", true));
+			Assert.assertEquals(0, arena.getUsedSize());
+			Assert.assertTrue(arena.write("B", mb1));
+			Assert.assertEquals(used, arena.getUsedSize());
+			Assert.assertEquals(mapped, arena.getMappedSize());
+		}
+		finally {
+			arena.close();
+		}
+	}
+
+	@Test
+	public void testOverflow() throws Exception {
+		//capacity below a single segment rejects all writes
+		CacheArena arena = createArena(1L << 20);
+		try {
+			MatrixBlock mb = MatrixBlock.randOperations(rows, cols, 0.9, -1, 1, "uniform", 7);
+			Assert.assertFalse(arena.write("A", mb));
+			Assert.assertFalse(arena.contains("A"));
+			Assert.assertEquals(0, arena.getUsedSize());
+			Assert.assertEquals(0, arena.getMappedSize());
+		}
+		finally {
+			arena.close();
+		}
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		CacheArena arena = createArena(capacity);
+		MatrixBlock mb = MatrixBlock.randOperations(rows, cols, 0.9, -1, 1, "uniform", 7);
+		Assert.assertTrue(arena.write("A", mb));
+		arena.close();
+
+		//closed arena rejects all reads and writes
+		Assert.assertNull(arena.read("A", true));
+		Assert.assertFalse(arena.write("B", mb));
+		Assert.assertEquals(0, arena.getMappedSize());
+		Assert.assertFalse(new File(fname).exists());
+		arena.close();
+	}
+
+	@Test
+	public void testWriteUTFBoundary() throws Exception {
+		CacheArena arena = createArena(capacity);
+		try {
+			//max encoded length of 65535 bytes, longer strings are rejected
+			String str = createString(65535);
+			Assert.assertTrue(arena.write("A", createFrame(str)));
+			Assert.assertEquals(str, ((FrameBlock)arena.read("A", false)).get(0, 0));
+			for( int len : new int[]{65536, 65537} ) {
+				try {
+					arena.write("B"+len, createFrame(createString(len)));
+					Assert.fail("Expected rejection of encoded length "+len+".");
+				}
+				catch(UTFDataFormatException ex) {
+					Assert.assertFalse(arena.contains("B"+len));
+				}
+			}
+		}
+		finally {
+			arena.close();
+		}
+	}
+
+	@Test
+	public void testConcurrentWriteReadDelete() throws Exception {
+		CacheArena arena = createArena(capacity);
+		ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Future<Boolean>> rt = new ArrayList<>();
+			for( int t=0; t<numThreads; t++ ) {
+				final int tid = t;
+				rt.add(pool.submit((Callable<Boolean>) () -> {
+					for( int i=0; i<numBlocks; i++ ) {
+						String name = "B_" + tid + "_" + i;
+						MatrixBlock mb = MatrixBlock.randOperations(rows, cols,
+							(i%2==0) ? 0.9 : 0.05, -1, 1, "uniform", 7+tid*numBlocks+i);
+						Assert.assertTrue(arena.write(name, mb));
+						compare(mb, (MatrixBlock)arena.read(name, true));
+						Assert.assertTrue(arena.delete(name));
+					}
+					return true;
+				}));
+			}
+			for( Future<Boolean> f : rt )
+				Assert.assertTrue(f.get());
+			Assert.assertEquals(0, arena.getUsedSize());
+		}
+		finally {
+			pool.shutdown();
+			arena.close();
+		}
+	}
+
+	private static void runWriteReadTest(double sparsity) throws Exception {
+		CacheArena arena = createArena(capacity);
+		try {
+			MatrixBlock mb = MatrixBlock.randOperations(rows, cols, sparsity, -1, 1, "uniform", 7);
+			Assert.assertTrue(arena.write("A", mb));
+			Assert.assertTrue(arena.contains("A"));
+			MatrixBlock ret = (MatrixBlock)arena.read("A", true);
+			Assert.assertEquals(mb.isInSparseFormat(), ret.isInSparseFormat());
+			Assert.assertEquals(mb.getNonZeros(), ret.getNonZeros());
+			compare(mb, ret);
+		}
+		finally {
+			arena.close();
+		}
+	}
+
+	private static String createString(int len) {
+		char[] tmp = new char[len];
+		Arrays.fill(tmp, 'a');
+		return new String(tmp);
+	}
+
+	private static FrameBlock createFrame(String str) {
+		return new FrameBlock(new ValueType[]{ValueType.STRING}, new String[][]{{str}});
+	}
+
+	private static CacheArena createArena(long capacity) throws Exception {
+		new File(fname).getParentFile().mkdirs();
+		return new CacheArena(fname, capacity);
+	}
+
+	private static void compare(MatrixBlock expected, MatrixBlock actual) {
+		Assert.assertNotNull(actual);
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected),
+			DataConverter.convertToDoubleMatrix(actual), rows, cols, 0);
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.misc;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.utils.LatencyHistogram;
+
+public class LatencyHistogramTest
+{
+	@Test
+	public void testBucketBoundaries() {
+		//contiguous, non-overlapping buckets over the entire value range
+		Assert.assertEquals(0, LatencyHistogram.getLowerBound(0));
+		for( int i=1; i<LatencyHistogram.NUM_BUCKETS; i++ )
+			Assert.assertEquals(LatencyHistogram.getUpperBound(i-1) + 1, LatencyHistogram.getLowerBound(i));
+		Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.getUpperBound(LatencyHistogram.NUM_BUCKETS-1));
+	}
+
+	@Test
+	public void testBucketIndex() {
+		long[] values = new long[] {0, 1, 7, 8, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE};
+		for( long v : values ) {
+			int ix = LatencyHistogram.getBucketIndex(v);
+			Assert.assertTrue(v >= LatencyHistogram.getLowerBound(ix));
+			Assert.assertTrue(v <= LatencyHistogram.getUpperBound(ix));
+		}
+	}
+
+	@Test
+	public void testPercentilesUniform() {
+		runPercentileTest(false);
+	}
+
+	@Test
+	public void testPercentilesSkewed() {
+		runPercentileTest(true);
+	}
+
+	@Test
+	public void testMerge() {
+		LatencyHistogram h1 = new LatencyHistogram();
+		LatencyHistogram h2 = new LatencyHistogram();
+		for( int i=1; i<=100; i++ ) {
+			h1.record(i);
+			h2.record(i * 1000);
+		}
+		LatencyHistogram h = new LatencyHistogram(h1);
+		h.merge(h2);
+		Assert.assertEquals(200, h.getCount());
+		Assert.assertEquals(h1.getTotal() + h2.getTotal(), h.getTotal());
+		Assert.assertEquals(100000, h.getMax());
+		Assert.assertTrue(h.getValueAtPercentile(50) <= 100 + 100 / 8);
+		Assert.assertTrue(h.getValueAtPercentile(51) >= 1000);
+	}
+
+	private static void runPercentileTest(boolean skew) {
+		int n = 100000;
+		Random rand = new Random(7);
+		long[] values = new long[n];
+		LatencyHistogram h = new LatencyHistogram();
+		for( int i=0; i<n; i++ ) {
+			values[i] = skew ? (long) Math.exp(rand.nextDouble() * 25) :
+				rand.nextInt(10000000);
+			h.record(values[i]);
+		}
+		Arrays.sort(values);
+
+		Assert.assertEquals(n, h.getCount());
+		Assert.assertEquals(values[n-1], h.getMax());
+		for( double p : new double[] {1, 50, 90, 99, 99.9} ) {
+			long exact = values[(int)Math.ceil(p / 100 * n) - 1];
+			long approx = h.getValueAtPercentile(p);
+			//upper bound of bucket w/ max relative error of 12.5%
+			Assert.assertTrue("p"+p+": "+approx+" vs "+exact,
+				approx >= exact && approx <= exact + exact / 8 + 1);
+		}
+	}
+}
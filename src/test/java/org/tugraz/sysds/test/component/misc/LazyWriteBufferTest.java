@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.misc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.controlprogram.caching.CacheableData;
+import org.tugraz.sysds.runtime.controlprogram.caching.LazyWriteBuffer;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+@net.jcip.annotations.NotThreadSafe
+public class LazyWriteBufferTest
+{
+	private final static int numThreads = 8;
+	private final static int numBlocks = 32;
+	private final static int rows = 100;
+	private final static int cols = 10;
+
+	@Test
+	public void testConcurrentWriteReadDense() {
+		runConcurrentBufferPoolTest(0.9, false, false, false);
+	}
+
+	@Test
+	public void testConcurrentWriteReadSparse() {
+		runConcurrentBufferPoolTest(0.05, false, false, false);
+	}
+
+	@Test
+	public void testConcurrentWriteReadDenseForce() {
+		runConcurrentBufferPoolTest(0.9, true, false, false);
+	}
+
+	@Test
+	public void testConcurrentWriteReadSparseForce() {
+		runConcurrentBufferPoolTest(0.05, true, false, false);
+	}
+
+	@Test
+	public void testConcurrentWriteReadDenseForceArena() {
+		runConcurrentBufferPoolTest(0.9, true, true, false);
+	}
+
+	@Test
+	public void testConcurrentWriteReadSparseForceArena() {
+		runConcurrentBufferPoolTest(0.05, true, true, false);
+	}
+
+	@Test
+	public void testConcurrentWriteReadDenseForcePageCache() {
+		runConcurrentBufferPoolTest(0.9, true, false, true);
+	}
+
+	@Test
+	public void testConcurrentWriteReadSparseForcePageCache() {
+		runConcurrentBufferPoolTest(0.05, true, false, true);
+	}
+
+	private static void runConcurrentBufferPoolTest(double sparsity, boolean force, boolean arena, boolean pagecache) {
+		ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+		boolean oldArena = CacheableData.CACHING_BUFFER_ARENA;
+		boolean oldPageCache = CacheableData.CACHING_BUFFER_PAGECACHE;
+		try {
+			CacheableData.CACHING_BUFFER_ARENA = arena;
+			CacheableData.CACHING_BUFFER_PAGECACHE = pagecache;
+			CacheableData.initCaching("tmp_lazy_write_buffer_test");
+			Assert.assertEquals(arena, LazyWriteBuffer.getArena() != null);
+			String dir = CacheableData.cacheEvictionLocalFilePath;
+
+			//concurrently write, read, and delete blocks across all shards
+			List<Future<Boolean>> rt = new ArrayList<>();
+			for( int t=0; t<numThreads; t++ ) {
+				final int tid = t;
+				rt.add(pool.submit((Callable<Boolean>) () -> {
+					for( int i=0; i<numBlocks; i++ ) {
+						String fname = dir + "/lwbtest_" + tid + "_" + i;
+						MatrixBlock mb = MatrixBlock.randOperations(
+							rows, cols, sparsity, -1, 1, "uniform", 7+tid*numBlocks+i);
+						MatrixBlock mb2 = new MatrixBlock(mb);
+						LazyWriteBuffer.writeBlock(fname, mb2);
+						if( force && i % 4 == 0 )
+							LazyWriteBuffer.forceEviction();
+						MatrixBlock ret = (MatrixBlock)LazyWriteBuffer.readBlock(fname, true);
+						TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(mb),
+							DataConverter.convertToDoubleMatrix(ret), rows, cols, 0);
+						LazyWriteBuffer.deleteBlock(fname);
+					}
+					return true;
+				}));
+			}
+			for( Future<Boolean> f : rt )
+				Assert.assertTrue(f.get());
+
+			//all reserved memory and arena slots released after deletes
+			Assert.assertEquals(0, LazyWriteBuffer.getWriteBufferSize());
+			if( arena ) {
+				Assert.assertTrue(LazyWriteBuffer.getArena().getMappedSize() > 0);
+				Assert.assertEquals(0, LazyWriteBuffer.getArena().getUsedSize());
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			pool.shutdown();
+			CacheableData.cleanupCacheDir(true);
+			CacheableData.CACHING_BUFFER_ARENA = oldArena;
+			CacheableData.CACHING_BUFFER_PAGECACHE = oldPageCache;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.misc;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.controlprogram.caching.PageCache;
+
+@net.jcip.annotations.NotThreadSafe
+public class PageCacheTest
+{
+	@After
+	public void tearDown() {
+		PageCache.clear();
+	}
+
+	@Test
+	public void testSizeClasses() {
+		PageCache.init(1L << 30);
+		int[] sizes = new int[]{1, 1023, 1024, 1025, 1280, 1281, 4096, 5000, 77777, 1 << 20, (1 << 20) + 1};
+		for( int size : sizes ) {
+			byte[] page = PageCache.getPage(size);
+			Assert.assertTrue(page.length >= size);
+			Assert.assertTrue(page.length <= Math.max(1024, 1.25 * size));
+		}
+	}
+
+	@Test
+	public void testPageReuse() {
+		PageCache.init(1L << 30);
+		byte[] page = PageCache.getPage(5000);
+		PageCache.putPage(page);
+		Assert.assertEquals(page.length, PageCache.getPoolSize());
+		//any size of the same size class reuses the page
+		Assert.assertSame(page, PageCache.getPage(page.length - 7));
+		Assert.assertEquals(0, PageCache.getPoolSize());
+	}
+
+	@Test
+	public void testForeignPageRejected() {
+		PageCache.init(1L << 30);
+		PageCache.putPage(new byte[5000]);
+		Assert.assertEquals(0, PageCache.getPoolSize());
+	}
+
+	@Test
+	public void testMemoryBudget() {
+		PageCache.init(64 * 1024);
+		for( int i=0; i<4; i++ )
+			PageCache.putPage(PageCache.getPage(32 * 1024));
+		byte[] p1 = PageCache.getPage(32 * 1024);
+		byte[] p2 = PageCache.getPage(32 * 1024);
+		byte[] p3 = PageCache.getPage(32 * 1024);
+		PageCache.putPage(p1);
+		PageCache.putPage(p2);
+		PageCache.putPage(p3); //exceeds budget
+		Assert.assertEquals(64 * 1024, PageCache.getPoolSize());
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.parfor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.controlprogram.parfor.LocalTaskQueue;
+import org.tugraz.sysds.runtime.controlprogram.parfor.LocalTaskQueueWorkStealing;
+import org.tugraz.sysds.runtime.controlprogram.parfor.Task;
+import org.tugraz.sysds.runtime.controlprogram.parfor.Task.TaskType;
+import org.tugraz.sysds.runtime.controlprogram.parfor.TaskPartitionerWorkStealing;
+import org.tugraz.sysds.runtime.instructions.cp.IntObject;
+
+public class LocalTaskQueueWorkStealingTest
+{
+	private static final int workers = 8;
+
+	@Test
+	public void testWorkStealingBalanced() throws Exception {
+		runWorkStealingTest(10000, 1, 1, 1, false);
+	}
+
+	@Test
+	public void testWorkStealingSkewed() throws Exception {
+		runWorkStealingTest(10000, 1, 1, 1, true);
+	}
+
+	@Test
+	public void testWorkStealingMinTaskSize() throws Exception {
+		runWorkStealingTest(10000, 1, 1, 16, true);
+	}
+
+	@Test
+	public void testWorkStealingIncrement() throws Exception {
+		runWorkStealingTest(2999, 7, 3, 1, true);
+	}
+
+	@Test
+	public void testWorkStealingFewIterations() throws Exception {
+		runWorkStealingTest(5, 1, 1, 1, false);
+	}
+
+	private static void runWorkStealingTest(int numIter, int from, int incr, int minTaskSize, boolean skew)
+		throws Exception
+	{
+		LocalTaskQueueWorkStealing queue = new LocalTaskQueueWorkStealing(workers);
+		AtomicIntegerArray counts = new AtomicIntegerArray(numIter);
+
+		//workers dequeue until the queue is exhausted, where the first
+		//worker is slow to enforce steals from its range
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		List<Future<?>> tasks = new ArrayList<>();
+		for( int w=0; w<workers; w++ ) {
+			final boolean slow = skew && w == 0;
+			tasks.add(pool.submit(() -> {
+				Task t = null;
+				while( (t = queue.dequeueTask()) != LocalTaskQueue.NO_MORE_TASKS ) {
+					Assert.assertEquals(TaskType.RANGE, t.getType());
+					long lfrom = t.getIterations().get(0).getLongValue();
+					long lto = t.getIterations().get(1).getLongValue();
+					Assert.assertEquals(incr, t.getIterations().get(2).getLongValue());
+					for( long i=lfrom; i<=lto; i+=incr )
+						counts.incrementAndGet((int)((i - from) / incr));
+					if( slow )
+						Thread.sleep(1);
+				}
+				return null;
+			}));
+		}
+
+		//initialize ranges after workers started (blocked on first dequeue)
+		TaskPartitionerWorkStealing tp = new TaskPartitionerWorkStealing(minTaskSize, workers, "i",
+			new IntObject(from), new IntObject(from + (long)(numIter-1)*incr), new IntObject(incr));
+		Assert.assertEquals(numIter, tp.getNumIterations());
+		tp.createTasks(queue);
+		for( Future<?> task : tasks )
+			task.get();
+		pool.shutdown();
+
+		//check that every iteration was executed exactly once
+		for( int i=0; i<numIter; i++ )
+			Assert.assertEquals("Iteration "+i, 1, counts.get(i));
+		Assert.assertTrue(queue.getNumTasks() >= Math.min(numIter, workers));
+		if( skew && numIter > 1000 )
+			Assert.assertTrue(queue.getNumSteals() > 0);
+	}
+}
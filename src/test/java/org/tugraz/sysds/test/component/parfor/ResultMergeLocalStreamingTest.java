@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.component.parfor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.controlprogram.caching.MatrixObject;
+import org.tugraz.sysds.runtime.controlprogram.parfor.ResultMergeLocalMemory;
+import org.tugraz.sysds.runtime.controlprogram.parfor.ResultMergeLocalStreaming;
+import org.tugraz.sysds.runtime.matrix.data.InputInfo;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.OutputInfo;
+import org.tugraz.sysds.runtime.meta.MatrixCharacteristics;
+import org.tugraz.sysds.runtime.meta.MetaDataFormat;
+import org.tugraz.sysds.runtime.util.DataConverter;
+import org.tugraz.sysds.test.TestUtils;
+
+public class ResultMergeLocalStreamingTest
+{
+	private static final int rows = 1021;
+	private static final int cols = 37;
+	private static final int workers = 6;
+
+	private enum InitType {
+		EMPTY, DENSE, SPARSE
+	}
+
+	@Test
+	public void testStreamingMergeEmpty() throws Exception {
+		runResultMergeTest(InitType.EMPTY, false);
+	}
+
+	@Test
+	public void testStreamingMergeInit() throws Exception {
+		runResultMergeTest(InitType.DENSE, false);
+	}
+
+	@Test
+	public void testStreamingMergeSparseInit() throws Exception {
+		runResultMergeTest(InitType.SPARSE, false);
+	}
+
+	@Test
+	public void testStreamingMergeAccumEmpty() throws Exception {
+		runResultMergeTest(InitType.EMPTY, true);
+	}
+
+	@Test
+	public void testStreamingMergeAccumInit() throws Exception {
+		runResultMergeTest(InitType.DENSE, true);
+	}
+
+	@Test
+	public void testStreamingMergeAccumSparseInit() throws Exception {
+		runResultMergeTest(InitType.SPARSE, true);
+	}
+
+	private static void runResultMergeTest(InitType init, boolean accum) throws Exception {
+		MatrixBlock out = createInitialResult(init);
+
+		//reference result of the in-memory result merge
+		MatrixObject[] in1 = new MatrixObject[workers];
+		for( int w=0; w<workers; w++ )
+			in1[w] = createMatrixObject(createWorkerResult(out, w, accum));
+		MatrixBlock ref = new ResultMergeLocalMemory(createMatrixObject(out),
+			in1, "target/testTemp/rm1", accum).executeSerialMerge().acquireRead();
+
+		//concurrent streaming merge by all workers
+		ResultMergeLocalStreaming rm = new ResultMergeLocalStreaming(
+			createMatrixObject(out), "target/testTemp/rm2", accum);
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		List<Future<?>> tasks = new ArrayList<>();
+		for( int w=0; w<workers; w++ ) {
+			MatrixObject in = createMatrixObject(createWorkerResult(out, w, accum));
+			tasks.add(pool.submit(() -> rm.merge(in)));
+		}
+		for( Future<?> task : tasks )
+			task.get();
+		pool.shutdown();
+		MatrixBlock ret = rm.executeSerialMerge().acquireRead();
+
+		long nnz = ret.getNonZeros();
+		Assert.assertEquals(ret.recomputeNonZeros(), nnz);
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ref),
+			DataConverter.convertToDoubleMatrix(ret), rows, cols, 0);
+	}
+
+	private static MatrixBlock createInitialResult(InitType init) {
+		switch( init ) {
+			case DENSE:
+				return new MatrixBlock(rows, cols, 7);
+			case SPARSE: {
+				//few non-zeros, i.e., existing result in sparse format
+				MatrixBlock ret = new MatrixBlock(rows, cols, true);
+				for( int i=0; i<rows; i+=13 )
+					ret.quickSetValue(i, i%cols, 7);
+				ret.examSparsity();
+				Assert.assertTrue(ret.isInSparseFormat());
+				return ret;
+			}
+			default:
+				return new MatrixBlock(rows, cols, true);
+		}
+	}
+
+	private static MatrixBlock createWorkerResult(MatrixBlock out, int w, boolean accum) {
+		MatrixBlock ret = new MatrixBlock(out);
+		if( accum ) {
+			//every worker adds to all cells
+			for( int i=0; i<rows; i++ )
+				for( int j=0; j<cols; j++ )
+					ret.quickSetValue(i, j, out.quickGetValue(i, j) + w + 1);
+		}
+		else {
+			//every worker writes disjoint rows (incl zeros)
+			for( int i=w; i<rows; i+=workers )
+				for( int j=0; j<cols; j++ )
+					ret.quickSetValue(i, j, (j%5==0) ? 0 : i * cols + j + 1);
+		}
+		ret.examSparsity();
+		return ret;
+	}
+
+	private static MatrixObject createMatrixObject(MatrixBlock mb) {
+		MatrixObject mo = new MatrixObject(ValueType.FP64, "target/testTemp/rm");
+		mo.setMetaData(new MetaDataFormat(new MatrixCharacteristics(mb.getNumRows(), mb.getNumColumns()),
+			OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo));
+		mo.acquireModify(mb);
+		mo.release();
+		return mo;
+	}
+}
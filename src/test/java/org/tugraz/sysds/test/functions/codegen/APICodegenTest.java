@@ -39,6 +39,7 @@ import org.tugraz.sysds.runtime.controlprogram.context.SparkExecutionContext;
 import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
 import org.tugraz.sysds.runtime.util.DataConverter;
 import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestUtils;
 import org.tugraz.sysds.utils.Statistics;
 
 
@@ -67,6 +68,45 @@ public class APICodegenTest extends AutomatedTestBase
 		runMLContextParforDatasetTest(true);
 	}
 
+	@Test
+	public void testCodegenJMLCAsyncTest() {
+		try {
+			double[][] X = getRandomMatrix(rows, cols, -10, 10, sparsity, 76543); 
+			MatrixBlock mX = DataConverter.convertToMatrixBlock(X); 
+			
+			String s = "X = read(\"/tmp\");"
+				+ "R = colSums(X/rowSums(X));"
+				+ "write(R, \"tmp2\")";
+			
+			//execute script repeatedly, until the background compilation
+			//of the fused operator finished and it is used by recompilation
+			DMLScript.STATISTICS = true;
+			Statistics.reset();
+			DMLConfig conf = new DMLConfig();
+			conf.setTextValue(DMLConfig.CODEGEN_ASYNC, "true");
+			Connection conn = new Connection(conf, ConfigType.CODEGEN_ENABLED, 
+				ConfigType.ALLOW_DYN_RECOMPILATION);
+			PreparedScript pscript = conn.prepareScript(
+				s, new String[]{"X"}, new String[]{"R"});
+			double[][] R1 = null;
+			for( int i=0; i<100 && !heavyHittersContainsSubString("spoofRA"); i++ ) {
+				pscript.setMatrix("X", mX, false);
+				double[][] R = pscript.executeScript().getMatrix("R");
+				if( R1 != null )
+					TestUtils.compareMatrices(R1, R, 1, cols, 1e-10);
+				R1 = R;
+				Thread.sleep(50);
+			}
+			conn.close();
+			
+			//check for generated operator
+			Assert.assertTrue(heavyHittersContainsSubString("spoofRA"));
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
 	@SuppressWarnings("resource")
 	private void runMLContextParforDatasetTest(boolean jmlc) 
 	{
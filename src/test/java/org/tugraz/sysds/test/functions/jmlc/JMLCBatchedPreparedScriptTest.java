@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.jmlc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.api.DMLException;
+import org.tugraz.sysds.api.jmlc.BatchedPreparedScript;
+import org.tugraz.sysds.api.jmlc.Connection;
+import org.tugraz.sysds.api.jmlc.PreparedScript;
+import org.tugraz.sysds.api.jmlc.ResultVariables;
+import org.tugraz.sysds.common.Types.ValueType;
+import org.tugraz.sysds.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+import org.tugraz.sysds.runtime.matrix.data.FrameBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestUtils;
+
+public class JMLCBatchedPreparedScriptTest extends AutomatedTestBase
+{
+	//scoring script with reused model, and batched matrix and frame inputs
+	private static final String SCRIPT =
+		  "X = read('./tmp/X', rows=-1, cols=-1);"
+		+ "F = read('./tmp/F', data_type='frame', format='csv');"
+		+ "W = read('./tmp/W', rows=-1, cols=-1);"
+		+ "Y = X %*% W;"
+		+ "G = F;"
+		+ "S = colSums(Y) * 0 + nrow(W);"
+		+ "write(Y, './tmp/Y');"
+		+ "write(G, './tmp/G');"
+		+ "write(S, './tmp/S');";
+
+	private static final int cols = 30;
+
+	@Override
+	public void setUp() {
+		//do nothing
+	}
+
+	@Test
+	public void testBatchedPreparedScriptSingle() {
+		runJMLCBatchedTest(1, 1, 1);
+	}
+
+	@Test
+	public void testBatchedPreparedScriptT256B16() {
+		runJMLCBatchedTest(256, 16, 1);
+	}
+
+	@Test
+	public void testBatchedPreparedScriptT256B16R3() {
+		runJMLCBatchedTest(256, 16, 3);
+	}
+
+	@Test
+	public void testBatchedPreparedScriptT256B16MixedCols() {
+		//every fourth request with two frame columns (separate batches)
+		runJMLCBatchedTest(256, 16, 1, true);
+	}
+
+	@Test
+	public void testBatchedPreparedScriptZeroRows() {
+		try( Connection conn = new Connection() ) {
+			PreparedScript pscript = conn.prepareScript(SCRIPT,
+				new String[]{"X","F","W"}, new String[]{"Y","G","S"});
+			BatchedPreparedScript bscript = new BatchedPreparedScript(pscript,
+				new String[]{"X","F"}, new String[]{"Y","G"}, 16, 5, TimeUnit.MILLISECONDS);
+			HashMap<String, Object> inputs = new HashMap<>();
+			inputs.put("X", new MatrixBlock(0, cols, false));
+			inputs.put("F", new FrameBlock(new ValueType[]{ValueType.STRING}));
+			bscript.executeScript(inputs);
+			Assert.fail("Expected rejection of batched inputs with zero rows.");
+		}
+		catch(DMLException ex) {
+			Assert.assertTrue(ex.getMessage().contains("zero rows"));
+		}
+	}
+
+	private static void runJMLCBatchedTest(int num, int batchSize, int rows) {
+		runJMLCBatchedTest(num, batchSize, rows, false);
+	}
+
+	private static void runJMLCBatchedTest(int num, int batchSize, int rows, boolean mixedCols) {
+		int k = InfrastructureAnalyzer.getLocalParallelism();
+		double[][] W = TestUtils.generateTestMatrix(cols, 2, -1, 1, 0.9, 7);
+
+		try( Connection conn = new Connection() ) {
+			PreparedScript pscript = conn.prepareScript(SCRIPT,
+				new String[]{"X","F","W"}, new String[]{"Y","G","S"});
+			pscript.setMatrix("W", W, true);
+			BatchedPreparedScript bscript = new BatchedPreparedScript(pscript,
+				new String[]{"X","F"}, new String[]{"Y","G"}, batchSize, 5, TimeUnit.MILLISECONDS);
+
+			//concurrent scoring requests
+			ExecutorService pool = Executors.newFixedThreadPool(Math.max(k, 4));
+			ArrayList<JMLCTask> tasks = new ArrayList<>();
+			for(int i=0; i<num; i++)
+				tasks.add(new JMLCTask(bscript, i, rows, getFrameCols(i, mixedCols)));
+			List<Future<ResultVariables>> taskrets = pool.invokeAll(tasks);
+			for(int i=0; i<num; i++) {
+				ResultVariables rvars = taskrets.get(i).get();
+				double[][] X = TestUtils.generateTestMatrix(rows, cols, -1, 1, 0.5, i);
+				TestUtils.compareMatrices(multiply(X, W), rvars.getMatrix("Y"), rows, 2, 1e-10);
+				String[][] G = rvars.getFrame("G");
+				Assert.assertEquals(rows, G.length);
+				for(int r=0; r<rows; r++) {
+					Assert.assertEquals(getFrameCols(i, mixedCols), G[r].length);
+					for(int c=0; c<G[r].length; c++)
+						Assert.assertEquals("r"+i+"_"+r, G[r][c]);
+				}
+				//shared output, not split even if its rows match the batch
+				TestUtils.compareMatrices(new double[][]{{cols, cols}}, rvars.getMatrix("S"), 1, 2, 0);
+			}
+			pool.shutdown();
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	private static int getFrameCols(int seed, boolean mixedCols) {
+		return (mixedCols && seed % 4 == 3) ? 2 : 1;
+	}
+
+	private static double[][] multiply(double[][] X, double[][] W) {
+		double[][] ret = new double[X.length][W[0].length];
+		for(int i=0; i<X.length; i++)
+			for(int j=0; j<W[0].length; j++)
+				for(int l=0; l<W.length; l++)
+					ret[i][j] += X[i][l] * W[l][j];
+		return ret;
+	}
+
+	private static class JMLCTask implements Callable<ResultVariables>
+	{
+		private final BatchedPreparedScript _bscript;
+		private final int _seed;
+		private final int _rows;
+		private final int _fcols;
+
+		protected JMLCTask(BatchedPreparedScript bscript, int seed, int rows, int fcols) {
+			_bscript = bscript;
+			_seed = seed;
+			_rows = rows;
+			_fcols = fcols;
+		}
+
+		@Override
+		public ResultVariables call() {
+			String[][] F = new String[_rows][_fcols];
+			for(int r=0; r<_rows; r++)
+				Arrays.fill(F[r], "r"+_seed+"_"+r);
+			HashMap<String, Object> inputs = new HashMap<>();
+			inputs.put("X", TestUtils.generateTestMatrix(_rows, cols, -1, 1, 0.5, _seed));
+			inputs.put("F", F);
+			return _bscript.executeScript(inputs);
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.jmlc;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.api.DMLScript;
+import org.tugraz.sysds.api.jmlc.Connection;
+import org.tugraz.sysds.api.jmlc.PreparedScript;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestUtils;
+import org.tugraz.sysds.utils.InstructionProfiler;
+import org.tugraz.sysds.utils.InstructionProfiler.OpProfile;
+
+public class JMLCInstructionProfilerTest extends AutomatedTestBase
+{
+	private static final int rows = 100;
+	private static final int cols = 10;
+	private static final int nRuns = 7;
+	private static final String script = "X = read(\"./tmp/X\", rows=-1, cols=-1);\n"
+		+ "W = read(\"./tmp/W\", rows=-1, cols=-1);\n"
+		+ "R = X %*% W;\n"
+		+ "write(R, \"./tmp/R\");";
+
+	@Override
+	public void setUp() {
+		//do nothing
+	}
+
+	@Test
+	public void testInstructionProfilerDense() {
+		runJMLCInstructionProfilerTest(0.9);
+	}
+
+	@Test
+	public void testInstructionProfilerSparse() {
+		runJMLCInstructionProfilerTest(0.01);
+	}
+
+	@Test
+	public void testInstructionProfilerTerminatedThreads() {
+		double[][] X = TestUtils.generateTestMatrix(rows, cols, -1, 1, 0.9, 7);
+		double[][] W = TestUtils.generateTestMatrix(cols, 1, -1, 1, 1.0, 3);
+		
+		try( Connection conn = new Connection() ) {
+			conn.setProfiler(true);
+			conn.resetProfile();
+			PreparedScript pscript = conn.prepareScript(
+				script, new String[]{"X","W"}, new String[]{"R"});
+			//execute the script in a sequence of short-lived threads
+			for( int i=0; i<nRuns; i++ ) {
+				Thread t = new Thread(() -> {
+					pscript.setMatrix("X", X);
+					pscript.setMatrix("W", W);
+					pscript.executeScript();
+				});
+				t.start();
+				t.join();
+			}
+			
+			//profiles of terminated threads folded on registration
+			Assert.assertEquals(1, InstructionProfiler.getNumThreadProfiles());
+			OpProfile mm = InstructionProfiler.getProfile().get("ba+*");
+			Assert.assertNotNull(mm);
+			Assert.assertEquals(nRuns, mm.getLatency().getCount());
+			Assert.assertEquals(0, InstructionProfiler.getNumThreadProfiles());
+		}
+		catch(Exception ex) {
+			ex.printStackTrace();
+			Assert.fail("JMLC instruction profiler test failed: "+ex.getMessage());
+		}
+		finally {
+			DMLScript.PROFILER = false;
+			InstructionProfiler.reset();
+		}
+	}
+
+	private static void runJMLCInstructionProfilerTest(double sparsity) {
+		double[][] X = TestUtils.generateTestMatrix(rows, cols, -1, 1, sparsity, 7);
+		double[][] W = TestUtils.generateTestMatrix(cols, 1, -1, 1, 1.0, 3);
+
+		try( Connection conn = new Connection() ) {
+			conn.setProfiler(true);
+			conn.resetProfile();
+			PreparedScript pscript = conn.prepareScript(
+				script, new String[]{"X","W"}, new String[]{"R"});
+			for( int i=0; i<nRuns; i++ ) {
+				pscript.setMatrix("X", X);
+				pscript.setMatrix("W", W);
+				pscript.executeScript();
+			}
+
+			//check aggregated latencies and input sizes
+			Map<String, OpProfile> profile = InstructionProfiler.getProfile();
+			OpProfile mm = profile.get("ba+*");
+			Assert.assertNotNull(mm);
+			Assert.assertEquals(nRuns, mm.getLatency().getCount());
+			Assert.assertTrue(mm.getBytesIn() > 0);
+			
+			//check actual formats of the in-memory inputs
+			if( sparsity < MatrixBlock.SPARSITY_TURN_POINT )
+				Assert.assertEquals(nRuns, mm.getNumSparseIn());
+			Assert.assertEquals(nRuns*2 - mm.getNumSparseIn(), mm.getNumDenseIn());
+
+			//check exported formats
+			Assert.assertTrue(conn.getProfile(false).contains("\"ba+*\""));
+			Assert.assertTrue(conn.getProfile(true).contains(
+				"sysds_instruction_latency_seconds_count{opcode=\"ba+*\"} " + nRuns));
+		}
+		catch(Exception ex) {
+			ex.printStackTrace();
+			Assert.fail("JMLC instruction profiler test failed: "+ex.getMessage());
+		}
+		finally {
+			DMLScript.PROFILER = false;
+			InstructionProfiler.reset();
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.jmlc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.api.DMLException;
+import org.tugraz.sysds.api.jmlc.Connection;
+import org.tugraz.sysds.api.jmlc.PreparedScript;
+import org.tugraz.sysds.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestUtils;
+
+public class JMLCReentrantPreparedScriptTest extends AutomatedTestBase
+{
+	//basic script with parfor loop
+	private static final String SCRIPT1 =
+		  "X = matrix(7, 10, 10);"
+		+ "R = matrix(0, 10, 1)"
+		+ "parfor(i in 1:nrow(X))"
+		+ "  R[i,] = sum(X[i,])"
+		+ "out = sum(R)"
+		+ "write(out, 'tmp/out')";
+
+	//scoring script with reused model and per-call inputs
+	private static final String SCRIPT2 =
+		  "X = read('./tmp/X', rows=-1, cols=-1);"
+		+ "W = read('./tmp/W', rows=-1, cols=-1);"
+		+ "s = read('./tmp/s', data_type='scalar', value_type='double');"
+		+ "out = s * sum(X %*% W);"
+		+ "write(out, './tmp/out');";
+
+	private static final int rows = 20;
+	private static final int cols = 30;
+
+	@Override
+	public void setUp() {
+		//do nothing
+	}
+
+	@Test
+	public void testReentrantPreparedScript1T128() {
+		runJMLCReentrantTest(SCRIPT1, 128);
+	}
+
+	@Test
+	public void testReentrantPreparedScriptModel2T128() {
+		runJMLCReentrantTest(SCRIPT2, 128);
+	}
+
+	private static void runJMLCReentrantTest(String script, int num) {
+		int k = InfrastructureAnalyzer.getLocalParallelism();
+		boolean model = (script == SCRIPT2);
+		double[][] W = TestUtils.generateTestMatrix(cols, 1, -1, 1, 0.9, 7);
+
+		try( Connection conn = new Connection() ) {
+			PreparedScript pscript = model ?
+				conn.prepareScript(script, new String[]{"X","W","s"}, new String[]{"out"}) :
+				conn.prepareScript(script, new String[]{}, new String[]{"out"});
+			if( model )
+				pscript.setMatrix("W", W, true);
+
+			//concurrent invocations of a single prepared script
+			ExecutorService pool = Executors.newFixedThreadPool(k);
+			ArrayList<JMLCTask> tasks = new ArrayList<>();
+			for(int i=0; i<num; i++)
+				tasks.add(new JMLCTask(pscript, model ? i : -1));
+			List<Future<Double>> taskrets = pool.invokeAll(tasks);
+			for(int i=0; i<num; i++)
+				Assert.assertEquals(model ? getExpected(i, W) : 700,
+					taskrets.get(i).get(), 1e-8);
+			pool.shutdown();
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	private static double getExpected(int seed, double[][] W) {
+		double[][] X = TestUtils.generateTestMatrix(rows, cols, -1, 1, 0.5, seed);
+		double ret = 0;
+		for(int i=0; i<rows; i++)
+			for(int j=0; j<cols; j++)
+				ret += X[i][j] * W[j][0];
+		return seed * ret;
+	}
+
+	private static class JMLCTask implements Callable<Double>
+	{
+		private final PreparedScript _pscript;
+		private final int _seed;
+
+		protected JMLCTask(PreparedScript pscript, int seed) {
+			_pscript = pscript;
+			_seed = seed;
+		}
+
+		@Override
+		public Double call() throws DMLException
+		{
+			if( _seed < 0 )
+				return _pscript.executeScript(Collections.emptyMap()).getDouble("out");
+
+			//per-call inputs, with shared read-only model
+			HashMap<String, Object> inputs = new HashMap<>();
+			inputs.put("X", TestUtils.generateTestMatrix(rows, cols, -1, 1, 0.5, _seed));
+			inputs.put("s", (double) _seed);
+			return _pscript.executeScript(inputs).getDouble("out");
+		}
+	}
+}
@@ -36,6 +36,7 @@ public class FullReuseTest extends AutomatedTestBase {
 	protected static final String TEST_NAME1 = "FullReuse1";
 	protected static final String TEST_NAME2 = "FullReuse2";
 	protected static final String TEST_NAME3 = "FullReuse3";
+	protected static final String TEST_NAME4 = "FullReuse4";
 	protected String TEST_CLASS_DIR = TEST_DIR + FullReuseTest.class.getSimpleName() + "/";
 	
 	@Override
@@ -44,6 +45,7 @@ public class FullReuseTest extends AutomatedTestBase {
 		addTestConfiguration(TEST_NAME1, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1));
 		addTestConfiguration(TEST_NAME2, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME2));
 		addTestConfiguration(TEST_NAME3, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME3));
+		addTestConfiguration(TEST_NAME4, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME4));
 	}
 	
 	@Test
@@ -60,6 +62,11 @@ public class FullReuseTest extends AutomatedTestBase {
 	public void testLineageTrace3() {
 		testLineageTrace(TEST_NAME3);
 	}
+
+	@Test
+	public void testLineageTraceParfor4() {
+		testLineageTrace(TEST_NAME4);
+	}
 	
 	public void testLineageTrace(String testname) {
 		boolean old_simplification = OptimizerUtils.ALLOW_ALGEBRAIC_SIMPLIFICATION;
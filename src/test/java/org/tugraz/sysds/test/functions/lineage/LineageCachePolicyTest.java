@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.lineage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.hops.recompile.Recompiler;
+import org.tugraz.sysds.runtime.lineage.Lineage;
+import org.tugraz.sysds.runtime.lineage.LineageCache;
+import org.tugraz.sysds.runtime.lineage.LineageCacheConfig;
+import org.tugraz.sysds.runtime.lineage.LineageCacheConfig.LineageCachePolicy;
+import org.tugraz.sysds.runtime.lineage.LineageCacheConfig.ReuseCacheType;
+import org.tugraz.sysds.runtime.lineage.LineageItem;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+
+public class LineageCachePolicyTest extends AutomatedTestBase {
+	
+	protected static final String TEST_DIR = "functions/lineage/";
+	protected static final String TEST_NAME1 = "FullReuse1";
+	protected static final String TEST_NAME3 = "FullReuse3";
+	protected String TEST_CLASS_DIR = TEST_DIR + LineageCachePolicyTest.class.getSimpleName() + "/";
+	private final static String TEST_CONF = "SystemDS-config-costnsize.xml";
+	private final static File   TEST_CONF_FILE = new File(SCRIPT_DIR + TEST_DIR, TEST_CONF);
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME1, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1));
+		addTestConfiguration(TEST_NAME3, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME3));
+	}
+	
+	@Test
+	public void testCostNSizeEviction1() {
+		testLineageCachePolicy(TEST_NAME1, false, false);
+	}
+	
+	@Test
+	public void testCostNSizeEviction3() {
+		testLineageCachePolicy(TEST_NAME3, false, false);
+	}
+	
+	@Test
+	public void testCostNSizeAsyncSpill1() {
+		testLineageCachePolicy(TEST_NAME1, true, false);
+	}
+	
+	@Test
+	public void testCostNSizeAsyncSpill3() {
+		testLineageCachePolicy(TEST_NAME3, true, false);
+	}
+	
+	@Test
+	public void testCostNSizeCompressedSpill1() {
+		testLineageCachePolicy(TEST_NAME1, true, true);
+	}
+	
+	@Test
+	public void testCostNSizeCompressedSpill3() {
+		testLineageCachePolicy(TEST_NAME3, true, true);
+	}
+	
+	@Test
+	public void testCostNSizeEvictionOrder() {
+		//lowest compute time per byte first
+		testEvictionOrder(LineageCachePolicy.COSTNSIZE, "B", "C");
+	}
+	
+	@Test
+	public void testLRUEvictionOrder() {
+		//least recently used first (hits touch the entries)
+		testEvictionOrder(LineageCachePolicy.LRU, "A", "B");
+	}
+	
+	private static void testEvictionOrder(LineageCachePolicy policy, String... expected) {
+		//entries of equal size with compute times of 50, 0, 20, 30, and 30ms
+		String[] names = new String[] {"A", "B", "C", "D", "E"};
+		double[] times = new double[] {0.05, 0, 0.02, 0.03, 0.03};
+		try {
+			Lineage.resetInternalState();
+			Lineage.setLinReuseFull();
+			LineageCacheConfig.setCachePolicy(policy);
+			LineageCacheConfig.setCacheBudget(0.001);
+			
+			//only three entries fit into the cache
+			int rows = (int) (LineageCacheConfig.getCacheLimit() / 3.5 / 8 / 100);
+			MatrixBlock mb = MatrixBlock.randOperations(rows, 100, 1.0, 0, 1, "uniform", 7);
+			
+			List<String> evicted = new ArrayList<>();
+			for( int i=0; i<names.length; i++ ) {
+				LineageItem li = new LineageItem(names[i], names[i]);
+				Assert.assertNull(LineageCache.reuse(li)); //creates placeholder
+				LineageCache.putValue(li, mb, times[i]);
+				
+				//collect the newly evicted entries
+				for( int j=0; j<=i; j++ )
+					if( !evicted.contains(names[j]) && !isCached(names[j]) )
+						evicted.add(names[j]);
+			}
+			Assert.assertEquals(Arrays.asList(expected), evicted);
+		}
+		finally {
+			Lineage.setLinReuseNone();
+			LineageCacheConfig.setCachePolicy(LineageCachePolicy.LRU);
+			LineageCacheConfig.setCacheBudget(0.05);
+			LineageCache.resetCache();
+		}
+	}
+	
+	private static boolean isCached(String name) {
+		LineageItem li = new LineageItem(name, name);
+		boolean ret = LineageCache.reuse(li) != null;
+		if( !ret ) //remove placeholder of miss
+			LineageCache.removeEntry(li);
+		return ret;
+	}
+	
+	public void testLineageCachePolicy(String testname, boolean spill, boolean compress) {
+		boolean old_simplification = OptimizerUtils.ALLOW_ALGEBRAIC_SIMPLIFICATION;
+		boolean old_sum_product = OptimizerUtils.ALLOW_SUM_PRODUCT_REWRITES;
+		
+		try {
+			System.out.println("------------ BEGIN " + testname + "------------");
+			
+			OptimizerUtils.ALLOW_ALGEBRAIC_SIMPLIFICATION = false;
+			OptimizerUtils.ALLOW_SUM_PRODUCT_REWRITES = false;
+			
+			getAndLoadTestConfiguration(testname);
+			fullDMLScriptName = getScript();
+			
+			// Without lineage-based reuse enabled
+			List<String> proArgs = new ArrayList<>();
+			proArgs.add("-stats");
+			proArgs.add("-lineage");
+			proArgs.add("-args");
+			proArgs.add(output("X"));
+			programArgs = proArgs.toArray(new String[proArgs.size()]);
+			
+			Lineage.resetInternalState();
+			runTest(true, EXCEPTION_NOT_EXPECTED, null, -1);
+			HashMap<MatrixValue.CellIndex, Double> X_orig = readDMLMatrixFromHDFS("X");
+			
+			// With lineage-based reuse and cost/size-aware eviction enabled
+			proArgs.clear();
+			proArgs.add("-stats");
+			proArgs.add("-lineage");
+			proArgs.add(ReuseCacheType.REUSE_FULL.name().toLowerCase());
+			proArgs.add("-args");
+			proArgs.add(output("X"));
+			programArgs = proArgs.toArray(new String[proArgs.size()]);
+			
+			Lineage.resetInternalState();
+			Lineage.setLinReuseFull();
+			LineageCacheConfig.setSpill(spill);
+			LineageCacheConfig.setSpillCompression(compress);
+			runTest(true, EXCEPTION_NOT_EXPECTED, null, -1);
+			HashMap<MatrixValue.CellIndex, Double> X_reused = readDMLMatrixFromHDFS("X");
+			Lineage.setLinReuseNone();
+			
+			TestUtils.compareMatrices(X_orig, X_reused, 1e-6, "Origin", "Reused");
+		}
+		finally {
+			OptimizerUtils.ALLOW_ALGEBRAIC_SIMPLIFICATION = old_simplification;
+			OptimizerUtils.ALLOW_SUM_PRODUCT_REWRITES = old_sum_product;
+			LineageCacheConfig.setCachePolicy(LineageCachePolicy.LRU);
+			LineageCacheConfig.setCacheBudget(0.05);
+			LineageCacheConfig.setSpill(false);
+			LineageCacheConfig.setSpillCompression(false);
+			Recompiler.reinitRecompiler();
+		}
+	}
+	
+	/**
+	 * Override default configuration with custom test configuration to ensure
+	 * scratch space and local temporary directory locations are also updated.
+	 */
+	@Override
+	protected File getConfigTemplateFile() {
+		// Instrumentation in this test's output log to show custom configuration file used for template.
+		System.out.println("This test case overrides default configuration with " + TEST_CONF_FILE.getPath());
+		return TEST_CONF_FILE;
+	}
+}
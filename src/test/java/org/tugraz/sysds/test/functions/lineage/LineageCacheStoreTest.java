@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.lineage;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.hops.OptimizerUtils;
+import org.tugraz.sysds.lops.Lop;
+import org.tugraz.sysds.runtime.instructions.Instruction;
+import org.tugraz.sysds.runtime.lineage.Lineage;
+import org.tugraz.sysds.runtime.lineage.LineageCacheConfig;
+import org.tugraz.sysds.runtime.lineage.LineageCacheStatistics;
+import org.tugraz.sysds.runtime.lineage.LineageCacheStore;
+import org.tugraz.sysds.runtime.lineage.LineageItem;
+import org.tugraz.sysds.runtime.lineage.LineageParser;
+import org.tugraz.sysds.runtime.matrix.data.MatrixBlock;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue;
+import org.tugraz.sysds.runtime.util.LocalFileUtils;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+
+public class LineageCacheStoreTest extends AutomatedTestBase {
+	
+	protected static final String TEST_DIR = "functions/lineage/";
+	protected static final String TEST_NAME1 = "FullReusePerf1";
+	protected String TEST_CLASS_DIR = TEST_DIR + LineageCacheStoreTest.class.getSimpleName() + "/";
+	private final static String TEST_CONF = "SystemDS-config-store.xml";
+	private final static File   TEST_CONF_FILE = new File(SCRIPT_DIR + TEST_DIR, TEST_CONF);
+	private final static String STORE_DIR = "target/testTemp/functions/lineage/LineageCacheStoreTest/store";
+	
+	private final static String VT = Instruction.VALUETYPE_PREFIX;
+	private final static String OD = Lop.OPERAND_DELIMITOR;
+	
+	protected static final int numRecords = 100;
+	protected static final int numFeatures = 20;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME1, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1));
+	}
+	
+	@Test
+	public void testReuseAcrossRuns() {
+		boolean old_simplification = OptimizerUtils.ALLOW_ALGEBRAIC_SIMPLIFICATION;
+		boolean old_sum_product = OptimizerUtils.ALLOW_SUM_PRODUCT_REWRITES;
+		
+		try {
+			OptimizerUtils.ALLOW_ALGEBRAIC_SIMPLIFICATION = false;
+			OptimizerUtils.ALLOW_SUM_PRODUCT_REWRITES = false;
+			LocalFileUtils.deleteFileIfExists(STORE_DIR);
+			
+			getAndLoadTestConfiguration(TEST_NAME1);
+			fullDMLScriptName = getScript();
+			
+			List<String> proArgs = new ArrayList<>();
+			proArgs.add("-stats");
+			proArgs.add("-lineage");
+			proArgs.add("reuse_full");
+			proArgs.add("-args");
+			proArgs.add(input("X"));
+			proArgs.add(output("X"));
+			programArgs = proArgs.toArray(new String[proArgs.size()]);
+			
+			double[][] X = getRandomMatrix(numRecords, numFeatures, 0, 1, 0.8, 7);
+			writeInputMatrixWithMTD("X", X, true);
+			
+			// First run, populates the persistent store
+			Lineage.resetInternalState();
+			Lineage.setLinReuseFull();
+			runTest(true, EXCEPTION_NOT_EXPECTED, null, -1);
+			HashMap<MatrixValue.CellIndex, Double> X_orig = readDMLMatrixFromHDFS("X");
+			String[] entries = new File(STORE_DIR).list();
+			Assert.assertTrue(entries != null && entries.length > 0);
+			
+			// Second run with empty in-memory cache, reuses the persistent store
+			Lineage.resetInternalState();
+			runTest(true, EXCEPTION_NOT_EXPECTED, null, -1);
+			HashMap<MatrixValue.CellIndex, Double> X_reused = readDMLMatrixFromHDFS("X");
+			Lineage.setLinReuseNone();
+			
+			Assert.assertTrue(LineageCacheStatistics.getStoreHits() > 0);
+			TestUtils.compareMatrices(X_orig, X_reused, 1e-6, "Origin", "Reused");
+		}
+		finally {
+			OptimizerUtils.ALLOW_ALGEBRAIC_SIMPLIFICATION = old_simplification;
+			OptimizerUtils.ALLOW_SUM_PRODUCT_REWRITES = old_sum_product;
+			LineageCacheConfig.setStore(null);
+			LocalFileUtils.deleteFileIfExists(STORE_DIR);
+		}
+	}
+	
+	@Test
+	public void testDigestRunIndependent() {
+		//same lineage with different item IDs and variable names
+		String lit = "2" + VT + "SCALAR" + VT + "INT64" + VT + "true";
+		String trace1 = "(1) (L) " + lit + "\n(2) (I) * (1) (1)";
+		String trace2 = "(7) (L) " + lit + "\n(9) (I) * (7) (7)";
+		LineageItem li1 = LineageParser.parseLineageTrace(trace1);
+		LineageItem li2 = LineageParser.parseLineageTrace(trace2);
+		String d1 = LineageCacheStore.getDigest(li1);
+		Assert.assertNotNull(d1);
+		Assert.assertEquals(d1, LineageCacheStore.getDigest(li2));
+		
+		//variables without lineage trace are not persistable
+		LineageItem li3 = new LineageItem("X", "X" + VT + "MATRIX" + VT + "FP64" + VT + "false");
+		Assert.assertNull(LineageCacheStore.getDigest(li3));
+	}
+	
+	@Test
+	public void testDigestFileOperand() throws Exception {
+		//variable names that are part of file names
+		LocalFileUtils.createLocalFileIfNotExist(STORE_DIR);
+		File f1 = new File(STORE_DIR, "in_pREADX");
+		File f2 = new File(STORE_DIR, "in_pREADY");
+		try {
+			Assert.assertTrue(f1.createNewFile() && f2.createNewFile());
+			String d1 = LineageCacheStore.getDigest(createRead("pREADX", f1));
+			Assert.assertNotNull(d1);
+			Assert.assertEquals(d1, LineageCacheStore.getDigest(createRead("pREADY", f1)));
+			Assert.assertNotEquals(d1, LineageCacheStore.getDigest(createRead("pREADY", f2)));
+		}
+		finally {
+			LocalFileUtils.deleteFileIfExists(STORE_DIR);
+		}
+	}
+	
+	@Test
+	public void testStoreEviction() {
+		MatrixBlock mb = MatrixBlock.randOperations(10, 10, 1.0, 0, 1, "uniform", 7);
+		long limit = (long) (2.5 * mb.getExactSizeOnDisk());
+		try {
+			LineageCacheStore store = new LineageCacheStore(STORE_DIR, limit);
+			LineageItem[] keys = new LineageItem[5];
+			for( int i=0; i<keys.length; i++ ) {
+				keys[i] = LineageParser.parseLineageTrace("(1) (L) "
+					+ i + VT + "SCALAR" + VT + "INT64" + VT + "true\n(2) (I) * (1) (1)");
+				Assert.assertTrue(store.write(keys[i], mb, false));
+				Assert.assertTrue(store.getSize() <= limit);
+			}
+			Assert.assertEquals(2, store.getNumEntries());
+			Assert.assertNotNull(store.read(keys[keys.length-1]));
+			
+			//reopen with smaller limit
+			store = new LineageCacheStore(STORE_DIR, limit/2);
+			Assert.assertEquals(1, store.getNumEntries());
+			Assert.assertEquals(1, new File(STORE_DIR).list().length);
+		}
+		finally {
+			LocalFileUtils.deleteFileIfExists(STORE_DIR);
+		}
+	}
+	
+	private static LineageItem createRead(String name, File file) {
+		String data = "CP" + OD + "createvar" + OD + name + OD + file.getPath()
+			+ OD + "false" + OD + "MATRIX" + OD + "text";
+		return new LineageItem(name, data, "createvar");
+	}
+	
+	/**
+	 * Override default configuration with custom test configuration to ensure
+	 * scratch space and local temporary directory locations are also updated.
+	 */
+	@Override
+	protected File getConfigTemplateFile() {
+		// Instrumentation in this test's output log to show custom configuration file used for template.
+		System.out.println("This test case overrides default configuration with " + TEST_CONF_FILE.getPath());
+		return TEST_CONF_FILE;
+	}
+}
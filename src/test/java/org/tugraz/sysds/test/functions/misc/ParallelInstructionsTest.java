@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.misc;
+
+import java.io.File;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue.CellIndex;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+import org.tugraz.sysds.utils.Statistics;
+
+public class ParallelInstructionsTest extends AutomatedTestBase
+{
+	private static final String TEST_NAME = "ParallelInstructions";
+	private static final String TEST_DIR = "functions/misc/";
+	private static final String TEST_CLASS_DIR = TEST_DIR + ParallelInstructionsTest.class.getSimpleName() + "/";
+	private static final File TEST_CONF_FILE = new File(SCRIPT_DIR + TEST_DIR, "SystemDS-config-parinst.xml");
+
+	private boolean _parallel = false;
+
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] { "R" }));
+	}
+
+	@Test
+	public void testParallelInstructionsDense() {
+		runParallelInstructionsTest(0.9);
+	}
+
+	@Test
+	public void testParallelInstructionsSparse() {
+		runParallelInstructionsTest(0.05);
+	}
+
+	private void runParallelInstructionsTest(double sparsity) {
+		TestConfiguration config = getTestConfiguration(TEST_NAME);
+		loadTestConfiguration(config);
+
+		String HOME = SCRIPT_DIR + TEST_DIR;
+		fullDMLScriptName = HOME + TEST_NAME + ".dml";
+		programArgs = new String[]{"-stats", "-args", input("X"), input("Y"), output("R")};
+
+		writeInputMatrixWithMTD("X", getRandomMatrix(1234, 37, -1, 1, sparsity, 7), true);
+		writeInputMatrixWithMTD("Y", getRandomMatrix(1234, 11, -1, 1, sparsity, 3), true);
+
+		try {
+			//sequential reference
+			_parallel = false;
+			runTest(true, false, null, -1);
+			HashMap<CellIndex, Double> ret1 = readDMLMatrixFromHDFS("R");
+
+			//inter-operator parallelism (w/ custom config)
+			_parallel = true;
+			loadTestConfiguration(config);
+			runTest(true, false, null, -1);
+			HashMap<CellIndex, Double> ret2 = readDMLMatrixFromHDFS("R");
+
+			TestUtils.compareMatrices(ret1, ret2, 1e-10, "Sequential", "Parallel");
+			if( InfrastructureAnalyzer.getLocalParallelism() > 1 )
+				Assert.assertTrue(Statistics.getParallelInstSB() > 0);
+		}
+		finally {
+			_parallel = false;
+		}
+	}
+
+	@Override
+	protected File getConfigTemplateFile() {
+		return _parallel ? TEST_CONF_FILE : super.getConfigTemplateFile();
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.tugraz.sysds.test.functions.parfor;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue.CellIndex;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+import org.tugraz.sysds.utils.Statistics;
+
+public class ParForWorkStealingTest extends AutomatedTestBase 
+{
+	private final static String TEST_DIR = "functions/parfor/";
+	private final static String TEST_NAME1 = "parfor_worksteal1"; //rule-based optimizer
+	private final static String TEST_NAME2 = "parfor_worksteal2"; //constrained optimizer, par=4
+	private final static String TEST_CLASS_DIR = TEST_DIR + ParForWorkStealingTest.class.getSimpleName() + "/";
+	
+	private final static double eps = 1e-10;
+	private final static int rows = 400;
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_NAME1, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1, new String[] { "R" }) );
+		addTestConfiguration(TEST_NAME2, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME2, new String[] { "R" }) );
+	}
+
+	@Test
+	public void testParForWorkStealingRuleBased() {
+		runParForWorkStealingTest(TEST_NAME1, InfrastructureAnalyzer.getLocalParallelism());
+	}
+	
+	@Test
+	public void testParForWorkStealingConstrained() {
+		runParForWorkStealingTest(TEST_NAME2, 4);
+	}
+	
+	private void runParForWorkStealingTest( String testname, int k )
+	{
+		TestConfiguration config = getTestConfiguration(testname);
+		loadTestConfiguration(config);
+		
+		String HOME = SCRIPT_DIR + TEST_DIR;
+		fullDMLScriptName = HOME + testname + ".dml";
+		programArgs = new String[]{"-stats", "-args", 
+			String.valueOf(rows), output("R") };
+		
+		runTest(true, false, null, -1);
+		
+		//compare matrices
+		HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("R");
+		HashMap<CellIndex, Double> expected = new HashMap<>();
+		for( int i=1; i<=rows; i++ ) {
+			int m = (i > 3*rows/4) ? 200 : 1;
+			expected.put(new CellIndex(i, 1), (double)i * m * (m+1) / 2);
+		}
+		TestUtils.compareMatrices(dmlfile, expected, eps, "DML", "Expected");
+		
+		//check parfor statistics (workers of cheap ranges steal from the 
+		//expensive last range, which is only possible w/ work stealing)
+		Assert.assertTrue("Missing parfor worker idle time.",
+			Statistics.getParforIdleTime() > 0);
+		if( k > 1 )
+			Assert.assertTrue("Missing parfor steals.",
+				Statistics.getParforSteals() > 0);
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.recompile;
+
+import java.io.File;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue.CellIndex;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+import org.tugraz.sysds.utils.Statistics;
+
+public class RecompileCacheTest extends AutomatedTestBase
+{
+	private static final String TEST_NAME = "RecompileCache";
+	private static final String TEST_DIR = "functions/recompile/";
+	private static final String TEST_CLASS_DIR = TEST_DIR + RecompileCacheTest.class.getSimpleName() + "/";
+	private static final File TEST_CONF_FILE = new File(SCRIPT_DIR + TEST_DIR, "SystemDS-config-norecompilecache.xml");
+
+	private static final int rows = 1052;
+	private static final int cols = 23;
+	private static final int iters = 10;
+
+	private boolean _nocache = false;
+
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] { "R" }));
+	}
+
+	@Test
+	public void testRecompileCacheDense() {
+		runRecompileCacheTest(0.9);
+	}
+
+	@Test
+	public void testRecompileCacheSparse() {
+		runRecompileCacheTest(0.05);
+	}
+
+	private void runRecompileCacheTest(double sparsity) {
+		TestConfiguration config = getTestConfiguration(TEST_NAME);
+		loadTestConfiguration(config);
+
+		String HOME = SCRIPT_DIR + TEST_DIR;
+		fullDMLScriptName = HOME + TEST_NAME + ".dml";
+		programArgs = new String[]{"-stats", "-args", input("X"), String.valueOf(iters), output("R")};
+
+		writeInputMatrixWithMTD("X", getRandomMatrix(rows, cols, -1, 1, sparsity, 7), true);
+
+		try {
+			//reference w/o cached recompilation plans (w/ custom config)
+			_nocache = true;
+			loadTestConfiguration(config);
+			runTest(true, false, null, -1);
+			HashMap<CellIndex, Double> ret1 = readDMLMatrixFromHDFS("R");
+			Assert.assertEquals(0, Statistics.getHopRecompileCacheHits());
+
+			//reuse of cached plans for the two alternating sizes
+			_nocache = false;
+			loadTestConfiguration(config);
+			runTest(true, false, null, -1);
+			HashMap<CellIndex, Double> ret2 = readDMLMatrixFromHDFS("R");
+
+			TestUtils.compareMatrices(ret1, ret2, 1e-10, "NoCache", "Cache");
+			Assert.assertTrue(Statistics.getHopRecompileCacheHits() >= iters - 2);
+		}
+		finally {
+			_nocache = false;
+		}
+	}
+
+	@Override
+	protected File getConfigTemplateFile() {
+		return _nocache ? TEST_CONF_FILE : super.getConfigTemplateFile();
+	}
+}
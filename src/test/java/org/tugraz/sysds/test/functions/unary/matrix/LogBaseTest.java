@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Graz University of Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.tugraz.sysds.test.functions.unary.matrix;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tugraz.sysds.common.Types.ExecMode;
+import org.tugraz.sysds.runtime.matrix.data.MatrixValue.CellIndex;
+import org.tugraz.sysds.test.AutomatedTestBase;
+import org.tugraz.sysds.test.TestConfiguration;
+import org.tugraz.sysds.test.TestUtils;
+import org.tugraz.sysds.utils.Statistics;
+
+public class LogBaseTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "LogBase";
+	private final static String TEST_DIR = "functions/unary/matrix/";
+	private static final String TEST_CLASS_DIR = TEST_DIR + LogBaseTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 1108;
+	private final static int cols = 1001;
+	private final static double eps = 1e-10;
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[]{"B","y"}));
+	}
+
+	@Test
+	public void testLogBase10SingleNode() {
+		runLogBaseTest(10, ExecMode.SINGLE_NODE);
+	}
+	
+	@Test
+	public void testLogBase2SingleNode() {
+		runLogBaseTest(2, ExecMode.SINGLE_NODE);
+	}
+	
+	@Test
+	public void testLogBase10Hybrid() {
+		runLogBaseTest(10, ExecMode.HYBRID);
+	}
+	
+	private void runLogBaseTest(int base, ExecMode mode) {
+		ExecMode platformOld = rtplatform;
+		rtplatform = mode;
+		try {
+			loadTestConfiguration(getTestConfiguration(TEST_NAME));
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{"-stats", "-args", input("A"),
+				String.valueOf(base), output("B"), output("y")};
+			
+			//positive inputs of matrix and scalar log
+			double[][] A = getRandomMatrix(rows, cols, 1, 100, 1.0, 7);
+			writeInputMatrixWithMTD("A", A, false);
+			
+			runTest(true, false, null, -1);
+			
+			//compare matrix and scalar results
+			double[][] B = new double[rows][cols];
+			for( int i=0; i<rows; i++ )
+				for( int j=0; j<cols; j++ )
+					B[i][j] = Math.log(A[i][j]) / Math.log(base);
+			HashMap<CellIndex, Double> dmlB = readDMLMatrixFromHDFS("B");
+			TestUtils.compareMatrices(dmlB, TestUtils.convert2DDoubleArrayToHashMap(B), eps, "Stat-DML", "Expected");
+			HashMap<CellIndex, Double> dmlY = readDMLMatrixFromHDFS("y");
+			Assert.assertEquals(B[0][0], dmlY.get(new CellIndex(1,1)), eps);
+			Assert.assertTrue(Statistics.getCPHeavyHitterOpCodes().contains("log"));
+		}
+		finally {
+			rtplatform = platformOld;
+		}
+	}
+}